@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.security.acls;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
@@ -25,7 +26,8 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.core.log.LogMessage;
-import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.access.BatchPermissionEvaluator;
+import org.springframework.security.acls.domain.AclPermissionUtils;
 import org.springframework.security.acls.domain.DefaultPermissionFactory;
 import org.springframework.security.acls.domain.ObjectIdentityRetrievalStrategyImpl;
 import org.springframework.security.acls.domain.PermissionFactory;
@@ -45,11 +47,15 @@ import org.springframework.security.core.Authentication;
  * Used by Spring Security's expression-based access control implementation to evaluate
  * permissions for a particular object using the ACL module. Similar in behaviour to
  * {@link org.springframework.security.acls.AclEntryVoter AclEntryVoter}.
+ * <p>
+ * The ACLs of many domain objects are checked with
+ * {@link #hasPermissions(Authentication, List, Object)}, which reads them with a single
+ * call to {@link AclService#readExistingAclsById(List, List)}.
  *
  * @author Luke Taylor
  * @since 3.0
  */
-public class AclPermissionEvaluator implements PermissionEvaluator {
+public class AclPermissionEvaluator implements BatchPermissionEvaluator {
 
 	private final Log logger = LogFactory.getLog(getClass());
 
@@ -88,6 +94,27 @@ public class AclPermissionEvaluator implements PermissionEvaluator {
 		return checkPermission(authentication, objectIdentity, permission);
 	}
 
+	/**
+	 * Determines whether the user has the given permission(s) on each of the domain
+	 * objects. The ACLs of all the domain objects are read at once. A domain object which
+	 * is null or has no ACL is denied.
+	 * @since 5.6
+	 * @see AclPermissionUtils#isGranted(AclService, List, List, List)
+	 */
+	@Override
+	public boolean[] hasPermissions(Authentication authentication, List<?> domainObjects, Object permission) {
+		List<ObjectIdentity> oids = new ArrayList<>(domainObjects.size());
+		for (Object domainObject : domainObjects) {
+			oids.add((domainObject != null) ? this.objectIdentityRetrievalStrategy.getObjectIdentity(domainObject)
+					: null);
+		}
+		List<Sid> sids = this.sidRetrievalStrategy.getSids(authentication);
+		List<Permission> requiredPermission = resolvePermission(permission);
+		this.logger.debug(LogMessage.of(() -> "Checking permission '" + permission + "' for " + oids.size()
+				+ " objects"));
+		return AclPermissionUtils.isGranted(this.aclService, oids, requiredPermission, sids);
+	}
+
 	private boolean checkPermission(Authentication authentication, ObjectIdentity oid, Object permission) {
 		// Obtain the SIDs applicable to the principal
 		List<Sid> sids = this.sidRetrievalStrategy.getSids(authentication);
@@ -16,10 +16,12 @@
 
 package org.springframework.security.acls.afterinvocation;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.security.access.AfterInvocationProvider;
 import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.acls.domain.AclPermissionUtils;
 import org.springframework.security.acls.domain.ObjectIdentityRetrievalStrategyImpl;
 import org.springframework.security.acls.domain.SidRetrievalStrategyImpl;
 import org.springframework.security.acls.model.Acl;
@@ -85,6 +87,28 @@ public abstract class AbstractAclProvider implements AfterInvocationProvider {
 		}
 	}
 
+	/**
+	 * Determines whether the principal is granted the required permissions on each of the
+	 * domain objects, which must not be {@code null}. The ACLs of all the domain objects
+	 * are read at once. A domain object which has no ACL is denied.
+	 * @param authentication the principal
+	 * @param domainObjects the domain objects
+	 * @return the result for each domain object, in the same order as the domain objects
+	 * @since 5.6
+	 * @see AclPermissionUtils#isGranted(AclService, List, List, List)
+	 */
+	protected boolean[] hasPermissions(Authentication authentication, List<?> domainObjects) {
+		if (domainObjects.isEmpty()) {
+			return new boolean[0];
+		}
+		List<ObjectIdentity> oids = new ArrayList<>(domainObjects.size());
+		for (Object domainObject : domainObjects) {
+			oids.add(this.objectIdentityRetrievalStrategy.getObjectIdentity(domainObject));
+		}
+		List<Sid> sids = this.sidRetrievalStrategy.getSids(authentication);
+		return AclPermissionUtils.isGranted(this.aclService, oids, this.requirePermission, sids);
+	}
+
 	public void setObjectIdentityRetrievalStrategy(ObjectIdentityRetrievalStrategy objectIdentityRetrievalStrategy) {
 		Assert.notNull(objectIdentityRetrievalStrategy, "ObjectIdentityRetrievalStrategy required");
 		this.objectIdentityRetrievalStrategy = objectIdentityRetrievalStrategy;
@@ -16,6 +16,7 @@
 
 package org.springframework.security.acls.afterinvocation;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -47,7 +48,10 @@ import org.springframework.security.core.Authentication;
  * Acl.isGranted()} when presenting the {@link #requirePermission} array to that method.
  * <p>
  * If the principal does not have permission, that element will not be included in the
- * returned <code>Collection</code>.
+ * returned <code>Collection</code>. The ACLs of all the elements are read with a single
+ * call to {@link AclService#readExistingAclsById(List, List)}, which falls back to
+ * reading each element on its own for an <code>AclService</code> that does not override
+ * it. An element without an ACL is not included.
  * <p>
  * Often users will setup a <code>BasicAclEntryAfterInvocationProvider</code> with a
  * {@link #processConfigAttribute} of <code>AFTER_ACL_COLLECTION_READ</code> and a
@@ -89,14 +93,19 @@ public class AclEntryAfterInvocationCollectionFilteringProvider extends Abstract
 			// Need to process the Collection for this invocation
 			Filterer filterer = getFilterer(returnedObject);
 
-			// Locate unauthorised Collection elements
+			// Locate the Collection elements to check, ignoring nulls and entries which
+			// aren't instances of the configured domain object class
+			List<Object> domainObjects = new ArrayList<>();
 			for (Object domainObject : filterer) {
-				// Ignore nulls or entries which aren't instances of the configured domain
-				// object class
-				if (domainObject == null || !getProcessDomainObjectClass().isAssignableFrom(domainObject.getClass())) {
-					continue;
+				if (domainObject != null && getProcessDomainObjectClass().isAssignableFrom(domainObject.getClass())) {
+					domainObjects.add(domainObject);
 				}
-				if (!hasPermission(authentication, domainObject)) {
+			}
+			// Locate unauthorised Collection elements
+			boolean[] granted = hasPermissions(authentication, domainObjects);
+			for (int i = 0; i < granted.length; i++) {
+				Object domainObject = domainObjects.get(i);
+				if (!granted[i]) {
 					filterer.remove(domainObject);
 					logger.debug(LogMessage.of(() -> "Principal is NOT authorised for element: " + domainObject));
 				}
@@ -275,6 +275,38 @@ public class AclImpl implements Acl, MutableAcl, AuditableAcl, OwnershipAcl {
 		}
 	}
 
+	/**
+	 * Creates a copy of this ACL, with copies of its ACEs and of its parents that are
+	 * {@code AclImpl}s, so that modifying the copy does not modify this ACL.
+	 * @return the copy
+	 */
+	AclImpl copy() {
+		AclImpl copy = new AclImpl();
+		copy.objectIdentity = this.objectIdentity;
+		copy.id = this.id;
+		copy.aclAuthorizationStrategy = this.aclAuthorizationStrategy;
+		copy.permissionGrantingStrategy = this.permissionGrantingStrategy;
+		copy.parentAcl = (this.parentAcl instanceof AclImpl) ? ((AclImpl) this.parentAcl).copy() : this.parentAcl;
+		copy.owner = this.owner;
+		copy.loadedSids = this.loadedSids;
+		copy.entriesInheriting = this.entriesInheriting;
+		synchronized (this.aces) {
+			for (AccessControlEntry ace : this.aces) {
+				copy.aces.add(copyAce(ace, copy));
+			}
+		}
+		return copy;
+	}
+
+	private static AccessControlEntry copyAce(AccessControlEntry ace, Acl acl) {
+		if (!(ace instanceof AccessControlEntryImpl)) {
+			return ace;
+		}
+		AccessControlEntryImpl entry = (AccessControlEntryImpl) ace;
+		return new AccessControlEntryImpl(entry.getId(), acl, entry.getSid(), entry.getPermission(),
+				entry.isGranting(), entry.isAuditSuccess(), entry.isAuditFailure());
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (obj == this) {
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.acls.domain;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.security.acls.model.Acl;
+import org.springframework.security.acls.model.AclService;
+import org.springframework.security.acls.model.NotFoundException;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.model.Permission;
+import org.springframework.security.acls.model.Sid;
+
+/**
+ * Utility methods for checking the permissions of many domain objects at once.
+ *
+ * @since 5.6
+ */
+public final class AclPermissionUtils {
+
+	private AclPermissionUtils() {
+	}
+
+	/**
+	 * Determines whether the security identities are granted any of the permissions on
+	 * each of the object identities. The ACLs of all the object identities are read with
+	 * a single call to {@link AclService#readExistingAclsById(List, List)}. An object
+	 * identity which is {@code null} or has no ACL is denied.
+	 * @param aclService the service to read the ACLs from
+	 * @param objectIdentities the object identities, which may contain {@code null}
+	 * @param permission the permissions to check
+	 * @param sids the security identities of the principal
+	 * @return the result for each object identity, in the same order as the object
+	 * identities
+	 */
+	public static boolean[] isGranted(AclService aclService, List<ObjectIdentity> objectIdentities,
+			List<Permission> permission, List<Sid> sids) {
+		boolean[] granted = new boolean[objectIdentities.size()];
+		Set<ObjectIdentity> distinctOids = new LinkedHashSet<>(objectIdentities);
+		distinctOids.remove(null);
+		if (distinctOids.isEmpty()) {
+			return granted;
+		}
+		Map<ObjectIdentity, Acl> acls = aclService.readExistingAclsById(new ArrayList<>(distinctOids), sids);
+		for (int i = 0; i < granted.length; i++) {
+			ObjectIdentity oid = objectIdentities.get(i);
+			Acl acl = (oid != null) ? acls.get(oid) : null;
+			granted[i] = (acl != null) && isGranted(acl, permission, sids);
+		}
+		return granted;
+	}
+
+	private static boolean isGranted(Acl acl, List<Permission> permission, List<Sid> sids) {
+		try {
+			return acl.isGranted(permission, sids, false);
+		}
+		catch (NotFoundException ex) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.acls.domain;
+
+import java.io.Serializable;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.security.acls.model.AclCache;
+import org.springframework.security.acls.model.MutableAcl;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link AclCache} which keeps the {@link MutableAcl} instances on the heap, so that
+ * they are returned without being serialized and without their transient fields being
+ * set again.
+ * <p>
+ * An {@link AclImpl} is copied when it is cached and each time it is returned, together
+ * with its ACEs and its parents, so that a caller which modifies the returned ACL, such
+ * as before passing it to
+ * {@link org.springframework.security.acls.model.MutableAclService#updateAcl(MutableAcl)},
+ * affects neither the cache nor the other callers. Any other {@link MutableAcl} is
+ * returned as it was cached, and therefore must not be modified once cached.
+ * <p>
+ * Each {@link MutableAcl} is cached once, and can be found both by its
+ * {@link ObjectIdentity} and by its primary key. Reads do not take a lock. When the cache
+ * holds more than its maximum size, the ACLs that were not read recently are evicted,
+ * approximating least recently used eviction with the CLOCK algorithm. ACLs can also
+ * expire some time after they were cached, see {@link #setTimeToLive(Duration)}.
+ * <p>
+ * The numbers of hits, misses and evictions are counted, so that the cache can be sized.
+ *
+ * @since 5.6
+ */
+public final class InMemoryAclCache implements AclCache {
+
+	private final Map<ObjectIdentity, Entry> entriesByObjectIdentity = new ConcurrentHashMap<>();
+
+	private final Map<Serializable, Entry> entriesById = new ConcurrentHashMap<>();
+
+	// the entries in the order that they are considered for eviction, guarded by itself
+	private final Deque<Entry> clock = new ArrayDeque<>();
+
+	private final int maximumSize;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	private Duration timeToLive;
+
+	private Clock timeSource = Clock.systemUTC();
+
+	/**
+	 * Creates a cache which holds at most the given number of ACLs.
+	 * @param maximumSize the maximum number of ACLs
+	 */
+	public InMemoryAclCache(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Sets how long an ACL stays in the cache after it was cached. By default, ACLs only
+	 * leave the cache when they are evicted.
+	 * @param timeToLive the time to live, or {@code null} for no expiration
+	 */
+	public void setTimeToLive(Duration timeToLive) {
+		Assert.isTrue(timeToLive == null || timeToLive.compareTo(Duration.ZERO) > 0,
+				"timeToLive must be positive");
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Sets the {@link Clock} which decides whether an ACL has expired. Default is
+	 * {@link Clock#systemUTC()}.
+	 * @param clock the {@link Clock} to use
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.timeSource = clock;
+	}
+
+	@Override
+	public MutableAcl getFromCache(ObjectIdentity objectIdentity) {
+		Assert.notNull(objectIdentity, "ObjectIdentity required");
+		return getAcl(this.entriesByObjectIdentity.get(objectIdentity));
+	}
+
+	@Override
+	public MutableAcl getFromCache(Serializable pk) {
+		Assert.notNull(pk, "Primary key (identifier) required");
+		return getAcl(this.entriesById.get(pk));
+	}
+
+	private MutableAcl getAcl(Entry entry) {
+		if (entry == null) {
+			this.missCount.increment();
+			return null;
+		}
+		if (entry.expiresAt != Long.MAX_VALUE && entry.expiresAt <= this.timeSource.millis()) {
+			synchronized (this.clock) {
+				if (remove(entry)) {
+					this.evictionCount.increment();
+				}
+			}
+			this.missCount.increment();
+			return null;
+		}
+		entry.accessed = true;
+		this.hitCount.increment();
+		return copy(entry.acl);
+	}
+
+	@Override
+	public void putInCache(MutableAcl acl) {
+		Assert.notNull(acl, "Acl required");
+		Assert.notNull(acl.getObjectIdentity(), "ObjectIdentity required");
+		Assert.notNull(acl.getId(), "ID required");
+		if ((acl.getParentAcl() != null) && (acl.getParentAcl() instanceof MutableAcl)) {
+			putInCache((MutableAcl) acl.getParentAcl());
+		}
+		long expiresAt = (this.timeToLive != null) ? this.timeSource.millis() + this.timeToLive.toMillis()
+				: Long.MAX_VALUE;
+		Entry entry = new Entry(copy(acl), expiresAt);
+		synchronized (this.clock) {
+			remove(this.entriesByObjectIdentity.get(entry.objectIdentity));
+			remove(this.entriesById.get(entry.id));
+			this.entriesByObjectIdentity.put(entry.objectIdentity, entry);
+			this.entriesById.put(entry.id, entry);
+			this.clock.addLast(entry);
+			evictIfNecessary();
+		}
+	}
+
+	private static MutableAcl copy(MutableAcl acl) {
+		return (acl instanceof AclImpl) ? ((AclImpl) acl).copy() : acl;
+	}
+
+	private void evictIfNecessary() {
+		while (this.entriesById.size() > this.maximumSize) {
+			Entry candidate = this.clock.pollFirst();
+			if (candidate.removed) {
+				continue;
+			}
+			if (candidate.accessed) {
+				// read since it was last considered, so give it another chance
+				candidate.accessed = false;
+				this.clock.addLast(candidate);
+				continue;
+			}
+			remove(candidate);
+			this.evictionCount.increment();
+		}
+		// entries which were removed otherwise are only dropped from the clock lazily
+		if (this.clock.size() > 2 * this.entriesById.size() + 16) {
+			this.clock.removeIf((entry) -> entry.removed);
+		}
+	}
+
+	@Override
+	public void evictFromCache(Serializable pk) {
+		Assert.notNull(pk, "Primary key (identifier) required");
+		synchronized (this.clock) {
+			remove(this.entriesById.get(pk));
+		}
+	}
+
+	@Override
+	public void evictFromCache(ObjectIdentity objectIdentity) {
+		Assert.notNull(objectIdentity, "ObjectIdentity required");
+		synchronized (this.clock) {
+			remove(this.entriesByObjectIdentity.get(objectIdentity));
+		}
+	}
+
+	// must be called while holding the lock of the clock
+	private boolean remove(Entry entry) {
+		if (entry == null || entry.removed) {
+			return false;
+		}
+		entry.removed = true;
+		this.entriesByObjectIdentity.remove(entry.objectIdentity, entry);
+		this.entriesById.remove(entry.id, entry);
+		return true;
+	}
+
+	@Override
+	public void clearCache() {
+		synchronized (this.clock) {
+			this.entriesByObjectIdentity.clear();
+			this.entriesById.clear();
+			for (Entry entry : this.clock) {
+				entry.removed = true;
+			}
+			this.clock.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of ACLs in the cache.
+	 * @return the number of ACLs
+	 */
+	public int getSize() {
+		return this.entriesById.size();
+	}
+
+	/**
+	 * Returns the number of reads which found an ACL.
+	 * @return the number of hits
+	 */
+	public long getHitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Returns the number of reads which did not find an ACL, including those which found
+	 * an expired ACL.
+	 * @return the number of misses
+	 */
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Returns the number of ACLs which left the cache because it was full or because they
+	 * expired. ACLs which were evicted explicitly are not counted.
+	 * @return the number of evictions
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.sum();
+	}
+
+	private static final class Entry {
+
+		private final MutableAcl acl;
+
+		private final ObjectIdentity objectIdentity;
+
+		private final Serializable id;
+
+		private final long expiresAt;
+
+		private volatile boolean accessed;
+
+		// guarded by the lock of the clock
+		private boolean removed;
+
+		private Entry(MutableAcl acl, long expiresAt) {
+			this.acl = acl;
+			this.objectIdentity = acl.getObjectIdentity();
+			this.id = acl.getId();
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
+}
@@ -140,6 +140,11 @@ public class JdbcAclService implements AclService {
 		return result;
 	}
 
+	@Override
+	public Map<ObjectIdentity, Acl> readExistingAclsById(List<ObjectIdentity> objects, List<Sid> sids) {
+		return this.lookupStrategy.readAclsById(objects, sids);
+	}
+
 	/**
 	 * Allows customization of the SQL query used to find child object identities.
 	 * @param findChildrenSql
@@ -16,6 +16,7 @@
 
 package org.springframework.security.acls.model;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -100,4 +101,37 @@ public interface AclService {
 	 */
 	Map<ObjectIdentity, Acl> readAclsById(List<ObjectIdentity> objects, List<Sid> sids) throws NotFoundException;
 
+	/**
+	 * Same as {@link #readAclsById(List, List)} except that the <tt>Acl</tt>s which were
+	 * not found are left out of the returned map, rather than causing a
+	 * {@link NotFoundException}.
+	 * <p>
+	 * The default implementation reads each object on its own if any of them was not
+	 * found. Implementations are encouraged to override it with a single lookup.
+	 * </p>
+	 * @param objects the objects to find {@link Acl} information for
+	 * @param sids the security identities for which {@link Acl} information is required
+	 * (may be <tt>null</tt> to denote all entries)
+	 * @return a map with one element for each {@link ObjectIdentity} passed as an
+	 * argument that has an {@link Acl} (never <tt>null</tt>)
+	 * @since 5.6
+	 */
+	default Map<ObjectIdentity, Acl> readExistingAclsById(List<ObjectIdentity> objects, List<Sid> sids) {
+		try {
+			return readAclsById(objects, sids);
+		}
+		catch (NotFoundException ex) {
+			Map<ObjectIdentity, Acl> result = new HashMap<>();
+			for (ObjectIdentity object : objects) {
+				try {
+					result.put(object, readAclById(object, sids));
+				}
+				catch (NotFoundException notFound) {
+					// left out of the result
+				}
+			}
+			return result;
+		}
+	}
+
 }
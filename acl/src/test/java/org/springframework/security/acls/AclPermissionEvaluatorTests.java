@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,16 +16,26 @@
 
 package org.springframework.security.acls;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import org.junit.Test;
 
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
 import org.springframework.security.acls.model.Acl;
 import org.springframework.security.acls.model.AclService;
 import org.springframework.security.acls.model.ObjectIdentity;
 import org.springframework.security.acls.model.ObjectIdentityRetrievalStrategy;
 import org.springframework.security.acls.model.SidRetrievalStrategy;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -33,6 +43,9 @@ import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author Luke Taylor
@@ -73,4 +86,61 @@ public class AclPermissionEvaluatorTests {
 		Locale.setDefault(systemLocale);
 	}
 
+	@Test
+	public void hasPermissionsWhenAclsFoundThenReadOnceAndEvaluatedInMemory() {
+		AclService service = mock(AclService.class);
+		AclPermissionEvaluator pe = evaluator(service);
+		Map<ObjectIdentity, Acl> acls = acls(true, false);
+		given(service.readExistingAclsById(anyList(), anyList())).willReturn(acls);
+		boolean[] granted = pe.hasPermissions(mock(Authentication.class), Arrays.asList("1", null, "2", "3"), "READ");
+		assertThat(granted).containsExactly(true, false, false, false);
+		verify(service).readExistingAclsById(eq(Arrays.asList(oid("1"), oid("2"), oid("3"))), anyList());
+		verify(service, never()).readAclById(any(ObjectIdentity.class), anyList());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void filterWhenHasPermissionOnFilterObjectThenAclsReadOnce() throws Exception {
+		AclService service = mock(AclService.class);
+		Map<ObjectIdentity, Acl> acls = acls(true, false);
+		given(service.readExistingAclsById(anyList(), anyList())).willReturn(acls);
+		DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+		handler.setPermissionEvaluator(evaluator(service));
+		Expression expression = handler.getExpressionParser().parseExpression("hasPermission(filterObject, 'read')");
+		EvaluationContext ctx = handler.createEvaluationContext(mock(Authentication.class),
+				new SimpleMethodInvocation(new Object(), Object.class.getMethod("toString")));
+		List<String> filtered = (List<String>) handler.filter(new ArrayList<>(Arrays.asList("1", "2", "3")),
+				expression, ctx);
+		assertThat(filtered).containsExactly("1");
+		verify(service, times(1)).readExistingAclsById(anyList(), any());
+		verify(service, never()).readAclById(any(ObjectIdentity.class), anyList());
+	}
+
+	private AclPermissionEvaluator evaluator(AclService service) {
+		AclPermissionEvaluator pe = new AclPermissionEvaluator(service);
+		ObjectIdentityRetrievalStrategy oidStrategy = mock(ObjectIdentityRetrievalStrategy.class);
+		given(oidStrategy.getObjectIdentity(any(Object.class)))
+				.willAnswer((invocation) -> oid((String) invocation.getArgument(0)));
+		pe.setObjectIdentityRetrievalStrategy(oidStrategy);
+		pe.setSidRetrievalStrategy(mock(SidRetrievalStrategy.class));
+		return pe;
+	}
+
+	private Map<ObjectIdentity, Acl> acls(boolean first, boolean second) {
+		Map<ObjectIdentity, Acl> acls = new HashMap<>();
+		acls.put(oid("1"), acl(first));
+		acls.put(oid("2"), acl(second));
+		return acls;
+	}
+
+	private Acl acl(boolean granted) {
+		Acl acl = mock(Acl.class);
+		given(acl.isGranted(anyList(), anyList(), eq(false))).willReturn(granted);
+		return acl;
+	}
+
+	private static ObjectIdentity oid(String id) {
+		return new ObjectIdentityImpl("Domain", id);
+	}
+
 }
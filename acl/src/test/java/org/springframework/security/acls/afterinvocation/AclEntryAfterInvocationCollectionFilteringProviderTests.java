@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,12 +19,15 @@ package org.springframework.security.acls.afterinvocation;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 
 import org.springframework.security.access.ConfigAttribute;
 import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
 import org.springframework.security.acls.model.Acl;
 import org.springframework.security.acls.model.AclService;
 import org.springframework.security.acls.model.ObjectIdentity;
@@ -36,6 +39,7 @@ import org.springframework.security.core.Authentication;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -70,6 +74,50 @@ public class AclEntryAfterInvocationCollectionFilteringProviderTests {
 		assertThat(((Object[]) returned).length == 0).isTrue();
 	}
 
+	@Test
+	public void decideWhenManyElementsThenAclsReadOnce() {
+		AclService service = mock(AclService.class);
+		ObjectIdentity allowed = new ObjectIdentityImpl("Domain", "1");
+		ObjectIdentity denied = new ObjectIdentityImpl("Domain", "2");
+		Map<ObjectIdentity, Acl> acls = new HashMap<>();
+		acls.put(allowed, acl(true));
+		acls.put(denied, acl(false));
+		given(service.readExistingAclsById(any(), any())).willReturn(acls);
+		AclEntryAfterInvocationCollectionFilteringProvider provider = new AclEntryAfterInvocationCollectionFilteringProvider(
+				service, Arrays.asList(mock(Permission.class)));
+		ObjectIdentityRetrievalStrategy oidStrategy = mock(ObjectIdentityRetrievalStrategy.class);
+		given(oidStrategy.getObjectIdentity(any()))
+				.willAnswer((invocation) -> new ObjectIdentityImpl("Domain", (String) invocation.getArgument(0)));
+		provider.setObjectIdentityRetrievalStrategy(oidStrategy);
+		provider.setSidRetrievalStrategy(mock(SidRetrievalStrategy.class));
+		Object returned = provider.decide(mock(Authentication.class), new Object(),
+				SecurityConfig.createList("AFTER_ACL_COLLECTION_READ"),
+				new ArrayList<>(Arrays.asList("1", "2", null, "1")));
+		assertThat((List<Object>) returned).containsExactly("1", null, "1");
+		verify(service).readExistingAclsById(eq(Arrays.asList(allowed, denied)), any());
+		verify(service, never()).readAclById(any(ObjectIdentity.class), any(List.class));
+	}
+
+	@Test
+	public void decideWhenAclMissingThenElementRemoved() {
+		AclService service = mock(AclService.class);
+		ObjectIdentity allowed = new ObjectIdentityImpl("Domain", "1");
+		Map<ObjectIdentity, Acl> acls = new HashMap<>();
+		acls.put(allowed, acl(true));
+		given(service.readExistingAclsById(any(), any())).willReturn(acls);
+		AclEntryAfterInvocationCollectionFilteringProvider provider = new AclEntryAfterInvocationCollectionFilteringProvider(
+				service, Arrays.asList(mock(Permission.class)));
+		ObjectIdentityRetrievalStrategy oidStrategy = mock(ObjectIdentityRetrievalStrategy.class);
+		given(oidStrategy.getObjectIdentity(any()))
+				.willAnswer((invocation) -> new ObjectIdentityImpl("Domain", (String) invocation.getArgument(0)));
+		provider.setObjectIdentityRetrievalStrategy(oidStrategy);
+		provider.setSidRetrievalStrategy(mock(SidRetrievalStrategy.class));
+		Object returned = provider.decide(mock(Authentication.class), new Object(),
+				SecurityConfig.createList("AFTER_ACL_COLLECTION_READ"), new Object[] { "1", "2" });
+		assertThat((Object[]) returned).containsExactly("1");
+		verify(service, never()).readAclById(any(ObjectIdentity.class), any(List.class));
+	}
+
 	@Test
 	public void accessIsGrantedIfNoAttributesDefined() {
 		AclEntryAfterInvocationCollectionFilteringProvider provider = new AclEntryAfterInvocationCollectionFilteringProvider(
@@ -89,4 +137,10 @@ public class AclEntryAfterInvocationCollectionFilteringProviderTests {
 		verify(service, never()).readAclById(any(ObjectIdentity.class), any(List.class));
 	}
 
+	private Acl acl(boolean granted) {
+		Acl acl = mock(Acl.class);
+		given(acl.isGranted(any(), any(), anyBoolean())).willReturn(granted);
+		return acl;
+	}
+
 }
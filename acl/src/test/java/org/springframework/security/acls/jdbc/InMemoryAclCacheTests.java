@@ -0,0 +1,190 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.acls.jdbc;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.security.acls.domain.AclAuthorizationStrategy;
+import org.springframework.security.acls.domain.AclAuthorizationStrategyImpl;
+import org.springframework.security.acls.domain.AclImpl;
+import org.springframework.security.acls.domain.BasePermission;
+import org.springframework.security.acls.domain.ConsoleAuditLogger;
+import org.springframework.security.acls.domain.DefaultPermissionGrantingStrategy;
+import org.springframework.security.acls.domain.InMemoryAclCache;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.model.MutableAcl;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link InMemoryAclCache}.
+ */
+public class InMemoryAclCacheTests {
+
+	private static final String TARGET_CLASS = "org.springframework.security.acls.TargetObject";
+
+	private final AclAuthorizationStrategy aclAuthorizationStrategy = new AclAuthorizationStrategyImpl(
+			new SimpleGrantedAuthority("ROLE_OWNERSHIP"), new SimpleGrantedAuthority("ROLE_AUDITING"),
+			new SimpleGrantedAuthority("ROLE_GENERAL"));
+
+	@After
+	public void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void constructorWhenMaximumSizeNotPositiveThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new InMemoryAclCache(0));
+	}
+
+	@Test
+	public void getFromCacheWhenCachedThenFoundByIdentityAndId() {
+		InMemoryAclCache cache = new InMemoryAclCache(10);
+		MutableAcl acl = acl(100L, 1L);
+		cache.putInCache(acl);
+		assertThat(cache.getFromCache(1L)).isEqualTo(acl);
+		assertThat(cache.getFromCache(acl.getObjectIdentity())).isEqualTo(acl);
+		assertThat(cache.getFromCache(2L)).isNull();
+		assertThat(cache.getSize()).isEqualTo(1);
+		assertThat(cache.getHitCount()).isEqualTo(2);
+		assertThat(cache.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void getFromCacheWhenReturnedAclModifiedThenOtherReadersUnaffected() {
+		SecurityContextHolder.getContext()
+				.setAuthentication(new TestingAuthenticationToken("joe", "password", "ROLE_GENERAL"));
+		InMemoryAclCache cache = new InMemoryAclCache(10);
+		MutableAcl parent = acl(100L, 1L);
+		MutableAcl acl = new AclImpl(new ObjectIdentityImpl(TARGET_CLASS, 101L), 2L, this.aclAuthorizationStrategy,
+				new DefaultPermissionGrantingStrategy(new ConsoleAuditLogger()), parent, null, true,
+				new PrincipalSid("joe"));
+		acl.insertAce(0, BasePermission.READ, new PrincipalSid("joe"), true);
+		cache.putInCache(acl);
+		acl.insertAce(1, BasePermission.WRITE, new PrincipalSid("joe"), true);
+		MutableAcl first = cache.getFromCache(2L);
+		assertThat(first.getEntries()).hasSize(1);
+		first.insertAce(1, BasePermission.DELETE, new PrincipalSid("joe"), true);
+		first.updateAce(0, BasePermission.ADMINISTRATION);
+		((MutableAcl) first.getParentAcl()).insertAce(0, BasePermission.READ, new PrincipalSid("joe"), true);
+		MutableAcl second = cache.getFromCache(2L);
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.getEntries()).hasSize(1);
+		assertThat(second.getEntries().get(0).getPermission()).isEqualTo(BasePermission.READ);
+		assertThat(second.getEntries().get(0).getAcl()).isSameAs(second);
+		assertThat(second.getParentAcl().getEntries()).isEmpty();
+		assertThat(cache.getFromCache(1L).getEntries()).isEmpty();
+	}
+
+	@Test
+	public void evictFromCacheWhenEvictedByIdThenRemovedFromBothIndexes() {
+		InMemoryAclCache cache = new InMemoryAclCache(10);
+		MutableAcl acl = acl(100L, 1L);
+		MutableAcl other = acl(101L, 2L);
+		cache.putInCache(acl);
+		cache.putInCache(other);
+		cache.evictFromCache(1L);
+		assertThat(cache.getFromCache(acl.getObjectIdentity())).isNull();
+		cache.evictFromCache(other.getObjectIdentity());
+		assertThat(cache.getFromCache(2L)).isNull();
+		assertThat(cache.getSize()).isZero();
+		assertThat(cache.getEvictionCount()).isZero();
+	}
+
+	@Test
+	public void putInCacheWhenReplacedThenPreviousEntryRemoved() {
+		InMemoryAclCache cache = new InMemoryAclCache(10);
+		cache.putInCache(acl(100L, 1L));
+		MutableAcl replacement = acl(100L, 2L);
+		cache.putInCache(replacement);
+		assertThat(cache.getFromCache(1L)).isNull();
+		assertThat(cache.getFromCache(2L)).isEqualTo(replacement);
+		assertThat(cache.getSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void putInCacheWhenParentThenParentCached() {
+		InMemoryAclCache cache = new InMemoryAclCache(10);
+		MutableAcl parent = acl(100L, 1L);
+		MutableAcl child = new AclImpl(new ObjectIdentityImpl(TARGET_CLASS, 101L), 2L, this.aclAuthorizationStrategy,
+				new DefaultPermissionGrantingStrategy(new ConsoleAuditLogger()), parent, null, true,
+				new PrincipalSid("joe"));
+		cache.putInCache(child);
+		assertThat(cache.getFromCache(1L)).isEqualTo(parent);
+		assertThat(cache.getFromCache(2L).getParentAcl()).isEqualTo(parent);
+	}
+
+	@Test
+	public void putInCacheWhenFullThenLeastRecentlyReadEvicted() {
+		InMemoryAclCache cache = new InMemoryAclCache(2);
+		MutableAcl first = acl(100L, 1L);
+		MutableAcl second = acl(101L, 2L);
+		cache.putInCache(first);
+		cache.putInCache(second);
+		cache.getFromCache(1L);
+		cache.putInCache(acl(102L, 3L));
+		assertThat(cache.getFromCache(1L)).isEqualTo(first);
+		assertThat(cache.getFromCache(second.getObjectIdentity())).isNull();
+		assertThat(cache.getFromCache(3L)).isNotNull();
+		assertThat(cache.getSize()).isEqualTo(2);
+		assertThat(cache.getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void getFromCacheWhenExpiredThenNull() {
+		Instant now = Instant.now();
+		InMemoryAclCache cache = new InMemoryAclCache(10);
+		cache.setTimeToLive(Duration.ofMinutes(5));
+		cache.setClock(Clock.fixed(now, ZoneOffset.UTC));
+		MutableAcl acl = acl(100L, 1L);
+		cache.putInCache(acl);
+		cache.setClock(Clock.fixed(now.plus(Duration.ofMinutes(4)), ZoneOffset.UTC));
+		assertThat(cache.getFromCache(1L)).isEqualTo(acl);
+		cache.setClock(Clock.fixed(now.plus(Duration.ofMinutes(5)), ZoneOffset.UTC));
+		assertThat(cache.getFromCache(acl.getObjectIdentity())).isNull();
+		assertThat(cache.getFromCache(1L)).isNull();
+		assertThat(cache.getSize()).isZero();
+		assertThat(cache.getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void clearCacheThenEmpty() {
+		InMemoryAclCache cache = new InMemoryAclCache(10);
+		cache.putInCache(acl(100L, 1L));
+		cache.clearCache();
+		assertThat(cache.getFromCache(1L)).isNull();
+		assertThat(cache.getSize()).isZero();
+	}
+
+	private MutableAcl acl(long objectId, long id) {
+		ObjectIdentity identity = new ObjectIdentityImpl(TARGET_CLASS, objectId);
+		return new AclImpl(identity, id, this.aclAuthorizationStrategy, new ConsoleAuditLogger());
+	}
+
+}
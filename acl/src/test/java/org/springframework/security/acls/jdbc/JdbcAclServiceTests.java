@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -50,6 +50,7 @@ import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 
 /**
  * Unit and Integration tests the ACL JdbcAclService using an in-memory database.
@@ -106,6 +107,17 @@ public class JdbcAclServiceTests {
 				.isThrownBy(() -> this.aclService.readAclById(objectIdentity, sids));
 	}
 
+	@Test
+	public void readExistingAclsByIdWhenAclMissingThenLeftOut() {
+		ObjectIdentity found = new ObjectIdentityImpl(Object.class, 1);
+		ObjectIdentity missing = new ObjectIdentityImpl(Object.class, 2);
+		Map<ObjectIdentity, Acl> result = new HashMap<>();
+		result.put(found, mock(Acl.class));
+		given(this.lookupStrategy.readAclsById(anyList(), anyList())).willReturn(result);
+		List<Sid> sids = Arrays.<Sid>asList(new PrincipalSid("user"));
+		assertThat(this.aclService.readExistingAclsById(Arrays.asList(found, missing), sids)).containsOnlyKeys(found);
+	}
+
 	@Test
 	public void findOneChildren() {
 		List<ObjectIdentity> result = new ArrayList<>();
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.benchmarks.core;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.codec.CompactSecuritySerializer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+
+/**
+ * Compares {@link CompactSecuritySerializer} with Java serialization and with the
+ * Jackson modules of Spring Security when writing and reading a {@link SecurityContext}
+ * of a user with several authorities.
+ *
+ * @since 5.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SecurityContextSerializationBenchmarks {
+
+	@Param({ "compact", "java", "jackson" })
+	public String format;
+
+	private Serializer<Object> serializer;
+
+	private Deserializer<Object> deserializer;
+
+	private SecurityContext context;
+
+	private byte[] serialized;
+
+	@Setup
+	public void setup() throws IOException {
+		ClassLoader classLoader = getClass().getClassLoader();
+		if ("compact".equals(this.format)) {
+			CompactSecuritySerializer compact = new CompactSecuritySerializer(classLoader);
+			this.serializer = compact;
+			this.deserializer = compact;
+		}
+		else if ("jackson".equals(this.format)) {
+			ObjectMapper mapper = new ObjectMapper();
+			mapper.registerModules(SecurityJackson2Modules.getModules(classLoader));
+			this.serializer = (object, output) -> mapper.writeValue(output, object);
+			this.deserializer = (input) -> mapper.readValue(input, Object.class);
+		}
+		else {
+			this.serializer = new DefaultSerializer();
+			this.deserializer = new DefaultDeserializer(classLoader);
+		}
+		List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN",
+				"SCOPE_read", "SCOPE_write", "SCOPE_profile");
+		User user = new User("user@example.org", "password", authorities);
+		user.eraseCredentials();
+		this.context = new SecurityContextImpl(new UsernamePasswordAuthenticationToken(user, null, authorities));
+		this.serialized = this.serializer.serializeToByteArray(this.context);
+	}
+
+	@Benchmark
+	public byte[] serialize() throws IOException {
+		return this.serializer.serializeToByteArray(this.context);
+	}
+
+	@Benchmark
+	public Object deserialize() throws IOException {
+		return this.deserializer.deserializeFromByteArray(this.serialized);
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.benchmarks.core;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.session.SessionRegistryImpl;
+import org.springframework.security.core.session.ShardedSessionRegistry;
+
+/**
+ * Compares {@link SessionRegistryImpl} with {@link ShardedSessionRegistry} under
+ * concurrent access, with most sessions spread over many principals and some belonging
+ * to a few hot principals.
+ *
+ * @since 5.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class SessionRegistryBenchmarks {
+
+	private static final int HOT_PRINCIPALS = 4;
+
+	@Param({ "default", "sharded" })
+	public String registry;
+
+	@Param({ "100000" })
+	public int sessions;
+
+	private final AtomicInteger nextThread = new AtomicInteger();
+
+	private SessionRegistry sessionRegistry;
+
+	@Setup
+	public void setup() {
+		this.sessionRegistry = "sharded".equals(this.registry) ? new ShardedSessionRegistry()
+				: new SessionRegistryImpl();
+		for (int i = 0; i < this.sessions; i++) {
+			this.sessionRegistry.registerNewSession("session" + i, principal(i));
+		}
+	}
+
+	@Benchmark
+	public void refreshLastRequest() {
+		int session = ThreadLocalRandom.current().nextInt(this.sessions);
+		this.sessionRegistry.refreshLastRequest("session" + session);
+	}
+
+	@Benchmark
+	public void registerAndRemoveHotPrincipal(ThreadState state) {
+		String sessionId = state.nextSessionId();
+		this.sessionRegistry.registerNewSession(sessionId, "hot" + (state.thread % HOT_PRINCIPALS));
+		this.sessionRegistry.removeSessionInformation(sessionId);
+	}
+
+	@Benchmark
+	public List<SessionInformation> getAllSessions() {
+		int principal = ThreadLocalRandom.current().nextInt(this.sessions / 10);
+		return this.sessionRegistry.getAllSessions("user" + principal, false);
+	}
+
+	private static String principal(int session) {
+		return (session % 2 == 0) ? "hot" + (session % HOT_PRINCIPALS) : "user" + (session % 10000);
+	}
+
+	@State(Scope.Thread)
+	public static class ThreadState {
+
+		private int thread;
+
+		private int next;
+
+		@Setup
+		public void setup(SessionRegistryBenchmarks benchmarks) {
+			this.thread = benchmarks.nextThread.getAndIncrement();
+		}
+
+		String nextSessionId() {
+			return "new-" + this.thread + "-" + this.next++;
+		}
+
+	}
+
+}
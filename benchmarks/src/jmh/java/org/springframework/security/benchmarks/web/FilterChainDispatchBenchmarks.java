@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.benchmarks.web;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.DefaultSecurityFilterChain;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+
+/**
+ * Compares the linear and the indexed {@link SecurityFilterChain} lookup of
+ * {@link FilterChainProxy} for an application with one chain per tenant and a catch-all
+ * chain. The chains have no filters, so only the lookup is measured.
+ *
+ * @since 5.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FilterChainDispatchBenchmarks {
+
+	private static final FilterChain NOOP_CHAIN = (request, response) -> {
+	};
+
+	@Param({ "false", "true" })
+	public boolean indexed;
+
+	@Param({ "40" })
+	public int tenants;
+
+	private FilterChainProxy springSecurityFilterChain;
+
+	@Setup
+	public void setup() {
+		List<SecurityFilterChain> chains = new ArrayList<>();
+		for (int i = 0; i < this.tenants; i++) {
+			chains.add(new DefaultSecurityFilterChain(new AntPathRequestMatcher("/api/tenant" + i + "/**")));
+		}
+		chains.add(new DefaultSecurityFilterChain(AnyRequestMatcher.INSTANCE));
+		this.springSecurityFilterChain = new FilterChainProxy(chains);
+		this.springSecurityFilterChain.setIndexedFilterChainDispatch(this.indexed);
+	}
+
+	@Benchmark
+	public MockHttpServletResponse lastTenant() throws Exception {
+		return doFilter("/api/tenant" + (this.tenants - 1) + "/orders/42");
+	}
+
+	@Benchmark
+	public MockHttpServletResponse catchAll() throws Exception {
+		return doFilter("/index.html");
+	}
+
+	private MockHttpServletResponse doFilter(String servletPath) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", servletPath);
+		request.setServletPath(servletPath);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		this.springSecurityFilterChain.doFilter(request, response, NOOP_CHAIN);
+		return response;
+	}
+
+}
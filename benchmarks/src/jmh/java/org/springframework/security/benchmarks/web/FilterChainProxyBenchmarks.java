@@ -0,0 +1,158 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.benchmarks.web;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.BeanIds;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+/**
+ * Measures the per-request overhead of a {@link FilterChainProxy} built from
+ * {@link BenchmarkSecurityConfiguration}: {@code FilterChainProxy.doFilter}, the
+ * {@code StrictHttpFirewall} and every filter of the matching chain.
+ *
+ * <p>
+ * Run with {@code ./gradlew :spring-security-benchmarks:jmh}. The {@code gc} profiler is
+ * enabled by default, so {@code gc.alloc.rate.norm} reports the bytes allocated per
+ * request. The {@link #baseline()} benchmark only creates the mock request and response,
+ * so its allocation can be subtracted from the other results.
+ *
+ * @since 5.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FilterChainProxyBenchmarks {
+
+	private static final FilterChain NOOP_CHAIN = (request, response) -> {
+	};
+
+	private AnnotationConfigWebApplicationContext context;
+
+	private FilterChainProxy springSecurityFilterChain;
+
+	private MockHttpSession authenticatedSession;
+
+	private CsrfToken csrfToken;
+
+	@Setup
+	public void setup() throws Exception {
+		MockServletContext servletContext = new MockServletContext();
+		this.context = new AnnotationConfigWebApplicationContext();
+		this.context.setServletContext(servletContext);
+		this.context.register(BenchmarkSecurityConfiguration.class);
+		this.context.refresh();
+		this.springSecurityFilterChain = this.context.getBean(BeanIds.SPRING_SECURITY_FILTER_CHAIN,
+				FilterChainProxy.class);
+		UserDetails user = this.context.getBean(UserDetailsService.class).loadUserByUsername("user");
+		Authentication authentication = new UsernamePasswordAuthenticationToken(user, null,
+				user.getAuthorities());
+		SecurityContext securityContext = new SecurityContextImpl(authentication);
+		this.authenticatedSession = new MockHttpSession(servletContext);
+		this.authenticatedSession.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+				securityContext);
+		this.context.getBean(SessionRegistry.class).registerNewSession(this.authenticatedSession.getId(), user);
+		HttpSessionCsrfTokenRepository csrfTokenRepository = new HttpSessionCsrfTokenRepository();
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setSession(this.authenticatedSession);
+		this.csrfToken = csrfTokenRepository.generateToken(request);
+		csrfTokenRepository.saveToken(this.csrfToken, request, new MockHttpServletResponse());
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public MockHttpServletResponse baseline() {
+		request("GET", "/public/index.html");
+		return new MockHttpServletResponse();
+	}
+
+	@Benchmark
+	public MockHttpServletResponse permitAllAnonymous() throws Exception {
+		return doFilter(request("GET", "/public/index.html"));
+	}
+
+	@Benchmark
+	public MockHttpServletResponse authenticatedGet() throws Exception {
+		MockHttpServletRequest request = request("GET", "/api/messages/42");
+		request.setSession(this.authenticatedSession);
+		return doFilter(request);
+	}
+
+	@Benchmark
+	public MockHttpServletResponse authenticatedCsrfPost() throws Exception {
+		MockHttpServletRequest request = request("POST", "/api/messages");
+		request.setSession(this.authenticatedSession);
+		request.addHeader(this.csrfToken.getHeaderName(), this.csrfToken.getToken());
+		return doFilter(request);
+	}
+
+	@Benchmark
+	public MockHttpServletResponse accessDenied() throws Exception {
+		MockHttpServletRequest request = request("GET", "/admin/users");
+		request.setSession(this.authenticatedSession);
+		return doFilter(request);
+	}
+
+	@Benchmark
+	public MockHttpServletResponse unauthenticatedRedirectToLogin() throws Exception {
+		return doFilter(request("GET", "/api/messages/42"));
+	}
+
+	private MockHttpServletResponse doFilter(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		this.springSecurityFilterChain.doFilter(request, response, NOOP_CHAIN);
+		return response;
+	}
+
+	private static MockHttpServletRequest request(String method, String servletPath) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, servletPath);
+		request.setServletPath(servletPath);
+		return request;
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.benchmarks.web;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher.MatchResult;
+
+/**
+ * Compares {@link RequestMatcherDelegatingAuthorizationManager} with evaluating each
+ * {@link RequestMatcher} in turn, for an application with many
+ * {@code authorizeHttpRequests} rules that contain path variables.
+ *
+ * @since 5.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RequestAuthorizationBenchmarks {
+
+	private static final AuthorizationManager<RequestAuthorizationContext> GRANT = (a,
+			context) -> new AuthorizationDecision(true);
+
+	private final Supplier<Authentication> authentication = () -> new TestingAuthenticationToken("user", "password",
+			"ROLE_USER");
+
+	@Param({ "600" })
+	public int rules;
+
+	private final List<RequestMatcher> matchers = new ArrayList<>();
+
+	private RequestMatcherDelegatingAuthorizationManager manager;
+
+	@Setup
+	public void setup() {
+		RequestMatcherDelegatingAuthorizationManager.Builder builder = RequestMatcherDelegatingAuthorizationManager
+				.builder();
+		for (int i = 0; i < this.rules; i++) {
+			RequestMatcher matcher = new AntPathRequestMatcher("/api/{version}/resource" + i + "/**");
+			this.matchers.add(matcher);
+			builder.add(matcher, GRANT);
+		}
+		this.manager = builder.build();
+	}
+
+	@Benchmark
+	public AuthorizationDecision linearLastRule() {
+		MockHttpServletRequest request = request("/api/v1/resource" + (this.rules - 1) + "/42");
+		for (RequestMatcher matcher : this.matchers) {
+			MatchResult result = matcher.matcher(request);
+			if (result.isMatch()) {
+				return GRANT.check(this.authentication, new RequestAuthorizationContext(request, result.getVariables()));
+			}
+		}
+		return null;
+	}
+
+	@Benchmark
+	public AuthorizationDecision indexedLastRule() {
+		return this.manager.check(this.authentication, request("/api/v1/resource" + (this.rules - 1) + "/42"));
+	}
+
+	private static MockHttpServletRequest request(String servletPath) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", servletPath);
+		request.setServletPath(servletPath);
+		return request;
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.benchmarks.web;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.firewall.FirewalledRequest;
+import org.springframework.security.web.firewall.StrictHttpFirewall;
+
+/**
+ * Measures {@link StrictHttpFirewall#getFirewalledRequest} in isolation, since it runs
+ * for every request that goes through the {@code FilterChainProxy}.
+ *
+ * @since 5.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StrictHttpFirewallBenchmarks {
+
+	private final StrictHttpFirewall firewall = new StrictHttpFirewall();
+
+	@Benchmark
+	public FirewalledRequest shortPath() {
+		return this.firewall.getFirewalledRequest(request("/public/index.html", null));
+	}
+
+	@Benchmark
+	public FirewalledRequest longPathWithPathInfo() {
+		return this.firewall.getFirewalledRequest(
+				request("/api/v1/tenants/acme/projects/spring-security/messages", "/42/attachments/7"));
+	}
+
+	private static MockHttpServletRequest request(String servletPath, String pathInfo) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET",
+				(pathInfo != null) ? servletPath + pathInfo : servletPath);
+		request.setServletPath(servletPath);
+		request.setPathInfo(pathInfo);
+		return request;
+	}
+
+}
@@ -99,6 +99,8 @@ public final class WebSecurity extends AbstractConfiguredSecurityBuilder<Filter,
 
 	private boolean debugEnabled;
 
+	private boolean indexedFilterChainDispatch;
+
 	private WebInvocationPrivilegeEvaluator privilegeEvaluator;
 
 	private DefaultWebSecurityExpressionHandler defaultWebSecurityExpressionHandler = new DefaultWebSecurityExpressionHandler();
@@ -172,6 +174,21 @@ public final class WebSecurity extends AbstractConfiguredSecurityBuilder<Filter,
 		return this;
 	}
 
+	/**
+	 * Looks up the {@link SecurityFilterChain} for each request through an index of the
+	 * chains' request matchers instead of trying each chain in turn. This is worthwhile
+	 * for applications with many chains. The default is false.
+	 * @param indexedFilterChainDispatch if true, the {@link FilterChainProxy} indexes
+	 * its {@link SecurityFilterChain}s
+	 * @return the {@link WebSecurity} for further customizations
+	 * @since 5.6
+	 * @see FilterChainProxy#setIndexedFilterChainDispatch(boolean)
+	 */
+	public WebSecurity indexedFilterChainDispatch(boolean indexedFilterChainDispatch) {
+		this.indexedFilterChainDispatch = indexedFilterChainDispatch;
+		return this;
+	}
+
 	/**
 	 * Controls debugging support for Spring Security.
 	 * @param debugEnabled if true, enables debug support with Spring Security. Default is
@@ -291,6 +308,7 @@ public final class WebSecurity extends AbstractConfiguredSecurityBuilder<Filter,
 		if (this.requestRejectedHandler != null) {
 			filterChainProxy.setRequestRejectedHandler(this.requestRejectedHandler);
 		}
+		filterChainProxy.setIndexedFilterChainDispatch(this.indexedFilterChainDispatch);
 		filterChainProxy.afterPropertiesSet();
 
 		Filter result = filterChainProxy;
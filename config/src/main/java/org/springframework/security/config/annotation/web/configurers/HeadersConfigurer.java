@@ -18,6 +18,7 @@ package org.springframework.security.config.annotation.web.configurers;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -35,6 +36,7 @@ import org.springframework.security.web.header.writers.FeaturePolicyHeaderWriter
 import org.springframework.security.web.header.writers.HpkpHeaderWriter;
 import org.springframework.security.web.header.writers.HstsHeaderWriter;
 import org.springframework.security.web.header.writers.PermissionsPolicyHeaderWriter;
+import org.springframework.security.web.header.writers.PrecompiledHeadersWriter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter.ReferrerPolicy;
 import org.springframework.security.web.header.writers.XContentTypeOptionsHeaderWriter;
@@ -96,6 +98,8 @@ public class HeadersConfigurer<H extends HttpSecurityBuilder<H>>
 
 	private final PermissionsPolicyConfig permissionsPolicy = new PermissionsPolicyConfig();
 
+	private boolean precompileHeaderWriters;
+
 	/**
 	 * Creates a new instance
 	 *
@@ -354,6 +358,19 @@ public class HeadersConfigurer<H extends HttpSecurityBuilder<H>>
 		return this;
 	}
 
+	/**
+	 * Computes the headers that do not depend on the request once, when the
+	 * {@link HeaderWriterFilter} is created, and writes them in a single batch. The
+	 * response contains the same headers as it otherwise would. See
+	 * {@link PrecompiledHeadersWriter} for details.
+	 * @return the {@link HeadersConfigurer} for additional customizations
+	 * @since 5.6
+	 */
+	public HeadersConfigurer<H> precompileHeaderWriters() {
+		this.precompileHeaderWriters = true;
+		return this;
+	}
+
 	@Override
 	public void configure(H http) {
 		HeaderWriterFilter headersFilter = createHeaderWriterFilter();
@@ -370,6 +387,9 @@ public class HeadersConfigurer<H extends HttpSecurityBuilder<H>>
 			throw new IllegalStateException(
 					"Headers security is enabled, but no headers will be added. Either add headers or disable headers security");
 		}
+		if (this.precompileHeaderWriters) {
+			writers = Collections.singletonList(new PrecompiledHeadersWriter(writers));
+		}
 		HeaderWriterFilter headersFilter = new HeaderWriterFilter(writers);
 		headersFilter = postProcess(headersFilter);
 		return headersFilter;
@@ -62,6 +62,8 @@ import org.springframework.security.web.context.SecurityContextRepository;
 public final class SecurityContextConfigurer<H extends HttpSecurityBuilder<H>>
 		extends AbstractHttpConfigurer<SecurityContextConfigurer<H>, H> {
 
+	private boolean deferContextLoading;
+
 	/**
 	 * Creates a new instance
 	 * @see HttpSecurity#securityContext()
@@ -79,6 +81,19 @@ public final class SecurityContextConfigurer<H extends HttpSecurityBuilder<H>>
 		return this;
 	}
 
+	/**
+	 * Specifies that the {@link org.springframework.security.core.context.SecurityContext}
+	 * should only be loaded from the {@link SecurityContextRepository} once it is first
+	 * requested.
+	 * @return the {@link SecurityContextConfigurer} for further customizations
+	 * @since 5.6
+	 * @see SecurityContextPersistenceFilter#setDeferContextLoading(boolean)
+	 */
+	public SecurityContextConfigurer<H> deferContextLoading() {
+		this.deferContextLoading = true;
+		return this;
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public void configure(H http) {
@@ -94,6 +109,7 @@ public final class SecurityContextConfigurer<H extends HttpSecurityBuilder<H>>
 		if (SessionCreationPolicy.ALWAYS == sessionCreationPolicy) {
 			securityContextFilter.setForceEagerSessionCreation(true);
 		}
+		securityContextFilter.setDeferContextLoading(this.deferContextLoading);
 		securityContextFilter = postProcess(securityContextFilter);
 		http.addFilter(securityContextFilter);
 	}
@@ -16,6 +16,7 @@
 
 package org.springframework.security.config.annotation.web.configurers;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -123,6 +124,8 @@ public final class SessionManagementConfigurer<H extends HttpSecurityBuilder<H>>
 
 	private boolean maxSessionsPreventsLogin;
 
+	private Duration lastRequestGranularity;
+
 	private SessionCreationPolicy sessionPolicy;
 
 	private boolean enableSessionUrlRewriting;
@@ -378,6 +381,9 @@ public final class SessionManagementConfigurer<H extends HttpSecurityBuilder<H>>
 		ConcurrentSessionFilter concurrentSessionFilter = (expireStrategy != null)
 				? new ConcurrentSessionFilter(sessionRegistry, expireStrategy)
 				: new ConcurrentSessionFilter(sessionRegistry);
+		if (this.lastRequestGranularity != null) {
+			concurrentSessionFilter.setLastRequestGranularity(this.lastRequestGranularity);
+		}
 		LogoutConfigurer<H> logoutConfigurer = http.getConfigurer(LogoutConfigurer.class);
 		if (logoutConfigurer != null) {
 			List<LogoutHandler> logoutHandlers = logoutConfigurer.getLogoutHandlers();
@@ -669,6 +675,19 @@ public final class SessionManagementConfigurer<H extends HttpSecurityBuilder<H>>
 			return this;
 		}
 
+		/**
+		 * Controls how old the last request time of a session must be before it is
+		 * refreshed. The default is to refresh it on every request.
+		 * @param lastRequestGranularity the granularity
+		 * @return the {@link ConcurrencyControlConfigurer} for further customizations
+		 * @since 5.6
+		 * @see ConcurrentSessionFilter#setLastRequestGranularity(Duration)
+		 */
+		public ConcurrencyControlConfigurer lastRequestGranularity(Duration lastRequestGranularity) {
+			SessionManagementConfigurer.this.lastRequestGranularity = lastRequestGranularity;
+			return this;
+		}
+
 		/**
 		 * Controls the {@link SessionRegistry} implementation used. The default is
 		 * {@link SessionRegistryImpl} which is an in memory implementation.
@@ -33,6 +33,7 @@ import org.springframework.security.config.test.SpringTestRule;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.userdetails.PasswordEncodedUser;
 import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.security.web.context.NullSecurityContextRepository;
 import org.springframework.security.web.context.SecurityContextPersistenceFilter;
 import org.springframework.security.web.context.SecurityContextRepository;
@@ -93,6 +94,15 @@ public class SecurityContextConfigurerTests {
 		assertThat(session).isNotNull();
 	}
 
+	@Test
+	public void requestWhenDeferContextLoadingThenContextSavedInSession() throws Exception {
+		this.spring.register(DeferContextLoadingConfig.class).autowire();
+		MvcResult mvcResult = this.mvc.perform(formLogin()).andReturn();
+		HttpSession session = mvcResult.getRequest().getSession(false);
+		assertThat(session).isNotNull();
+		assertThat(session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY)).isNotNull();
+	}
+
 	@Test
 	public void requestWhenSecurityContextDisabledInLambdaThenContextNotSavedInSession() throws Exception {
 		this.spring.register(SecurityContextDisabledInLambdaConfig.class).autowire();
@@ -214,6 +224,29 @@ public class SecurityContextConfigurerTests {
 
 	}
 
+	@EnableWebSecurity
+	static class DeferContextLoadingConfig extends WebSecurityConfigurerAdapter {
+
+		@Override
+		protected void configure(HttpSecurity http) throws Exception {
+			// @formatter:off
+			http
+				.formLogin(withDefaults())
+				.securityContext((securityContext) -> securityContext.deferContextLoading());
+			// @formatter:on
+		}
+
+		@Override
+		protected void configure(AuthenticationManagerBuilder auth) throws Exception {
+			// @formatter:off
+			auth
+				.inMemoryAuthentication()
+					.withUser(PasswordEncodedUser.user());
+			// @formatter:on
+		}
+
+	}
+
 	@EnableWebSecurity
 	static class SecurityContextDisabledInLambdaConfig extends WebSecurityConfigurerAdapter {
 
@@ -16,6 +16,9 @@
 
 package org.springframework.security.config.annotation.web.configurers;
 
+import java.time.Duration;
+import java.util.Date;
+
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
@@ -35,6 +38,7 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.config.test.SpringTestRule;
 import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.session.SessionInformation;
 import org.springframework.security.core.session.SessionRegistry;
 import org.springframework.security.core.userdetails.PasswordEncodedUser;
 import org.springframework.security.web.authentication.session.ChangeSessionIdAuthenticationStrategy;
@@ -55,6 +59,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -283,6 +288,17 @@ public class SessionManagementConfigurerTests {
 		verify(SessionRegistryOneBeanConfig.SESSION_REGISTRY).getSessionInformation(session.getId());
 	}
 
+	@Test
+	public void getWhenLastRequestGranularityThenLastRequestNotRefreshedWithinGranularity() throws Exception {
+		LastRequestGranularityConfig.SESSION_REGISTRY = mock(SessionRegistry.class);
+		MockHttpSession session = new MockHttpSession();
+		given(LastRequestGranularityConfig.SESSION_REGISTRY.getSessionInformation(session.getId()))
+				.willReturn(new SessionInformation("user", session.getId(), new Date()));
+		this.spring.register(LastRequestGranularityConfig.class).autowire();
+		this.mvc.perform(get("/").session(session));
+		verify(LastRequestGranularityConfig.SESSION_REGISTRY, never()).refreshLastRequest(any());
+	}
+
 	@Test
 	public void whenTwoSessionRegistryBeansThenUseNeither() throws Exception {
 		SessionRegistryTwoBeansConfig.SESSION_REGISTRY_ONE = mock(SessionRegistry.class);
@@ -540,6 +556,24 @@ public class SessionManagementConfigurerTests {
 
 	}
 
+	@EnableWebSecurity
+	static class LastRequestGranularityConfig extends WebSecurityConfigurerAdapter {
+
+		private static SessionRegistry SESSION_REGISTRY;
+
+		@Override
+		protected void configure(HttpSecurity http) throws Exception {
+			// @formatter:off
+			http
+				.sessionManagement()
+					.maximumSessions(1)
+					.sessionRegistry(SESSION_REGISTRY)
+					.lastRequestGranularity(Duration.ofMinutes(1));
+			// @formatter:on
+		}
+
+	}
+
 	@EnableWebSecurity
 	static class SessionRegistryTwoBeansConfig extends WebSecurityConfigurerAdapter {
 
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access;
+
+import java.util.List;
+
+import org.springframework.security.core.Authentication;
+
+/**
+ * A {@link PermissionEvaluator} which can determine a permission for many domain objects
+ * at once, for example with a single query, rather than one object at a time.
+ * <p>
+ * Used by
+ * {@link org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler}
+ * to filter with a {@code hasPermission(filterObject, 'permission')} expression.
+ *
+ * @since 5.6
+ */
+public interface BatchPermissionEvaluator extends PermissionEvaluator {
+
+	/**
+	 * Determines whether the permission is granted for each of the domain objects.
+	 * @param authentication represents the user in question. Should not be null.
+	 * @param targetDomainObjects the domain objects for which permissions should be
+	 * checked, which may contain {@code null} elements for which {@code false} should be
+	 * returned
+	 * @param permission a representation of the permission object as supplied by the
+	 * expression system. Not null.
+	 * @return the result for each domain object, in the same order as the domain objects
+	 */
+	boolean[] hasPermissions(Authentication authentication, List<?> targetDomainObjects, Object permission);
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,18 +16,39 @@
 
 package org.springframework.security.access.expression;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.core.log.LogMessage;
 import org.springframework.expression.BeanResolver;
 import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 /**
  * Base implementation of the facade which isolates Spring Security's requirements for
@@ -40,8 +61,12 @@ import org.springframework.util.Assert;
 public abstract class AbstractSecurityExpressionHandler<T>
 		implements SecurityExpressionHandler<T>, ApplicationContextAware {
 
+	private static final Log logger = LogFactory.getLog(AbstractSecurityExpressionHandler.class);
+
 	private ExpressionParser expressionParser = new SpelExpressionParser();
 
+	private List<PropertyAccessor> propertyAccessors;
+
 	private BeanResolver beanResolver;
 
 	private RoleHierarchy roleHierarchy;
@@ -56,6 +81,60 @@ public abstract class AbstractSecurityExpressionHandler<T>
 	public final void setExpressionParser(ExpressionParser expressionParser) {
 		Assert.notNull(expressionParser, "expressionParser cannot be null");
 		this.expressionParser = expressionParser;
+		this.propertyAccessors = null;
+	}
+
+	/**
+	 * Sets the {@link SpelCompilerMode} of the expressions that are parsed from now on,
+	 * by replacing the {@link #getExpressionParser() expression parser} with a
+	 * {@link SpelExpressionParser} that uses the given mode.
+	 * <p>
+	 * {@link SpelCompilerMode#MIXED} is recommended, since it falls back to interpreting
+	 * an expression whose compiled form fails, for example because it is evaluated
+	 * against a different type of root object or argument. When a mode other than
+	 * {@link SpelCompilerMode#OFF} is used, the evaluation contexts that are created with
+	 * the default property accessor also share a single {@link ReflectivePropertyAccessor},
+	 * so that its cache of resolved properties is kept between evaluations.
+	 * <p>
+	 * An expression can only be compiled once it has been evaluated, and some
+	 * expressions, such as those that refer to beans, cannot be compiled at all. Those
+	 * are reported by {@link #compileExpressions()}.
+	 * @param compilerMode the compiler mode to use
+	 * @since 5.6
+	 */
+	public void setCompilerMode(SpelCompilerMode compilerMode) {
+		Assert.notNull(compilerMode, "compilerMode cannot be null");
+		SpelParserConfiguration configuration = new SpelParserConfiguration(compilerMode,
+				ClassUtils.getDefaultClassLoader());
+		setExpressionParser(new RecordingExpressionParser(new SpelExpressionParser(configuration)));
+		if (compilerMode != SpelCompilerMode.OFF) {
+			this.propertyAccessors = Collections.singletonList(new ReflectivePropertyAccessor());
+		}
+	}
+
+	/**
+	 * Attempts to compile each expression that was parsed since
+	 * {@link #setCompilerMode(SpelCompilerMode)} was called and is still in use, and
+	 * returns those that could not be compiled, such as expressions that were not yet
+	 * evaluated or that refer to beans.
+	 * @return the expression strings that could not be compiled, or an empty set if no
+	 * compiler mode was set
+	 * @since 5.6
+	 */
+	public Set<String> compileExpressions() {
+		if (!(this.expressionParser instanceof RecordingExpressionParser)) {
+			return Collections.emptySet();
+		}
+		Set<String> uncompiled = new LinkedHashSet<>();
+		for (SpelExpression expression : ((RecordingExpressionParser) this.expressionParser).getExpressions()) {
+			if (!expression.compileExpression()) {
+				uncompiled.add(expression.getExpressionString());
+			}
+		}
+		if (!uncompiled.isEmpty()) {
+			logger.debug(LogMessage.format("Failed to compile expressions %s", uncompiled));
+		}
+		return uncompiled;
 	}
 
 	/**
@@ -70,11 +149,43 @@ public abstract class AbstractSecurityExpressionHandler<T>
 	public final EvaluationContext createEvaluationContext(Authentication authentication, T invocation) {
 		SecurityExpressionOperations root = createSecurityExpressionRoot(authentication, invocation);
 		StandardEvaluationContext ctx = createEvaluationContextInternal(authentication, invocation);
+		if (this.propertyAccessors != null && hasDefaultPropertyAccessors(ctx)) {
+			ctx.setPropertyAccessors(new ArrayList<>(this.propertyAccessors));
+		}
 		ctx.setBeanResolver(this.beanResolver);
 		ctx.setRootObject(root);
 		return ctx;
 	}
 
+	/**
+	 * Returns an {@link AuthorizationManager} that decides like the given expression
+	 * without evaluating it, if the expression is {@code permitAll}, {@code denyAll},
+	 * {@code isAuthenticated()}, {@code isFullyAuthenticated()}, {@code isAnonymous()},
+	 * {@code isRememberMe()}, or {@code hasRole}, {@code hasAnyRole}, {@code hasAuthority}
+	 * or {@code hasAnyAuthority} with only string literals as arguments. The manager
+	 * invokes the same method on the root object that is created by
+	 * {@link #createSecurityExpressionRoot(Authentication, Object)}.
+	 * <p>
+	 * Subclasses whose evaluation contexts resolve these methods differently should
+	 * override this method to return {@code null}.
+	 * @param expression the expression
+	 * @return the {@link AuthorizationManager}, or {@code null} if the expression has to
+	 * be evaluated
+	 * @since 5.6
+	 */
+	public AuthorizationManager<T> createAuthorizationManager(String expression) {
+		if (!(this.expressionParser instanceof SpelExpressionParser)
+				&& !(this.expressionParser instanceof RecordingExpressionParser)) {
+			return null;
+		}
+		return SecurityExpressionRootAuthorizationManager.create(expression, this::createSecurityExpressionRoot);
+	}
+
+	private static boolean hasDefaultPropertyAccessors(StandardEvaluationContext ctx) {
+		List<PropertyAccessor> propertyAccessors = ctx.getPropertyAccessors();
+		return propertyAccessors.size() == 1 && propertyAccessors.get(0).getClass() == ReflectivePropertyAccessor.class;
+	}
+
 	/**
 	 * Override to create a custom instance of {@code StandardEvaluationContext}.
 	 * <p>
@@ -121,4 +232,44 @@ public abstract class AbstractSecurityExpressionHandler<T>
 		this.beanResolver = new BeanFactoryResolver(applicationContext);
 	}
 
+	/**
+	 * Keeps track of the {@link SpelExpression}s that it parsed while they are in use.
+	 */
+	private static final class RecordingExpressionParser implements ExpressionParser {
+
+		private final ExpressionParser delegate;
+
+		private final Set<SpelExpression> expressions = Collections.newSetFromMap(new WeakHashMap<>());
+
+		RecordingExpressionParser(ExpressionParser delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Expression parseExpression(String expressionString) throws ParseException {
+			return record(this.delegate.parseExpression(expressionString));
+		}
+
+		@Override
+		public Expression parseExpression(String expressionString, ParserContext context) throws ParseException {
+			return record(this.delegate.parseExpression(expressionString, context));
+		}
+
+		private Expression record(Expression expression) {
+			if (expression instanceof SpelExpression) {
+				synchronized (this.expressions) {
+					this.expressions.add((SpelExpression) expression);
+				}
+			}
+			return expression;
+		}
+
+		List<SpelExpression> getExpressions() {
+			synchronized (this.expressions) {
+				return new ArrayList<>(this.expressions);
+			}
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,14 +18,13 @@ package org.springframework.security.access.expression;
 
 import java.io.Serializable;
 import java.util.Collection;
-import java.util.Set;
 
 import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
 import org.springframework.security.authentication.AuthenticationTrustResolver;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.authority.AuthoritySet;
 
 /**
  * Base root object for use in Spring Security expression evaluations.
@@ -41,7 +40,7 @@ public abstract class SecurityExpressionRoot implements SecurityExpressionOperat
 
 	private RoleHierarchy roleHierarchy;
 
-	private Set<String> roles;
+	private AuthoritySet roles;
 
 	private String defaultRolePrefix = "ROLE_";
 
@@ -99,7 +98,7 @@ public abstract class SecurityExpressionRoot implements SecurityExpressionOperat
 	}
 
 	private boolean hasAnyAuthorityName(String prefix, String... roles) {
-		Set<String> roleSet = getAuthoritySet();
+		AuthoritySet roleSet = getAuthoritySet();
 		for (String role : roles) {
 			String defaultedRole = getRoleWithDefaultPrefix(prefix, role);
 			if (roleSet.contains(defaultedRole)) {
@@ -179,13 +178,16 @@ public abstract class SecurityExpressionRoot implements SecurityExpressionOperat
 		this.defaultRolePrefix = defaultRolePrefix;
 	}
 
-	private Set<String> getAuthoritySet() {
+	private AuthoritySet getAuthoritySet() {
 		if (this.roles == null) {
-			Collection<? extends GrantedAuthority> userAuthorities = this.authentication.getAuthorities();
 			if (this.roleHierarchy != null) {
-				userAuthorities = this.roleHierarchy.getReachableGrantedAuthorities(userAuthorities);
+				Collection<? extends GrantedAuthority> userAuthorities = this.roleHierarchy
+						.getReachableGrantedAuthorities(this.authentication.getAuthorities());
+				this.roles = AuthoritySet.of(userAuthorities);
+			}
+			else {
+				this.roles = AuthoritySet.of(this.authentication);
 			}
-			this.roles = AuthorityUtils.authorityListToSet(userAuthorities);
 		}
 		return this.roles;
 	}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+/**
+ * An {@link AuthorizationManager} that decides like a simple security expression, by
+ * invoking the method that the expression refers to on a root object directly instead
+ * of evaluating the expression.
+ *
+ * @param <T> the type of object being authorized
+ * @since 5.6
+ * @see AbstractSecurityExpressionHandler#createAuthorizationManager(String)
+ */
+final class SecurityExpressionRootAuthorizationManager<T> implements AuthorizationManager<T> {
+
+	private static final Pattern PROPERTY = Pattern.compile("\\s*(permitAll|denyAll)\\s*");
+
+	private static final Pattern NO_ARGUMENT_CALL = Pattern
+			.compile("\\s*(isAuthenticated|isFullyAuthenticated|isAnonymous|isRememberMe)\\(\\s*\\)\\s*");
+
+	private static final Pattern CALL = Pattern.compile(
+			"\\s*(hasRole|hasAnyRole|hasAuthority|hasAnyAuthority)\\(\\s*('[^']*'(?:\\s*,\\s*'[^']*')*)\\s*\\)\\s*");
+
+	private static final Pattern ARGUMENT = Pattern.compile("'([^']*)'");
+
+	private final String expression;
+
+	private final BiFunction<Authentication, T, SecurityExpressionOperations> rootFactory;
+
+	private final Predicate<SecurityExpressionOperations> operation;
+
+	private SecurityExpressionRootAuthorizationManager(String expression,
+			BiFunction<Authentication, T, SecurityExpressionOperations> rootFactory,
+			Predicate<SecurityExpressionOperations> operation) {
+		this.expression = expression;
+		this.rootFactory = rootFactory;
+		this.operation = operation;
+	}
+
+	/**
+	 * Creates an instance for the given expression if it is simple enough.
+	 * @param expression the expression
+	 * @param rootFactory creates the root object that the expression would be evaluated
+	 * against
+	 * @param <T> the type of object being authorized
+	 * @return the instance, or {@code null} if the expression must be evaluated
+	 */
+	static <T> SecurityExpressionRootAuthorizationManager<T> create(String expression,
+			BiFunction<Authentication, T, SecurityExpressionOperations> rootFactory) {
+		Predicate<SecurityExpressionOperations> operation = getOperation(expression);
+		if (operation == null) {
+			return null;
+		}
+		return new SecurityExpressionRootAuthorizationManager<>(expression, rootFactory, operation);
+	}
+
+	private static Predicate<SecurityExpressionOperations> getOperation(String expression) {
+		if (expression == null) {
+			return null;
+		}
+		Matcher matcher = PROPERTY.matcher(expression);
+		if (matcher.matches()) {
+			boolean granted = "permitAll".equals(matcher.group(1));
+			return (root) -> granted;
+		}
+		matcher = NO_ARGUMENT_CALL.matcher(expression);
+		if (matcher.matches()) {
+			switch (matcher.group(1)) {
+			case "isAuthenticated":
+				return SecurityExpressionOperations::isAuthenticated;
+			case "isFullyAuthenticated":
+				return SecurityExpressionOperations::isFullyAuthenticated;
+			case "isAnonymous":
+				return SecurityExpressionOperations::isAnonymous;
+			default:
+				return SecurityExpressionOperations::isRememberMe;
+			}
+		}
+		matcher = CALL.matcher(expression);
+		if (!matcher.matches()) {
+			return null;
+		}
+		String[] arguments = getArguments(matcher.group(2));
+		switch (matcher.group(1)) {
+		case "hasRole":
+			return (arguments.length == 1) ? (root) -> root.hasRole(arguments[0]) : null;
+		case "hasAuthority":
+			return (arguments.length == 1) ? (root) -> root.hasAuthority(arguments[0]) : null;
+		case "hasAnyRole":
+			return (root) -> root.hasAnyRole(arguments);
+		default:
+			return (root) -> root.hasAnyAuthority(arguments);
+		}
+	}
+
+	private static String[] getArguments(String arguments) {
+		List<String> result = new ArrayList<>();
+		Matcher matcher = ARGUMENT.matcher(arguments);
+		while (matcher.find()) {
+			result.add(matcher.group(1));
+		}
+		return result.toArray(new String[0]);
+	}
+
+	@Override
+	public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+		SecurityExpressionOperations root = this.rootFactory.apply(authentication.get(), object);
+		return new AuthorizationDecision(this.operation.test(root));
+	}
+
+	@Override
+	public String toString() {
+		return "SecurityExpressionRootAuthorizationManager[expression=" + this.expression + "]";
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,9 +20,16 @@ import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import org.aopalliance.intercept.MethodInvocation;
@@ -34,12 +41,15 @@ import org.springframework.core.log.LogMessage;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.BatchPermissionEvaluator;
 import org.springframework.security.access.PermissionCacheOptimizer;
+import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.access.expression.AbstractSecurityExpressionHandler;
 import org.springframework.security.access.expression.ExpressionUtils;
 import org.springframework.security.authentication.AuthenticationTrustResolver;
 import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.SpringSecurityCoreVersion;
 import org.springframework.security.core.parameters.DefaultSecurityParameterNameDiscoverer;
 import org.springframework.util.Assert;
 
@@ -55,6 +65,9 @@ import org.springframework.util.Assert;
 public class DefaultMethodSecurityExpressionHandler extends AbstractSecurityExpressionHandler<MethodInvocation>
 		implements MethodSecurityExpressionHandler {
 
+	private static final Pattern HAS_PERMISSION_ON_FILTER_OBJECT = Pattern
+			.compile("\\s*hasPermission\\(\\s*filterObject\\s*,\\s*'([^']*)'\\s*\\)\\s*");
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
@@ -65,6 +78,10 @@ public class DefaultMethodSecurityExpressionHandler extends AbstractSecurityExpr
 
 	private String defaultRolePrefix = "ROLE_";
 
+	private int parallelFilterThreshold = Integer.MAX_VALUE;
+
+	private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
 	public DefaultMethodSecurityExpressionHandler() {
 	}
 
@@ -94,11 +111,23 @@ public class DefaultMethodSecurityExpressionHandler extends AbstractSecurityExpr
 
 	/**
 	 * Filters the {@code filterTarget} object (which must be either a collection, array,
-	 * map or stream), by evaluating the supplied expression.
+	 * map, stream or iterator), by evaluating the supplied expression.
 	 * <p>
 	 * If a {@code Collection} or {@code Map} is used, the original instance will be
 	 * modified to contain the elements for which the permission expression evaluates to
-	 * {@code true}. For an array, a new array instance will be returned.
+	 * {@code true}. For an array, a new array instance will be returned. A
+	 * {@code Stream} or an {@code Iterator} is filtered lazily, as its elements are
+	 * consumed.
+	 * <p>
+	 * If the expression is {@code hasPermission(filterObject, 'permission')}, the
+	 * {@link #setPermissionEvaluator(PermissionEvaluator) permission evaluator} is a
+	 * {@link BatchPermissionEvaluator} and the root object was not created by an
+	 * overridden {@link #createSecurityExpressionRoot(Authentication, MethodInvocation)},
+	 * the permission of all the elements of a collection or array is determined with a
+	 * single call. Otherwise, a collection or array with at least
+	 * {@link #setParallelFilterThreshold(int)} elements is filtered in parallel, each task
+	 * with its own copy of the evaluation context. A collection is only modified once all
+	 * of its elements have been evaluated.
 	 */
 	@Override
 	public Object filter(Object filterTarget, Expression filterExpression, EvaluationContext ctx) {
@@ -117,49 +146,106 @@ public class DefaultMethodSecurityExpressionHandler extends AbstractSecurityExpr
 		if (filterTarget instanceof Stream) {
 			return filterStream((Stream<?>) filterTarget, filterExpression, ctx, rootObject);
 		}
+		if (filterTarget instanceof Iterator) {
+			return new FilteringIterator<>((Iterator<?>) filterTarget, filterExpression, ctx, rootObject);
+		}
 		throw new IllegalArgumentException(
-				"Filter target must be a collection, array, map or stream type, but was " + filterTarget);
+				"Filter target must be a collection, array, map, stream or iterator type, but was " + filterTarget);
 	}
 
 	private <T> Object filterCollection(Collection<T> filterTarget, Expression filterExpression, EvaluationContext ctx,
 			MethodSecurityExpressionOperations rootObject) {
 		this.logger.debug(LogMessage.format("Filtering collection with %s elements", filterTarget.size()));
-		List<T> retain = new ArrayList<>(filterTarget.size());
-		if (this.permissionCacheOptimizer != null) {
-			this.permissionCacheOptimizer.cachePermissionsFor(rootObject.getAuthentication(), filterTarget);
-		}
+		boolean[] retain = evaluateAll(filterTarget, filterExpression, ctx, rootObject);
+		List<T> retained = new ArrayList<>(filterTarget.size());
+		int i = 0;
+		// every element is evaluated before the collection is modified, so that it is left
+		// unchanged if an evaluation fails
 		for (T filterObject : filterTarget) {
+			if (retain != null) {
+				if (retain[i++]) {
+					retained.add(filterObject);
+				}
+				continue;
+			}
 			rootObject.setFilterObject(filterObject);
 			if (ExpressionUtils.evaluateAsBoolean(filterExpression, ctx)) {
-				retain.add(filterObject);
+				retained.add(filterObject);
 			}
 		}
-		this.logger.debug(LogMessage.format("Retaining elements: %s", retain));
-		filterTarget.clear();
-		filterTarget.addAll(retain);
+		this.logger.debug(LogMessage.format("Retained %s of %s elements", retained.size(), filterTarget.size()));
+		if (retained.size() < filterTarget.size()) {
+			filterTarget.clear();
+			filterTarget.addAll(retained);
+		}
 		return filterTarget;
 	}
 
 	private Object filterArray(Object[] filterTarget, Expression filterExpression, EvaluationContext ctx,
 			MethodSecurityExpressionOperations rootObject) {
-		List<Object> retain = new ArrayList<>(filterTarget.length);
 		this.logger.debug(LogMessage.format("Filtering array with %s elements", filterTarget.length));
-		if (this.permissionCacheOptimizer != null) {
-			this.permissionCacheOptimizer.cachePermissionsFor(rootObject.getAuthentication(),
-					Arrays.asList(filterTarget));
-		}
-		for (Object filterObject : filterTarget) {
+		List<Object> elements = Arrays.asList(filterTarget);
+		boolean[] retain = evaluateAll(elements, filterExpression, ctx, rootObject);
+		List<Object> retained = new ArrayList<>(filterTarget.length);
+		for (int i = 0; i < filterTarget.length; i++) {
+			Object filterObject = filterTarget[i];
+			if (retain != null) {
+				if (retain[i]) {
+					retained.add(filterObject);
+				}
+				continue;
+			}
 			rootObject.setFilterObject(filterObject);
 			if (ExpressionUtils.evaluateAsBoolean(filterExpression, ctx)) {
-				retain.add(filterObject);
+				retained.add(filterObject);
 			}
 		}
-		this.logger.debug(LogMessage.format("Retaining elements: %s", retain));
-		Object[] filtered = (Object[]) Array.newInstance(filterTarget.getClass().getComponentType(), retain.size());
-		for (int i = 0; i < retain.size(); i++) {
-			filtered[i] = retain.get(i);
+		this.logger.debug(LogMessage.format("Retained %s of %s elements", retained.size(), filterTarget.length));
+		Object[] filtered = (Object[]) Array.newInstance(filterTarget.getClass().getComponentType(), retained.size());
+		return retained.toArray(filtered);
+	}
+
+	/**
+	 * Evaluates the expression for all the elements with a single call to a
+	 * {@link BatchPermissionEvaluator}, or in parallel, or returns {@code null} if they
+	 * should be evaluated one at a time by the caller.
+	 */
+	private boolean[] evaluateAll(Collection<?> filterTarget, Expression filterExpression, EvaluationContext ctx,
+			MethodSecurityExpressionOperations rootObject) {
+		PermissionEvaluator permissionEvaluator = getPermissionEvaluator();
+		// a custom root may evaluate hasPermission differently
+		if (permissionEvaluator instanceof BatchPermissionEvaluator
+				&& rootObject.getClass() == MethodSecurityExpressionRoot.class) {
+			Matcher matcher = HAS_PERMISSION_ON_FILTER_OBJECT.matcher(filterExpression.getExpressionString());
+			if (matcher.matches()) {
+				List<?> targets = (filterTarget instanceof List) ? (List<?>) filterTarget
+						: new ArrayList<>(filterTarget);
+				boolean[] retain = ((BatchPermissionEvaluator) permissionEvaluator)
+						.hasPermissions(rootObject.getAuthentication(), targets, matcher.group(1));
+				Assert.state(retain.length == targets.size(), "hasPermissions must return a result for each object");
+				return retain;
+			}
+		}
+		if (this.permissionCacheOptimizer != null) {
+			this.permissionCacheOptimizer.cachePermissionsFor(rootObject.getAuthentication(), filterTarget);
 		}
-		return filtered;
+		if (filterTarget.size() < this.parallelFilterThreshold || !(ctx instanceof MethodSecurityEvaluationContext)) {
+			return null;
+		}
+		Object[] elements = filterTarget.toArray();
+		boolean[] retain = new boolean[elements.length];
+		int leafSize = Math.max(1, elements.length / (this.forkJoinPool.getParallelism() * 4));
+		this.forkJoinPool.invoke(new FilterTask(elements, retain, 0, elements.length, leafSize, filterExpression,
+				() -> copyEvaluationContext(ctx, rootObject)));
+		return retain;
+	}
+
+	private EvaluationContext copyEvaluationContext(EvaluationContext ctx,
+			MethodSecurityExpressionOperations rootObject) {
+		MethodInvocation mi = ((MethodSecurityEvaluationContext) ctx).getMethodInvocation();
+		EvaluationContext copy = createEvaluationContext(rootObject.getAuthentication(), mi);
+		setReturnObject(rootObject.getReturnObject(), copy);
+		return copy;
 	}
 
 	private <K, V> Object filterMap(final Map<K, V> filterTarget, Expression filterExpression, EvaluationContext ctx,
@@ -180,12 +266,52 @@ public class DefaultMethodSecurityExpressionHandler extends AbstractSecurityExpr
 
 	private Object filterStream(final Stream<?> filterTarget, Expression filterExpression, EvaluationContext ctx,
 			MethodSecurityExpressionOperations rootObject) {
+		if (filterTarget.isParallel() && ctx instanceof MethodSecurityEvaluationContext) {
+			// each thread that consumes the stream needs its own filterObject
+			ThreadLocal<EvaluationContext> contexts = ThreadLocal
+					.withInitial(() -> copyEvaluationContext(ctx, rootObject));
+			return filterTarget.filter((filterObject) -> {
+				EvaluationContext context = contexts.get();
+				setFilterObject(context, filterObject);
+				return ExpressionUtils.evaluateAsBoolean(filterExpression, context);
+			}).onClose(filterTarget::close);
+		}
 		return filterTarget.filter((filterObject) -> {
 			rootObject.setFilterObject(filterObject);
 			return ExpressionUtils.evaluateAsBoolean(filterExpression, ctx);
 		}).onClose(filterTarget::close);
 	}
 
+	private static void setFilterObject(EvaluationContext ctx, Object filterObject) {
+		((MethodSecurityExpressionOperations) ctx.getRootObject().getValue()).setFilterObject(filterObject);
+	}
+
+	/**
+	 * Sets the minimum number of elements of a collection or array for which the filter
+	 * expression is evaluated in parallel. Since the tasks run on other threads, an
+	 * expression which is evaluated in parallel should not rely on the
+	 * {@link org.springframework.security.core.context.SecurityContextHolder}. The
+	 * default is {@link Integer#MAX_VALUE}, which disables parallel evaluation.
+	 * @param parallelFilterThreshold the minimum number of elements
+	 * @since 5.6
+	 */
+	public void setParallelFilterThreshold(int parallelFilterThreshold) {
+		Assert.isTrue(parallelFilterThreshold > 0, "parallelFilterThreshold must be greater than 0");
+		this.parallelFilterThreshold = parallelFilterThreshold;
+	}
+
+	/**
+	 * Sets the {@link ForkJoinPool} which evaluates filter expressions in parallel. The
+	 * default is {@link ForkJoinPool#commonPool()}.
+	 * @param forkJoinPool the {@link ForkJoinPool} to use
+	 * @since 5.6
+	 * @see #setParallelFilterThreshold(int)
+	 */
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		Assert.notNull(forkJoinPool, "forkJoinPool cannot be null");
+		this.forkJoinPool = forkJoinPool;
+	}
+
 	/**
 	 * Sets the {@link AuthenticationTrustResolver} to be used. The default is
 	 * {@link AuthenticationTrustResolverImpl}.
@@ -255,4 +381,109 @@ public class DefaultMethodSecurityExpressionHandler extends AbstractSecurityExpr
 		return this.defaultRolePrefix;
 	}
 
+	/**
+	 * Evaluates the filter expression for a range of elements, splitting the range into
+	 * tasks of at most {@code leafSize} elements.
+	 */
+	private static final class FilterTask extends RecursiveAction {
+
+		private static final long serialVersionUID = SpringSecurityCoreVersion.SERIAL_VERSION_UID;
+
+		// a task is never serialized, so what it filters need not be serializable
+		private final transient Object[] elements;
+
+		private final boolean[] retain;
+
+		private final int from;
+
+		private final int to;
+
+		private final int leafSize;
+
+		private final transient Expression filterExpression;
+
+		private final transient Supplier<EvaluationContext> contexts;
+
+		FilterTask(Object[] elements, boolean[] retain, int from, int to, int leafSize, Expression filterExpression,
+				Supplier<EvaluationContext> contexts) {
+			this.elements = elements;
+			this.retain = retain;
+			this.from = from;
+			this.to = to;
+			this.leafSize = leafSize;
+			this.filterExpression = filterExpression;
+			this.contexts = contexts;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > this.leafSize) {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new FilterTask(this.elements, this.retain, this.from, middle, this.leafSize,
+						this.filterExpression, this.contexts),
+						new FilterTask(this.elements, this.retain, middle, this.to, this.leafSize,
+								this.filterExpression, this.contexts));
+				return;
+			}
+			EvaluationContext ctx = this.contexts.get();
+			for (int i = this.from; i < this.to; i++) {
+				setFilterObject(ctx, this.elements[i]);
+				this.retain[i] = ExpressionUtils.evaluateAsBoolean(this.filterExpression, ctx);
+			}
+		}
+
+	}
+
+	/**
+	 * An {@link Iterator} which skips the elements for which the filter expression
+	 * evaluates to {@code false}.
+	 */
+	private static final class FilteringIterator<T> implements Iterator<T> {
+
+		private final Iterator<T> delegate;
+
+		private final Expression filterExpression;
+
+		private final EvaluationContext ctx;
+
+		private final MethodSecurityExpressionOperations rootObject;
+
+		private T next;
+
+		private boolean hasNext;
+
+		FilteringIterator(Iterator<T> delegate, Expression filterExpression, EvaluationContext ctx,
+				MethodSecurityExpressionOperations rootObject) {
+			this.delegate = delegate;
+			this.filterExpression = filterExpression;
+			this.ctx = ctx;
+			this.rootObject = rootObject;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!this.hasNext && this.delegate.hasNext()) {
+				T candidate = this.delegate.next();
+				this.rootObject.setFilterObject(candidate);
+				if (ExpressionUtils.evaluateAsBoolean(this.filterExpression, this.ctx)) {
+					this.next = candidate;
+					this.hasNext = true;
+				}
+			}
+			return this.hasNext;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			T result = this.next;
+			this.next = null;
+			this.hasNext = false;
+			return result;
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,16 +16,27 @@
 
 package org.springframework.security.access.expression.method;
 
+import org.aopalliance.intercept.MethodInvocation;
+
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.ParseException;
+import org.springframework.security.access.expression.AbstractSecurityExpressionHandler;
 import org.springframework.security.access.prepost.PostInvocationAttribute;
 import org.springframework.security.access.prepost.PreInvocationAttribute;
 import org.springframework.security.access.prepost.PrePostInvocationAttributeFactory;
+import org.springframework.security.authorization.AuthorizationManager;
 
 /**
  * {@link PrePostInvocationAttributeFactory} which interprets the annotation value as an
  * expression to be evaluated at runtime.
+ * <p>
+ * If the handler is an {@link AbstractSecurityExpressionHandler}, a pre-authorize
+ * expression without a pre-filter expression is also turned into an
+ * {@link AuthorizationManager} when
+ * {@link AbstractSecurityExpressionHandler#createAuthorizationManager(String)} can do so,
+ * which {@link ExpressionBasedPreInvocationAdvice} then uses instead of evaluating the
+ * expression.
  *
  * @author Luke Taylor
  * @author Rob Winch
@@ -37,7 +48,7 @@ public class ExpressionBasedAnnotationAttributeFactory implements PrePostInvocat
 
 	private ExpressionParser parser;
 
-	private MethodSecurityExpressionHandler handler;
+	private final MethodSecurityExpressionHandler handler;
 
 	public ExpressionBasedAnnotationAttributeFactory(MethodSecurityExpressionHandler handler) {
 		this.handler = handler;
@@ -47,13 +58,15 @@ public class ExpressionBasedAnnotationAttributeFactory implements PrePostInvocat
 	public PreInvocationAttribute createPreInvocationAttribute(String preFilterAttribute, String filterObject,
 			String preAuthorizeAttribute) {
 		try {
-			// TODO: Optimization of permitAll
 			ExpressionParser parser = getParser();
-			Expression preAuthorizeExpression = (preAuthorizeAttribute != null)
-					? parser.parseExpression(preAuthorizeAttribute) : parser.parseExpression("permitAll");
+			String preAuthorize = (preAuthorizeAttribute != null) ? preAuthorizeAttribute : "permitAll";
+			Expression preAuthorizeExpression = parser.parseExpression(preAuthorize);
 			Expression preFilterExpression = (preFilterAttribute != null) ? parser.parseExpression(preFilterAttribute)
 					: null;
-			return new PreInvocationExpressionAttribute(preFilterExpression, filterObject, preAuthorizeExpression);
+			AuthorizationManager<MethodInvocation> authorizationManager = (preFilterExpression == null)
+					? createAuthorizationManager(preAuthorize) : null;
+			return new PreInvocationExpressionAttribute(preFilterExpression, filterObject, preAuthorizeExpression,
+					authorizationManager, this.handler);
 		}
 		catch (ParseException ex) {
 			throw new IllegalArgumentException("Failed to parse expression '" + ex.getExpressionString() + "'", ex);
@@ -90,9 +103,17 @@ public class ExpressionBasedAnnotationAttributeFactory implements PrePostInvocat
 		}
 		synchronized (this.parserLock) {
 			this.parser = this.handler.getExpressionParser();
-			this.handler = null;
 		}
 		return this.parser;
 	}
 
+	@SuppressWarnings("unchecked")
+	private AuthorizationManager<MethodInvocation> createAuthorizationManager(String preAuthorize) {
+		if (!(this.handler instanceof AbstractSecurityExpressionHandler)) {
+			return null;
+		}
+		return ((AbstractSecurityExpressionHandler<MethodInvocation>) this.handler)
+				.createAuthorizationManager(preAuthorize);
+	}
+
 }
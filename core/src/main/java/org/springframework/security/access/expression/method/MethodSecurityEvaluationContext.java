@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -38,6 +38,8 @@ import org.springframework.security.core.parameters.DefaultSecurityParameterName
  */
 class MethodSecurityEvaluationContext extends MethodBasedEvaluationContext {
 
+	private final MethodInvocation methodInvocation;
+
 	/**
 	 * Intended for testing. Don't use in practice as it creates a new parameter resolver
 	 * for each instance. Use the constructor which takes the resolver, as an argument
@@ -50,6 +52,11 @@ class MethodSecurityEvaluationContext extends MethodBasedEvaluationContext {
 	MethodSecurityEvaluationContext(Authentication user, MethodInvocation mi,
 			ParameterNameDiscoverer parameterNameDiscoverer) {
 		super(mi.getThis(), getSpecificMethod(mi), mi.getArguments(), parameterNameDiscoverer);
+		this.methodInvocation = mi;
+	}
+
+	MethodInvocation getMethodInvocation() {
+		return this.methodInvocation;
 	}
 
 	private static Method getSpecificMethod(MethodInvocation mi) {
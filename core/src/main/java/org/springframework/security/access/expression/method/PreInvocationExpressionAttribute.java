@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,12 @@
 
 package org.springframework.security.access.expression.method;
 
+import org.aopalliance.intercept.MethodInvocation;
+
 import org.springframework.expression.Expression;
 import org.springframework.expression.ParseException;
 import org.springframework.security.access.prepost.PreInvocationAttribute;
+import org.springframework.security.authorization.AuthorizationManager;
 
 /**
  * @author Luke Taylor
@@ -29,16 +32,30 @@ class PreInvocationExpressionAttribute extends AbstractExpressionBasedMethodConf
 
 	private final String filterTarget;
 
+	private final AuthorizationManager<MethodInvocation> authorizationManager;
+
+	private final MethodSecurityExpressionHandler authorizationManagerHandler;
+
 	PreInvocationExpressionAttribute(String filterExpression, String filterTarget, String authorizeExpression)
 			throws ParseException {
 		super(filterExpression, authorizeExpression);
 		this.filterTarget = filterTarget;
+		this.authorizationManager = null;
+		this.authorizationManagerHandler = null;
 	}
 
 	PreInvocationExpressionAttribute(Expression filterExpression, String filterTarget, Expression authorizeExpression)
 			throws ParseException {
+		this(filterExpression, filterTarget, authorizeExpression, null, null);
+	}
+
+	PreInvocationExpressionAttribute(Expression filterExpression, String filterTarget, Expression authorizeExpression,
+			AuthorizationManager<MethodInvocation> authorizationManager,
+			MethodSecurityExpressionHandler authorizationManagerHandler) throws ParseException {
 		super(filterExpression, authorizeExpression);
 		this.filterTarget = filterTarget;
+		this.authorizationManager = authorizationManager;
+		this.authorizationManagerHandler = authorizationManagerHandler;
 	}
 
 	/**
@@ -50,6 +67,17 @@ class PreInvocationExpressionAttribute extends AbstractExpressionBasedMethodConf
 		return this.filterTarget;
 	}
 
+	/**
+	 * The {@link AuthorizationManager} that decides like the authorize expression, if
+	 * it was created by the given handler.
+	 * @param handler the handler that would evaluate the expression
+	 * @return the {@link AuthorizationManager}, or {@code null} if the expression must
+	 * be evaluated
+	 */
+	AuthorizationManager<MethodInvocation> getAuthorizationManager(MethodSecurityExpressionHandler handler) {
+		return (handler == this.authorizationManagerHandler) ? this.authorizationManager : null;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.hierarchicalroles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.authority.GrantedAuthorityInterner;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+
+/**
+ * An immutable {@link RoleHierarchy} whose reachable roles are computed once for each
+ * role, and whose results are cached for each distinct set of authorities.
+ * <p>
+ * Results are cached in two levels. The first level remembers the last authorities that
+ * were seen for each hash slot and compares them by identity, so that checking the same
+ * authorities again, for example those of the same
+ * {@link org.springframework.security.core.Authentication}, does not allocate. The second
+ * level is a bounded LRU cache keyed by the sorted authority names. Only authorities that
+ * are plain {@link SimpleGrantedAuthority} instances are cached, since other types may
+ * carry state that must not be shared between users. The returned collections are
+ * unmodifiable and shared.
+ *
+ * @since 5.6
+ * @see RoleHierarchyImpl
+ */
+public final class CompiledRoleHierarchy implements RoleHierarchy {
+
+	/**
+	 * The default number of distinct sets of authorities whose results are cached.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+
+	private static final int MAX_RECENT_SIZE = 256;
+
+	private final Map<String, List<GrantedAuthority>> rolesReachableInOneOrMoreSteps;
+
+	private final ConcurrentLruCache<Signature, Collection<GrantedAuthority>> cache;
+
+	// entries are immutable, so racy reads and writes are safe
+	private final Recent[] recent;
+
+	/**
+	 * Creates a new instance that uses the given map as is. The map and its lists must
+	 * not be modified afterwards.
+	 */
+	CompiledRoleHierarchy(Map<String, List<GrantedAuthority>> rolesReachableInOneOrMoreSteps, int cacheSize) {
+		Assert.isTrue(cacheSize > 0, "cacheSize must be greater than 0");
+		this.rolesReachableInOneOrMoreSteps = rolesReachableInOneOrMoreSteps;
+		this.cache = new ConcurrentLruCache<>(cacheSize, this::computeReachable);
+		int recentSize = Integer.highestOneBit(Math.min(cacheSize, MAX_RECENT_SIZE) * 2 - 1);
+		this.recent = new Recent[recentSize];
+	}
+
+	/**
+	 * Creates a new instance from the string representation of a hierarchy, as accepted
+	 * by {@link RoleHierarchyImpl#setHierarchy(String)}.
+	 * @param hierarchy the role hierarchy
+	 * @return the compiled role hierarchy
+	 * @throws CycleInRoleHierarchyException if the hierarchy contains a cycle
+	 */
+	public static CompiledRoleHierarchy fromHierarchy(String hierarchy) {
+		return fromHierarchy(hierarchy, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Creates a new instance from the string representation of a hierarchy, as accepted
+	 * by {@link RoleHierarchyImpl#setHierarchy(String)}.
+	 * @param hierarchy the role hierarchy
+	 * @param cacheSize the number of distinct sets of authorities whose results are
+	 * cached
+	 * @return the compiled role hierarchy
+	 * @throws CycleInRoleHierarchyException if the hierarchy contains a cycle
+	 */
+	public static CompiledRoleHierarchy fromHierarchy(String hierarchy, int cacheSize) {
+		Assert.notNull(hierarchy, "hierarchy cannot be null");
+		RoleHierarchyImpl roleHierarchy = new RoleHierarchyImpl();
+		roleHierarchy.setHierarchy(hierarchy);
+		Map<String, List<String>> rolesReachableInOneOrMoreSteps = new HashMap<>();
+		roleHierarchy.getRolesReachableInOneOrMoreStepsMap()
+				.forEach((role, reachable) -> rolesReachableInOneOrMoreSteps.put(role,
+						new ArrayList<>(AuthorityUtils.authorityListToSet(reachable))));
+		return fromReachableRoles(rolesReachableInOneOrMoreSteps, cacheSize);
+	}
+
+	/**
+	 * Creates a new instance from the roles that are reachable from each role in one or
+	 * more steps. The map must already be transitively closed.
+	 * @param rolesReachableInOneOrMoreSteps the roles reachable from each role
+	 * @param cacheSize the number of distinct sets of authorities whose results are
+	 * cached
+	 * @return the compiled role hierarchy
+	 */
+	public static CompiledRoleHierarchy fromReachableRoles(
+			Map<String, ? extends Collection<String>> rolesReachableInOneOrMoreSteps, int cacheSize) {
+		Assert.notNull(rolesReachableInOneOrMoreSteps, "rolesReachableInOneOrMoreSteps cannot be null");
+		GrantedAuthorityInterner interner = GrantedAuthorityInterner.getSharedInstance();
+		Map<String, List<GrantedAuthority>> reachableRoles = new HashMap<>();
+		rolesReachableInOneOrMoreSteps.forEach((role, reachable) -> {
+			List<GrantedAuthority> authorities = new ArrayList<>(reachable.size());
+			for (String authority : reachable) {
+				authorities.add(interner.intern(authority));
+			}
+			reachableRoles.put(role, Collections.unmodifiableList(authorities));
+		});
+		return new CompiledRoleHierarchy(reachableRoles, cacheSize);
+	}
+
+	@Override
+	public Collection<GrantedAuthority> getReachableGrantedAuthorities(
+			Collection<? extends GrantedAuthority> authorities) {
+		if (authorities == null || authorities.isEmpty()) {
+			return AuthorityUtils.NO_AUTHORITIES;
+		}
+		int hash = 1;
+		for (GrantedAuthority authority : authorities) {
+			if (authority.getClass() != SimpleGrantedAuthority.class) {
+				return computeReachable(authorities);
+			}
+			hash = 31 * hash + authority.hashCode();
+		}
+		int slot = (hash ^ (hash >>> 16)) & (this.recent.length - 1);
+		Recent recent = this.recent[slot];
+		if (recent != null && recent.matches(authorities)) {
+			return recent.reachable;
+		}
+		Collection<GrantedAuthority> reachable = this.cache.get(Signature.of(authorities));
+		this.recent[slot] = new Recent(authorities, reachable);
+		return reachable;
+	}
+
+	private Collection<GrantedAuthority> computeReachable(Signature signature) {
+		GrantedAuthorityInterner interner = GrantedAuthorityInterner.getSharedInstance();
+		List<GrantedAuthority> authorities = new ArrayList<>(signature.names.length);
+		for (String name : signature.names) {
+			authorities.add(interner.intern(name));
+		}
+		return Collections.unmodifiableList(new ArrayList<>(computeReachable(authorities)));
+	}
+
+	private Collection<GrantedAuthority> computeReachable(Collection<? extends GrantedAuthority> authorities) {
+		Set<GrantedAuthority> reachableRoles = new LinkedHashSet<>();
+		Set<String> processedNames = new HashSet<>();
+		for (GrantedAuthority authority : authorities) {
+			if (authority.getAuthority() == null) {
+				reachableRoles.add(authority);
+				continue;
+			}
+			if (!processedNames.add(authority.getAuthority())) {
+				continue;
+			}
+			reachableRoles.add(authority);
+			List<GrantedAuthority> lowerRoles = this.rolesReachableInOneOrMoreSteps.get(authority.getAuthority());
+			if (lowerRoles == null) {
+				continue;
+			}
+			for (GrantedAuthority role : lowerRoles) {
+				if (processedNames.add(role.getAuthority())) {
+					reachableRoles.add(role);
+				}
+			}
+		}
+		return new ArrayList<>(reachableRoles);
+	}
+
+	/**
+	 * The sorted and distinct names of a set of authorities.
+	 */
+	private static final class Signature {
+
+		private final String[] names;
+
+		private final int hashCode;
+
+		private Signature(String[] names) {
+			this.names = names;
+			this.hashCode = Arrays.hashCode(names);
+		}
+
+		static Signature of(Collection<? extends GrantedAuthority> authorities) {
+			String[] names = new String[authorities.size()];
+			int i = 0;
+			for (GrantedAuthority authority : authorities) {
+				names[i++] = authority.getAuthority();
+			}
+			Arrays.sort(names);
+			int distinct = 0;
+			for (int j = 0; j < names.length; j++) {
+				if (distinct == 0 || !names[j].equals(names[distinct - 1])) {
+					names[distinct++] = names[j];
+				}
+			}
+			return new Signature((distinct != names.length) ? Arrays.copyOf(names, distinct) : names);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof Signature) && Arrays.equals(this.names, ((Signature) obj).names);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+	}
+
+	/**
+	 * The last authorities that were seen in a slot, compared by identity.
+	 */
+	private static final class Recent {
+
+		private final GrantedAuthority[] authorities;
+
+		private final Collection<GrantedAuthority> reachable;
+
+		Recent(Collection<? extends GrantedAuthority> authorities, Collection<GrantedAuthority> reachable) {
+			this.authorities = authorities.toArray(new GrantedAuthority[0]);
+			this.reachable = reachable;
+		}
+
+		boolean matches(Collection<? extends GrantedAuthority> authorities) {
+			if (authorities.size() != this.authorities.length) {
+				return false;
+			}
+			int i = 0;
+			for (GrantedAuthority authority : authorities) {
+				if (authority != this.authorities[i++]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.hierarchicalroles;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.core.log.LogMessage;
+import org.springframework.jdbc.core.support.JdbcDaoSupport;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RoleHierarchySource} that loads the edges of the role hierarchy from a
+ * database table. By default, each row of the {@code role_hierarchy} table is an edge
+ * from its {@code higher_role} to its {@code lower_role}.
+ *
+ * @since 5.6
+ * @see ReloadableRoleHierarchy
+ */
+public class JdbcRoleHierarchySource extends JdbcDaoSupport implements RoleHierarchySource {
+
+	// @formatter:off
+	public static final String DEF_ROLE_HIERARCHY_QUERY = "select higher_role,lower_role "
+			+ "from role_hierarchy";
+	// @formatter:on
+
+	private String roleHierarchyQuery = DEF_ROLE_HIERARCHY_QUERY;
+
+	@Override
+	public Map<String, Set<String>> loadRolesReachableInOneStep() {
+		Map<String, Set<String>> rolesReachableInOneStep = new HashMap<>();
+		getJdbcTemplate().query(this.roleHierarchyQuery, (rs) -> {
+			String higherRole = rs.getString(1);
+			String lowerRole = rs.getString(2);
+			rolesReachableInOneStep.computeIfAbsent(higherRole, (role) -> new HashSet<>()).add(lowerRole);
+		});
+		this.logger.debug(
+				LogMessage.format("Loaded role hierarchy edges from %s higher roles", rolesReachableInOneStep.size()));
+		return rolesReachableInOneStep;
+	}
+
+	/**
+	 * Sets the query that loads the edges of the role hierarchy, which must select the
+	 * higher role and the lower role of each edge, in that order.
+	 * @param roleHierarchyQuery the query
+	 */
+	public void setRoleHierarchyQuery(String roleHierarchyQuery) {
+		Assert.hasText(roleHierarchyQuery, "roleHierarchyQuery cannot be empty");
+		this.roleHierarchyQuery = roleHierarchyQuery;
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.hierarchicalroles;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.log.LogMessage;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.GrantedAuthorityInterner;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RoleHierarchy} whose edges are loaded from a {@link RoleHierarchySource} and
+ * can be reloaded while it is in use.
+ * <p>
+ * Each load publishes an immutable snapshot, so reads never block and always see a
+ * consistent hierarchy. When the edges are reloaded, only the roles whose edges changed
+ * and the roles above them are computed again, and the reachable roles of all other
+ * roles are shared with the previous snapshot. If loading fails, or the new edges
+ * contain a cycle, the previous snapshot remains in use.
+ * <p>
+ * {@link #reload()} can be called at any time, for example from a scheduled task or
+ * after the roles were changed.
+ *
+ * @since 5.6
+ * @see JdbcRoleHierarchySource
+ */
+public class ReloadableRoleHierarchy implements RoleHierarchy, InitializingBean {
+
+	private static final Log logger = LogFactory.getLog(ReloadableRoleHierarchy.class);
+
+	private final RoleHierarchySource source;
+
+	private int cacheSize = CompiledRoleHierarchy.DEFAULT_CACHE_SIZE;
+
+	private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), Collections.emptyMap(),
+			CompiledRoleHierarchy.DEFAULT_CACHE_SIZE);
+
+	/**
+	 * Creates a new instance, whose edges are loaded from the given source by
+	 * {@link #afterPropertiesSet()} or {@link #reload()}.
+	 * @param source the source of the edges
+	 */
+	public ReloadableRoleHierarchy(RoleHierarchySource source) {
+		Assert.notNull(source, "source cannot be null");
+		this.source = source;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		reload();
+	}
+
+	@Override
+	public Collection<GrantedAuthority> getReachableGrantedAuthorities(
+			Collection<? extends GrantedAuthority> authorities) {
+		return this.snapshot.roleHierarchy.getReachableGrantedAuthorities(authorities);
+	}
+
+	/**
+	 * Loads the edges from the {@link RoleHierarchySource} and publishes them if they
+	 * changed. Concurrent reloads are performed one after another.
+	 * @throws CycleInRoleHierarchyException if the new edges contain a cycle
+	 */
+	public synchronized void reload() {
+		Map<String, Set<String>> loaded = this.source.loadRolesReachableInOneStep();
+		Assert.notNull(loaded, "rolesReachableInOneStep cannot be null");
+		Snapshot previous = this.snapshot;
+		Map<String, Set<String>> rolesReachableInOneStep = copyEdges(loaded);
+		Set<String> changedRoles = new HashSet<>(rolesReachableInOneStep.keySet());
+		changedRoles.addAll(previous.rolesReachableInOneStep.keySet());
+		changedRoles.removeIf((role) -> rolesReachableInOneStep.getOrDefault(role, Collections.emptySet())
+				.equals(previous.rolesReachableInOneStep.getOrDefault(role, Collections.emptySet())));
+		if (changedRoles.isEmpty()) {
+			logger.debug("Role hierarchy is unchanged");
+			return;
+		}
+		Set<String> affectedRoles = getHigherRoles(rolesReachableInOneStep, changedRoles);
+		Map<String, List<GrantedAuthority>> rolesReachableInOneOrMoreSteps = new HashMap<>(
+				previous.rolesReachableInOneOrMoreSteps);
+		rolesReachableInOneOrMoreSteps.keySet().removeAll(affectedRoles);
+		Closure closure = new Closure(rolesReachableInOneStep, rolesReachableInOneOrMoreSteps, affectedRoles);
+		for (String role : affectedRoles) {
+			closure.compute(role);
+		}
+		this.snapshot = new Snapshot(rolesReachableInOneStep, rolesReachableInOneOrMoreSteps, this.cacheSize);
+		logger.debug(LogMessage.format("Reloaded role hierarchy with %s higher roles, of which %s were computed again",
+				rolesReachableInOneStep.size(), affectedRoles.size()));
+	}
+
+	/**
+	 * Sets the number of distinct sets of authorities whose reachable authorities are
+	 * cached. Takes effect with the next change of the edges. Defaults to
+	 * {@link CompiledRoleHierarchy#DEFAULT_CACHE_SIZE}.
+	 * @param cacheSize the cache size
+	 */
+	public void setCacheSize(int cacheSize) {
+		Assert.isTrue(cacheSize > 0, "cacheSize must be greater than 0");
+		this.cacheSize = cacheSize;
+	}
+
+	private static Map<String, Set<String>> copyEdges(Map<String, Set<String>> edges) {
+		Map<String, Set<String>> copy = new HashMap<>();
+		edges.forEach((higherRole, lowerRoles) -> {
+			Assert.hasText(higherRole, "higherRole cannot be empty");
+			Assert.noNullElements(lowerRoles, "lowerRoles cannot contain null elements");
+			if (!lowerRoles.isEmpty()) {
+				copy.put(higherRole, Collections.unmodifiableSet(new LinkedHashSet<>(lowerRoles)));
+			}
+		});
+		return copy;
+	}
+
+	/**
+	 * Returns the given roles along with every role that reaches one of them. These are
+	 * the only roles whose reachable roles may differ from the previous snapshot.
+	 */
+	private static Set<String> getHigherRoles(Map<String, Set<String>> rolesReachableInOneStep, Set<String> roles) {
+		Map<String, List<String>> higherRolesInOneStep = new HashMap<>();
+		rolesReachableInOneStep.forEach((higherRole, lowerRoles) -> {
+			for (String lowerRole : lowerRoles) {
+				higherRolesInOneStep.computeIfAbsent(lowerRole, (role) -> new ArrayList<>()).add(higherRole);
+			}
+		});
+		Set<String> higherRoles = new HashSet<>(roles);
+		Deque<String> rolesToVisit = new ArrayDeque<>(roles);
+		while (!rolesToVisit.isEmpty()) {
+			for (String higherRole : higherRolesInOneStep.getOrDefault(rolesToVisit.pop(),
+					Collections.emptyList())) {
+				if (higherRoles.add(higherRole)) {
+					rolesToVisit.push(higherRole);
+				}
+			}
+		}
+		return higherRoles;
+	}
+
+	/**
+	 * Computes the reachable roles of the affected roles, reusing those of the roles
+	 * that were not affected.
+	 */
+	private static final class Closure {
+
+		private final Map<String, Set<String>> rolesReachableInOneStep;
+
+		private final Map<String, List<GrantedAuthority>> rolesReachableInOneOrMoreSteps;
+
+		private final Set<String> affectedRoles;
+
+		private final Set<String> visiting = new HashSet<>();
+
+		private final GrantedAuthorityInterner interner = GrantedAuthorityInterner.getSharedInstance();
+
+		Closure(Map<String, Set<String>> rolesReachableInOneStep,
+				Map<String, List<GrantedAuthority>> rolesReachableInOneOrMoreSteps, Set<String> affectedRoles) {
+			this.rolesReachableInOneStep = rolesReachableInOneStep;
+			this.rolesReachableInOneOrMoreSteps = rolesReachableInOneOrMoreSteps;
+			this.affectedRoles = affectedRoles;
+		}
+
+		List<GrantedAuthority> compute(String role) {
+			List<GrantedAuthority> reachable = this.rolesReachableInOneOrMoreSteps.get(role);
+			if (reachable != null) {
+				return reachable;
+			}
+			Set<String> lowerRoles = this.rolesReachableInOneStep.get(role);
+			if (lowerRoles == null) {
+				return Collections.emptyList();
+			}
+			Assert.state(this.affectedRoles.contains(role), () -> "Missing reachable roles of " + role);
+			if (!this.visiting.add(role)) {
+				throw new CycleInRoleHierarchyException();
+			}
+			Set<GrantedAuthority> reachableRoles = new LinkedHashSet<>();
+			for (String lowerRole : lowerRoles) {
+				reachableRoles.add(this.interner.intern(lowerRole));
+				reachableRoles.addAll(compute(lowerRole));
+			}
+			this.visiting.remove(role);
+			reachable = Collections.unmodifiableList(new ArrayList<>(reachableRoles));
+			this.rolesReachableInOneOrMoreSteps.put(role, reachable);
+			return reachable;
+		}
+
+	}
+
+	private static final class Snapshot {
+
+		private final Map<String, Set<String>> rolesReachableInOneStep;
+
+		private final Map<String, List<GrantedAuthority>> rolesReachableInOneOrMoreSteps;
+
+		private final CompiledRoleHierarchy roleHierarchy;
+
+		Snapshot(Map<String, Set<String>> rolesReachableInOneStep,
+				Map<String, List<GrantedAuthority>> rolesReachableInOneOrMoreSteps, int cacheSize) {
+			this.rolesReachableInOneStep = rolesReachableInOneStep;
+			this.rolesReachableInOneOrMoreSteps = rolesReachableInOneOrMoreSteps;
+			this.roleHierarchy = new CompiledRoleHierarchy(rolesReachableInOneOrMoreSteps, cacheSize);
+		}
+
+	}
+
+}
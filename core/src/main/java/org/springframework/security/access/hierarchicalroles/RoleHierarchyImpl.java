@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -155,6 +155,10 @@ public class RoleHierarchyImpl implements RoleHierarchy {
 		return new ArrayList<>(reachableRoles);
 	}
 
+	Map<String, Set<GrantedAuthority>> getRolesReachableInOneOrMoreStepsMap() {
+		return this.rolesReachableInOneOrMoreStepsMap;
+	}
+
 	/**
 	 * 构建角色间的关系（继承依赖关系）
 	 *
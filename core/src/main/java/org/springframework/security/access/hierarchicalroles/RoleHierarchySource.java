@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.hierarchicalroles;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A source of the edges of a role hierarchy, as used by
+ * {@link ReloadableRoleHierarchy}.
+ *
+ * @since 5.6
+ * @see JdbcRoleHierarchySource
+ */
+@FunctionalInterface
+public interface RoleHierarchySource {
+
+	/**
+	 * Loads the current edges of the role hierarchy. Each key is a higher role, which
+	 * references the lower roles that it includes directly.
+	 * @return the lower roles of each higher role, never {@code null}
+	 */
+	Map<String, Set<String>> loadRolesReachableInOneStep();
+
+}
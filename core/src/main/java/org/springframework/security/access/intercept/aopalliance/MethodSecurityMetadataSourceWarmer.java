@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.intercept.aopalliance;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.log.LogMessage;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.security.access.method.MethodSecurityMetadataSource;
+import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.security.access.prepost.PostFilter;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.access.prepost.PreFilter;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Resolves the attributes of the methods of the secured beans of an
+ * {@link ApplicationContext} when it is refreshed, so that a
+ * {@link MethodSecurityMetadataSource} which caches them, such as
+ * {@link org.springframework.security.access.method.DelegatingMethodSecurityMetadataSource},
+ * does not have to resolve them when the methods are first invoked.
+ * <p>
+ * A bean is secured if its class, one of its interfaces or one of their public methods
+ * is annotated with one of the {@link #setAnnotationTypes(Collection) annotation
+ * types}. Only singletons that were already created are considered.
+ *
+ * @since 5.6
+ */
+public final class MethodSecurityMetadataSourceWarmer implements ApplicationListener<ContextRefreshedEvent> {
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final MethodSecurityMetadataSource metadataSource;
+
+	private Set<Class<? extends Annotation>> annotationTypes = new LinkedHashSet<>(Arrays.asList(PreAuthorize.class,
+			PostAuthorize.class, PreFilter.class, PostFilter.class, Secured.class));
+
+	/**
+	 * Creates an instance.
+	 * @param metadataSource the {@link MethodSecurityMetadataSource} to resolve the
+	 * attributes with
+	 */
+	public MethodSecurityMetadataSourceWarmer(MethodSecurityMetadataSource metadataSource) {
+		Assert.notNull(metadataSource, "metadataSource cannot be null");
+		this.metadataSource = metadataSource;
+	}
+
+	/**
+	 * Sets the annotation types which mark a bean as secured. Default is
+	 * {@link PreAuthorize}, {@link PostAuthorize}, {@link PreFilter}, {@link PostFilter}
+	 * and {@link Secured}.
+	 * @param annotationTypes the annotation types
+	 */
+	public void setAnnotationTypes(Collection<Class<? extends Annotation>> annotationTypes) {
+		Assert.notEmpty(annotationTypes, "annotationTypes cannot be empty");
+		this.annotationTypes = new LinkedHashSet<>(annotationTypes);
+	}
+
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		ApplicationContext context = event.getApplicationContext();
+		if (!(context instanceof ConfigurableApplicationContext)) {
+			return;
+		}
+		ConfigurableListableBeanFactory beanFactory = ((ConfigurableApplicationContext) context).getBeanFactory();
+		int count = 0;
+		for (String beanName : beanFactory.getBeanNamesForType(Object.class, false, false)) {
+			Object bean = beanFactory.containsSingleton(beanName) ? beanFactory.getSingleton(beanName) : null;
+			if (bean != null && !(bean instanceof FactoryBean)) {
+				count += warmUp(AopProxyUtils.ultimateTargetClass(bean));
+			}
+		}
+		this.logger.debug(LogMessage.format("Resolved the security attributes of %s methods", count));
+	}
+
+	/**
+	 * Resolves the attributes of the public methods of the given class and of its
+	 * interfaces, if the class is secured.
+	 * @param targetClass the class
+	 * @return the number of methods whose attributes were resolved
+	 */
+	public int warmUp(Class<?> targetClass) {
+		Set<Method> methods = new LinkedHashSet<>();
+		for (Method method : targetClass.getMethods()) {
+			if (method.getDeclaringClass() != Object.class) {
+				methods.add(method);
+			}
+		}
+		for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+			methods.addAll(Arrays.asList(type.getMethods()));
+		}
+		if (!isSecured(targetClass, methods)) {
+			return 0;
+		}
+		for (Method method : methods) {
+			this.metadataSource.getAttributes(method, targetClass);
+		}
+		return methods.size();
+	}
+
+	private boolean isSecured(Class<?> targetClass, Set<Method> methods) {
+		for (Class<? extends Annotation> annotationType : this.annotationTypes) {
+			if (AnnotationUtils.findAnnotation(targetClass, annotationType) != null) {
+				return true;
+			}
+			for (Method method : methods) {
+				if (AnnotationUtils.findAnnotation(method, annotationType) != null) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+}
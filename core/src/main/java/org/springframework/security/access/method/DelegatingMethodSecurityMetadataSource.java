@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,11 +19,11 @@ package org.springframework.security.access.method;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.core.log.LogMessage;
 import org.springframework.security.access.ConfigAttribute;
@@ -34,6 +34,9 @@ import org.springframework.util.ObjectUtils;
  * Automatically tries a series of method definition sources, relying on the first source
  * of metadata that provides a non-null/non-empty response. Provides automatic caching of
  * the retrieved metadata.
+ * <p>
+ * The cache is read without a lock, and the sources are queried only once for each
+ * method.
  *
  * @author Ben Alex
  * @author Luke Taylor
@@ -44,7 +47,7 @@ public final class DelegatingMethodSecurityMetadataSource extends AbstractMethod
 
 	private final List<MethodSecurityMetadataSource> methodSecurityMetadataSources;
 
-	private final Map<DefaultCacheKey, Collection<ConfigAttribute>> attributeCache = new HashMap<>();
+	private final Map<DefaultCacheKey, Collection<ConfigAttribute>> attributeCache = new ConcurrentHashMap<>();
 
 	public DelegatingMethodSecurityMetadataSource(List<MethodSecurityMetadataSource> methodSecurityMetadataSources) {
 		Assert.notNull(methodSecurityMetadataSources, "MethodSecurityMetadataSources cannot be null");
@@ -54,29 +57,30 @@ public final class DelegatingMethodSecurityMetadataSource extends AbstractMethod
 	@Override
 	public Collection<ConfigAttribute> getAttributes(Method method, Class<?> targetClass) {
 		DefaultCacheKey cacheKey = new DefaultCacheKey(method, targetClass);
-		synchronized (this.attributeCache) {
-			Collection<ConfigAttribute> cached = this.attributeCache.get(cacheKey);
-			// Check for canonical value indicating there is no config attribute,
-			if (cached != null) {
-				return cached;
-			}
-			// No cached value, so query the sources to find a result
-			Collection<ConfigAttribute> attributes = null;
-			for (MethodSecurityMetadataSource s : this.methodSecurityMetadataSources) {
-				attributes = s.getAttributes(method, targetClass);
-				if (attributes != null && !attributes.isEmpty()) {
-					break;
-				}
-			}
-			// Put it in the cache.
-			if (attributes == null || attributes.isEmpty()) {
-				this.attributeCache.put(cacheKey, NULL_CONFIG_ATTRIBUTE);
-				return NULL_CONFIG_ATTRIBUTE;
+		Collection<ConfigAttribute> cached = this.attributeCache.get(cacheKey);
+		// Check for canonical value indicating there is no config attribute,
+		if (cached != null) {
+			return cached;
+		}
+		// No cached value, so query the sources to find a result and put it in the cache
+		return this.attributeCache.computeIfAbsent(cacheKey, (key) -> findAttributes(method, targetClass, key));
+	}
+
+	private Collection<ConfigAttribute> findAttributes(Method method, Class<?> targetClass,
+			DefaultCacheKey cacheKey) {
+		// Query the sources to find a result
+		Collection<ConfigAttribute> attributes = null;
+		for (MethodSecurityMetadataSource s : this.methodSecurityMetadataSources) {
+			attributes = s.getAttributes(method, targetClass);
+			if (attributes != null && !attributes.isEmpty()) {
+				break;
 			}
-			this.logger.debug(LogMessage.format("Caching method [%s] with attributes %s", cacheKey, attributes));
-			this.attributeCache.put(cacheKey, attributes);
-			return attributes;
 		}
+		if (attributes == null || attributes.isEmpty()) {
+			return NULL_CONFIG_ATTRIBUTE;
+		}
+		this.logger.debug(LogMessage.format("Caching method [%s] with attributes %s", cacheKey, attributes));
+		return attributes;
 	}
 
 	@Override
@@ -20,8 +20,10 @@ import java.util.Collection;
 
 import org.springframework.security.access.AccessDecisionVoter;
 import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthoritySet;
 
 /**
  * Votes if any {@link ConfigAttribute#getAttribute()} starts with a prefix indicating
@@ -89,20 +91,39 @@ public class RoleVoter implements AccessDecisionVoter<Object> {
 		}
 		int result = ACCESS_ABSTAIN;
 		Collection<? extends GrantedAuthority> authorities = extractAuthorities(authentication);
+		AuthoritySet authoritySet = getCachedAuthoritySet(authentication, authorities);
 		for (ConfigAttribute attribute : attributes) {
 			if (this.supports(attribute)) {
 				result = ACCESS_DENIED;
 				// Attempt to find a matching granted authority
-				for (GrantedAuthority authority : authorities) {
-					if (attribute.getAttribute().equals(authority.getAuthority())) {
-						return ACCESS_GRANTED;
-					}
+				if ((authoritySet != null) ? authoritySet.contains(attribute.getAttribute())
+						: contains(authorities, attribute.getAttribute())) {
+					return ACCESS_GRANTED;
 				}
 			}
 		}
 		return result;
 	}
 
+	private static boolean contains(Collection<? extends GrantedAuthority> authorities, String attribute) {
+		for (GrantedAuthority authority : authorities) {
+			if (attribute.equals(authority.getAuthority())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// only the set cached by the token is worth using, building one would cost more than
+	// comparing the authorities, and the token caches none if it overrides getAuthorities
+	private AuthoritySet getCachedAuthoritySet(Authentication authentication,
+			Collection<? extends GrantedAuthority> authorities) {
+		if (authentication instanceof AbstractAuthenticationToken && authorities == authentication.getAuthorities()) {
+			return ((AbstractAuthenticationToken) authentication).getAuthoritySet();
+		}
+		return null;
+	}
+
 	Collection<? extends GrantedAuthority> extractAuthorities(Authentication authentication) {
 		return authentication.getAuthorities();
 	}
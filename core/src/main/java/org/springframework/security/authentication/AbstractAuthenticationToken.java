@@ -26,6 +26,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.authority.AuthoritySet;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.util.Assert;
 
@@ -39,12 +40,18 @@ import org.springframework.util.Assert;
  */
 public abstract class AbstractAuthenticationToken implements Authentication, CredentialsContainer {
 
+	// the value computed for 5.5, so that tokens serialized by earlier versions can still
+	// be read now that the class has more methods
+	private static final long serialVersionUID = -3194696462184782834L;
+
 	private final Collection<GrantedAuthority> authorities;
 
 	private Object details;
 
 	private boolean authenticated = false;
 
+	private transient volatile AuthoritySet authoritySet;
+
 	/**
 	 * Creates a token with the supplied array of authorities.
 	 * @param authorities the collection of <tt>GrantedAuthority</tt>s for the principal
@@ -66,6 +73,25 @@ public abstract class AbstractAuthenticationToken implements Authentication, Cre
 		return this.authorities;
 	}
 
+	/**
+	 * Returns the {@link AuthoritySet} of the authorities of this token, which is computed
+	 * once.
+	 * @return the {@link AuthoritySet}, or {@code null} if a subclass returns other
+	 * authorities from {@link #getAuthorities()}, since no set is cached for those
+	 * @since 5.6
+	 */
+	public AuthoritySet getAuthoritySet() {
+		if (getAuthorities() != this.authorities) {
+			return null;
+		}
+		AuthoritySet authoritySet = this.authoritySet;
+		if (authoritySet == null) {
+			authoritySet = AuthoritySet.of(this.authorities);
+			this.authoritySet = authoritySet;
+		}
+		return authoritySet;
+	}
+
 	@Override
 	public String getName() {
 		if (this.getPrincipal() instanceof UserDetails) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,8 +21,10 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Supplier;
 
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthoritySet;
 import org.springframework.util.Assert;
 
 /**
@@ -39,8 +41,11 @@ public final class AuthorityAuthorizationManager<T> implements AuthorizationMana
 
 	private final Set<String> authorities;
 
+	private final AuthoritySet authoritySet;
+
 	private AuthorityAuthorizationManager(String... authorities) {
 		this.authorities = new HashSet<>(Arrays.asList(authorities));
+		this.authoritySet = AuthoritySet.of(authorities);
 	}
 
 	/**
@@ -119,6 +124,10 @@ public final class AuthorityAuthorizationManager<T> implements AuthorizationMana
 	}
 
 	private boolean isAuthorized(Authentication authentication) {
+		AuthoritySet authoritySet = getCachedAuthoritySet(authentication);
+		if (authoritySet != null) {
+			return authoritySet.containsAny(this.authoritySet);
+		}
 		for (GrantedAuthority grantedAuthority : authentication.getAuthorities()) {
 			String authority = grantedAuthority.getAuthority();
 			if (this.authorities.contains(authority)) {
@@ -128,6 +137,15 @@ public final class AuthorityAuthorizationManager<T> implements AuthorizationMana
 		return false;
 	}
 
+	// only the set cached by the token is worth using, building one would cost more than
+	// looking up each authority
+	private static AuthoritySet getCachedAuthoritySet(Authentication authentication) {
+		if (authentication instanceof AbstractAuthenticationToken) {
+			return ((AbstractAuthenticationToken) authentication).getAuthoritySet();
+		}
+		return null;
+	}
+
 	@Override
 	public String toString() {
 		return "AuthorityAuthorizationManager[authorities=" + this.authorities + "]";
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.core.MethodClassKey;
+
+/**
+ * Resolves a value for each method and target class once, and caches it, so that later
+ * invocations of the same method only cost a map lookup.
+ *
+ * @param <V> the type of the resolved values
+ * @since 5.6
+ */
+abstract class AbstractMethodAttributeRegistry<V> {
+
+	private final Map<MethodClassKey, V> cachedAttributes = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the value for the method that is invoked, resolving it on first use.
+	 * @param mi the method invocation
+	 * @return the value, never {@code null}
+	 */
+	final V getAttribute(MethodInvocation mi) {
+		Method method = mi.getMethod();
+		Object target = mi.getThis();
+		Class<?> targetClass = (target != null) ? target.getClass() : null;
+		MethodClassKey cacheKey = new MethodClassKey(method, targetClass);
+		V attribute = this.cachedAttributes.get(cacheKey);
+		if (attribute != null) {
+			return attribute;
+		}
+		return this.cachedAttributes.computeIfAbsent(cacheKey, (key) -> resolveAttribute(method, targetClass));
+	}
+
+	/**
+	 * Resolves the value for the given method.
+	 * @param method the method
+	 * @param targetClass the class of the object that the method is invoked on, possibly
+	 * {@code null}
+	 * @return the value, never {@code null}
+	 */
+	abstract V resolveAttribute(Method method, Class<?> targetClass);
+
+}
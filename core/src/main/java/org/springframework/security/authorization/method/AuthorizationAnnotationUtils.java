@@ -0,0 +1,60 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Finds the security annotations of a method, the same way as
+ * {@link org.springframework.security.access.prepost.PrePostAnnotationSecurityMetadataSource}.
+ *
+ * @since 5.6
+ */
+final class AuthorizationAnnotationUtils {
+
+	private AuthorizationAnnotationUtils() {
+	}
+
+	/**
+	 * Finds the annotation on the most specific method for the target class, then on the
+	 * given method, and then on the class that declares the most specific method.
+	 * @param method the method
+	 * @param targetClass the target class, possibly {@code null}
+	 * @param annotationType the annotation type
+	 * @param <A> the annotation type
+	 * @return the annotation, or {@code null} if none was found
+	 */
+	static <A extends Annotation> A findAnnotation(Method method, Class<?> targetClass, Class<A> annotationType) {
+		Method specificMethod = ClassUtils.getMostSpecificMethod(method, targetClass);
+		A annotation = AnnotationUtils.findAnnotation(specificMethod, annotationType);
+		if (annotation != null) {
+			return annotation;
+		}
+		if (specificMethod != method) {
+			annotation = AnnotationUtils.findAnnotation(method, annotationType);
+			if (annotation != null) {
+				return annotation;
+			}
+		}
+		return AnnotationUtils.findAnnotation(specificMethod.getDeclaringClass(), annotationType);
+	}
+
+}
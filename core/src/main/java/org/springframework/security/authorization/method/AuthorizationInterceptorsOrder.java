@@ -0,0 +1,53 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+/**
+ * The default orders of the method security interceptors of this package, in the order
+ * that they are applied.
+ *
+ * @since 5.6
+ */
+public enum AuthorizationInterceptorsOrder {
+
+	FIRST(Integer.MIN_VALUE),
+
+	PRE_FILTER(100),
+
+	PRE_AUTHORIZE(200),
+
+	SECURED(300),
+
+	JSR250(400),
+
+	POST_AUTHORIZE(500),
+
+	POST_FILTER(600),
+
+	LAST(Integer.MAX_VALUE);
+
+	private final int order;
+
+	AuthorizationInterceptorsOrder(int order) {
+		this.order = order;
+	}
+
+	public int getOrder() {
+		return this.order;
+	}
+
+}
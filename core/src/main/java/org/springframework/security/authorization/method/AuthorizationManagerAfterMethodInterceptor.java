@@ -0,0 +1,121 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.framework.AopInfrastructureBean;
+import org.springframework.core.Ordered;
+import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link MethodInterceptor} which uses an {@link AuthorizationManager} to decide
+ * whether the value returned by a method can be seen, and which throws an
+ * {@link org.springframework.security.access.AccessDeniedException} if it cannot.
+ *
+ * @since 5.6
+ */
+public final class AuthorizationManagerAfterMethodInterceptor
+		implements Ordered, MethodInterceptor, PointcutAdvisor, AopInfrastructureBean {
+
+	private final Pointcut pointcut;
+
+	private final AuthorizationManager<MethodInvocationResult> authorizationManager;
+
+	private int order = AuthorizationInterceptorsOrder.LAST.getOrder();
+
+	/**
+	 * Creates an instance.
+	 * @param pointcut the {@link Pointcut} of the methods to intercept
+	 * @param authorizationManager the {@link AuthorizationManager} to use
+	 */
+	public AuthorizationManagerAfterMethodInterceptor(Pointcut pointcut,
+			AuthorizationManager<MethodInvocationResult> authorizationManager) {
+		Assert.notNull(pointcut, "pointcut cannot be null");
+		Assert.notNull(authorizationManager, "authorizationManager cannot be null");
+		this.pointcut = pointcut;
+		this.authorizationManager = authorizationManager;
+	}
+
+	/**
+	 * Creates an interceptor for the {@link PostAuthorize} annotation.
+	 * @return the interceptor
+	 */
+	public static AuthorizationManagerAfterMethodInterceptor postAuthorize() {
+		return postAuthorize(new PostAuthorizeAuthorizationManager());
+	}
+
+	/**
+	 * Creates an interceptor for the {@link PostAuthorize} annotation.
+	 * @param authorizationManager the {@link PostAuthorizeAuthorizationManager} to use
+	 * @return the interceptor
+	 */
+	public static AuthorizationManagerAfterMethodInterceptor postAuthorize(
+			PostAuthorizeAuthorizationManager authorizationManager) {
+		AuthorizationManagerAfterMethodInterceptor interceptor = new AuthorizationManagerAfterMethodInterceptor(
+				AuthorizationMethodPointcuts.forAnnotations(PostAuthorize.class), authorizationManager);
+		interceptor.setOrder(AuthorizationInterceptorsOrder.POST_AUTHORIZE.getOrder());
+		return interceptor;
+	}
+
+	/**
+	 * Invokes the method, and then decides whether the value that it returned can be
+	 * seen.
+	 * @param mi the {@link MethodInvocation} to check
+	 * @return the value returned by the method
+	 * @throws org.springframework.security.access.AccessDeniedException if the value
+	 * cannot be seen
+	 */
+	@Override
+	public Object invoke(MethodInvocation mi) throws Throwable {
+		Object result = mi.proceed();
+		this.authorizationManager.verify(AuthorizationManagerBeforeMethodInterceptor.AUTHENTICATION_SUPPLIER,
+				new MethodInvocationResult(mi, result));
+		return result;
+	}
+
+	@Override
+	public Pointcut getPointcut() {
+		return this.pointcut;
+	}
+
+	@Override
+	public Advice getAdvice() {
+		return this;
+	}
+
+	@Override
+	public boolean isPerInstance() {
+		return true;
+	}
+
+	@Override
+	public int getOrder() {
+		return this.order;
+	}
+
+	public void setOrder(int order) {
+		this.order = order;
+	}
+
+}
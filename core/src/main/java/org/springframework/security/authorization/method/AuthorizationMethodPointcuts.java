@@ -0,0 +1,53 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import java.lang.annotation.Annotation;
+
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.Pointcuts;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+
+/**
+ * Creates the {@link Pointcut}s of the method security interceptors.
+ *
+ * @since 5.6
+ */
+final class AuthorizationMethodPointcuts {
+
+	private AuthorizationMethodPointcuts() {
+	}
+
+	/**
+	 * Returns a {@link Pointcut} that matches the methods that are annotated with any of
+	 * the given annotations, or that are declared in a class that is.
+	 * @param annotations the annotation types
+	 * @return the {@link Pointcut}
+	 */
+	@SafeVarargs
+	static Pointcut forAnnotations(Class<? extends Annotation>... annotations) {
+		ComposablePointcut pointcut = null;
+		for (Class<? extends Annotation> annotation : annotations) {
+			Pointcut classOrMethod = Pointcuts.union(new AnnotationMatchingPointcut(null, annotation, true),
+					new AnnotationMatchingPointcut(annotation, true));
+			pointcut = (pointcut != null) ? pointcut.union(classOrMethod) : new ComposablePointcut(classOrMethod);
+		}
+		return pointcut;
+	}
+
+}
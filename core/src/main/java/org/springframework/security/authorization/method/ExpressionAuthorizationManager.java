@@ -0,0 +1,89 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.AbstractSecurityExpressionHandler;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+/**
+ * An {@link AuthorizationManager} that evaluates a security expression against a
+ * {@link MethodInvocation}. Simple expressions are decided by
+ * {@link AbstractSecurityExpressionHandler#createAuthorizationManager(String)} without
+ * evaluating SpEL.
+ *
+ * @since 5.6
+ */
+final class ExpressionAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+	private final MethodSecurityExpressionHandler expressionHandler;
+
+	private final Expression expression;
+
+	private ExpressionAuthorizationManager(MethodSecurityExpressionHandler expressionHandler, Expression expression) {
+		this.expressionHandler = expressionHandler;
+		this.expression = expression;
+	}
+
+	/**
+	 * Creates an {@link AuthorizationManager} for the given expression, which is parsed
+	 * once.
+	 * @param expressionHandler the {@link MethodSecurityExpressionHandler} to use
+	 * @param expression the expression
+	 * @return the {@link AuthorizationManager}
+	 */
+	static AuthorizationManager<MethodInvocation> create(MethodSecurityExpressionHandler expressionHandler,
+			String expression) {
+		AuthorizationManager<MethodInvocation> manager = createShortcut(expressionHandler, expression);
+		if (manager != null) {
+			return manager;
+		}
+		return new ExpressionAuthorizationManager(expressionHandler,
+				expressionHandler.getExpressionParser().parseExpression(expression));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static AuthorizationManager<MethodInvocation> createShortcut(
+			MethodSecurityExpressionHandler expressionHandler, String expression) {
+		if (!(expressionHandler instanceof AbstractSecurityExpressionHandler)) {
+			return null;
+		}
+		return ((AbstractSecurityExpressionHandler<MethodInvocation>) expressionHandler)
+				.createAuthorizationManager(expression);
+	}
+
+	@Override
+	public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation mi) {
+		EvaluationContext ctx = this.expressionHandler.createEvaluationContext(authentication.get(), mi);
+		return new AuthorizationDecision(ExpressionUtils.evaluateAsBoolean(this.expression, ctx));
+	}
+
+	@Override
+	public String toString() {
+		return "ExpressionAuthorizationManager[expression=" + this.expression.getExpressionString() + "]";
+	}
+
+}
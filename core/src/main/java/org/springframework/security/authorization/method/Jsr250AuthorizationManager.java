@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+import javax.annotation.security.DenyAll;
+import javax.annotation.security.PermitAll;
+import javax.annotation.security.RolesAllowed;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.ClassUtils;
+
+/**
+ * An {@link AuthorizationManager} which decides whether a method can be invoked by
+ * checking its {@link DenyAll}, {@link PermitAll} or {@link RolesAllowed} annotation.
+ * Annotations on the method take precedence over those on its class, and those of the
+ * target class over those of the interface that declares the method. The rule of each
+ * method is found when the method is first invoked.
+ *
+ * @since 5.6
+ */
+public final class Jsr250AuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+	private static final AuthorizationManager<MethodInvocation> DENY_ALL = (a, mi) -> new AuthorizationDecision(false);
+
+	private static final AuthorizationManager<MethodInvocation> PERMIT_ALL = (a, mi) -> new AuthorizationDecision(true);
+
+	private final Jsr250AuthorizationManagerRegistry registry = new Jsr250AuthorizationManagerRegistry();
+
+	private String rolePrefix = "ROLE_";
+
+	/**
+	 * Sets the prefix that is added to the roles of {@link RolesAllowed} which do not
+	 * start with it. If {@code null} or empty, no prefix is added. Should be called
+	 * before any method is invoked.
+	 * @param rolePrefix the prefix to add to roles. Default "ROLE_".
+	 */
+	public void setRolePrefix(String rolePrefix) {
+		this.rolePrefix = rolePrefix;
+	}
+
+	/**
+	 * Decides whether the method can be invoked.
+	 * @param authentication the {@link Supplier} of the {@link Authentication} to check
+	 * @param mi the {@link MethodInvocation} to check
+	 * @return an {@link AuthorizationDecision}, or {@code null} if neither the method nor
+	 * its class is annotated with {@link DenyAll}, {@link PermitAll} or
+	 * {@link RolesAllowed}
+	 */
+	@Override
+	public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation mi) {
+		return this.registry.getAttribute(mi).check(authentication, mi);
+	}
+
+	private String getRoleWithPrefix(String role) {
+		if (this.rolePrefix == null || this.rolePrefix.length() == 0 || role.startsWith(this.rolePrefix)) {
+			return role;
+		}
+		return this.rolePrefix + role;
+	}
+
+	private final class Jsr250AuthorizationManagerRegistry
+			extends AbstractMethodAttributeRegistry<AuthorizationManager<MethodInvocation>> {
+
+		@Override
+		AuthorizationManager<MethodInvocation> resolveAttribute(Method method, Class<?> targetClass) {
+			// the same order as AbstractFallbackMethodSecurityMetadataSource
+			Method specificMethod = ClassUtils.getMostSpecificMethod(method, targetClass);
+			AuthorizationManager<MethodInvocation> manager = resolve(specificMethod.getAnnotations());
+			if (manager == null) {
+				manager = resolve(specificMethod.getDeclaringClass().getAnnotations());
+			}
+			if (manager == null && specificMethod != method) {
+				manager = resolve(method.getAnnotations());
+				if (manager == null) {
+					manager = resolve(method.getDeclaringClass().getAnnotations());
+				}
+			}
+			return (manager != null) ? manager : NoDecisionAuthorizationManager.INSTANCE;
+		}
+
+		private AuthorizationManager<MethodInvocation> resolve(Annotation[] annotations) {
+			for (Annotation annotation : annotations) {
+				if (annotation instanceof DenyAll) {
+					return DENY_ALL;
+				}
+				if (annotation instanceof PermitAll) {
+					return PERMIT_ALL;
+				}
+				if (annotation instanceof RolesAllowed) {
+					String[] roles = ((RolesAllowed) annotation).value();
+					String[] authorities = new String[roles.length];
+					for (int i = 0; i < roles.length; i++) {
+						authorities[i] = getRoleWithPrefix(roles[i]);
+					}
+					return AuthorityAuthorizationManager.hasAnyAuthority(authorities);
+				}
+			}
+			return null;
+		}
+
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.util.Assert;
+
+/**
+ * A {@link MethodInvocation} along with the value that it returned.
+ *
+ * @since 5.6
+ */
+public final class MethodInvocationResult {
+
+	private final MethodInvocation methodInvocation;
+
+	private final Object result;
+
+	/**
+	 * Creates a new instance.
+	 * @param methodInvocation the method invocation
+	 * @param result the value returned by the method invocation, possibly {@code null}
+	 */
+	public MethodInvocationResult(MethodInvocation methodInvocation, Object result) {
+		Assert.notNull(methodInvocation, "methodInvocation cannot be null");
+		this.methodInvocation = methodInvocation;
+		this.result = result;
+	}
+
+	/**
+	 * Returns the method invocation.
+	 * @return the method invocation
+	 */
+	public MethodInvocation getMethodInvocation() {
+		return this.methodInvocation;
+	}
+
+	/**
+	 * Returns the value returned by the method invocation.
+	 * @return the value, possibly {@code null}
+	 */
+	public Object getResult() {
+		return this.result;
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link AuthorizationManager} which decides whether the value returned by a method
+ * can be seen by evaluating its {@link PostAuthorize} expression, in which the value is
+ * available as {@code returnObject}. The expression of each method is found and parsed
+ * when the method is first invoked.
+ *
+ * @since 5.6
+ */
+public final class PostAuthorizeAuthorizationManager implements AuthorizationManager<MethodInvocationResult> {
+
+	private static final Expression NO_EXPRESSION = new LiteralExpression("");
+
+	private final PostAuthorizeExpressionRegistry registry = new PostAuthorizeExpressionRegistry();
+
+	private MethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+
+	/**
+	 * Sets the {@link MethodSecurityExpressionHandler}. Should be called before any method
+	 * is invoked.
+	 * @param expressionHandler the {@link MethodSecurityExpressionHandler} to use
+	 */
+	public void setExpressionHandler(MethodSecurityExpressionHandler expressionHandler) {
+		Assert.notNull(expressionHandler, "expressionHandler cannot be null");
+		this.expressionHandler = expressionHandler;
+	}
+
+	/**
+	 * Decides whether the value returned by the method can be seen.
+	 * @param authentication the {@link Supplier} of the {@link Authentication} to check
+	 * @param mi the {@link MethodInvocationResult} to check
+	 * @return an {@link AuthorizationDecision}, or {@code null} if the method is not
+	 * annotated with {@link PostAuthorize}
+	 */
+	@Override
+	public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocationResult mi) {
+		Expression expression = this.registry.getAttribute(mi.getMethodInvocation());
+		if (expression == NO_EXPRESSION) {
+			return null;
+		}
+		EvaluationContext ctx = this.expressionHandler.createEvaluationContext(authentication.get(),
+				mi.getMethodInvocation());
+		this.expressionHandler.setReturnObject(mi.getResult(), ctx);
+		return new AuthorizationDecision(ExpressionUtils.evaluateAsBoolean(expression, ctx));
+	}
+
+	private final class PostAuthorizeExpressionRegistry extends AbstractMethodAttributeRegistry<Expression> {
+
+		@Override
+		Expression resolveAttribute(Method method, Class<?> targetClass) {
+			PostAuthorize postAuthorize = AuthorizationAnnotationUtils.findAnnotation(method, targetClass,
+					PostAuthorize.class);
+			if (postAuthorize == null) {
+				return NO_EXPRESSION;
+			}
+			return PostAuthorizeAuthorizationManager.this.expressionHandler.getExpressionParser()
+					.parseExpression(postAuthorize.value());
+		}
+
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import java.lang.reflect.Method;
+
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.framework.AopInfrastructureBean;
+import org.springframework.core.Ordered;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PostFilter;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link MethodInterceptor} which filters the value returned by a method by evaluating
+ * the {@link PostFilter} expression of the method. The expression of each method is found
+ * and parsed when the method is first invoked.
+ *
+ * @since 5.6
+ */
+public final class PostFilterAuthorizationMethodInterceptor
+		implements Ordered, MethodInterceptor, PointcutAdvisor, AopInfrastructureBean {
+
+	private static final Expression NO_EXPRESSION = new LiteralExpression("");
+
+	private final PostFilterExpressionRegistry registry = new PostFilterExpressionRegistry();
+
+	private final Pointcut pointcut = AuthorizationMethodPointcuts.forAnnotations(PostFilter.class);
+
+	private int order = AuthorizationInterceptorsOrder.POST_FILTER.getOrder();
+
+	private MethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+
+	/**
+	 * Sets the {@link MethodSecurityExpressionHandler}. Should be called before any method
+	 * is invoked.
+	 * @param expressionHandler the {@link MethodSecurityExpressionHandler} to use
+	 */
+	public void setExpressionHandler(MethodSecurityExpressionHandler expressionHandler) {
+		Assert.notNull(expressionHandler, "expressionHandler cannot be null");
+		this.expressionHandler = expressionHandler;
+	}
+
+	/**
+	 * Invokes the method, and then filters the value that it returned.
+	 * @param mi the {@link MethodInvocation} to filter
+	 * @return the filtered value returned by the method
+	 */
+	@Override
+	public Object invoke(MethodInvocation mi) throws Throwable {
+		Object returnedObject = mi.proceed();
+		Expression expression = this.registry.getAttribute(mi);
+		if (returnedObject == null || expression == NO_EXPRESSION) {
+			return returnedObject;
+		}
+		EvaluationContext ctx = this.expressionHandler.createEvaluationContext(
+				AuthorizationManagerBeforeMethodInterceptor.AUTHENTICATION_SUPPLIER.get(), mi);
+		return this.expressionHandler.filter(returnedObject, expression, ctx);
+	}
+
+	@Override
+	public Pointcut getPointcut() {
+		return this.pointcut;
+	}
+
+	@Override
+	public Advice getAdvice() {
+		return this;
+	}
+
+	@Override
+	public boolean isPerInstance() {
+		return true;
+	}
+
+	@Override
+	public int getOrder() {
+		return this.order;
+	}
+
+	public void setOrder(int order) {
+		this.order = order;
+	}
+
+	private final class PostFilterExpressionRegistry extends AbstractMethodAttributeRegistry<Expression> {
+
+		@Override
+		Expression resolveAttribute(Method method, Class<?> targetClass) {
+			PostFilter postFilter = AuthorizationAnnotationUtils.findAnnotation(method, targetClass, PostFilter.class);
+			if (postFilter == null) {
+				return NO_EXPRESSION;
+			}
+			return PostFilterAuthorizationMethodInterceptor.this.expressionHandler.getExpressionParser()
+					.parseExpression(postFilter.value());
+		}
+
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link AuthorizationManager} which decides whether a method can be invoked by
+ * evaluating its {@link PreAuthorize} expression. The expression of each method is found
+ * and parsed when the method is first invoked.
+ *
+ * @since 5.6
+ */
+public final class PreAuthorizeAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+	private final PreAuthorizeExpressionRegistry registry = new PreAuthorizeExpressionRegistry();
+
+	private MethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+
+	/**
+	 * Sets the {@link MethodSecurityExpressionHandler}. Should be called before any method
+	 * is invoked.
+	 * @param expressionHandler the {@link MethodSecurityExpressionHandler} to use
+	 */
+	public void setExpressionHandler(MethodSecurityExpressionHandler expressionHandler) {
+		Assert.notNull(expressionHandler, "expressionHandler cannot be null");
+		this.expressionHandler = expressionHandler;
+	}
+
+	/**
+	 * Decides whether the method can be invoked.
+	 * @param authentication the {@link Supplier} of the {@link Authentication} to check
+	 * @param mi the {@link MethodInvocation} to check
+	 * @return an {@link AuthorizationDecision}, or {@code null} if the method is not
+	 * annotated with {@link PreAuthorize}
+	 */
+	@Override
+	public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation mi) {
+		AuthorizationManager<MethodInvocation> manager = this.registry.getAttribute(mi);
+		return (manager != NoDecisionAuthorizationManager.INSTANCE) ? manager.check(authentication, mi) : null;
+	}
+
+	private final class PreAuthorizeExpressionRegistry
+			extends AbstractMethodAttributeRegistry<AuthorizationManager<MethodInvocation>> {
+
+		@Override
+		AuthorizationManager<MethodInvocation> resolveAttribute(Method method, Class<?> targetClass) {
+			PreAuthorize preAuthorize = AuthorizationAnnotationUtils.findAnnotation(method, targetClass,
+					PreAuthorize.class);
+			if (preAuthorize == null) {
+				return NoDecisionAuthorizationManager.INSTANCE;
+			}
+			return ExpressionAuthorizationManager.create(PreAuthorizeAuthorizationManager.this.expressionHandler,
+					preAuthorize.value());
+		}
+
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.framework.AopInfrastructureBean;
+import org.springframework.core.Ordered;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreFilter;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link MethodInterceptor} which filters a method argument by evaluating the
+ * {@link PreFilter} expression of the method. The expression and filter target of each
+ * method are found and parsed when the method is first invoked.
+ *
+ * @since 5.6
+ */
+public final class PreFilterAuthorizationMethodInterceptor
+		implements Ordered, MethodInterceptor, PointcutAdvisor, AopInfrastructureBean {
+
+	private static final PreFilterExpressionAttribute NULL_ATTRIBUTE = new PreFilterExpressionAttribute(null, null);
+
+	private final PreFilterExpressionAttributeRegistry registry = new PreFilterExpressionAttributeRegistry();
+
+	private final Pointcut pointcut = AuthorizationMethodPointcuts.forAnnotations(PreFilter.class);
+
+	private int order = AuthorizationInterceptorsOrder.PRE_FILTER.getOrder();
+
+	private MethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+
+	/**
+	 * Sets the {@link MethodSecurityExpressionHandler}. Should be called before any method
+	 * is invoked.
+	 * @param expressionHandler the {@link MethodSecurityExpressionHandler} to use
+	 */
+	public void setExpressionHandler(MethodSecurityExpressionHandler expressionHandler) {
+		Assert.notNull(expressionHandler, "expressionHandler cannot be null");
+		this.expressionHandler = expressionHandler;
+	}
+
+	/**
+	 * Filters the method argument, and then invokes the method.
+	 * @param mi the {@link MethodInvocation} to filter
+	 * @return the value returned by the method
+	 */
+	@Override
+	public Object invoke(MethodInvocation mi) throws Throwable {
+		PreFilterExpressionAttribute attribute = this.registry.getAttribute(mi);
+		if (attribute == NULL_ATTRIBUTE) {
+			return mi.proceed();
+		}
+		EvaluationContext ctx = this.expressionHandler.createEvaluationContext(
+				AuthorizationManagerBeforeMethodInterceptor.AUTHENTICATION_SUPPLIER.get(), mi);
+		Object filterTarget = findFilterTarget(attribute.filterTarget, ctx, mi);
+		this.expressionHandler.filter(filterTarget, attribute.expression, ctx);
+		return mi.proceed();
+	}
+
+	private Object findFilterTarget(String filterTargetName, EvaluationContext ctx, MethodInvocation mi) {
+		Object filterTarget = null;
+		if (filterTargetName.length() > 0) {
+			filterTarget = ctx.lookupVariable(filterTargetName);
+			Assert.notNull(filterTarget,
+					() -> "Filter target was null, or no argument with name " + filterTargetName + " found in method");
+		}
+		else if (mi.getArguments().length == 1) {
+			Object arg = mi.getArguments()[0];
+			if (arg.getClass().isArray() || arg instanceof Collection<?>) {
+				filterTarget = arg;
+			}
+			Assert.notNull(filterTarget, () -> "A PreFilter expression was set but the method argument type"
+					+ arg.getClass() + " is not filterable");
+		}
+		else if (mi.getArguments().length > 1) {
+			throw new IllegalArgumentException(
+					"Unable to determine the method argument for filtering. Specify the filter target.");
+		}
+		Assert.isTrue(!filterTarget.getClass().isArray(),
+				"Pre-filtering on array types is not supported. Using a Collection will solve this problem");
+		return filterTarget;
+	}
+
+	@Override
+	public Pointcut getPointcut() {
+		return this.pointcut;
+	}
+
+	@Override
+	public Advice getAdvice() {
+		return this;
+	}
+
+	@Override
+	public boolean isPerInstance() {
+		return true;
+	}
+
+	@Override
+	public int getOrder() {
+		return this.order;
+	}
+
+	public void setOrder(int order) {
+		this.order = order;
+	}
+
+	private static final class PreFilterExpressionAttribute {
+
+		private final Expression expression;
+
+		private final String filterTarget;
+
+		private PreFilterExpressionAttribute(Expression expression, String filterTarget) {
+			this.expression = expression;
+			this.filterTarget = filterTarget;
+		}
+
+	}
+
+	private final class PreFilterExpressionAttributeRegistry
+			extends AbstractMethodAttributeRegistry<PreFilterExpressionAttribute> {
+
+		@Override
+		PreFilterExpressionAttribute resolveAttribute(Method method, Class<?> targetClass) {
+			PreFilter preFilter = AuthorizationAnnotationUtils.findAnnotation(method, targetClass, PreFilter.class);
+			if (preFilter == null) {
+				return NULL_ATTRIBUTE;
+			}
+			Expression expression = PreFilterAuthorizationMethodInterceptor.this.expressionHandler
+					.getExpressionParser().parseExpression(preFilter.value());
+			return new PreFilterExpressionAttribute(expression, preFilter.filterTarget());
+		}
+
+	}
+
+}
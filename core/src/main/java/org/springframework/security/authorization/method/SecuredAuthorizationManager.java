@@ -0,0 +1,67 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+/**
+ * An {@link AuthorizationManager} which decides whether a method can be invoked by
+ * checking the authorities of its {@link Secured} annotation. The authorities of each
+ * method are found when the method is first invoked.
+ *
+ * @since 5.6
+ */
+public final class SecuredAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+	private final SecuredAuthoritiesRegistry registry = new SecuredAuthoritiesRegistry();
+
+	/**
+	 * Decides whether the method can be invoked.
+	 * @param authentication the {@link Supplier} of the {@link Authentication} to check
+	 * @param mi the {@link MethodInvocation} to check
+	 * @return an {@link AuthorizationDecision}, or {@code null} if the method is not
+	 * annotated with {@link Secured}
+	 */
+	@Override
+	public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation mi) {
+		return this.registry.getAttribute(mi).check(authentication, mi);
+	}
+
+	private static final class SecuredAuthoritiesRegistry
+			extends AbstractMethodAttributeRegistry<AuthorizationManager<MethodInvocation>> {
+
+		@Override
+		AuthorizationManager<MethodInvocation> resolveAttribute(Method method, Class<?> targetClass) {
+			Secured secured = AuthorizationAnnotationUtils.findAnnotation(method, targetClass, Secured.class);
+			if (secured == null) {
+				return NoDecisionAuthorizationManager.INSTANCE;
+			}
+			return AuthorityAuthorizationManager.hasAnyAuthority(secured.value());
+		}
+
+	}
+
+}
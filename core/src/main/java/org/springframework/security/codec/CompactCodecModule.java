@@ -0,0 +1,35 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.codec;
+
+import java.util.List;
+
+/**
+ * A group of {@link CompactTypeCodec}s, usually those for the types of one module.
+ *
+ * @since 5.6
+ * @see CompactSecuritySerializer#getModules(ClassLoader)
+ */
+public interface CompactCodecModule {
+
+	/**
+	 * Returns the codecs of this module.
+	 * @return the codecs
+	 */
+	List<CompactTypeCodec<?>> getCodecs();
+
+}
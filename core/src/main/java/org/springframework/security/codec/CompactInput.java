@@ -0,0 +1,313 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.GrantedAuthorityInterner;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * The input that {@link CompactTypeCodec}s read from, which reads what a
+ * {@link CompactOutput} wrote. Each {@link SimpleGrantedAuthority} that is read is the
+ * canonical instance from the {@link GrantedAuthorityInterner#getSharedInstance() shared}
+ * {@link GrantedAuthorityInterner}.
+ * <p>
+ * Malformed input causes an {@link IllegalArgumentException}.
+ *
+ * @since 5.6
+ * @see CompactOutput
+ */
+public final class CompactInput {
+
+	private final CompactSecuritySerializer serializer;
+
+	private final List<GrantedAuthority> authorities = new ArrayList<>();
+
+	private final byte[] buffer;
+
+	private int position;
+
+	CompactInput(CompactSecuritySerializer serializer, byte[] buffer, int position) {
+		this.serializer = serializer;
+		this.buffer = buffer;
+		this.position = position;
+	}
+
+	/**
+	 * Reads a {@code boolean} written by {@link CompactOutput#writeBoolean(boolean)}.
+	 * @return the value
+	 */
+	public boolean readBoolean() {
+		return readByte() != 0;
+	}
+
+	/**
+	 * Reads a byte written by {@link CompactOutput#writeByte(int)}.
+	 * @return the value, from 0 to 255
+	 */
+	public int readByte() {
+		require(1);
+		return this.buffer[this.position++] & 0xFF;
+	}
+
+	/**
+	 * Reads an {@code int} written by {@link CompactOutput#writeVarInt(int)}.
+	 * @return the value
+	 */
+	public int readVarInt() {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed variable-length int");
+	}
+
+	/**
+	 * Reads a {@code long} written by {@link CompactOutput#writeVarLong(long)}.
+	 * @return the value
+	 */
+	public long readVarLong() {
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed variable-length long");
+	}
+
+	/**
+	 * Reads a {@link String} written by {@link CompactOutput#writeString(String)}.
+	 * @return the value, possibly {@code null}
+	 */
+	public String readString() {
+		int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		String value = new String(this.buffer, this.position, length, StandardCharsets.UTF_8);
+		this.position += length;
+		return value;
+	}
+
+	/**
+	 * Reads the authorities written by {@link CompactOutput#writeAuthorities(Collection)}.
+	 * @return the authorities
+	 */
+	public List<GrantedAuthority> readAuthorities() {
+		int size = readSize();
+		List<GrantedAuthority> authorities = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			int index = readVarInt();
+			if (index == 0) {
+				authorities.add(readValue(GrantedAuthority.class));
+			}
+			else if (index == 1) {
+				GrantedAuthority authority = GrantedAuthorityInterner.getSharedInstance().intern(readString());
+				this.authorities.add(authority);
+				authorities.add(authority);
+			}
+			else if (index >= 2 && index - 2 < this.authorities.size()) {
+				authorities.add(this.authorities.get(index - 2));
+			}
+			else {
+				throw new IllegalArgumentException("Unknown authority index " + index);
+			}
+		}
+		return authorities;
+	}
+
+	/**
+	 * Reads a value written by {@link CompactOutput#writeValue(Object)}.
+	 * @return the value, possibly {@code null}
+	 */
+	public Object readValue() {
+		int type = readByte();
+		switch (type) {
+		case ValueType.NULL:
+			return null;
+		case ValueType.CODEC:
+			int typeId = readVarInt();
+			CompactTypeCodec<?> codec = this.serializer.getCodec(typeId);
+			if (codec == null) {
+				throw new IllegalArgumentException("Unknown type id " + typeId);
+			}
+			return codec.read(this);
+		case ValueType.STRING:
+			return readString();
+		case ValueType.TRUE:
+			return Boolean.TRUE;
+		case ValueType.FALSE:
+			return Boolean.FALSE;
+		case ValueType.INTEGER:
+			int i = readVarInt();
+			return (i >>> 1) ^ -(i & 1);
+		case ValueType.LONG:
+			long l = readVarLong();
+			return (l >>> 1) ^ -(l & 1);
+		case ValueType.DOUBLE:
+			require(8);
+			long bits = 0;
+			for (int b = 0; b < 8; b++) {
+				bits = (bits << 8) | (this.buffer[this.position++] & 0xFF);
+			}
+			return Double.longBitsToDouble(bits);
+		case ValueType.INSTANT:
+			return readInstant();
+		case ValueType.URL:
+			return readUrl();
+		case ValueType.LIST:
+			int listSize = readSize();
+			List<Object> list = new ArrayList<>(listSize);
+			for (int index = 0; index < listSize; index++) {
+				list.add(readValue());
+			}
+			return list;
+		case ValueType.SET:
+			int setSize = readSize();
+			Collection<Object> set = new LinkedHashSet<>(setSize * 2);
+			for (int index = 0; index < setSize; index++) {
+				set.add(readValue());
+			}
+			return set;
+		case ValueType.MAP:
+			return readMap();
+		case ValueType.SERIALIZED:
+			return readSerialized();
+		default:
+			throw new IllegalArgumentException("Unknown value type " + type);
+		}
+	}
+
+	/**
+	 * Reads a value written by {@link CompactOutput#writeValue(Object)} that must be of
+	 * the given type.
+	 * @param type the type of the value
+	 * @param <T> the type of the value
+	 * @return the value, possibly {@code null}
+	 */
+	public <T> T readValue(Class<T> type) {
+		Object value = readValue();
+		if (value != null && !type.isInstance(value)) {
+			throw new IllegalArgumentException(
+					"Expected " + type.getName() + " but found " + value.getClass().getName());
+		}
+		return type.cast(value);
+	}
+
+	/**
+	 * Reads an {@link Instant} written by {@link CompactOutput#writeInstant(Instant)}.
+	 * @return the value, possibly {@code null}
+	 */
+	public Instant readInstant() {
+		if (!readBoolean()) {
+			return null;
+		}
+		long seconds = readVarLong();
+		int nanos = readVarInt();
+		try {
+			return Instant.ofEpochSecond((seconds >>> 1) ^ -(seconds & 1), nanos);
+		}
+		catch (DateTimeException | ArithmeticException ex) {
+			throw new IllegalArgumentException("Malformed instant", ex);
+		}
+	}
+
+	/**
+	 * Reads a map written by {@link CompactOutput#writeMap(Map)}.
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 * @return the map, which preserves the order of its entries
+	 */
+	@SuppressWarnings("unchecked")
+	public <K, V> Map<K, V> readMap() {
+		int size = readSize();
+		Map<Object, Object> map = new LinkedHashMap<>(size * 2);
+		for (int i = 0; i < size; i++) {
+			map.put(readValue(), readValue());
+		}
+		return (Map<K, V>) map;
+	}
+
+	private URL readUrl() {
+		String value = readString();
+		try {
+			return new URL(value);
+		}
+		catch (MalformedURLException ex) {
+			throw new IllegalArgumentException("Malformed URL " + value, ex);
+		}
+	}
+
+	private Object readSerialized() {
+		int length = readSize();
+		require(length);
+		ByteArrayInputStream bytes = new ByteArrayInputStream(this.buffer, this.position, length);
+		this.position += length;
+		try (ObjectInputStream input = new ConfigurableObjectInputStream(bytes, this.serializer.getClassLoader())) {
+			return input.readObject();
+		}
+		catch (IOException | ClassNotFoundException ex) {
+			throw new IllegalArgumentException("Failed to deserialize value", ex);
+		}
+	}
+
+	private int readLength() {
+		int encoded = readVarInt();
+		if (encoded == 0) {
+			return -1;
+		}
+		require(encoded - 1);
+		return encoded - 1;
+	}
+
+	// a collection of n elements takes at least n bytes, which bounds what is allocated
+	private int readSize() {
+		int size = readVarInt();
+		require(size);
+		return size;
+	}
+
+	private void require(int length) {
+		if (length < 0 || length > this.buffer.length - this.position) {
+			throw new IllegalArgumentException("Unexpected end of input");
+		}
+	}
+
+}
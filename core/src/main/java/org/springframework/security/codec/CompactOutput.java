@@ -0,0 +1,293 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * The output that {@link CompactTypeCodec}s write to. Integers and lengths are written as
+ * variable-length quantities, and each {@link SimpleGrantedAuthority} is written once
+ * and then referred to by its index.
+ *
+ * @since 5.6
+ * @see CompactInput
+ */
+public final class CompactOutput {
+
+	private final CompactSecuritySerializer serializer;
+
+	private final Map<String, Integer> authorities = new HashMap<>();
+
+	private byte[] buffer = new byte[256];
+
+	private int position;
+
+	CompactOutput(CompactSecuritySerializer serializer) {
+		this.serializer = serializer;
+	}
+
+	/**
+	 * Writes a {@code boolean} as a single byte.
+	 * @param value the value to write
+	 */
+	public void writeBoolean(boolean value) {
+		writeByte(value ? 1 : 0);
+	}
+
+	/**
+	 * Writes the lowest eight bits of an {@code int}.
+	 * @param value the value to write
+	 */
+	public void writeByte(int value) {
+		ensureCapacity(1);
+		this.buffer[this.position++] = (byte) value;
+	}
+
+	/**
+	 * Writes an {@code int} in one to five bytes, fewer for smaller non-negative values.
+	 * @param value the value to write
+	 */
+	public void writeVarInt(int value) {
+		ensureCapacity(5);
+		while ((value & ~0x7F) != 0) {
+			this.buffer[this.position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		this.buffer[this.position++] = (byte) value;
+	}
+
+	/**
+	 * Writes a {@code long} in one to ten bytes, fewer for smaller non-negative values.
+	 * @param value the value to write
+	 */
+	public void writeVarLong(long value) {
+		ensureCapacity(10);
+		while ((value & ~0x7FL) != 0) {
+			this.buffer[this.position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		this.buffer[this.position++] = (byte) value;
+	}
+
+	/**
+	 * Writes a {@link String} as its length followed by its UTF-8 bytes.
+	 * @param value the value to write, possibly {@code null}
+	 */
+	public void writeString(String value) {
+		if (value == null) {
+			writeVarInt(0);
+			return;
+		}
+		int length = value.length();
+		if (isAscii(value)) {
+			writeVarInt(length + 1);
+			ensureCapacity(length);
+			for (int i = 0; i < length; i++) {
+				this.buffer[this.position++] = (byte) value.charAt(i);
+			}
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length + 1);
+		writeBytes(bytes);
+	}
+
+	/**
+	 * Writes a collection of {@link GrantedAuthority}s. A {@link SimpleGrantedAuthority}
+	 * that was written before is only written as its index.
+	 * @param authorities the authorities to write
+	 */
+	public void writeAuthorities(Collection<? extends GrantedAuthority> authorities) {
+		writeVarInt(authorities.size());
+		for (GrantedAuthority authority : authorities) {
+			if (authority.getClass() != SimpleGrantedAuthority.class) {
+				writeVarInt(0);
+				writeValue(authority);
+				continue;
+			}
+			String value = authority.getAuthority();
+			Integer index = this.authorities.get(value);
+			if (index != null) {
+				writeVarInt(index + 2);
+			}
+			else {
+				this.authorities.put(value, this.authorities.size());
+				writeVarInt(1);
+				writeString(value);
+			}
+		}
+	}
+
+	/**
+	 * Writes a value along with its type. A value of a type that has a
+	 * {@link CompactTypeCodec} is written by that codec. Strings, booleans, integers,
+	 * longs, doubles, {@link Instant}s, {@link URL}s, lists, sets and maps are written by
+	 * this output. Any other value is written with Java serialization.
+	 * @param value the value to write, possibly {@code null}
+	 */
+	public void writeValue(Object value) {
+		if (value == null) {
+			writeByte(ValueType.NULL);
+			return;
+		}
+		CompactTypeCodec<Object> codec = this.serializer.getCodec(value.getClass());
+		if (codec != null) {
+			writeByte(ValueType.CODEC);
+			writeVarInt(codec.getTypeId());
+			codec.write(value, this);
+		}
+		else if (value instanceof String) {
+			writeByte(ValueType.STRING);
+			writeString((String) value);
+		}
+		else if (value instanceof Boolean) {
+			writeByte(((Boolean) value) ? ValueType.TRUE : ValueType.FALSE);
+		}
+		else if (value instanceof Integer) {
+			int i = (Integer) value;
+			writeByte(ValueType.INTEGER);
+			writeVarInt((i << 1) ^ (i >> 31));
+		}
+		else if (value instanceof Long) {
+			long l = (Long) value;
+			writeByte(ValueType.LONG);
+			writeVarLong((l << 1) ^ (l >> 63));
+		}
+		else if (value instanceof Double) {
+			writeByte(ValueType.DOUBLE);
+			long bits = Double.doubleToLongBits((Double) value);
+			ensureCapacity(8);
+			for (int shift = 56; shift >= 0; shift -= 8) {
+				this.buffer[this.position++] = (byte) (bits >>> shift);
+			}
+		}
+		else if (value instanceof Instant) {
+			writeByte(ValueType.INSTANT);
+			writeInstant((Instant) value);
+		}
+		else if (value instanceof URL) {
+			writeByte(ValueType.URL);
+			writeString(value.toString());
+		}
+		else if (value instanceof List) {
+			writeByte(ValueType.LIST);
+			writeValues((List<?>) value);
+		}
+		else if (value instanceof Set) {
+			writeByte(ValueType.SET);
+			writeValues((Set<?>) value);
+		}
+		else if (value instanceof Map) {
+			writeByte(ValueType.MAP);
+			writeMap((Map<?, ?>) value);
+		}
+		else {
+			writeByte(ValueType.SERIALIZED);
+			writeSerialized(value);
+		}
+	}
+
+	/**
+	 * Writes an {@link Instant} as its epoch second and nanoseconds.
+	 * @param value the value to write, possibly {@code null}
+	 */
+	public void writeInstant(Instant value) {
+		writeBoolean(value != null);
+		if (value != null) {
+			long seconds = value.getEpochSecond();
+			writeVarLong((seconds << 1) ^ (seconds >> 63));
+			writeVarInt(value.getNano());
+		}
+	}
+
+	/**
+	 * Writes a map as its size followed by its keys and values, each written with
+	 * {@link #writeValue(Object)}.
+	 * @param map the map to write
+	 */
+	public void writeMap(Map<?, ?> map) {
+		writeVarInt(map.size());
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			writeValue(entry.getKey());
+			writeValue(entry.getValue());
+		}
+	}
+
+	private void writeValues(Collection<?> values) {
+		writeVarInt(values.size());
+		for (Object value : values) {
+			writeValue(value);
+		}
+	}
+
+	private void writeSerialized(Object value) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(value);
+		}
+		catch (IOException ex) {
+			throw new IllegalArgumentException("Failed to serialize " + value.getClass().getName(), ex);
+		}
+		writeVarInt(bytes.size());
+		writeBytes(bytes.toByteArray());
+	}
+
+	private void writeBytes(byte[] bytes) {
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+		this.position += bytes.length;
+	}
+
+	private void ensureCapacity(int length) {
+		if (this.position + length > this.buffer.length) {
+			this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length << 1, this.position + length));
+		}
+	}
+
+	void writeTo(OutputStream output) throws IOException {
+		output.write(this.buffer, 0, this.position);
+	}
+
+	byte[] toByteArray() {
+		return Arrays.copyOf(this.buffer, this.position);
+	}
+
+	private static boolean isAscii(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) >= 0x80) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.core.log.LogMessage;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StreamUtils;
+
+/**
+ * A {@link Serializer} and {@link Deserializer} that writes the
+ * {@link org.springframework.security.core.context.SecurityContext} and the
+ * {@link org.springframework.security.core.Authentication} types of Spring Security in a
+ * compact binary form, which is several times smaller and faster to read than Java
+ * serialization or JSON.
+ * <p>
+ * Instead of class names, each type is identified by the id of its
+ * {@link CompactTypeCodec}, integers and lengths are written as variable-length
+ * quantities, and each authority is only written once. Values of other types, such as
+ * custom principals, are written with Java serialization. Since the serialized form
+ * does not describe the types that it holds, both sides must use the same codecs.
+ * <p>
+ * This class can be used wherever a {@link Serializer} and a {@link Deserializer} are
+ * accepted, for example to store the session attributes of Spring Session through a
+ * {@link org.springframework.core.serializer.support.SerializingConverter} and a
+ * {@link org.springframework.core.serializer.support.DeserializingConverter}. It also
+ * reads values that were written with Java serialization, so existing data remains
+ * readable. Since values may be read with Java serialization, the serialized form must
+ * be trusted, just like with Java serialization itself.
+ *
+ * @since 5.6
+ * @see CompactCodecModule
+ */
+public final class CompactSecuritySerializer implements Serializer<Object>, Deserializer<Object> {
+
+	private static final Log logger = LogFactory.getLog(CompactSecuritySerializer.class);
+
+	private static final int FORMAT_VERSION = 1;
+
+	// the first byte of a Java serialization stream
+	private static final int JAVA_SERIALIZATION_MAGIC = 0xAC;
+
+	private static final List<String> compactCodecModuleClasses = Arrays.asList(
+			"org.springframework.security.codec.CoreCompactCodecModule",
+			"org.springframework.security.oauth2.client.codec.OAuth2ClientCompactCodecModule",
+			"org.springframework.security.oauth2.server.resource.codec.OAuth2ResourceServerCompactCodecModule",
+			"org.springframework.security.saml2.provider.service.codec.Saml2CompactCodecModule");
+
+	private static final String webCompactCodecModuleClass = "org.springframework.security.web.codec.WebCompactCodecModule";
+
+	private final ClassLoader classLoader;
+
+	private final Map<Class<?>, CompactTypeCodec<?>> codecsByType = new HashMap<>();
+
+	private final CompactTypeCodec<?>[] codecsById;
+
+	/**
+	 * Creates a new instance with the modules that are available from the default
+	 * {@link ClassLoader}.
+	 */
+	public CompactSecuritySerializer() {
+		this(ClassUtils.getDefaultClassLoader());
+	}
+
+	/**
+	 * Creates a new instance with the modules that are available from the given
+	 * {@link ClassLoader}.
+	 * @param classLoader the {@link ClassLoader} used to load the modules, and the values
+	 * that are read with Java serialization
+	 */
+	public CompactSecuritySerializer(ClassLoader classLoader) {
+		this(classLoader, getModules(classLoader));
+	}
+
+	/**
+	 * Creates a new instance with the given modules.
+	 * @param classLoader the {@link ClassLoader} used to load the values that are read
+	 * with Java serialization
+	 * @param modules the modules
+	 */
+	public CompactSecuritySerializer(ClassLoader classLoader, List<? extends CompactCodecModule> modules) {
+		Assert.notNull(modules, "modules cannot be null");
+		this.classLoader = classLoader;
+		Map<Integer, CompactTypeCodec<?>> codecsById = new HashMap<>();
+		int maxTypeId = 0;
+		for (CompactCodecModule module : modules) {
+			for (CompactTypeCodec<?> codec : module.getCodecs()) {
+				Assert.isTrue(codec.getTypeId() > 0, () -> "typeId of " + codec.getType() + " must be greater than 0");
+				Assert.isNull(codecsById.put(codec.getTypeId(), codec), () -> "Duplicate typeId " + codec.getTypeId());
+				Assert.isNull(this.codecsByType.put(codec.getType(), codec), () -> "Duplicate type " + codec.getType());
+				maxTypeId = Math.max(maxTypeId, codec.getTypeId());
+			}
+		}
+		this.codecsById = new CompactTypeCodec<?>[maxTypeId + 1];
+		codecsById.forEach((typeId, codec) -> this.codecsById[typeId] = codec);
+	}
+
+	/**
+	 * Returns the modules of Spring Security that are available from the given
+	 * {@link ClassLoader}.
+	 * @param loader the {@link ClassLoader} to use
+	 * @return the modules
+	 */
+	public static List<CompactCodecModule> getModules(ClassLoader loader) {
+		List<CompactCodecModule> modules = new ArrayList<>();
+		for (String className : compactCodecModuleClasses) {
+			addToModulesList(loader, modules, className);
+		}
+		if (ClassUtils.isPresent("javax.servlet.http.HttpServletRequest", loader)) {
+			addToModulesList(loader, modules, webCompactCodecModuleClass);
+		}
+		return modules;
+	}
+
+	private static void addToModulesList(ClassLoader loader, List<CompactCodecModule> modules, String className) {
+		try {
+			Class<?> module = ClassUtils.forName(className, loader);
+			logger.debug(LogMessage.format("Loaded module %s, now registering", className));
+			modules.add((CompactCodecModule) module.getDeclaredConstructor().newInstance());
+		}
+		catch (Exception ex) {
+			logger.debug(LogMessage.format("Cannot load module %s", className), ex);
+		}
+	}
+
+	@Override
+	public void serialize(Object object, OutputStream outputStream) throws IOException {
+		write(object).writeTo(outputStream);
+	}
+
+	@Override
+	public byte[] serializeToByteArray(Object object) {
+		return write(object).toByteArray();
+	}
+
+	private CompactOutput write(Object object) {
+		CompactOutput output = new CompactOutput(this);
+		output.writeByte(FORMAT_VERSION);
+		output.writeValue(object);
+		return output;
+	}
+
+	/**
+	 * Reads a value from the remaining content of the given stream.
+	 * @param inputStream the input stream
+	 * @return the value
+	 * @throws IOException if the content could not be read
+	 */
+	@Override
+	public Object deserialize(InputStream inputStream) throws IOException {
+		return deserializeFromByteArray(StreamUtils.copyToByteArray(inputStream));
+	}
+
+	@Override
+	public Object deserializeFromByteArray(byte[] serialized) throws IOException {
+		if (serialized.length == 0) {
+			throw new IOException("Cannot deserialize empty content");
+		}
+		int first = serialized[0] & 0xFF;
+		if (first == JAVA_SERIALIZATION_MAGIC) {
+			return deserializeJava(serialized);
+		}
+		if (first != FORMAT_VERSION) {
+			throw new IOException("Unsupported format " + first);
+		}
+		try {
+			return new CompactInput(this, serialized, 1).readValue();
+		}
+		catch (RuntimeException ex) {
+			// a codec may also fail on malformed content, e.g. with a ClassCastException
+			// or a NullPointerException
+			throw new IOException("Failed to deserialize content", ex);
+		}
+	}
+
+	private Object deserializeJava(byte[] serialized) throws IOException {
+		try (ObjectInputStream input = new ConfigurableObjectInputStream(new ByteArrayInputStream(serialized),
+				this.classLoader)) {
+			return input.readObject();
+		}
+		catch (ClassNotFoundException ex) {
+			throw new IOException("Failed to deserialize object type", ex);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	<T> CompactTypeCodec<T> getCodec(Class<?> type) {
+		return (CompactTypeCodec<T>) this.codecsByType.get(type);
+	}
+
+	CompactTypeCodec<?> getCodec(int typeId) {
+		return (typeId > 0 && typeId < this.codecsById.length) ? this.codecsById[typeId] : null;
+	}
+
+	ClassLoader getClassLoader() {
+		return this.classLoader;
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.codec;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.springframework.util.Assert;
+
+/**
+ * Writes and reads instances of exactly one type for the
+ * {@link CompactSecuritySerializer}. Instances of subclasses are not handled by the
+ * codec of their superclass, since it would not know about their state.
+ * <p>
+ * Each codec is identified in the serialized form by its type id, which must therefore
+ * never change. The ids from 1 to 255 are reserved for the codecs of Spring Security.
+ *
+ * @param <T> the type of the instances
+ * @since 5.6
+ * @see CompactCodecModule
+ */
+public interface CompactTypeCodec<T> {
+
+	/**
+	 * Returns the id that identifies this codec in the serialized form.
+	 * @return the type id, greater than 0
+	 */
+	int getTypeId();
+
+	/**
+	 * Returns the type of the instances that this codec writes and reads.
+	 * @return the type
+	 */
+	Class<T> getType();
+
+	/**
+	 * Writes the state of an instance.
+	 * @param value the instance to write
+	 * @param output the output to write to
+	 */
+	void write(T value, CompactOutput output);
+
+	/**
+	 * Reads an instance that was written by {@link #write(Object, CompactOutput)}.
+	 * @param input the input to read from
+	 * @return the instance
+	 */
+	T read(CompactInput input);
+
+	/**
+	 * Creates a codec from a function that writes and a function that reads instances.
+	 * @param typeId the type id, greater than 0
+	 * @param type the type of the instances
+	 * @param writer writes the state of an instance
+	 * @param reader reads an instance
+	 * @param <T> the type of the instances
+	 * @return the codec
+	 */
+	static <T> CompactTypeCodec<T> of(int typeId, Class<T> type, BiConsumer<? super T, CompactOutput> writer,
+			Function<CompactInput, ? extends T> reader) {
+		Assert.isTrue(typeId > 0, "typeId must be greater than 0");
+		Assert.notNull(type, "type cannot be null");
+		Assert.notNull(writer, "writer cannot be null");
+		Assert.notNull(reader, "reader cannot be null");
+		return new CompactTypeCodec<T>() {
+
+			@Override
+			public int getTypeId() {
+				return typeId;
+			}
+
+			@Override
+			public Class<T> getType() {
+				return type;
+			}
+
+			@Override
+			public void write(T value, CompactOutput output) {
+				writer.accept(value, output);
+			}
+
+			@Override
+			public T read(CompactInput input) {
+				return reader.apply(input);
+			}
+
+		};
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.codec;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.RememberMeAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * The {@link CompactCodecModule} for spring-security-core, which writes
+ * {@link SecurityContextImpl}, {@link UsernamePasswordAuthenticationToken},
+ * {@link RememberMeAuthenticationToken}, {@link AnonymousAuthenticationToken},
+ * {@link User} and {@link SimpleGrantedAuthority}.
+ *
+ * @since 5.6
+ * @see CompactSecuritySerializer#getModules(ClassLoader)
+ */
+public final class CoreCompactCodecModule implements CompactCodecModule {
+
+	private static final int ENABLED = 1;
+
+	private static final int ACCOUNT_NON_EXPIRED = 2;
+
+	private static final int CREDENTIALS_NON_EXPIRED = 4;
+
+	private static final int ACCOUNT_NON_LOCKED = 8;
+
+	@Override
+	public List<CompactTypeCodec<?>> getCodecs() {
+		return Arrays.asList(
+				CompactTypeCodec.of(1, SecurityContextImpl.class,
+						(context, output) -> output.writeValue(context.getAuthentication()),
+						(input) -> new SecurityContextImpl(input.readValue(Authentication.class))),
+				CompactTypeCodec.of(2, UsernamePasswordAuthenticationToken.class,
+						CoreCompactCodecModule::writeUsernamePasswordAuthenticationToken,
+						CoreCompactCodecModule::readUsernamePasswordAuthenticationToken),
+				CompactTypeCodec.of(3, User.class, CoreCompactCodecModule::writeUser, CoreCompactCodecModule::readUser),
+				CompactTypeCodec.of(4, SimpleGrantedAuthority.class,
+						(authority, output) -> output.writeString(authority.getAuthority()),
+						(input) -> new SimpleGrantedAuthority(input.readString())),
+				keyHashTokenCodec(5, RememberMeAuthenticationToken.class, RememberMeAuthenticationToken::getKeyHash),
+				keyHashTokenCodec(6, AnonymousAuthenticationToken.class, AnonymousAuthenticationToken::getKeyHash));
+	}
+
+	private static void writeUsernamePasswordAuthenticationToken(UsernamePasswordAuthenticationToken token,
+			CompactOutput output) {
+		output.writeValue(token.getPrincipal());
+		output.writeValue(token.getCredentials());
+		output.writeAuthorities(token.getAuthorities());
+		output.writeValue(token.getDetails());
+		output.writeBoolean(token.isAuthenticated());
+	}
+
+	private static UsernamePasswordAuthenticationToken readUsernamePasswordAuthenticationToken(CompactInput input) {
+		Object principal = input.readValue();
+		Object credentials = input.readValue();
+		List<GrantedAuthority> authorities = input.readAuthorities();
+		Object details = input.readValue();
+		UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(principal, credentials,
+				authorities);
+		if (!input.readBoolean()) {
+			token.setAuthenticated(false);
+		}
+		token.setDetails(details);
+		return token;
+	}
+
+	private static void writeUser(User user, CompactOutput output) {
+		output.writeString(user.getUsername());
+		output.writeString(user.getPassword());
+		output.writeAuthorities(user.getAuthorities());
+		output.writeByte((user.isEnabled() ? ENABLED : 0) | (user.isAccountNonExpired() ? ACCOUNT_NON_EXPIRED : 0)
+				| (user.isCredentialsNonExpired() ? CREDENTIALS_NON_EXPIRED : 0)
+				| (user.isAccountNonLocked() ? ACCOUNT_NON_LOCKED : 0));
+	}
+
+	private static User readUser(CompactInput input) {
+		String username = input.readString();
+		String password = input.readString();
+		List<GrantedAuthority> authorities = input.readAuthorities();
+		int flags = input.readByte();
+		User user = new User(username, (password != null) ? password : "", (flags & ENABLED) != 0,
+				(flags & ACCOUNT_NON_EXPIRED) != 0, (flags & CREDENTIALS_NON_EXPIRED) != 0,
+				(flags & ACCOUNT_NON_LOCKED) != 0, authorities);
+		if (password == null) {
+			user.eraseCredentials();
+		}
+		return user;
+	}
+
+	/**
+	 * Creates a codec for a token that keeps the hash of its key, which it can only be
+	 * created with through a private constructor.
+	 */
+	private static <T extends AbstractAuthenticationToken> CompactTypeCodec<T> keyHashTokenCodec(int typeId,
+			Class<T> type, KeyHash<T> keyHash) {
+		Constructor<T> constructor = getKeyHashConstructor(type);
+		return CompactTypeCodec.of(typeId, type, (token, output) -> {
+			output.writeVarInt(keyHash.get(token));
+			output.writeValue(token.getPrincipal());
+			output.writeAuthorities(token.getAuthorities());
+			output.writeValue(token.getDetails());
+		}, (input) -> {
+			Integer hash = input.readVarInt();
+			T token = BeanUtils.instantiateClass(constructor, hash, input.readValue(), input.readAuthorities());
+			token.setDetails(input.readValue());
+			return token;
+		});
+	}
+
+	private static <T> Constructor<T> getKeyHashConstructor(Class<T> type) {
+		try {
+			return ReflectionUtils.accessibleConstructor(type, Integer.class, Object.class, Collection.class);
+		}
+		catch (NoSuchMethodException ex) {
+			throw new IllegalStateException("Cannot find the key hash constructor of " + type.getName(), ex);
+		}
+	}
+
+	@FunctionalInterface
+	private interface KeyHash<T> {
+
+		int get(T token);
+
+	}
+
+}
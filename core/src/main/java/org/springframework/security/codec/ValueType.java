@@ -0,0 +1,55 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.codec;
+
+/**
+ * The tags that {@link CompactOutput#writeValue(Object)} writes before each value.
+ */
+final class ValueType {
+
+	static final int NULL = 0;
+
+	static final int CODEC = 1;
+
+	static final int STRING = 2;
+
+	static final int TRUE = 3;
+
+	static final int FALSE = 4;
+
+	static final int INTEGER = 5;
+
+	static final int LONG = 6;
+
+	static final int DOUBLE = 7;
+
+	static final int INSTANT = 8;
+
+	static final int URL = 9;
+
+	static final int LIST = 10;
+
+	static final int SET = 11;
+
+	static final int MAP = 12;
+
+	static final int SERIALIZED = 13;
+
+	private ValueType() {
+	}
+
+}
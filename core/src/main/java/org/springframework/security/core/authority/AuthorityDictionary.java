@@ -0,0 +1,114 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.authority;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.util.Assert;
+
+/**
+ * Assigns dense integer ids to authority strings, so that sets of authorities can be
+ * represented as bit sets by {@link AuthoritySet}. Ids are never reassigned.
+ * <p>
+ * The number of ids is bounded, since authorities may come from external sources such
+ * as tokens or directories. Once the bound is reached, authorities that do not have an
+ * id yet will never get one.
+ *
+ * @since 5.6
+ * @see AuthoritySet
+ */
+public final class AuthorityDictionary {
+
+	/**
+	 * The maximum number of ids assigned by the shared instance.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 16384;
+
+	private static final AuthorityDictionary sharedInstance = new AuthorityDictionary(DEFAULT_MAX_SIZE);
+
+	private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+	private final AtomicInteger nextId = new AtomicInteger();
+
+	private final int maxSize;
+
+	/**
+	 * Creates a new instance.
+	 * @param maxSize the maximum number of ids to assign
+	 */
+	public AuthorityDictionary(int maxSize) {
+		Assert.isTrue(maxSize >= 0, "maxSize cannot be negative");
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Returns the shared instance, which assigns at most {@link #DEFAULT_MAX_SIZE} ids.
+	 * @return the shared instance
+	 */
+	public static AuthorityDictionary getSharedInstance() {
+		return sharedInstance;
+	}
+
+	/**
+	 * Returns the id of the given authority, assigning one if needed.
+	 * @param authority the authority
+	 * @return the id, or -1 if the authority does not have an id and the maximum number
+	 * of ids was reached
+	 */
+	public int getId(String authority) {
+		Integer id = this.ids.get(authority);
+		if (id != null) {
+			return id;
+		}
+		if (this.nextId.get() >= this.maxSize) {
+			return -1;
+		}
+		synchronized (this.ids) {
+			id = this.ids.get(authority);
+			if (id != null) {
+				return id;
+			}
+			if (this.nextId.get() >= this.maxSize) {
+				return -1;
+			}
+			id = this.nextId.getAndIncrement();
+			this.ids.put(authority, id);
+			return id;
+		}
+	}
+
+	/**
+	 * Returns the id of the given authority, without assigning one.
+	 * @param authority the authority
+	 * @return the id, or -1 if the authority does not have an id
+	 */
+	public int findId(String authority) {
+		Integer id = this.ids.get(authority);
+		return (id != null) ? id : -1;
+	}
+
+	/**
+	 * Returns the number of ids that were assigned.
+	 * @return the number of ids
+	 */
+	public int size() {
+		return this.nextId.get();
+	}
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.authority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.Assert;
+
+/**
+ * An immutable set of authority strings, stored as a bit set of the ids that an
+ * {@link AuthorityDictionary} assigned to them. Checking whether a set contains any
+ * authority of another set is a bitwise AND of their words.
+ * <p>
+ * Authorities that do not have an id, because the dictionary is full, are kept as
+ * strings and still compared correctly.
+ *
+ * @since 5.6
+ * @see AuthorityDictionary
+ */
+public final class AuthoritySet {
+
+	private static final long[] NO_WORDS = new long[0];
+
+	private static final AuthoritySet EMPTY = new AuthoritySet(AuthorityDictionary.getSharedInstance(), 0, NO_WORDS,
+			Collections.emptySet());
+
+	private final AuthorityDictionary dictionary;
+
+	// the index of the first word, so that sets of a few high ids stay small
+	private final int offset;
+
+	private final long[] words;
+
+	private final Set<String> unassigned;
+
+	private AuthoritySet(AuthorityDictionary dictionary, int offset, long[] words, Set<String> unassigned) {
+		this.dictionary = dictionary;
+		this.offset = offset;
+		this.words = words;
+		this.unassigned = unassigned;
+	}
+
+	/**
+	 * Returns the set of the authorities of the given {@link Authentication}, which is
+	 * computed once for each {@link AbstractAuthenticationToken} that does not override
+	 * {@link AbstractAuthenticationToken#getAuthorities()}.
+	 * @param authentication the {@link Authentication}
+	 * @return the set of authorities, using the shared {@link AuthorityDictionary}
+	 */
+	public static AuthoritySet of(Authentication authentication) {
+		if (authentication instanceof AbstractAuthenticationToken) {
+			AuthoritySet authoritySet = ((AbstractAuthenticationToken) authentication).getAuthoritySet();
+			if (authoritySet != null) {
+				return authoritySet;
+			}
+		}
+		return of(authentication.getAuthorities());
+	}
+
+	/**
+	 * Returns the set of the given authorities.
+	 * @param authorities the authorities
+	 * @return the set of authorities, using the shared {@link AuthorityDictionary}
+	 */
+	public static AuthoritySet of(Collection<? extends GrantedAuthority> authorities) {
+		List<String> values = new ArrayList<>(authorities.size());
+		for (GrantedAuthority authority : authorities) {
+			values.add(authority.getAuthority());
+		}
+		return of(AuthorityDictionary.getSharedInstance(), values);
+	}
+
+	/**
+	 * Returns the set of the given authority strings.
+	 * @param authorities the authority strings
+	 * @return the set of authorities, using the shared {@link AuthorityDictionary}
+	 */
+	public static AuthoritySet of(String... authorities) {
+		return of(AuthorityDictionary.getSharedInstance(), Arrays.asList(authorities));
+	}
+
+	/**
+	 * Returns the set of the given authority strings, ignoring {@code null}s.
+	 * @param dictionary the {@link AuthorityDictionary} that assigns the ids
+	 * @param authorities the authority strings
+	 * @return the set of authorities
+	 */
+	public static AuthoritySet of(AuthorityDictionary dictionary, Collection<String> authorities) {
+		Assert.notNull(dictionary, "dictionary cannot be null");
+		if (authorities.isEmpty() && dictionary == EMPTY.dictionary) {
+			return EMPTY;
+		}
+		int[] ids = new int[authorities.size()];
+		int count = 0;
+		int min = Integer.MAX_VALUE;
+		int max = -1;
+		Set<String> unassigned = Collections.emptySet();
+		for (String authority : authorities) {
+			if (authority == null) {
+				continue;
+			}
+			int id = dictionary.getId(authority);
+			if (id < 0) {
+				if (unassigned.isEmpty()) {
+					unassigned = new HashSet<>();
+				}
+				unassigned.add(authority);
+				continue;
+			}
+			ids[count++] = id;
+			min = Math.min(min, id);
+			max = Math.max(max, id);
+		}
+		if (count == 0) {
+			return new AuthoritySet(dictionary, 0, NO_WORDS, unassigned);
+		}
+		int offset = min >>> 6;
+		long[] words = new long[(max >>> 6) - offset + 1];
+		for (int i = 0; i < count; i++) {
+			words[(ids[i] >>> 6) - offset] |= 1L << ids[i];
+		}
+		return new AuthoritySet(dictionary, offset, words, unassigned);
+	}
+
+	/**
+	 * Returns whether this set contains the given authority.
+	 * @param authority the authority
+	 * @return {@code true} if this set contains the authority
+	 */
+	public boolean contains(String authority) {
+		if (authority == null) {
+			return false;
+		}
+		int id = this.dictionary.findId(authority);
+		if (id < 0) {
+			return this.unassigned.contains(authority);
+		}
+		int word = (id >>> 6) - this.offset;
+		return word >= 0 && word < this.words.length && (this.words[word] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Returns whether this set contains any authority of the given set.
+	 * @param authorities the set of authorities, which must use the same
+	 * {@link AuthorityDictionary}
+	 * @return {@code true} if the sets intersect
+	 */
+	public boolean containsAny(AuthoritySet authorities) {
+		Assert.isTrue(this.dictionary == authorities.dictionary, "authorities must use the same dictionary");
+		int from = Math.max(this.offset, authorities.offset);
+		int to = Math.min(this.offset + this.words.length, authorities.offset + authorities.words.length);
+		for (int word = from; word < to; word++) {
+			if ((this.words[word - this.offset] & authorities.words[word - authorities.offset]) != 0) {
+				return true;
+			}
+		}
+		for (String authority : authorities.unassigned) {
+			if (this.unassigned.contains(authority)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether this set is empty.
+	 * @return {@code true} if this set is empty
+	 */
+	public boolean isEmpty() {
+		for (long word : this.words) {
+			if (word != 0) {
+				return false;
+			}
+		}
+		return this.unassigned.isEmpty();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -78,4 +78,22 @@ public final class AuthorityUtils {
 		return grantedAuthorities;
 	}
 
+	/**
+	 * Converts authorities into a List of GrantedAuthority objects, using the canonical
+	 * instance of each authority from the
+	 * {@link GrantedAuthorityInterner#getSharedInstance() shared}
+	 * {@link GrantedAuthorityInterner}.
+	 * @param authorities the authorities to convert
+	 * @return a List of GrantedAuthority objects
+	 * @since 5.6
+	 */
+	public static List<GrantedAuthority> createInternedAuthorityList(String... authorities) {
+		GrantedAuthorityInterner interner = GrantedAuthorityInterner.getSharedInstance();
+		List<GrantedAuthority> grantedAuthorities = new ArrayList<>(authorities.length);
+		for (String authority : authorities) {
+			grantedAuthorities.add(interner.intern(authority));
+		}
+		return grantedAuthorities;
+	}
+
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.authority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.Assert;
+
+/**
+ * Returns canonical {@link SimpleGrantedAuthority} instances, so that equal authorities
+ * share one instance, compare by identity and take no extra heap in each
+ * {@link org.springframework.security.core.Authentication}.
+ * <p>
+ * The number of interned authorities is bounded, since authorities may come from
+ * external sources such as tokens or directories. Once the bound is reached, authorities
+ * that were not interned before are returned as new instances.
+ *
+ * @since 5.6
+ * @see AuthorityUtils#createInternedAuthorityList(String...)
+ */
+public final class GrantedAuthorityInterner {
+
+	/**
+	 * The maximum number of authorities interned by the shared instance.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	private static final GrantedAuthorityInterner sharedInstance = new GrantedAuthorityInterner(DEFAULT_MAX_SIZE);
+
+	private final ConcurrentMap<String, SimpleGrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+	private final int maxSize;
+
+	/**
+	 * Creates a new instance.
+	 * @param maxSize the maximum number of authorities to intern
+	 */
+	public GrantedAuthorityInterner(int maxSize) {
+		Assert.isTrue(maxSize >= 0, "maxSize cannot be negative");
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Returns the shared instance, which interns at most {@link #DEFAULT_MAX_SIZE}
+	 * authorities.
+	 * @return the shared instance
+	 */
+	public static GrantedAuthorityInterner getSharedInstance() {
+		return sharedInstance;
+	}
+
+	/**
+	 * Returns the canonical {@link SimpleGrantedAuthority} for the given authority.
+	 * @param authority the textual representation of the authority
+	 * @return the canonical instance, or a new instance if the maximum number of
+	 * authorities was reached
+	 */
+	public SimpleGrantedAuthority intern(String authority) {
+		Assert.hasText(authority, "A granted authority textual representation is required");
+		SimpleGrantedAuthority interned = this.authorities.get(authority);
+		if (interned != null) {
+			return interned;
+		}
+		SimpleGrantedAuthority created = new SimpleGrantedAuthority(authority);
+		if (this.authorities.size() >= this.maxSize) {
+			return created;
+		}
+		interned = this.authorities.putIfAbsent(authority, created);
+		return (interned != null) ? interned : created;
+	}
+
+	/**
+	 * Returns the canonical instance of the given authority if it is a
+	 * {@link SimpleGrantedAuthority}, or the authority itself otherwise, since other
+	 * types may carry more state than their textual representation.
+	 * @param authority the authority
+	 * @return the canonical instance or the given authority
+	 */
+	public GrantedAuthority intern(GrantedAuthority authority) {
+		if (authority.getClass() != SimpleGrantedAuthority.class) {
+			return authority;
+		}
+		SimpleGrantedAuthority interned = this.authorities.get(authority.getAuthority());
+		if (interned != null) {
+			return interned;
+		}
+		if (this.authorities.size() >= this.maxSize) {
+			return authority;
+		}
+		interned = this.authorities.putIfAbsent(authority.getAuthority(), (SimpleGrantedAuthority) authority);
+		return (interned != null) ? interned : authority;
+	}
+
+	/**
+	 * Returns a list of the canonical instances of the given authorities.
+	 * @param authorities the authorities
+	 * @return a new list, in the same order
+	 * @see #intern(GrantedAuthority)
+	 */
+	public List<GrantedAuthority> internAll(Collection<? extends GrantedAuthority> authorities) {
+		List<GrantedAuthority> interned = new ArrayList<>(authorities.size());
+		for (GrantedAuthority authority : authorities) {
+			interned.add(intern(authority));
+		}
+		return interned;
+	}
+
+	/**
+	 * Returns the number of interned authorities.
+	 * @return the number of interned authorities
+	 */
+	public int size() {
+		return this.authorities.size();
+	}
+
+}
@@ -17,6 +17,7 @@
 package org.springframework.security.core.context;
 
 import java.lang.reflect.Constructor;
+import java.util.function.Supplier;
 
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
@@ -120,6 +121,18 @@ public class SecurityContextHolder {
 		return strategy.getContext();
 	}
 
+	/**
+	 * Obtain a {@link Supplier} that returns the current <code>SecurityContext</code>
+	 * without causing a deferred context to be obtained.
+	 * @return a {@link Supplier} that returns the security context (never
+	 * <code>null</code>)
+	 * @since 5.6
+	 * @see SecurityContextHolderStrategy#getDeferredContext()
+	 */
+	public static Supplier<SecurityContext> getDeferredContext() {
+		return strategy.getDeferredContext();
+	}
+
 	/**
 	 * Primarily for troubleshooting purposes, this method shows how many times the class
 	 * has re-initialized its <code>SecurityContextHolderStrategy</code>.
@@ -138,6 +151,18 @@ public class SecurityContextHolder {
 		strategy.setContext(context);
 	}
 
+	/**
+	 * Associates a {@link Supplier} of a new <code>SecurityContext</code> with the current
+	 * thread of execution, which may only be invoked once the context is needed.
+	 * @param deferredContext a {@link Supplier} that returns the new
+	 * <code>SecurityContext</code> (may not be <code>null</code>)
+	 * @since 5.6
+	 * @see SecurityContextHolderStrategy#setDeferredContext(Supplier)
+	 */
+	public static void setDeferredContext(Supplier<SecurityContext> deferredContext) {
+		strategy.setDeferredContext(deferredContext);
+	}
+
 	/**
 	 * 修改 SecurityContextHolder 中的存储策略，调用该方法后会重新初始化 strategy
 	 *
@@ -16,6 +16,8 @@
 
 package org.springframework.security.core.context;
 
+import java.util.function.Supplier;
+
 /**
  * A strategy for storing security context information against a thread.
  *
@@ -42,6 +44,18 @@ public interface SecurityContextHolderStrategy {
 	 */
 	SecurityContext getContext();
 
+	/**
+	 * Obtains a {@link Supplier} that returns the current context. Unlike
+	 * {@link #getContext()}, this does not cause a context that was set with
+	 * {@link #setDeferredContext(Supplier)} to be obtained.
+	 * @return a {@link Supplier} that returns the current context (never
+	 * <code>null</code>)
+	 * @since 5.6
+	 */
+	default Supplier<SecurityContext> getDeferredContext() {
+		return this::getContext;
+	}
+
 	/**
 	 * 设置存储的 SecurityContext 对象
 	 *
@@ -52,6 +66,18 @@ public interface SecurityContextHolderStrategy {
 	 */
 	void setContext(SecurityContext context);
 
+	/**
+	 * Sets a {@link Supplier} that returns the current context, which implementations
+	 * should only invoke once the context is needed. The default implementation invokes
+	 * it immediately.
+	 * @param deferredContext a {@link Supplier} that returns the new context (may not be
+	 * <code>null</code>, nor return <code>null</code>)
+	 * @since 5.6
+	 */
+	default void setDeferredContext(Supplier<SecurityContext> deferredContext) {
+		setContext(deferredContext.get());
+	}
+
 	/**
 	 *  创建一个空的 SecurityContext 对象
 	 *
@@ -16,6 +16,8 @@
 
 package org.springframework.security.core.context;
 
+import java.util.function.Supplier;
+
 import org.springframework.util.Assert;
 
 /**
@@ -32,7 +34,7 @@ import org.springframework.util.Assert;
 final class ThreadLocalSecurityContextHolderStrategy implements SecurityContextHolderStrategy {
 
 	// 使用 ThreadLocal 存储 SecurityContext
-	private static final ThreadLocal<SecurityContext> contextHolder = new ThreadLocal<>();
+	private static final ThreadLocal<Supplier<SecurityContext>> contextHolder = new ThreadLocal<>();
 
 	@Override
 	public void clearContext() {
@@ -42,18 +44,32 @@ final class ThreadLocalSecurityContextHolderStrategy implements SecurityContextH
 
 	@Override
 	public SecurityContext getContext() {
-		SecurityContext ctx = contextHolder.get();
-		if (ctx == null) {
-			ctx = createEmptyContext();
-			contextHolder.set(ctx);
-		}
+		SecurityContext ctx = getDeferredContext().get();
+		Assert.state(ctx != null, "A deferred SecurityContext returned null");
 		return ctx;
 	}
 
+	@Override
+	public Supplier<SecurityContext> getDeferredContext() {
+		Supplier<SecurityContext> result = contextHolder.get();
+		if (result == null) {
+			SecurityContext ctx = createEmptyContext();
+			result = () -> ctx;
+			contextHolder.set(result);
+		}
+		return result;
+	}
+
 	@Override
 	public void setContext(SecurityContext context) {
 		Assert.notNull(context, "Only non-null SecurityContext instances are permitted");
-		contextHolder.set(context);
+		contextHolder.set(() -> context);
+	}
+
+	@Override
+	public void setDeferredContext(Supplier<SecurityContext> deferredContext) {
+		Assert.notNull(deferredContext, "Only non-null Supplier instances are permitted");
+		contextHolder.set(deferredContext);
 	}
 
 	@Override
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.session;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import org.springframework.util.Assert;
+
+/**
+ * A {@link SessionRegistryStore} that keeps its keys in memory. It can be shared by
+ * several {@link KeyValueSessionRegistry} instances in the same JVM, which makes it
+ * useful for tests and for a single node.
+ *
+ * @since 5.6
+ */
+public final class InMemorySessionRegistryStore implements SessionRegistryStore {
+
+	private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+	private final Map<String, Set<String>> sets = new ConcurrentHashMap<>();
+
+	private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+	private final Executor executor;
+
+	/**
+	 * Creates a new instance that notifies the invalidation listeners synchronously.
+	 */
+	public InMemorySessionRegistryStore() {
+		this(Runnable::run);
+	}
+
+	/**
+	 * Creates a new instance
+	 * @param executor the {@link Executor} used to notify the invalidation listeners
+	 */
+	public InMemorySessionRegistryStore(Executor executor) {
+		Assert.notNull(executor, "executor cannot be null");
+		this.executor = executor;
+	}
+
+	@Override
+	public Map<String, Object> getAll(Collection<String> keys) {
+		Map<String, Object> result = new HashMap<>();
+		for (String key : keys) {
+			Object value = this.values.get(key);
+			if (value != null) {
+				result.put(key, value);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void putAll(Map<String, ?> entries) {
+		this.values.putAll(entries);
+		invalidate(entries.keySet());
+	}
+
+	@Override
+	public void removeAll(Collection<String> keys) {
+		for (String key : keys) {
+			this.values.remove(key);
+			this.sets.remove(key);
+		}
+		invalidate(keys);
+	}
+
+	@Override
+	public Set<String> getMembers(String key) {
+		Set<String> members = this.sets.get(key);
+		if (members == null) {
+			return Collections.emptySet();
+		}
+		synchronized (members) {
+			return new HashSet<>(members);
+		}
+	}
+
+	@Override
+	public void addMember(String key, String member) {
+		this.sets.compute(key, (k, members) -> {
+			Set<String> result = (members != null) ? members : new HashSet<>();
+			synchronized (result) {
+				result.add(member);
+			}
+			return result;
+		});
+	}
+
+	@Override
+	public boolean removeMember(String key, String member) {
+		Set<String> remaining = this.sets.computeIfPresent(key, (k, members) -> {
+			synchronized (members) {
+				members.remove(member);
+				return members.isEmpty() ? null : members;
+			}
+		});
+		return remaining == null;
+	}
+
+	@Override
+	public void addInvalidationListener(Consumer<String> listener) {
+		Assert.notNull(listener, "listener cannot be null");
+		this.listeners.add(listener);
+	}
+
+	private void invalidate(Collection<String> keys) {
+		if (this.listeners.isEmpty()) {
+			return;
+		}
+		Collection<String> invalidated = new HashSet<>(keys);
+		this.executor.execute(() -> {
+			for (String key : invalidated) {
+				for (Consumer<String> listener : this.listeners) {
+					listener.accept(key);
+				}
+			}
+		});
+	}
+
+}
@@ -0,0 +1,478 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.session;
+
+import java.security.Principal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.log.LogMessage;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.SpringSecurityCoreVersion;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link SessionRegistry} that keeps its sessions in a {@link SessionRegistryStore}
+ * shared by several nodes, so that the maximum number of sessions of a principal is
+ * enforced across all of them.
+ * <p>
+ * To avoid a round trip to the store on every request, {@link SessionInformation}s looked
+ * up by session id are kept in a local cache for a
+ * {@link #setCacheTimeToLive(Duration) time to live}, and evicted as soon as the store
+ * reports that another node changed them. The cache holds at most a
+ * {@link #setMaximumCacheSize(int) maximum number} of sessions. Registering, removing and expiring a session
+ * are written to the store immediately, whereas refreshing the last request of a session
+ * is collected and written in batches, once a {@link #setBatchSize(int) number} of
+ * sessions have been refreshed or the {@link #setFlushInterval(Duration) flush interval}
+ * has passed, whichever comes first. Both are only checked when a session is refreshed,
+ * so a node that stops receiving requests only writes its pending refreshes when
+ * {@link #flush()} is invoked. Either set a {@link #setTaskScheduler(TaskScheduler)
+ * TaskScheduler} that invokes it at the flush interval, or invoke it periodically.
+ * <p>
+ * Principals are identified across nodes by a key, which defaults to the name of a
+ * {@link UserDetails}, {@link AuthenticatedPrincipal} or {@link Principal}, and to the
+ * {@link Object#toString()} of any other principal.
+ *
+ * @since 5.6
+ * @see InMemorySessionRegistryStore
+ */
+public class KeyValueSessionRegistry
+		implements SessionRegistry, ApplicationListener<AbstractSessionEvent>, DisposableBean {
+
+	private static final String SESSION_PREFIX = "session:";
+
+	private static final String LAST_REQUEST_PREFIX = "lastRequest:";
+
+	private static final String PRINCIPAL_PREFIX = "principal:";
+
+	private static final String PRINCIPALS_KEY = "principals";
+
+	protected final Log logger = LogFactory.getLog(KeyValueSessionRegistry.class);
+
+	private final SessionRegistryStore store;
+
+	private final ConcurrentMap<String, CachedSession> cache = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, Long> pendingLastRequests = new ConcurrentHashMap<>();
+
+	private final AtomicLong lastFlush = new AtomicLong();
+
+	private Converter<Object, String> principalKeyConverter = KeyValueSessionRegistry::getPrincipalKey;
+
+	private Clock clock = Clock.systemUTC();
+
+	private long cacheTimeToLive = 5000;
+
+	private int maximumCacheSize = 10000;
+
+	private int batchSize = 100;
+
+	private long flushInterval = 1000;
+
+	private TaskScheduler taskScheduler;
+
+	private ScheduledFuture<?> scheduledFlush;
+
+	/**
+	 * Creates a new instance
+	 * @param store the {@link SessionRegistryStore} shared with the other nodes
+	 */
+	public KeyValueSessionRegistry(SessionRegistryStore store) {
+		Assert.notNull(store, "store cannot be null");
+		this.store = store;
+		this.store.addInvalidationListener(this::invalidate);
+		this.lastFlush.set(this.clock.millis());
+	}
+
+	@Override
+	public List<Object> getAllPrincipals() {
+		List<Object> principals = new ArrayList<>();
+		for (String principalKey : this.store.getMembers(PRINCIPALS_KEY)) {
+			Set<String> sessionIds = this.store.getMembers(PRINCIPAL_PREFIX + principalKey);
+			for (SessionInformation info : load(sessionIds).values()) {
+				principals.add(info.getPrincipal());
+				break;
+			}
+		}
+		return principals;
+	}
+
+	@Override
+	public List<SessionInformation> getAllSessions(Object principal, boolean includeExpiredSessions) {
+		Set<String> sessionIds = this.store.getMembers(PRINCIPAL_PREFIX + principalKey(principal));
+		if (sessionIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<SessionInformation> list = new ArrayList<>(sessionIds.size());
+		for (SessionInformation info : load(sessionIds).values()) {
+			if (includeExpiredSessions || !info.isExpired()) {
+				list.add(info);
+			}
+		}
+		return list;
+	}
+
+	@Override
+	public SessionInformation getSessionInformation(String sessionId) {
+		Assert.hasText(sessionId, "SessionId required as per interface contract");
+		CachedSession cached = this.cache.get(sessionId);
+		if (cached != null) {
+			if (cached.expiresAt > this.clock.millis()) {
+				return cached.info;
+			}
+			this.cache.remove(sessionId, cached);
+		}
+		// unknown sessions are not cached, since the store would not report their creation
+		return load(Collections.singleton(sessionId)).get(sessionId);
+	}
+
+	@Override
+	public void onApplicationEvent(AbstractSessionEvent event) {
+		if (event instanceof SessionDestroyedEvent) {
+			SessionDestroyedEvent sessionDestroyedEvent = (SessionDestroyedEvent) event;
+			removeSessionInformation(sessionDestroyedEvent.getId());
+		}
+		else if (event instanceof SessionIdChangedEvent) {
+			SessionIdChangedEvent sessionIdChangedEvent = (SessionIdChangedEvent) event;
+			SessionInformation info = getSessionInformation(sessionIdChangedEvent.getOldSessionId());
+			if (info != null) {
+				removeSessionInformation(info.getSessionId());
+				registerNewSession(sessionIdChangedEvent.getNewSessionId(), info.getPrincipal());
+			}
+		}
+	}
+
+	@Override
+	public void refreshLastRequest(String sessionId) {
+		Assert.hasText(sessionId, "SessionId required as per interface contract");
+		SessionInformation info = getSessionInformation(sessionId);
+		if (info == null) {
+			return;
+		}
+		long now = this.clock.millis();
+		info.refreshLastRequest(now);
+		this.pendingLastRequests.put(sessionId, now);
+		long lastFlush = this.lastFlush.get();
+		if ((this.pendingLastRequests.size() >= this.batchSize || now - lastFlush >= this.flushInterval)
+				&& this.lastFlush.compareAndSet(lastFlush, now)) {
+			flush();
+		}
+	}
+
+	@Override
+	public void registerNewSession(String sessionId, Object principal) {
+		Assert.hasText(sessionId, "SessionId required as per interface contract");
+		Assert.notNull(principal, "Principal required as per interface contract");
+		if (getSessionInformation(sessionId) != null) {
+			removeSessionInformation(sessionId);
+		}
+		this.logger.debug(LogMessage.format("Registering session %s, for principal %s", sessionId, principal));
+		String principalKey = principalKey(principal);
+		SessionInformation record = new SessionInformation(principal, sessionId, new Date(this.clock.millis()));
+		this.store.putAll(Collections.singletonMap(SESSION_PREFIX + sessionId, record));
+		this.store.addMember(PRINCIPAL_PREFIX + principalKey, sessionId);
+		this.store.addMember(PRINCIPALS_KEY, principalKey);
+		cache(new StoredSessionInformation(this, record, record.getLastRequestMillis()));
+	}
+
+	@Override
+	public void removeSessionInformation(String sessionId) {
+		Assert.hasText(sessionId, "SessionId required as per interface contract");
+		SessionInformation info = getSessionInformation(sessionId);
+		if (info == null) {
+			return;
+		}
+		this.logger.debug(LogMessage.format("Removing session %s from set of registered sessions", sessionId));
+		this.pendingLastRequests.remove(sessionId);
+		this.store.removeAll(Arrays.asList(SESSION_PREFIX + sessionId, LAST_REQUEST_PREFIX + sessionId));
+		String principalKey = principalKey(info.getPrincipal());
+		if (this.store.removeMember(PRINCIPAL_PREFIX + principalKey, sessionId)) {
+			this.logger.debug(LogMessage.format("Removing principal %s from registry", info.getPrincipal()));
+			this.store.removeMember(PRINCIPALS_KEY, principalKey);
+		}
+		this.cache.remove(sessionId);
+	}
+
+	/**
+	 * Writes the last request of the sessions that have been refreshed since the last
+	 * flush to the {@link SessionRegistryStore}.
+	 */
+	public void flush() {
+		Map<String, Long> lastRequests = new HashMap<>();
+		for (Map.Entry<String, Long> pending : this.pendingLastRequests.entrySet()) {
+			if (this.pendingLastRequests.remove(pending.getKey(), pending.getValue())) {
+				lastRequests.put(LAST_REQUEST_PREFIX + pending.getKey(), pending.getValue());
+			}
+		}
+		if (!lastRequests.isEmpty()) {
+			this.logger.trace(LogMessage.format("Writing the last request of %d sessions", lastRequests.size()));
+			this.store.putAll(lastRequests);
+		}
+	}
+
+	/**
+	 * Stops flushing at the flush interval, if a {@link TaskScheduler} was set, and
+	 * writes any pending refreshes of the last request of a session, see {@link #flush()}.
+	 */
+	@Override
+	public synchronized void destroy() {
+		cancelScheduledFlush();
+		flush();
+	}
+
+	private void expire(StoredSessionInformation info) {
+		this.logger.debug(LogMessage.format("Expiring session %s", info.getSessionId()));
+		SessionInformation record = new SessionInformation(info.getPrincipal(), info.getSessionId(),
+				info.getLastRequest());
+		record.expireNow();
+		this.store.putAll(Collections.singletonMap(SESSION_PREFIX + info.getSessionId(), record));
+		cache(info);
+	}
+
+	private Map<String, SessionInformation> load(Collection<String> sessionIds) {
+		List<String> keys = new ArrayList<>(sessionIds.size() * 2);
+		for (String sessionId : sessionIds) {
+			keys.add(SESSION_PREFIX + sessionId);
+			keys.add(LAST_REQUEST_PREFIX + sessionId);
+		}
+		Map<String, Object> values = this.store.getAll(keys);
+		Map<String, SessionInformation> sessions = new LinkedHashMap<>();
+		for (String sessionId : sessionIds) {
+			SessionInformation record = (SessionInformation) values.get(SESSION_PREFIX + sessionId);
+			if (record == null) {
+				this.cache.remove(sessionId);
+				continue;
+			}
+			long lastRequest = record.getLastRequestMillis();
+			Long storedLastRequest = (Long) values.get(LAST_REQUEST_PREFIX + sessionId);
+			if (storedLastRequest != null) {
+				lastRequest = Math.max(lastRequest, storedLastRequest);
+			}
+			Long pendingLastRequest = this.pendingLastRequests.get(sessionId);
+			if (pendingLastRequest != null) {
+				lastRequest = Math.max(lastRequest, pendingLastRequest);
+			}
+			StoredSessionInformation info = new StoredSessionInformation(this, record, lastRequest);
+			cache(info);
+			sessions.put(sessionId, info);
+		}
+		return sessions;
+	}
+
+	private void cache(StoredSessionInformation info) {
+		String sessionId = info.getSessionId();
+		long now = this.clock.millis();
+		if (this.cacheTimeToLive == 0 || (this.cache.size() >= this.maximumCacheSize && !evictExpired(now))) {
+			this.cache.remove(sessionId);
+			return;
+		}
+		this.cache.put(sessionId, new CachedSession(info, now + this.cacheTimeToLive));
+	}
+
+	// returns whether there is room left in the cache
+	private boolean evictExpired(long now) {
+		this.cache.values().removeIf((cached) -> cached.expiresAt <= now);
+		return this.cache.size() < this.maximumCacheSize;
+	}
+
+	private void invalidate(String key) {
+		if (key.startsWith(SESSION_PREFIX)) {
+			this.cache.remove(key.substring(SESSION_PREFIX.length()));
+		}
+	}
+
+	private String principalKey(Object principal) {
+		String principalKey = this.principalKeyConverter.convert(principal);
+		Assert.hasText(principalKey, () -> "principalKeyConverter returned no key for " + principal);
+		return principalKey;
+	}
+
+	private static String getPrincipalKey(Object principal) {
+		if (principal instanceof UserDetails) {
+			return ((UserDetails) principal).getUsername();
+		}
+		if (principal instanceof AuthenticatedPrincipal) {
+			return ((AuthenticatedPrincipal) principal).getName();
+		}
+		if (principal instanceof Principal) {
+			return ((Principal) principal).getName();
+		}
+		return principal.toString();
+	}
+
+	/**
+	 * Sets the {@link Converter} used to obtain the key that identifies a principal
+	 * across nodes
+	 * @param principalKeyConverter the {@link Converter} to use
+	 */
+	public void setPrincipalKeyConverter(Converter<Object, String> principalKeyConverter) {
+		Assert.notNull(principalKeyConverter, "principalKeyConverter cannot be null");
+		this.principalKeyConverter = principalKeyConverter;
+	}
+
+	/**
+	 * Sets how long a {@link SessionInformation} is cached locally. The default is five
+	 * seconds.
+	 * @param cacheTimeToLive the time to live, {@link Duration#ZERO} to always look up
+	 * sessions in the {@link SessionRegistryStore}
+	 */
+	public void setCacheTimeToLive(Duration cacheTimeToLive) {
+		Assert.notNull(cacheTimeToLive, "cacheTimeToLive cannot be null");
+		Assert.isTrue(!cacheTimeToLive.isNegative(), "cacheTimeToLive cannot be negative");
+		this.cacheTimeToLive = cacheTimeToLive.toMillis();
+	}
+
+	/**
+	 * Sets how many sessions are cached locally at most. Once the cache is full, sessions
+	 * are only cached again after others have expired. The default is 10,000.
+	 * @param maximumCacheSize the maximum number of cached sessions
+	 */
+	public void setMaximumCacheSize(int maximumCacheSize) {
+		Assert.isTrue(maximumCacheSize > 0, "maximumCacheSize must be greater than 0");
+		this.maximumCacheSize = maximumCacheSize;
+	}
+
+	/**
+	 * Sets how many refreshed sessions cause their last request to be written to the
+	 * {@link SessionRegistryStore}. The default is 100.
+	 * @param batchSize the batch size
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Sets how long the last request of a refreshed session may remain unwritten. The
+	 * default is one second.
+	 * @param flushInterval the flush interval
+	 */
+	public void setFlushInterval(Duration flushInterval) {
+		Assert.notNull(flushInterval, "flushInterval cannot be null");
+		Assert.isTrue(!flushInterval.isNegative(), "flushInterval cannot be negative");
+		this.flushInterval = flushInterval.toMillis();
+		scheduleFlush();
+	}
+
+	/**
+	 * Sets the {@link TaskScheduler} that invokes {@link #flush()} at the
+	 * {@link #setFlushInterval(Duration) flush interval}, so that the refreshed sessions
+	 * are written even when no other session is refreshed afterwards. By default, no
+	 * {@link TaskScheduler} is used.
+	 * @param taskScheduler the {@link TaskScheduler} to use
+	 */
+	public synchronized void setTaskScheduler(TaskScheduler taskScheduler) {
+		Assert.notNull(taskScheduler, "taskScheduler cannot be null");
+		cancelScheduledFlush();
+		this.taskScheduler = taskScheduler;
+		scheduleFlush();
+	}
+
+	private synchronized void scheduleFlush() {
+		if (this.taskScheduler == null) {
+			return;
+		}
+		cancelScheduledFlush();
+		// with no flush interval every refresh is written immediately
+		if (this.flushInterval > 0) {
+			this.scheduledFlush = this.taskScheduler.scheduleAtFixedRate(this::flush,
+					Duration.ofMillis(this.flushInterval));
+		}
+	}
+
+	private void cancelScheduledFlush() {
+		if (this.scheduledFlush != null) {
+			this.scheduledFlush.cancel(false);
+			this.scheduledFlush = null;
+		}
+	}
+
+	/**
+	 * Sets the {@link Clock} used to record the last request and to expire cached
+	 * sessions
+	 * @param clock the {@link Clock} to use
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	private static final class CachedSession {
+
+		private final StoredSessionInformation info;
+
+		private final long expiresAt;
+
+		private CachedSession(StoredSessionInformation info, long expiresAt) {
+			this.info = info;
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
+	/**
+	 * A {@link SessionInformation} that writes to the {@link SessionRegistryStore} when
+	 * it is expired.
+	 */
+	private static final class StoredSessionInformation extends SessionInformation {
+
+		private static final long serialVersionUID = SpringSecurityCoreVersion.SERIAL_VERSION_UID;
+
+		private final transient KeyValueSessionRegistry registry;
+
+		private StoredSessionInformation(KeyValueSessionRegistry registry, SessionInformation record,
+				long lastRequest) {
+			super(record.getPrincipal(), record.getSessionId(), new Date(lastRequest));
+			this.registry = registry;
+			if (record.isExpired()) {
+				super.expireNow();
+			}
+		}
+
+		@Override
+		public void expireNow() {
+			super.expireNow();
+			if (this.registry != null) {
+				this.registry.expire(this);
+			}
+		}
+
+	}
+
+}
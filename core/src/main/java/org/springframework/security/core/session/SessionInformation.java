@@ -16,11 +16,18 @@
 
 package org.springframework.security.core.session;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.reflect.Method;
 import java.util.Date;
+import java.util.Map;
 
 import org.springframework.security.core.SpringSecurityCoreVersion;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Represents a record of a session within the Spring Security framework.
@@ -41,7 +48,13 @@ public class SessionInformation implements Serializable {
 
 	private static final long serialVersionUID = SpringSecurityCoreVersion.SERIAL_VERSION_UID;
 
-	private Date lastRequest;
+	private static final Map<Class<?>, Boolean> overridesGetLastRequest = new ConcurrentReferenceHashMap<>();
+
+	// the Date last returned by getLastRequest, which is only created again once
+	// lastRequestMillis has changed, so that refreshing it does not allocate a Date
+	private volatile Date lastRequest;
+
+	private transient volatile long lastRequestMillis;
 
 	private final Object principal;
 
@@ -56,6 +69,7 @@ public class SessionInformation implements Serializable {
 		this.principal = principal;
 		this.sessionId = sessionId;
 		this.lastRequest = lastRequest;
+		this.lastRequestMillis = lastRequest.getTime();
 	}
 
 	public void expireNow() {
@@ -63,7 +77,31 @@ public class SessionInformation implements Serializable {
 	}
 
 	public Date getLastRequest() {
-		return this.lastRequest;
+		return lastRequestDate();
+	}
+
+	private Date lastRequestDate() {
+		long lastRequestMillis = this.lastRequestMillis;
+		Date lastRequest = this.lastRequest;
+		if (lastRequest.getTime() != lastRequestMillis) {
+			lastRequest = new Date(lastRequestMillis);
+			this.lastRequest = lastRequest;
+		}
+		return lastRequest;
+	}
+
+	/**
+	 * Returns the time of the last request, like {@link #getLastRequest()} but without
+	 * creating a {@link Date}. If a subclass overrides {@link #getLastRequest()}, the time
+	 * is obtained from it instead.
+	 * @return the time of the last request in milliseconds since the epoch
+	 * @since 5.6
+	 */
+	public long getLastRequestMillis() {
+		if (getClass() != SessionInformation.class && overridesGetLastRequest(getClass())) {
+			return getLastRequest().getTime();
+		}
+		return this.lastRequestMillis;
 	}
 
 	public Object getPrincipal() {
@@ -82,7 +120,28 @@ public class SessionInformation implements Serializable {
 	 * Refreshes the internal lastRequest to the current date and time.
 	 */
 	public void refreshLastRequest() {
-		this.lastRequest = new Date();
+		this.lastRequestMillis = System.currentTimeMillis();
+	}
+
+	void refreshLastRequest(long lastRequest) {
+		this.lastRequestMillis = lastRequest;
+	}
+
+	private static boolean overridesGetLastRequest(Class<?> type) {
+		return overridesGetLastRequest.computeIfAbsent(type, (key) -> {
+			Method method = ReflectionUtils.findMethod(key, "getLastRequest");
+			return method != null && method.getDeclaringClass() != SessionInformation.class;
+		});
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		lastRequestDate();
+		out.defaultWriteObject();
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.lastRequestMillis = this.lastRequest.getTime();
 	}
 
 }
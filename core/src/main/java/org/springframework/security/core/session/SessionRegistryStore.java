@@ -0,0 +1,88 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.session;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A key-value store that is shared by the {@link KeyValueSessionRegistry} instances of
+ * several nodes. Keys are {@link String}s and a key either holds a {@link java.io.Serializable}
+ * value or a set of {@link String} members, much like a remote cache or a key-value
+ * database would.
+ * <p>
+ * Implementations must be thread-safe, and each operation must be atomic with respect to
+ * the other nodes. Since a node may be stopped before it cleans up, implementations
+ * should also expire keys that are not written to for longer than the session timeout.
+ *
+ * @since 5.6
+ * @see InMemorySessionRegistryStore
+ */
+public interface SessionRegistryStore {
+
+	/**
+	 * Returns the values of the given keys.
+	 * @param keys the keys to look up
+	 * @return the values of the keys that hold a value, never {@code null}
+	 */
+	Map<String, Object> getAll(Collection<String> keys);
+
+	/**
+	 * Sets the values of the given keys, replacing any existing values.
+	 * @param entries the keys and their values
+	 */
+	void putAll(Map<String, ?> entries);
+
+	/**
+	 * Removes the given keys, along with their values.
+	 * @param keys the keys to remove
+	 */
+	void removeAll(Collection<String> keys);
+
+	/**
+	 * Returns the members of the set held by the given key.
+	 * @param key the key of the set
+	 * @return the members, or an empty set if the key does not hold any
+	 */
+	Set<String> getMembers(String key);
+
+	/**
+	 * Adds a member to the set held by the given key, creating the set if necessary.
+	 * @param key the key of the set
+	 * @param member the member to add
+	 */
+	void addMember(String key, String member);
+
+	/**
+	 * Removes a member from the set held by the given key, removing the key once the set
+	 * is empty.
+	 * @param key the key of the set
+	 * @param member the member to remove
+	 * @return {@code true} if the set is empty after the member was removed
+	 */
+	boolean removeMember(String key, String member);
+
+	/**
+	 * Registers a listener that is notified, possibly asynchronously, with the key of
+	 * each value that any node puts or removes.
+	 * @param listener the listener
+	 */
+	void addInvalidationListener(Consumer<String> listener);
+
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.log.LogMessage;
+import org.springframework.security.core.SpringSecurityCoreVersion;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link SessionRegistry} for applications with a large number of concurrent sessions,
+ * which listens for {@link SessionDestroyedEvent}s and {@link SessionIdChangedEvent}s like
+ * {@link SessionRegistryImpl}.
+ * <p>
+ * Sessions are looked up by id without locking. The sessions of each principal are kept
+ * in one of several shards, each guarded by its own lock, so that registering and
+ * removing sessions of different principals rarely contend and adding or removing a
+ * session of a principal with many sessions does not copy the others. Each session is
+ * stored as a single compact record that holds its last request time as a {@code long},
+ * and refers to the principal instance that was registered first, so that equal
+ * principals are held only once.
+ * <p>
+ * To reduce writes to shared memory, {@link #refreshLastRequest(String)} only updates the
+ * last request time once the stored time is older than the
+ * {@link #setLastRequestGranularity(Duration) granularity}, one second by default. As a
+ * consequence {@link SessionInformation#getLastRequest()} may be up to that long behind.
+ *
+ * @since 5.6
+ * @see SessionRegistryImpl
+ */
+public class ShardedSessionRegistry implements SessionRegistry, ApplicationListener<AbstractSessionEvent> {
+
+	protected final Log logger = LogFactory.getLog(ShardedSessionRegistry.class);
+
+	private final ConcurrentMap<String, Record> sessionIds = new ConcurrentHashMap<>();
+
+	private final Shard[] shards;
+
+	private Clock clock = Clock.systemUTC();
+
+	private long lastRequestGranularity = 1000;
+
+	/**
+	 * Creates a new instance with a number of shards based on the number of available
+	 * processors.
+	 */
+	public ShardedSessionRegistry() {
+		this(Runtime.getRuntime().availableProcessors() * 4);
+	}
+
+	/**
+	 * Creates a new instance
+	 * @param shards the number of shards, which is rounded up to a power of two
+	 */
+	public ShardedSessionRegistry(int shards) {
+		Assert.isTrue(shards > 0, "shards must be greater than 0");
+		int size = Integer.highestOneBit(shards);
+		size = (size < shards) ? size << 1 : size;
+		this.shards = new Shard[size];
+		for (int i = 0; i < size; i++) {
+			this.shards[i] = new Shard();
+		}
+	}
+
+	@Override
+	public List<Object> getAllPrincipals() {
+		List<Object> principals = new ArrayList<>();
+		for (Shard shard : this.shards) {
+			synchronized (shard) {
+				principals.addAll(shard.principals.keySet());
+			}
+		}
+		return principals;
+	}
+
+	@Override
+	public List<SessionInformation> getAllSessions(Object principal, boolean includeExpiredSessions) {
+		Shard shard = shard(principal);
+		synchronized (shard) {
+			Sessions sessions = shard.principals.get(principal);
+			if (sessions == null) {
+				return Collections.emptyList();
+			}
+			List<SessionInformation> list = new ArrayList<>(sessions.size);
+			for (int i = 0; i < sessions.size; i++) {
+				Record record = sessions.records[i];
+				if (includeExpiredSessions || !record.isExpired()) {
+					list.add(record);
+				}
+			}
+			return list;
+		}
+	}
+
+	@Override
+	public SessionInformation getSessionInformation(String sessionId) {
+		Assert.hasText(sessionId, "SessionId required as per interface contract");
+		return this.sessionIds.get(sessionId);
+	}
+
+	@Override
+	public void onApplicationEvent(AbstractSessionEvent event) {
+		if (event instanceof SessionDestroyedEvent) {
+			SessionDestroyedEvent sessionDestroyedEvent = (SessionDestroyedEvent) event;
+			removeSessionInformation(sessionDestroyedEvent.getId());
+		}
+		else if (event instanceof SessionIdChangedEvent) {
+			SessionIdChangedEvent sessionIdChangedEvent = (SessionIdChangedEvent) event;
+			Record record = this.sessionIds.get(sessionIdChangedEvent.getOldSessionId());
+			if (record != null) {
+				remove(record);
+				registerNewSession(sessionIdChangedEvent.getNewSessionId(), record.getPrincipal());
+			}
+		}
+	}
+
+	@Override
+	public void refreshLastRequest(String sessionId) {
+		Assert.hasText(sessionId, "SessionId required as per interface contract");
+		Record record = this.sessionIds.get(sessionId);
+		if (record != null) {
+			long now = this.clock.millis();
+			if (now - record.getLastRequestMillis() >= this.lastRequestGranularity) {
+				record.refreshLastRequest(now);
+			}
+		}
+	}
+
+	@Override
+	public void registerNewSession(String sessionId, Object principal) {
+		Assert.hasText(sessionId, "SessionId required as per interface contract");
+		Assert.notNull(principal, "Principal required as per interface contract");
+		this.logger.debug(LogMessage.format("Registering session %s, for principal %s", sessionId, principal));
+		Shard shard = shard(principal);
+		while (true) {
+			Record existing = this.sessionIds.get(sessionId);
+			if (existing != null) {
+				remove(existing);
+			}
+			synchronized (shard) {
+				Sessions sessions = shard.principals.get(principal);
+				if (sessions == null) {
+					sessions = new Sessions(principal);
+					shard.principals.put(principal, sessions);
+				}
+				Record record = new Record(sessions, sessionId, new Date(this.clock.millis()));
+				if (this.sessionIds.putIfAbsent(sessionId, record) == null) {
+					sessions.add(record);
+					return;
+				}
+				if (sessions.size == 0) {
+					shard.principals.remove(principal);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void removeSessionInformation(String sessionId) {
+		Assert.hasText(sessionId, "SessionId required as per interface contract");
+		Record record = this.sessionIds.get(sessionId);
+		if (record != null) {
+			remove(record);
+		}
+	}
+
+	private void remove(Record record) {
+		Sessions sessions = record.sessions;
+		Shard shard = shard(sessions.principal);
+		synchronized (shard) {
+			if (!this.sessionIds.remove(record.getSessionId(), record)) {
+				return;
+			}
+			this.logger.debug(LogMessage.format("Removing session %s from set of registered sessions",
+					record.getSessionId()));
+			sessions.remove(record);
+			if (sessions.size == 0) {
+				this.logger.debug(LogMessage.format("Removing principal %s from registry", sessions.principal));
+				shard.principals.remove(sessions.principal);
+			}
+		}
+	}
+
+	private Shard shard(Object principal) {
+		int hash = principal.hashCode();
+		return this.shards[(hash ^ (hash >>> 16)) & (this.shards.length - 1)];
+	}
+
+	/**
+	 * Sets the {@link Clock} used to record the time of the last request
+	 * @param clock the {@link Clock} to use
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	/**
+	 * Sets how old the recorded time of the last request of a session must be before
+	 * {@link #refreshLastRequest(String)} updates it. The default is one second.
+	 * @param lastRequestGranularity the granularity, {@link Duration#ZERO} to update it on
+	 * every request
+	 */
+	public void setLastRequestGranularity(Duration lastRequestGranularity) {
+		Assert.notNull(lastRequestGranularity, "lastRequestGranularity cannot be null");
+		Assert.isTrue(!lastRequestGranularity.isNegative(), "lastRequestGranularity cannot be negative");
+		this.lastRequestGranularity = lastRequestGranularity.toMillis();
+	}
+
+	private static final class Shard {
+
+		private final Map<Object, Sessions> principals = new HashMap<>();
+
+	}
+
+	/**
+	 * The sessions of a principal, which are only accessed while holding the lock of its
+	 * {@link Shard}. Removing a session moves the last one into its slot.
+	 */
+	private static final class Sessions {
+
+		private final Object principal;
+
+		private Record[] records = new Record[2];
+
+		private int size;
+
+		private Sessions(Object principal) {
+			this.principal = principal;
+		}
+
+		private void add(Record record) {
+			if (this.size == this.records.length) {
+				this.records = Arrays.copyOf(this.records, this.size << 1);
+			}
+			record.index = this.size;
+			this.records[this.size++] = record;
+		}
+
+		private void remove(Record record) {
+			int index = record.index;
+			Record last = this.records[--this.size];
+			this.records[index] = last;
+			last.index = index;
+			this.records[this.size] = null;
+			if (this.records.length > 2 && this.size <= this.records.length >> 2) {
+				this.records = Arrays.copyOf(this.records, this.records.length >> 1);
+			}
+		}
+
+	}
+
+	/**
+	 * A {@link SessionInformation} that knows its position in the {@link Sessions} of its
+	 * principal.
+	 */
+	private static final class Record extends SessionInformation {
+
+		private static final long serialVersionUID = SpringSecurityCoreVersion.SERIAL_VERSION_UID;
+
+		private final transient Sessions sessions;
+
+		private transient int index;
+
+		private Record(Sessions sessions, String sessionId, Date lastRequest) {
+			super(sessions.principal, sessionId, lastRequest);
+			this.sessions = sessions;
+		}
+
+	}
+
+}
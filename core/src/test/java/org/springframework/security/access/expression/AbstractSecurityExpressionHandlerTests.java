@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,8 +22,13 @@ import org.junit.Test;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -70,6 +75,56 @@ public class AbstractSecurityExpressionHandlerTests {
 		assertThat(parser == this.handler.getExpressionParser()).isTrue();
 	}
 
+	@Test
+	public void setCompilerModeWhenNullThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.handler.setCompilerMode(null));
+	}
+
+	@Test
+	public void compileExpressionsWhenCompilerModeThenUncompiledReported() {
+		this.handler.setApplicationContext(new AnnotationConfigApplicationContext(TestConfiguration.class));
+		this.handler.setCompilerMode(SpelCompilerMode.MIXED);
+		Expression authority = this.handler.getExpressionParser().parseExpression("hasAuthority('A') and permitAll");
+		Expression bean = this.handler.getExpressionParser().parseExpression("@number10 < 20");
+		Expression notEvaluated = this.handler.getExpressionParser().parseExpression("denyAll");
+		EvaluationContext context = this.handler
+				.createEvaluationContext(new TestingAuthenticationToken("user", "password", "A"), new Object());
+		assertThat(authority.getValue(context, Boolean.class)).isTrue();
+		assertThat(bean.getValue(context, Boolean.class)).isTrue();
+		assertThat(this.handler.compileExpressions()).containsExactlyInAnyOrder("@number10 < 20", "denyAll");
+		EvaluationContext other = this.handler
+				.createEvaluationContext(new TestingAuthenticationToken("user", "password", "B"), new Object());
+		assertThat(authority.getValue(context, Boolean.class)).isTrue();
+		assertThat(authority.getValue(other, Boolean.class)).isFalse();
+		assertThat(notEvaluated.getValue(other, Boolean.class)).isFalse();
+	}
+
+	@Test
+	public void compileExpressionsWhenNoCompilerModeThenEmpty() {
+		this.handler.setCompilerMode(SpelCompilerMode.IMMEDIATE);
+		this.handler.getExpressionParser().parseExpression("permitAll");
+		this.handler.setExpressionParser(new SpelExpressionParser());
+		assertThat(this.handler.compileExpressions()).isEmpty();
+	}
+
+	@Test
+	public void createEvaluationContextWhenCompilerModeThenPropertyAccessorShared() {
+		this.handler.setCompilerMode(SpelCompilerMode.MIXED);
+		StandardEvaluationContext first = (StandardEvaluationContext) this.handler
+				.createEvaluationContext(mock(Authentication.class), new Object());
+		StandardEvaluationContext second = (StandardEvaluationContext) this.handler
+				.createEvaluationContext(mock(Authentication.class), new Object());
+		assertThat(first.getPropertyAccessors()).isNotSameAs(second.getPropertyAccessors());
+		assertThat(first.getPropertyAccessors()).hasSize(1);
+		assertThat(first.getPropertyAccessors().get(0)).isSameAs(second.getPropertyAccessors().get(0));
+	}
+
+	@Test
+	public void createAuthorizationManagerWhenCustomParserThenNull() {
+		this.handler.setExpressionParser(mock(ExpressionParser.class));
+		assertThat(this.handler.createAuthorizationManager("permitAll")).isNull();
+	}
+
 	@Configuration
 	static class TestConfiguration {
 
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.expression;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.expression.Expression;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authentication.RememberMeAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SecurityExpressionRootAuthorizationManager}.
+ */
+public class SecurityExpressionRootAuthorizationManagerTests {
+
+	private static final List<String> SIMPLE_EXPRESSIONS = Arrays.asList("permitAll", " denyAll ", "isAuthenticated()",
+			"isFullyAuthenticated()", "isAnonymous()", "isRememberMe()", "hasRole('USER')", "hasRole('ROLE_ADMIN')",
+			"hasRole( 'ADMIN' )", "hasAnyRole('OTHER','ADMIN')", "hasAnyRole('OTHER')", "hasAuthority('ROLE_USER')",
+			"hasAuthority('USER')", "hasAnyAuthority('A', 'ROLE_ANONYMOUS')", "hasAnyAuthority('')");
+
+	private final List<Authentication> authentications = Arrays.asList(
+			new TestingAuthenticationToken("user", "password", "ROLE_USER"),
+			new TestingAuthenticationToken("admin", "password", "ROLE_ADMIN"),
+			new TestingAuthenticationToken("unauthenticated", "password"),
+			new AnonymousAuthenticationToken("key", "anonymous",
+					AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")),
+			new RememberMeAuthenticationToken("key", "user", AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+	private AbstractSecurityExpressionHandler<Object> handler;
+
+	@Before
+	public void setUp() {
+		this.handler = new AbstractSecurityExpressionHandler<Object>() {
+			@Override
+			protected SecurityExpressionOperations createSecurityExpressionRoot(Authentication authentication,
+					Object o) {
+				SecurityExpressionRoot root = new SecurityExpressionRoot(authentication) {
+				};
+				root.setRoleHierarchy(getRoleHierarchy());
+				root.setTrustResolver(new AuthenticationTrustResolverImpl());
+				return root;
+			}
+		};
+		RoleHierarchyImpl roleHierarchy = new RoleHierarchyImpl();
+		roleHierarchy.setHierarchy("ROLE_ADMIN > ROLE_USER");
+		this.handler.setRoleHierarchy(roleHierarchy);
+	}
+
+	@Test
+	public void checkWhenSimpleExpressionThenSameAsEvaluated() {
+		for (String expressionString : SIMPLE_EXPRESSIONS) {
+			AuthorizationManager<Object> manager = this.handler.createAuthorizationManager(expressionString);
+			assertThat(manager).as(expressionString).isNotNull();
+			Expression expression = this.handler.getExpressionParser().parseExpression(expressionString);
+			for (Authentication authentication : this.authentications) {
+				boolean expected = ExpressionUtils.evaluateAsBoolean(expression,
+						this.handler.createEvaluationContext(authentication, new Object()));
+				assertThat(manager.check(() -> authentication, new Object()).isGranted())
+						.as(expressionString + " for " + authentication).isEqualTo(expected);
+			}
+		}
+	}
+
+	@Test
+	public void createAuthorizationManagerWhenNotSimpleThenNull() {
+		for (String expression : Arrays.asList("hasRole('A') and hasRole('B')", "hasRole(#role)",
+				"hasRole('A', 'B')", "hasRole(\"A\")", "hasRole('it''s')", "permitAll()", "@bean.check()",
+				"principal.name == 'user'", "hasPermission(#id, 'read')", "hasRole ('A')", "isAuthenticated")) {
+			assertThat(this.handler.createAuthorizationManager(expression)).as(expression).isNull();
+		}
+	}
+
+	@Test
+	public void toStringThenContainsExpression() {
+		assertThat(this.handler.createAuthorizationManager("hasRole('USER')").toString())
+				.isEqualTo("SecurityExpressionRootAuthorizationManager[expression=hasRole('USER')]");
+	}
+
+}
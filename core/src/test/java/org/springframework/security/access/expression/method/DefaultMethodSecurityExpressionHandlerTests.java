@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,17 @@
 
 package org.springframework.security.access.expression.method;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.aopalliance.intercept.MethodInvocation;
@@ -32,17 +39,23 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.security.access.BatchPermissionEvaluator;
+import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.authentication.AuthenticationTrustResolver;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @RunWith(MockitoJUnitRunner.class)
 public class DefaultMethodSecurityExpressionHandlerTests {
@@ -101,6 +114,22 @@ public class DefaultMethodSecurityExpressionHandlerTests {
 		assertThat(result).containsValue("value2");
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void filterWhenCompilerModeImmediateThenFiltersEachTime() {
+		this.handler.setCompilerMode(SpelCompilerMode.IMMEDIATE);
+		Expression expression = this.handler.getExpressionParser().parseExpression("filterObject.key eq 'key2'");
+		for (int i = 0; i < 3; i++) {
+			Map<String, String> map = new HashMap<>();
+			map.put("key1", "value1");
+			map.put("key2", "value2");
+			EvaluationContext context = this.handler.createEvaluationContext(this.authentication,
+					this.methodInvocation);
+			assertThat((Map<String, String>) this.handler.filter(map, expression, context)).containsOnlyKeys("key2");
+		}
+		assertThat(this.handler.compileExpressions()).isEmpty();
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void filterByValueWhenUsingMapThenFiltersMap() {
@@ -158,6 +187,99 @@ public class DefaultMethodSecurityExpressionHandlerTests {
 		verify(upstream).close();
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void filterWhenUsingIteratorThenFiltersLazily() {
+		List<String> consumed = new ArrayList<>();
+		Iterator<String> upstream = Stream.of("1", "2", "3").peek(consumed::add).iterator();
+		Expression expression = this.handler.getExpressionParser().parseExpression("filterObject ne '2'");
+		EvaluationContext context = this.handler.createEvaluationContext(this.authentication, this.methodInvocation);
+		Iterator<String> filtered = (Iterator<String>) this.handler.filter(upstream, expression, context);
+		assertThat(consumed).isEmpty();
+		assertThat(filtered.next()).isEqualTo("1");
+		assertThat(consumed).containsExactly("1");
+		assertThat(filtered.next()).isEqualTo("3");
+		assertThat(filtered.hasNext()).isFalse();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void filterWhenParallelThresholdReachedThenFiltersInParallel() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		this.handler.setParallelFilterThreshold(100);
+		this.handler.setForkJoinPool(pool);
+		List<Integer> list = IntStream.range(0, 10000).boxed().collect(Collectors.toList());
+		Expression expression = this.handler.getExpressionParser().parseExpression("filterObject % 3 == 0");
+		EvaluationContext context = this.handler.createEvaluationContext(this.authentication, this.methodInvocation);
+		List<Integer> filtered = (List<Integer>) this.handler.filter(new ArrayList<>(list), expression, context);
+		assertThat(filtered).isEqualTo(list.stream().filter((i) -> i % 3 == 0).collect(Collectors.toList()));
+		Integer[] array = list.toArray(new Integer[0]);
+		assertThat((Integer[]) this.handler.filter(array, expression, context)).containsExactlyElementsOf(filtered);
+		pool.shutdown();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void filterWhenUsingParallelStreamThenEachThreadHasOwnFilterObject() {
+		List<Integer> list = IntStream.range(0, 10000).boxed().collect(Collectors.toList());
+		Expression expression = this.handler.getExpressionParser().parseExpression("filterObject % 3 == 0");
+		EvaluationContext context = this.handler.createEvaluationContext(this.authentication, this.methodInvocation);
+		Stream<Integer> filtered = (Stream<Integer>) this.handler.filter(list.parallelStream(), expression, context);
+		assertThat(filtered.collect(Collectors.toList()))
+				.isEqualTo(list.stream().filter((i) -> i % 3 == 0).collect(Collectors.toList()));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void filterWhenBatchPermissionEvaluatorThenEvaluatedOnce() {
+		BatchPermissionEvaluator permissionEvaluator = mock(BatchPermissionEvaluator.class);
+		given(permissionEvaluator.hasPermissions(any(), any(), any())).willReturn(new boolean[] { true, false, true });
+		this.handler.setPermissionEvaluator(permissionEvaluator);
+		List<String> list = new ArrayList<>(Arrays.asList("1", "2", "3"));
+		Expression expression = this.handler.getExpressionParser()
+				.parseExpression("hasPermission(filterObject, 'read')");
+		EvaluationContext context = this.handler.createEvaluationContext(this.authentication, this.methodInvocation);
+		assertThat((List<String>) this.handler.filter(list, expression, context)).containsExactly("1", "3");
+		verify(permissionEvaluator).hasPermissions(this.authentication, list, "read");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void filterWhenCustomRootThenBatchPermissionEvaluatorNotUsed() {
+		BatchPermissionEvaluator permissionEvaluator = mock(BatchPermissionEvaluator.class);
+		DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler() {
+			@Override
+			protected MethodSecurityExpressionOperations createSecurityExpressionRoot(Authentication authentication,
+					MethodInvocation invocation) {
+				return new MethodSecurityExpressionRoot(authentication) {
+					@Override
+					public boolean hasPermission(Object target, Object permission) {
+						return !"2".equals(target);
+					}
+				};
+			}
+		};
+		handler.setPermissionEvaluator(permissionEvaluator);
+		List<String> list = new ArrayList<>(Arrays.asList("1", "2", "3"));
+		Expression expression = handler.getExpressionParser().parseExpression("hasPermission(filterObject, 'read')");
+		EvaluationContext context = handler.createEvaluationContext(this.authentication, this.methodInvocation);
+		assertThat((List<String>) handler.filter(list, expression, context)).containsExactly("1", "3");
+		verifyNoInteractions(permissionEvaluator);
+	}
+
+	@Test
+	public void filterWhenEvaluationFailsThenCollectionUnchanged() {
+		PermissionEvaluator permissionEvaluator = mock(PermissionEvaluator.class);
+		given(permissionEvaluator.hasPermission(any(), eq("3"), any())).willThrow(IllegalStateException.class);
+		this.handler.setPermissionEvaluator(permissionEvaluator);
+		Set<String> set = new LinkedHashSet<>(Arrays.asList("1", "2", "3"));
+		Expression expression = this.handler.getExpressionParser()
+				.parseExpression("hasPermission(filterObject, 'read')");
+		EvaluationContext context = this.handler.createEvaluationContext(this.authentication, this.methodInvocation);
+		assertThatIllegalStateException().isThrownBy(() -> this.handler.filter(set, expression, context));
+		assertThat(set).containsExactly("1", "2", "3");
+	}
+
 	static class Foo {
 
 		void bar() {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,15 +18,19 @@ package org.springframework.security.access.expression.method;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.aopalliance.intercept.MethodInvocation;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.security.access.intercept.method.MockMethodInvocation;
 import org.springframework.security.access.prepost.PreInvocationAttribute;
+import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -118,6 +122,50 @@ public class ExpressionBasedPreInvocationAdviceTests {
 				() -> this.expressionBasedPreInvocationAdvice.before(this.authentication, methodInvocation, attribute));
 	}
 
+	@Test
+	public void beforeWhenSimplePreAuthorizeThenNotEvaluated() throws Exception {
+		AtomicInteger contexts = new AtomicInteger();
+		DefaultMethodSecurityExpressionHandler handler = countingHandler(contexts);
+		this.expressionBasedPreInvocationAdvice.setExpressionHandler(handler);
+		ExpressionBasedAnnotationAttributeFactory factory = new ExpressionBasedAnnotationAttributeFactory(handler);
+		PreInvocationAttribute hasRole = factory.createPreInvocationAttribute(null, null, "hasRole('USER')");
+		PreInvocationAttribute noPreAuthorize = factory.createPreInvocationAttribute(null, null, null);
+		MockMethodInvocation methodInvocation = new MockMethodInvocation(new TestClass(), TestClass.class,
+				"doSomethingString", new Class[] { String.class }, new Object[] { "param" });
+		assertThat(this.expressionBasedPreInvocationAdvice.before(new TestingAuthenticationToken("user", "password",
+				"ROLE_USER"), methodInvocation, hasRole)).isTrue();
+		assertThat(this.expressionBasedPreInvocationAdvice.before(new TestingAuthenticationToken("user", "password",
+				"ROLE_OTHER"), methodInvocation, hasRole)).isFalse();
+		assertThat(this.expressionBasedPreInvocationAdvice.before(this.authentication, methodInvocation,
+				noPreAuthorize)).isTrue();
+		assertThat(contexts).hasValue(0);
+	}
+
+	@Test
+	public void beforeWhenAttributeFromOtherHandlerThenEvaluated() throws Exception {
+		AtomicInteger contexts = new AtomicInteger();
+		this.expressionBasedPreInvocationAdvice.setExpressionHandler(countingHandler(contexts));
+		ExpressionBasedAnnotationAttributeFactory factory = new ExpressionBasedAnnotationAttributeFactory(
+				new DefaultMethodSecurityExpressionHandler());
+		PreInvocationAttribute hasRole = factory.createPreInvocationAttribute(null, null, "hasRole('USER')");
+		MockMethodInvocation methodInvocation = new MockMethodInvocation(new TestClass(), TestClass.class,
+				"doSomethingString", new Class[] { String.class }, new Object[] { "param" });
+		assertThat(this.expressionBasedPreInvocationAdvice.before(new TestingAuthenticationToken("user", "password",
+				"ROLE_USER"), methodInvocation, hasRole)).isTrue();
+		assertThat(contexts).hasValue(1);
+	}
+
+	private DefaultMethodSecurityExpressionHandler countingHandler(AtomicInteger contexts) {
+		return new DefaultMethodSecurityExpressionHandler() {
+			@Override
+			public StandardEvaluationContext createEvaluationContextInternal(Authentication auth,
+					MethodInvocation mi) {
+				contexts.incrementAndGet();
+				return super.createEvaluationContextInternal(auth, mi);
+			}
+		};
+	}
+
 	private class TestClass {
 
 		public Boolean doSomethingCollection(List<?> param) {
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.hierarchicalroles;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link CompiledRoleHierarchy}.
+ */
+public class CompiledRoleHierarchyTests {
+
+	private static final String HIERARCHY = "ROLE_A > ROLE_B\nROLE_B > ROLE_C\nROLE_C > ROLE_D\nROLE_E > ROLE_C";
+
+	private final CompiledRoleHierarchy roleHierarchy = CompiledRoleHierarchy.fromHierarchy(HIERARCHY);
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenSameInputThenSameAsRoleHierarchyImpl() {
+		RoleHierarchyImpl roleHierarchyImpl = new RoleHierarchyImpl();
+		roleHierarchyImpl.setHierarchy(HIERARCHY);
+		List<List<GrantedAuthority>> inputs = Arrays.asList(AuthorityUtils.createAuthorityList("ROLE_A"),
+				AuthorityUtils.createAuthorityList("ROLE_C", "ROLE_0"),
+				AuthorityUtils.createAuthorityList("ROLE_E", "ROLE_B", "ROLE_E"), AuthorityUtils.NO_AUTHORITIES);
+		for (List<GrantedAuthority> authorities : inputs) {
+			assertThat(this.roleHierarchy.getReachableGrantedAuthorities(authorities))
+					.containsExactlyInAnyOrderElementsOf(roleHierarchyImpl.getReachableGrantedAuthorities(authorities));
+		}
+	}
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenEqualAuthoritiesThenSameResult() {
+		Collection<GrantedAuthority> reachable = this.roleHierarchy
+				.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_B", "ROLE_E"));
+		assertThat(this.roleHierarchy
+				.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_E", "ROLE_B", "ROLE_E")))
+						.isSameAs(reachable);
+		List<GrantedAuthority> authorities = AuthorityUtils.createInternedAuthorityList("ROLE_B", "ROLE_E");
+		assertThat(this.roleHierarchy.getReachableGrantedAuthorities(authorities)).isSameAs(reachable);
+		assertThat(this.roleHierarchy.getReachableGrantedAuthorities(authorities)).isSameAs(reachable);
+		assertThat(reachable).extracting(GrantedAuthority::getAuthority).containsExactlyInAnyOrder("ROLE_B",
+				"ROLE_C", "ROLE_D", "ROLE_E");
+	}
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenCachedThenUnmodifiable() {
+		Collection<GrantedAuthority> reachable = this.roleHierarchy
+				.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_A"));
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(reachable::clear);
+	}
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenOtherAuthorityTypeThenKeepsInstance() {
+		GrantedAuthority authority = () -> "ROLE_B";
+		Collection<GrantedAuthority> reachable = this.roleHierarchy
+				.getReachableGrantedAuthorities(Collections.singletonList(authority));
+		assertThat(reachable).contains(authority);
+		assertThat(reachable).extracting(GrantedAuthority::getAuthority).containsExactlyInAnyOrder("ROLE_B",
+				"ROLE_C", "ROLE_D");
+		assertThat(this.roleHierarchy.getReachableGrantedAuthorities(Collections.singletonList(authority)))
+				.isNotSameAs(reachable);
+	}
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenCacheFullThenStillCorrect() {
+		CompiledRoleHierarchy roleHierarchy = CompiledRoleHierarchy.fromHierarchy(HIERARCHY, 1);
+		for (int i = 0; i < 10; i++) {
+			assertThat(roleHierarchy.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_" + i)))
+					.extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_" + i);
+			assertThat(roleHierarchy.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_C")))
+					.extracting(GrantedAuthority::getAuthority).containsExactlyInAnyOrder("ROLE_C", "ROLE_D");
+		}
+	}
+
+	@Test
+	public void fromHierarchyWhenCycleThenException() {
+		assertThatExceptionOfType(CycleInRoleHierarchyException.class)
+				.isThrownBy(() -> CompiledRoleHierarchy.fromHierarchy("ROLE_A > ROLE_B\nROLE_B > ROLE_A"));
+	}
+
+	@Test
+	public void fromHierarchyWhenInvalidCacheSizeThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> CompiledRoleHierarchy.fromHierarchy(HIERARCHY, 0));
+	}
+
+}
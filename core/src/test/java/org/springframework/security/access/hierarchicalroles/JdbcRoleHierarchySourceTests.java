@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.hierarchicalroles;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.TestDataSource;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link JdbcRoleHierarchySource}.
+ */
+public class JdbcRoleHierarchySourceTests {
+
+	private TestDataSource dataSource;
+
+	private JdbcRoleHierarchySource source;
+
+	@Before
+	public void setUp() {
+		this.dataSource = new TestDataSource("rolehierarchytest");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSource);
+		jdbcTemplate.execute("create table role_hierarchy(higher_role varchar(50) not null, "
+				+ "lower_role varchar(50) not null, primary key (higher_role, lower_role))");
+		jdbcTemplate.update("insert into role_hierarchy values ('ROLE_A', 'ROLE_B')");
+		jdbcTemplate.update("insert into role_hierarchy values ('ROLE_A', 'ROLE_C')");
+		jdbcTemplate.update("insert into role_hierarchy values ('ROLE_C', 'ROLE_D')");
+		this.source = new JdbcRoleHierarchySource();
+		this.source.setDataSource(this.dataSource);
+		this.source.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() {
+		this.dataSource.destroy();
+	}
+
+	@Test
+	public void loadRolesReachableInOneStepThenEdgesGroupedByHigherRole() {
+		assertThat(this.source.loadRolesReachableInOneStep()).hasSize(2)
+				.hasEntrySatisfying("ROLE_A", (roles) -> assertThat(roles).containsOnly("ROLE_B", "ROLE_C"))
+				.hasEntrySatisfying("ROLE_C", (roles) -> assertThat(roles).containsOnly("ROLE_D"));
+	}
+
+	@Test
+	public void loadRolesReachableInOneStepWhenCustomQueryThenUsed() {
+		this.source.setRoleHierarchyQuery(
+				"select higher_role,lower_role from role_hierarchy where lower_role = 'ROLE_D'");
+		assertThat(this.source.loadRolesReachableInOneStep()).containsOnlyKeys("ROLE_C");
+	}
+
+	@Test
+	public void setRoleHierarchyQueryWhenEmptyThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.source.setRoleHierarchyQuery(""));
+	}
+
+	@Test
+	public void reloadWhenSourceThenLoaded() {
+		ReloadableRoleHierarchy roleHierarchy = new ReloadableRoleHierarchy(this.source);
+		roleHierarchy.afterPropertiesSet();
+		assertThat(roleHierarchy.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_A")))
+				.extracting("authority").containsExactlyInAnyOrder("ROLE_A", "ROLE_B", "ROLE_C", "ROLE_D");
+	}
+
+}
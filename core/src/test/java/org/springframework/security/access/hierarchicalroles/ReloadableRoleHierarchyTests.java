@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.hierarchicalroles;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link ReloadableRoleHierarchy}.
+ */
+public class ReloadableRoleHierarchyTests {
+
+	private final Map<String, Set<String>> edges = new HashMap<>();
+
+	private final ReloadableRoleHierarchy roleHierarchy = new ReloadableRoleHierarchy(() -> this.edges);
+
+	@Before
+	public void setUp() {
+		addEdge("ROLE_A", "ROLE_B");
+		addEdge("ROLE_B", "ROLE_C");
+		addEdge("ROLE_C", "ROLE_D");
+		addEdge("ROLE_E", "ROLE_C");
+		addEdge("ROLE_X", "ROLE_Y");
+	}
+
+	@Test
+	public void constructorWhenNullSourceThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new ReloadableRoleHierarchy(null));
+	}
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenNotLoadedThenOnlyGivenAuthorities() {
+		assertThat(reachable("ROLE_A")).containsExactly("ROLE_A");
+	}
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenLoadedThenSameAsRoleHierarchyImpl() {
+		this.roleHierarchy.afterPropertiesSet();
+		RoleHierarchyImpl roleHierarchyImpl = new RoleHierarchyImpl();
+		roleHierarchyImpl.setHierarchy("ROLE_A > ROLE_B\nROLE_B > ROLE_C\nROLE_C > ROLE_D\nROLE_E > ROLE_C\n"
+				+ "ROLE_X > ROLE_Y");
+		for (String role : Arrays.asList("ROLE_A", "ROLE_B", "ROLE_C", "ROLE_D", "ROLE_E", "ROLE_X", "ROLE_0")) {
+			assertThat(reachable(role)).containsExactlyInAnyOrderElementsOf(AuthorityUtils.authorityListToSet(
+					roleHierarchyImpl.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList(role))));
+		}
+	}
+
+	@Test
+	public void reloadWhenEdgeAddedThenHigherRolesUpdated() {
+		this.roleHierarchy.afterPropertiesSet();
+		addEdge("ROLE_D", "ROLE_Z");
+		this.roleHierarchy.reload();
+		assertThat(reachable("ROLE_A")).containsExactlyInAnyOrder("ROLE_A", "ROLE_B", "ROLE_C", "ROLE_D", "ROLE_Z");
+		assertThat(reachable("ROLE_E")).containsExactlyInAnyOrder("ROLE_E", "ROLE_C", "ROLE_D", "ROLE_Z");
+		assertThat(reachable("ROLE_X")).containsExactlyInAnyOrder("ROLE_X", "ROLE_Y");
+	}
+
+	@Test
+	public void reloadWhenEdgeRemovedThenHigherRolesUpdated() {
+		this.roleHierarchy.afterPropertiesSet();
+		this.edges.remove("ROLE_B");
+		this.roleHierarchy.reload();
+		assertThat(reachable("ROLE_A")).containsExactlyInAnyOrder("ROLE_A", "ROLE_B");
+		assertThat(reachable("ROLE_B")).containsExactly("ROLE_B");
+		assertThat(reachable("ROLE_E")).containsExactlyInAnyOrder("ROLE_E", "ROLE_C", "ROLE_D");
+	}
+
+	@Test
+	public void reloadWhenUnchangedThenCachedResultsKept() {
+		this.roleHierarchy.afterPropertiesSet();
+		Collection<GrantedAuthority> reachable = this.roleHierarchy
+				.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_A"));
+		this.roleHierarchy.reload();
+		assertThat(this.roleHierarchy.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_A")))
+				.isSameAs(reachable);
+	}
+
+	@Test
+	public void reloadWhenCycleThenExceptionAndPreviousHierarchyKept() {
+		this.roleHierarchy.afterPropertiesSet();
+		addEdge("ROLE_D", "ROLE_A");
+		assertThatExceptionOfType(CycleInRoleHierarchyException.class).isThrownBy(this.roleHierarchy::reload);
+		assertThat(reachable("ROLE_D")).containsExactly("ROLE_D");
+		assertThat(reachable("ROLE_A")).containsExactlyInAnyOrder("ROLE_A", "ROLE_B", "ROLE_C", "ROLE_D");
+	}
+
+	@Test
+	public void reloadWhenSelfReferenceThenException() {
+		addEdge("ROLE_Y", "ROLE_Y");
+		assertThatExceptionOfType(CycleInRoleHierarchyException.class).isThrownBy(this.roleHierarchy::reload);
+	}
+
+	@Test
+	public void reloadWhenSourceFailsThenPreviousHierarchyKept() {
+		ReloadableRoleHierarchy roleHierarchy = new ReloadableRoleHierarchy(() -> {
+			throw new IllegalStateException("unavailable");
+		});
+		assertThatIllegalStateException().isThrownBy(roleHierarchy::reload);
+		assertThat(roleHierarchy.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_A")))
+				.extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_A");
+	}
+
+	private void addEdge(String higherRole, String lowerRole) {
+		this.edges.computeIfAbsent(higherRole, (role) -> new HashSet<>()).add(lowerRole);
+	}
+
+	private Set<String> reachable(String role) {
+		return AuthorityUtils.authorityListToSet(
+				this.roleHierarchy.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList(role)));
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.intercept.aopalliance;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.security.access.method.MethodSecurityMetadataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link MethodSecurityMetadataSourceWarmer}.
+ */
+public class MethodSecurityMetadataSourceWarmerTests {
+
+	private final MethodSecurityMetadataSource metadataSource = mock(MethodSecurityMetadataSource.class);
+
+	private final MethodSecurityMetadataSourceWarmer warmer = new MethodSecurityMetadataSourceWarmer(
+			this.metadataSource);
+
+	@Test
+	public void warmUpWhenSecuredThenAttributesOfClassAndInterfaceMethodsResolved() throws Exception {
+		assertThat(this.warmer.warmUp(SecuredService.class)).isEqualTo(3);
+		verify(this.metadataSource).getAttributes(SecuredService.class.getMethod("secured"), SecuredService.class);
+		verify(this.metadataSource).getAttributes(SecuredService.class.getMethod("open"), SecuredService.class);
+		verify(this.metadataSource).getAttributes(Service.class.getMethod("open"), SecuredService.class);
+	}
+
+	@Test
+	public void warmUpWhenNotSecuredThenNothingResolved() {
+		assertThat(this.warmer.warmUp(OpenService.class)).isZero();
+		verify(this.metadataSource, never()).getAttributes(any(Method.class), any());
+	}
+
+	@Test
+	public void onApplicationEventWhenRefreshedThenSecuredBeansResolved() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBean(SecuredService.class);
+		context.registerBean(OpenService.class);
+		context.addApplicationListener(this.warmer);
+		context.refresh();
+		verify(this.metadataSource).getAttributes(SecuredService.class.getMethod("secured"), SecuredService.class);
+		verify(this.metadataSource, never()).getAttributes(any(Method.class), eq(OpenService.class));
+		context.close();
+	}
+
+	public interface Service {
+
+		void open();
+
+	}
+
+	public static class SecuredService implements Service {
+
+		@Override
+		public void open() {
+		}
+
+		@Secured("ROLE_USER")
+		public void secured() {
+		}
+
+	}
+
+	public static class OpenService {
+
+		public void open() {
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,8 @@ import org.springframework.security.util.SimpleMethodInvocation;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author Luke Taylor
@@ -77,4 +79,21 @@ public class DelegatingMethodSecurityMetadataSourceTests {
 				.isEmpty();
 	}
 
+	@Test
+	public void getAttributesWhenCachedThenDelegateQueriedOnce() throws Exception {
+		MethodSecurityMetadataSource delegate = mock(MethodSecurityMetadataSource.class);
+		ConfigAttribute ca = mock(ConfigAttribute.class);
+		List attributes = Arrays.asList(ca);
+		Method toString = String.class.getMethod("toString");
+		Method length = String.class.getMethod("length");
+		given(delegate.getAttributes(toString, String.class)).willReturn(attributes);
+		this.mds = new DelegatingMethodSecurityMetadataSource(Collections.singletonList(delegate));
+		assertThat(this.mds.getAttributes(toString, String.class)).isSameAs(attributes);
+		assertThat(this.mds.getAttributes(toString, String.class)).isSameAs(attributes);
+		assertThat(this.mds.getAttributes(length, String.class)).isEmpty();
+		assertThat(this.mds.getAttributes(length, String.class)).isEmpty();
+		verify(delegate, times(1)).getAttributes(toString, String.class);
+		verify(delegate, times(1)).getAttributes(length, String.class);
+	}
+
 }
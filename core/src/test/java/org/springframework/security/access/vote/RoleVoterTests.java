@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,8 +22,11 @@ import org.springframework.security.access.AccessDecisionVoter;
 import org.springframework.security.access.SecurityConfig;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 
 /**
  * @author Luke Taylor
@@ -40,6 +43,17 @@ public class RoleVoterTests {
 				.isEqualTo(AccessDecisionVoter.ACCESS_GRANTED);
 	}
 
+	@Test
+	public void voteWhenNotAbstractAuthenticationTokenThenAuthoritiesChecked() {
+		RoleVoter voter = new RoleVoter();
+		Authentication user = mock(Authentication.class);
+		given(user.getAuthorities()).willAnswer((invocation) -> AuthorityUtils.createAuthorityList("ROLE_A"));
+		assertThat(voter.vote(user, this, SecurityConfig.createList("ROLE_B", "ROLE_A")))
+				.isEqualTo(AccessDecisionVoter.ACCESS_GRANTED);
+		assertThat(voter.vote(user, this, SecurityConfig.createList("ROLE_B")))
+				.isEqualTo(AccessDecisionVoter.ACCESS_DENIED);
+	}
+
 	// SEC-3128
 	@Test
 	public void nullAuthenticationDenies() {
@@ -16,6 +16,9 @@
 
 package org.springframework.security.authentication;
 
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import java.util.Base64;
 import java.util.List;
 
 import org.junit.Before;
@@ -56,6 +59,28 @@ public class AbstractAuthenticationTokenTests {
 				.isThrownBy(() -> gotAuthorities.set(0, new SimpleGrantedAuthority("ROLE_SUPER_USER")));
 	}
 
+	@Test
+	public void deserializeWhenSerializedBy55ThenReads() throws Exception {
+		// a TestingAuthenticationToken serialized by 5.5
+		String serialized = "rO0ABXNyAEZvcmcuc3ByaW5nZnJhbWV3b3JrLnNlY3VyaXR5LmF1dGhlbnRpY2F0aW9uLlRlc3RpbmdB"
+				+ "dXRoZW50aWNhdGlvblRva2VuAAAAAAAAAAECAAJMAAtjcmVkZW50aWFsc3QAEkxqYXZhL2xhbmcvT2Jq"
+				+ "ZWN0O0wACXByaW5jaXBhbHEAfgABeHIAR29yZy5zcHJpbmdmcmFtZXdvcmsuc2VjdXJpdHkuYXV0aGVu"
+				+ "dGljYXRpb24uQWJzdHJhY3RBdXRoZW50aWNhdGlvblRva2Vu06oofm5HZA4CAANaAA1hdXRoZW50aWNh"
+				+ "dGVkTAALYXV0aG9yaXRpZXN0ABZMamF2YS91dGlsL0NvbGxlY3Rpb247TAAHZGV0YWlsc3EAfgABeHAB"
+				+ "c3IAJmphdmEudXRpbC5Db2xsZWN0aW9ucyRVbm1vZGlmaWFibGVMaXN0/A8lMbXsjhACAAFMAARsaXN0"
+				+ "dAAQTGphdmEvdXRpbC9MaXN0O3hyACxqYXZhLnV0aWwuQ29sbGVjdGlvbnMkVW5tb2RpZmlhYmxlQ29s"
+				+ "bGVjdGlvbhlCAIDLXvceAgABTAABY3EAfgADeHBzcgATamF2YS51dGlsLkFycmF5TGlzdHiB0h2Zx2Gd"
+				+ "AwABSQAEc2l6ZXhwAAAAAXcEAAAAAXNyAEJvcmcuc3ByaW5nZnJhbWV3b3JrLnNlY3VyaXR5LmNvcmUu"
+				+ "YXV0aG9yaXR5LlNpbXBsZUdyYW50ZWRBdXRob3JpdHkAAAAAAAACJgIAAUwABHJvbGV0ABJMamF2YS9s"
+				+ "YW5nL1N0cmluZzt4cHQACVJPTEVfVVNFUnhxAH4ACnB0AAhwYXNzd29yZHQABHVzZXI=";
+		try (ObjectInputStream in = new ObjectInputStream(
+				new ByteArrayInputStream(Base64.getDecoder().decode(serialized)))) {
+			AbstractAuthenticationToken token = (AbstractAuthenticationToken) in.readObject();
+			assertThat(token.getName()).isEqualTo("user");
+			assertThat(token.getAuthoritySet().contains("ROLE_USER")).isTrue();
+		}
+	}
+
 	@Test
 	public void testGetters() {
 		MockAuthenticationImpl token = new MockAuthenticationImpl("Test", "Password", this.authorities);
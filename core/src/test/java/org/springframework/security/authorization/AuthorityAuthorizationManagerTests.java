@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,15 +16,20 @@
 
 package org.springframework.security.authorization;
 
+import java.util.Collection;
 import java.util.function.Supplier;
 
 import org.junit.Test;
 
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 
 /**
  * Tests for {@link AuthorityAuthorizationManager}.
@@ -126,6 +131,37 @@ public class AuthorityAuthorizationManagerTests {
 		assertThat(manager.check(authentication, object).isGranted()).isFalse();
 	}
 
+	@Test
+	public void hasAuthorityWhenNotAbstractAuthenticationTokenThenAuthoritiesChecked() {
+		AuthorityAuthorizationManager<Object> manager = AuthorityAuthorizationManager.hasAuthority("ADMIN");
+		Authentication admin = mock(Authentication.class);
+		given(admin.isAuthenticated()).willReturn(true);
+		given(admin.getAuthorities()).willAnswer((invocation) -> AuthorityUtils.createAuthorityList("USER", "ADMIN"));
+		Authentication user = mock(Authentication.class);
+		given(user.isAuthenticated()).willReturn(true);
+		given(user.getAuthorities()).willAnswer((invocation) -> AuthorityUtils.createAuthorityList("USER"));
+		Object object = new Object();
+
+		assertThat(manager.check(() -> admin, object).isGranted()).isTrue();
+		assertThat(manager.check(() -> user, object).isGranted()).isFalse();
+	}
+
+	@Test
+	public void hasAuthorityWhenTokenOverridesAuthoritiesThenAuthoritiesChecked() {
+		AuthorityAuthorizationManager<Object> manager = AuthorityAuthorizationManager.hasAuthority("ADMIN");
+		TestingAuthenticationToken admin = new TestingAuthenticationToken("user", "password") {
+			@Override
+			public Collection<GrantedAuthority> getAuthorities() {
+				return AuthorityUtils.createAuthorityList("USER", "ADMIN");
+			}
+		};
+		admin.setAuthenticated(true);
+		Object object = new Object();
+
+		assertThat(manager.check(() -> admin, object).isGranted()).isTrue();
+		assertThat(admin.getAuthoritySet()).isNull();
+	}
+
 	@Test
 	public void hasAnyRoleWhenUserHasAnyRoleThenGrantedDecision() {
 		AuthorityAuthorizationManager<Object> manager = AuthorityAuthorizationManager.hasAnyRole("ADMIN", "USER");
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.security.access.prepost.PostFilter;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.access.prepost.PreFilter;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.TestAuthentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link AuthorizationManagerBeforeMethodInterceptor},
+ * {@link AuthorizationManagerAfterMethodInterceptor},
+ * {@link PreFilterAuthorizationMethodInterceptor} and
+ * {@link PostFilterAuthorizationMethodInterceptor} applied through a proxy.
+ */
+public class AuthorizationMethodInterceptorsTests {
+
+	private Service service;
+
+	@Before
+	public void setUp() {
+		ProxyFactory factory = new ProxyFactory(new ServiceImpl());
+		factory.addAdvisor(new PreFilterAuthorizationMethodInterceptor());
+		factory.addAdvisor(AuthorizationManagerBeforeMethodInterceptor.preAuthorize());
+		factory.addAdvisor(AuthorizationManagerBeforeMethodInterceptor.secured());
+		factory.addAdvisor(AuthorizationManagerBeforeMethodInterceptor.jsr250());
+		factory.addAdvisor(AuthorizationManagerAfterMethodInterceptor.postAuthorize());
+		factory.addAdvisor(new PostFilterAuthorizationMethodInterceptor());
+		this.service = (Service) factory.getProxy();
+	}
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void invokeWhenNoAuthenticationThenException() {
+		assertThatExceptionOfType(AuthenticationCredentialsNotFoundException.class)
+				.isThrownBy(() -> this.service.preAuthorizeAdmin());
+	}
+
+	@Test
+	public void invokeWhenNotAnnotatedThenNoAuthenticationRequired() {
+		assertThat(this.service.notAnnotated()).isEqualTo("ok");
+	}
+
+	@Test
+	public void invokeWhenPreAuthorizeDeniedThenAccessDenied() {
+		SecurityContextHolder.getContext().setAuthentication(TestAuthentication.authenticatedUser());
+		assertThatExceptionOfType(AccessDeniedException.class).isThrownBy(() -> this.service.preAuthorizeAdmin());
+		assertThatExceptionOfType(AccessDeniedException.class).isThrownBy(() -> this.service.securedAdmin());
+		SecurityContextHolder.getContext().setAuthentication(TestAuthentication.authenticatedAdmin());
+		assertThat(this.service.preAuthorizeAdmin()).isEqualTo("ok");
+		assertThat(this.service.securedAdmin()).isEqualTo("ok");
+	}
+
+	@Test
+	public void invokeWhenPostAuthorizeDeniedThenAccessDenied() {
+		SecurityContextHolder.getContext().setAuthentication(TestAuthentication.authenticatedUser());
+		assertThat(this.service.postAuthorizeEcho("user")).isEqualTo("user");
+		assertThatExceptionOfType(AccessDeniedException.class)
+				.isThrownBy(() -> this.service.postAuthorizeEcho("admin"));
+	}
+
+	@Test
+	public void invokeWhenPreAndPostFilterThenFiltered() {
+		SecurityContextHolder.getContext().setAuthentication(TestAuthentication.authenticatedUser());
+		List<String> names = new ArrayList<>(Arrays.asList("user", "admin", "other"));
+		assertThat(this.service.preFilter(names)).containsExactly("user", "other");
+		assertThat(this.service.postFilter()).containsExactly("user");
+	}
+
+	public interface Service {
+
+		String notAnnotated();
+
+		@PreAuthorize("hasRole('ADMIN')")
+		String preAuthorizeAdmin();
+
+		@Secured("ROLE_ADMIN")
+		String securedAdmin();
+
+		@PostAuthorize("returnObject == authentication.name")
+		String postAuthorizeEcho(String value);
+
+		@PreFilter("filterObject != 'admin'")
+		List<String> preFilter(List<String> names);
+
+		@PostFilter("filterObject == authentication.name")
+		List<String> postFilter();
+
+	}
+
+	public static class ServiceImpl implements Service {
+
+		@Override
+		public String notAnnotated() {
+			return "ok";
+		}
+
+		@Override
+		public String preAuthorizeAdmin() {
+			return "ok";
+		}
+
+		@Override
+		public String securedAdmin() {
+			return "ok";
+		}
+
+		@Override
+		public String postAuthorizeEcho(String value) {
+			return value;
+		}
+
+		@Override
+		public List<String> preFilter(List<String> names) {
+			return names;
+		}
+
+		@Override
+		public List<String> postFilter() {
+			return new ArrayList<>(Arrays.asList("user", "admin"));
+		}
+
+	}
+
+}
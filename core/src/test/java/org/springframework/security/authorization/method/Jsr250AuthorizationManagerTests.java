@@ -0,0 +1,111 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import java.lang.reflect.Proxy;
+
+import javax.annotation.security.DenyAll;
+import javax.annotation.security.PermitAll;
+import javax.annotation.security.RolesAllowed;
+
+import org.junit.Test;
+
+import org.springframework.security.access.intercept.method.MockMethodInvocation;
+import org.springframework.security.authentication.TestAuthentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link Jsr250AuthorizationManager}.
+ */
+public class Jsr250AuthorizationManagerTests {
+
+	private final Jsr250AuthorizationManager manager = new Jsr250AuthorizationManager();
+
+	@Test
+	public void checkWhenNotAnnotatedThenNullDecision() throws Exception {
+		MockMethodInvocation mi = new MockMethodInvocation(new TestClass(), TestClass.class, "doSomething");
+		assertThat(this.manager.check(TestAuthentication::authenticatedUser, mi)).isNull();
+	}
+
+	@Test
+	public void checkWhenRolesAllowedThenRolePrefixAdded() throws Exception {
+		MockMethodInvocation mi = new MockMethodInvocation(new TestClass(), TestClass.class, "rolesAllowedAdmin");
+		assertThat(this.manager.check(TestAuthentication::authenticatedAdmin, mi).isGranted()).isTrue();
+		assertThat(this.manager.check(TestAuthentication::authenticatedUser, mi).isGranted()).isFalse();
+	}
+
+	@Test
+	public void checkWhenMethodAnnotatedThenMethodTakesPrecedenceOverClass() throws Exception {
+		MockMethodInvocation permitted = new MockMethodInvocation(new AdminClass(), AdminClass.class, "permitAll");
+		MockMethodInvocation denied = new MockMethodInvocation(new AdminClass(), AdminClass.class, "denyAll");
+		MockMethodInvocation inherited = new MockMethodInvocation(new AdminClass(), AdminClass.class, "inherited");
+		assertThat(this.manager.check(TestAuthentication::authenticatedUser, permitted).isGranted()).isTrue();
+		assertThat(this.manager.check(TestAuthentication::authenticatedAdmin, denied).isGranted()).isFalse();
+		assertThat(this.manager.check(TestAuthentication::authenticatedUser, inherited).isGranted()).isFalse();
+		assertThat(this.manager.check(TestAuthentication::authenticatedAdmin, inherited).isGranted()).isTrue();
+	}
+
+	@Test
+	public void checkWhenInterfaceAnnotatedThenJdkProxyChecked() throws Exception {
+		InterfaceAnnotated proxy = (InterfaceAnnotated) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { InterfaceAnnotated.class }, (p, method, args) -> "result");
+		MockMethodInvocation user = new MockMethodInvocation(proxy, InterfaceAnnotated.class, "user");
+		MockMethodInvocation admin = new MockMethodInvocation(proxy, InterfaceAnnotated.class, "admin");
+		assertThat(this.manager.check(TestAuthentication::authenticatedUser, user).isGranted()).isTrue();
+		assertThat(this.manager.check(TestAuthentication::authenticatedUser, admin).isGranted()).isFalse();
+		assertThat(this.manager.check(TestAuthentication::authenticatedAdmin, admin).isGranted()).isTrue();
+	}
+
+	public static class TestClass {
+
+		public void doSomething() {
+		}
+
+		@RolesAllowed("ADMIN")
+		public void rolesAllowedAdmin() {
+		}
+
+	}
+
+	@RolesAllowed("ADMIN")
+	public static class AdminClass {
+
+		@PermitAll
+		public void permitAll() {
+		}
+
+		@DenyAll
+		public void denyAll() {
+		}
+
+		public void inherited() {
+		}
+
+	}
+
+	@RolesAllowed("ADMIN")
+	public interface InterfaceAnnotated {
+
+		@RolesAllowed("USER")
+		String user();
+
+		String admin();
+
+	}
+
+}
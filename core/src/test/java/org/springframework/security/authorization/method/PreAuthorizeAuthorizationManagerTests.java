@@ -0,0 +1,113 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import org.junit.Test;
+
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.intercept.method.MockMethodInvocation;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.TestAuthentication;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link PreAuthorizeAuthorizationManager}.
+ */
+public class PreAuthorizeAuthorizationManagerTests {
+
+	private final PreAuthorizeAuthorizationManager manager = new PreAuthorizeAuthorizationManager();
+
+	@Test
+	public void checkWhenNotAnnotatedThenNullDecision() throws Exception {
+		MockMethodInvocation mi = new MockMethodInvocation(new TestClass(), TestClass.class, "doSomething");
+		assertThat(this.manager.check(TestAuthentication::authenticatedUser, mi)).isNull();
+	}
+
+	@Test
+	public void checkWhenHasRoleThenDecidedByAuthorities() throws Exception {
+		MockMethodInvocation mi = new MockMethodInvocation(new TestClass(), TestClass.class, "doAdmin");
+		assertThat(this.manager.check(TestAuthentication::authenticatedAdmin, mi).isGranted()).isTrue();
+		assertThat(this.manager.check(TestAuthentication::authenticatedUser, mi).isGranted()).isFalse();
+	}
+
+	@Test
+	public void checkWhenExpressionUsesArgumentThenEvaluated() throws Exception {
+		MockMethodInvocation mi = new MockMethodInvocation(new TestClass(), TestClass.class, "doFor",
+				new Class[] { String.class }, new Object[] { "user" });
+		assertThat(this.manager.check(TestAuthentication::authenticatedUser, mi).isGranted()).isTrue();
+		assertThat(this.manager.check(TestAuthentication::authenticatedAdmin, mi).isGranted()).isFalse();
+	}
+
+	@Test
+	public void checkWhenClassAnnotatedThenClassExpressionUsed() throws Exception {
+		MockMethodInvocation mi = new MockMethodInvocation(new ClassLevel(), ClassLevel.class, "inherited");
+		AuthorizationDecision decision = this.manager.check(TestAuthentication::authenticatedUser, mi);
+		assertThat(decision.isGranted()).isFalse();
+	}
+
+	@Test
+	public void checkWhenInvokedTwiceThenExpressionParsedOnce() throws Exception {
+		MethodSecurityExpressionHandler handler = mock(MethodSecurityExpressionHandler.class);
+		given(handler.getExpressionParser()).willReturn(new SpelExpressionParser());
+		given(handler.createEvaluationContext(any(), any()))
+				.willAnswer((invocation) -> new StandardEvaluationContext());
+		this.manager.setExpressionHandler(handler);
+		MockMethodInvocation mi = new MockMethodInvocation(new TestClass(), TestClass.class, "doLiteral");
+		TestingAuthenticationToken authentication = new TestingAuthenticationToken("user", "password");
+		assertThat(this.manager.check(() -> authentication, mi).isGranted()).isTrue();
+		assertThat(this.manager.check(() -> authentication, mi).isGranted()).isTrue();
+		verify(handler, times(1)).getExpressionParser();
+	}
+
+	public static class TestClass {
+
+		public void doSomething() {
+		}
+
+		@PreAuthorize("hasRole('ADMIN')")
+		public void doAdmin() {
+		}
+
+		@PreAuthorize("#name == authentication.name")
+		public void doFor(String name) {
+		}
+
+		@PreAuthorize("1 == 1")
+		public void doLiteral() {
+		}
+
+	}
+
+	@PreAuthorize("hasRole('ADMIN')")
+	public static class ClassLevel {
+
+		public void inherited() {
+		}
+
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authorization.method;
+
+import org.junit.Test;
+
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.security.access.intercept.method.MockMethodInvocation;
+import org.springframework.security.authentication.TestAuthentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SecuredAuthorizationManager}.
+ */
+public class SecuredAuthorizationManagerTests {
+
+	private final SecuredAuthorizationManager manager = new SecuredAuthorizationManager();
+
+	@Test
+	public void checkWhenNotAnnotatedThenNullDecision() throws Exception {
+		MockMethodInvocation mi = new MockMethodInvocation(new TestClass(), TestClass.class, "doSomething");
+		assertThat(this.manager.check(TestAuthentication::authenticatedUser, mi)).isNull();
+	}
+
+	@Test
+	public void checkWhenAnyAuthorityMatchesThenGranted() throws Exception {
+		MockMethodInvocation mi = new MockMethodInvocation(new TestClass(), TestClass.class, "securedAdminOrOther");
+		assertThat(this.manager.check(TestAuthentication::authenticatedAdmin, mi).isGranted()).isTrue();
+		assertThat(this.manager.check(TestAuthentication::authenticatedUser, mi).isGranted()).isFalse();
+	}
+
+	public static class TestClass {
+
+		public void doSomething() {
+		}
+
+		@Secured({ "ROLE_ADMIN", "ROLE_OTHER" })
+		public void securedAdminOrOther() {
+		}
+
+	}
+
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.RememberMeAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link CompactSecuritySerializer}.
+ */
+public class CompactSecuritySerializerTests {
+
+	private final CompactSecuritySerializer serializer = new CompactSecuritySerializer();
+
+	private final List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_USER",
+			"ROLE_ADMIN");
+
+	@Test
+	public void serializeWhenUsernamePasswordAuthenticationTokenThenRoundTrips() throws IOException {
+		UserDetails user = User.withUsername("user").password("password").authorities(this.authorities)
+				.accountLocked(true).build();
+		UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(user, "password",
+				this.authorities);
+		token.setDetails("details");
+		SecurityContext context = roundTrip(new SecurityContextImpl(token));
+		assertThat(context).isEqualTo(new SecurityContextImpl(token));
+		User principal = (User) context.getAuthentication().getPrincipal();
+		assertThat(principal.isAccountNonLocked()).isFalse();
+		assertThat(principal.isEnabled()).isTrue();
+		assertThat(context.getAuthentication().getDetails()).isEqualTo("details");
+	}
+
+	@Test
+	public void serializeWhenUnauthenticatedTokenThenStaysUnauthenticated() throws IOException {
+		UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken("user", "password");
+		assertThat(roundTrip(token).isAuthenticated()).isFalse();
+	}
+
+	@Test
+	public void serializeWhenCredentialsErasedThenPasswordIsNull() throws IOException {
+		User user = new User("user", "password", this.authorities);
+		user.eraseCredentials();
+		assertThat(roundTrip(user).getPassword()).isNull();
+	}
+
+	@Test
+	public void serializeWhenKeyHashTokensThenKeyHashPreserved() throws IOException {
+		RememberMeAuthenticationToken rememberMe = new RememberMeAuthenticationToken("key", "user", this.authorities);
+		AnonymousAuthenticationToken anonymous = new AnonymousAuthenticationToken("key", "anonymous",
+				AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+		RememberMeAuthenticationToken rememberMeResult = roundTrip(rememberMe);
+		AnonymousAuthenticationToken anonymousResult = roundTrip(anonymous);
+		assertThat(rememberMeResult).isEqualTo(rememberMe);
+		assertThat(rememberMeResult.getKeyHash()).isEqualTo("key".hashCode());
+		assertThat(anonymousResult).isEqualTo(anonymous);
+		assertThat(anonymousResult.getKeyHash()).isEqualTo("key".hashCode());
+	}
+
+	@Test
+	public void serializeWhenAuthoritiesRepeatedThenWrittenOnceAndShared() throws IOException {
+		User user = new User("user", "password", this.authorities);
+		UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(user, null,
+				this.authorities);
+		byte[] bytes = this.serializer.serializeToByteArray(token);
+		assertThat(indexOf(bytes, "ROLE_ADMIN".getBytes())).isEqualTo(lastIndexOf(bytes, "ROLE_ADMIN".getBytes()));
+		Authentication result = (Authentication) this.serializer.deserializeFromByteArray(bytes);
+		GrantedAuthority fromToken = result.getAuthorities().iterator().next();
+		GrantedAuthority fromUser = ((User) result.getPrincipal()).getAuthorities().stream()
+				.filter(fromToken::equals).findFirst().get();
+		assertThat(fromUser).isSameAs(fromToken);
+	}
+
+	@Test
+	public void serializeWhenValuesThenRoundTrips() throws IOException {
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("string", "välue");
+		map.put("int", -1);
+		map.put("long", Long.MIN_VALUE);
+		map.put("double", 1.5);
+		map.put("boolean", true);
+		map.put("instant", Instant.ofEpochSecond(-1, 5));
+		map.put("list", Arrays.asList("a", null, 2));
+		map.put("set", Collections.singleton("b"));
+		map.put("custom", new CustomValue("custom"));
+		assertThat(roundTrip(map)).isEqualTo(map);
+	}
+
+	@Test
+	public void serializeWhenSmallerThanJavaSerialization() throws IOException {
+		UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
+				new User("user", "password", this.authorities), null, this.authorities);
+		assertThat(this.serializer.serializeToByteArray(token).length * 4).isLessThan(javaSerialize(token).length);
+	}
+
+	@Test
+	public void deserializeWhenJavaSerializedThenReads() throws IOException {
+		SecurityContext context = new SecurityContextImpl(
+				new UsernamePasswordAuthenticationToken("user", "password", this.authorities));
+		assertThat(this.serializer.deserialize(new ByteArrayInputStream(javaSerialize(context)))).isEqualTo(context);
+	}
+
+	@Test
+	public void deserializeWhenMalformedThenIOException() {
+		byte[] bytes = this.serializer.serializeToByteArray(new SecurityContextImpl(
+				new UsernamePasswordAuthenticationToken("user", "password", this.authorities)));
+		assertThatExceptionOfType(IOException.class)
+				.isThrownBy(() -> this.serializer.deserializeFromByteArray(Arrays.copyOf(bytes, bytes.length - 1)));
+		assertThatExceptionOfType(IOException.class)
+				.isThrownBy(() -> this.serializer.deserializeFromByteArray(new byte[] { 1, 1, 127 }));
+		assertThatExceptionOfType(IOException.class)
+				.isThrownBy(() -> this.serializer.deserializeFromByteArray(new byte[] { 2 }));
+		assertThatExceptionOfType(IOException.class)
+				.isThrownBy(() -> this.serializer.deserializeFromByteArray(new byte[] { 1, 10, -1, -1, -1, 7 }));
+		assertThatExceptionOfType(IOException.class).isThrownBy(() -> this.serializer
+				.deserializeFromByteArray(new byte[] { 1, 8, 1, -2, -1, -1, -1, -1, -1, -1, -1, -1, 1, 0 }));
+	}
+
+	@Test
+	public void deserializeWhenAuthorityIndexNegativeThenIOException() {
+		CompactCodecModule module = () -> Collections.singletonList(CompactTypeCodec.of(1000, CustomValue.class,
+				(value, output) -> {
+				}, (input) -> new CustomValue(input.readAuthorities().toString())));
+		CompactSecuritySerializer serializer = new CompactSecuritySerializer(getClass().getClassLoader(),
+				Collections.singletonList(module));
+		assertThatExceptionOfType(IOException.class).isThrownBy(
+				() -> serializer.deserializeFromByteArray(new byte[] { 1, 1, -24, 7, 1, -1, -1, -1, -1, 15 }));
+	}
+
+	@Test
+	public void deserializeWhenCodecFailsThenIOException() {
+		CompactCodecModule module = () -> Collections.singletonList(CompactTypeCodec.of(1000, CustomValue.class,
+				(value, output) -> {
+				}, (input) -> (CustomValue) input.readValue()));
+		CompactSecuritySerializer serializer = new CompactSecuritySerializer(getClass().getClassLoader(),
+				Collections.singletonList(module));
+		assertThatExceptionOfType(IOException.class)
+				.isThrownBy(() -> serializer.deserializeFromByteArray(new byte[] { 1, 1, -24, 7, 2, 2, 'a' }));
+	}
+
+	@Test
+	public void constructorWhenDuplicateTypeIdThenException() {
+		CompactCodecModule module = () -> Collections
+				.singletonList(CompactTypeCodec.of(1, CustomValue.class, (value, output) -> {
+				}, (input) -> null));
+		assertThatIllegalArgumentException().isThrownBy(() -> new CompactSecuritySerializer(getClass().getClassLoader(),
+				Arrays.asList(new CoreCompactCodecModule(), module)));
+	}
+
+	@Test
+	public void serializeWhenCustomModuleThenUsesCodec() throws IOException {
+		CompactCodecModule module = () -> Collections.singletonList(CompactTypeCodec.of(1000, CustomValue.class,
+				(value, output) -> output.writeString(value.value), (input) -> new CustomValue(input.readString())));
+		CompactSecuritySerializer serializer = new CompactSecuritySerializer(getClass().getClassLoader(),
+				Collections.singletonList(module));
+		byte[] bytes = serializer.serializeToByteArray(new CustomValue("value"));
+		assertThat(bytes).hasSize(10);
+		assertThat(serializer.deserializeFromByteArray(bytes)).isEqualTo(new CustomValue("value"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T roundTrip(T value) throws IOException {
+		return (T) this.serializer.deserializeFromByteArray(this.serializer.serializeToByteArray(value));
+	}
+
+	private static byte[] javaSerialize(Object value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(value);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static int indexOf(byte[] bytes, byte[] value) {
+		for (int i = 0; i <= bytes.length - value.length; i++) {
+			if (Arrays.equals(Arrays.copyOfRange(bytes, i, i + value.length), value)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int lastIndexOf(byte[] bytes, byte[] value) {
+		for (int i = bytes.length - value.length; i >= 0; i--) {
+			if (Arrays.equals(Arrays.copyOfRange(bytes, i, i + value.length), value)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	static class CustomValue implements Serializable {
+
+		private final String value;
+
+		CustomValue(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof CustomValue) && ((CustomValue) obj).value.equals(this.value);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.value.hashCode();
+		}
+
+	}
+
+}
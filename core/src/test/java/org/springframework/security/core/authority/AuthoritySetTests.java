@@ -0,0 +1,128 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.authority;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link AuthoritySet} and {@link AuthorityDictionary}.
+ */
+public class AuthoritySetTests {
+
+	private final AuthorityDictionary dictionary = new AuthorityDictionary(200);
+
+	@Test
+	public void getIdWhenSameAuthorityThenSameId() {
+		int id = this.dictionary.getId("ROLE_USER");
+		assertThat(this.dictionary.getId("ROLE_USER")).isEqualTo(id);
+		assertThat(this.dictionary.findId("ROLE_USER")).isEqualTo(id);
+		assertThat(this.dictionary.findId("ROLE_ADMIN")).isEqualTo(-1);
+		assertThat(this.dictionary.getId("ROLE_ADMIN")).isEqualTo(id + 1);
+	}
+
+	@Test
+	public void getIdWhenMaxSizeReachedThenNoId() {
+		AuthorityDictionary dictionary = new AuthorityDictionary(1);
+		assertThat(dictionary.getId("ROLE_USER")).isZero();
+		assertThat(dictionary.getId("ROLE_ADMIN")).isEqualTo(-1);
+		assertThat(dictionary.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void containsWhenAuthoritiesThenMatchesExactly() {
+		AuthoritySet set = AuthoritySet.of(this.dictionary, Arrays.asList("ROLE_USER", "ROLE_ADMIN", null));
+		assertThat(set.contains("ROLE_USER")).isTrue();
+		assertThat(set.contains("ROLE_ADMIN")).isTrue();
+		assertThat(set.contains("ROLE_OTHER")).isFalse();
+		assertThat(set.contains(null)).isFalse();
+		assertThat(set.isEmpty()).isFalse();
+	}
+
+	@Test
+	public void containsAnyWhenSetsIntersectThenTrue() {
+		for (int i = 0; i < 150; i++) {
+			this.dictionary.getId("ROLE_" + i);
+		}
+		AuthoritySet user = AuthoritySet.of(this.dictionary, Arrays.asList("ROLE_1", "ROLE_70", "ROLE_140"));
+		assertThat(user.containsAny(AuthoritySet.of(this.dictionary, Arrays.asList("ROLE_140")))).isTrue();
+		assertThat(user.containsAny(AuthoritySet.of(this.dictionary, Arrays.asList("ROLE_2", "ROLE_70")))).isTrue();
+		assertThat(user.containsAny(AuthoritySet.of(this.dictionary, Arrays.asList("ROLE_2", "ROLE_141"))))
+				.isFalse();
+		assertThat(user.containsAny(AuthoritySet.of(this.dictionary, Collections.emptyList()))).isFalse();
+	}
+
+	@Test
+	public void containsAnyWhenDictionaryFullThenComparesStrings() {
+		AuthorityDictionary dictionary = new AuthorityDictionary(1);
+		AuthoritySet user = AuthoritySet.of(dictionary, Arrays.asList("ROLE_USER", "ROLE_ADMIN"));
+		assertThat(user.contains("ROLE_ADMIN")).isTrue();
+		assertThat(user.containsAny(AuthoritySet.of(dictionary, Arrays.asList("ROLE_ADMIN")))).isTrue();
+		assertThat(user.containsAny(AuthoritySet.of(dictionary, Arrays.asList("ROLE_OTHER")))).isFalse();
+	}
+
+	@Test
+	public void containsAnyWhenOtherDictionaryThenException() {
+		AuthoritySet set = AuthoritySet.of(this.dictionary, Arrays.asList("ROLE_USER"));
+		assertThatIllegalArgumentException().isThrownBy(() -> set.containsAny(AuthoritySet.of("ROLE_USER")));
+	}
+
+	@Test
+	public void ofWhenAbstractAuthenticationTokenThenComputedOnce() {
+		Authentication authentication = new UsernamePasswordAuthenticationToken("user", "password",
+				AuthorityUtils.createAuthorityList("ROLE_USER"));
+		AuthoritySet set = AuthoritySet.of(authentication);
+		assertThat(set.contains("ROLE_USER")).isTrue();
+		assertThat(AuthoritySet.of(authentication)).isSameAs(set);
+	}
+
+	@Test
+	public void ofWhenTokenOverridesAuthoritiesThenUsesThem() {
+		Authentication authentication = new TestingAuthenticationToken("user", "password", "ROLE_USER") {
+
+			@Override
+			public Collection<GrantedAuthority> getAuthorities() {
+				return AuthorityUtils.createAuthorityList("ROLE_ADMIN");
+			}
+
+		};
+		assertThat(AuthoritySet.of(authentication).contains("ROLE_ADMIN")).isTrue();
+		assertThat(AuthoritySet.of(authentication).contains("ROLE_USER")).isFalse();
+	}
+
+	@Test
+	public void ofWhenOtherAuthenticationThenUsesAuthorities() {
+		Authentication authentication = mock(Authentication.class);
+		given(authentication.getAuthorities())
+				.willAnswer((invocation) -> AuthorityUtils.createAuthorityList("ROLE_USER"));
+		assertThat(AuthoritySet.of(authentication).contains("ROLE_USER")).isTrue();
+	}
+
+}
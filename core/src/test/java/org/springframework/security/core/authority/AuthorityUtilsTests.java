@@ -42,4 +42,13 @@ public class AuthorityUtilsTests {
 		assertThat(authorities.contains("ROLE_D")).isTrue();
 	}
 
+	@Test
+	public void createInternedAuthorityListWhenSameAuthorityThenSameInstance() {
+		List<GrantedAuthority> first = AuthorityUtils.createInternedAuthorityList("ROLE_A", "ROLE_B");
+		List<GrantedAuthority> second = AuthorityUtils.createInternedAuthorityList("ROLE_B", "ROLE_A");
+		assertThat(first).isEqualTo(AuthorityUtils.createAuthorityList("ROLE_A", "ROLE_B"));
+		assertThat(second.get(1)).isSameAs(first.get(0));
+		assertThat(second.get(0)).isSameAs(first.get(1));
+	}
+
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.authority;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link GrantedAuthorityInterner}.
+ */
+public class GrantedAuthorityInternerTests {
+
+	@Test
+	public void constructorWhenNegativeMaxSizeThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new GrantedAuthorityInterner(-1));
+	}
+
+	@Test
+	public void internWhenEqualAuthorityThenSameInstance() {
+		GrantedAuthorityInterner interner = new GrantedAuthorityInterner(10);
+		SimpleGrantedAuthority authority = interner.intern("ROLE_USER");
+		assertThat(interner.intern("ROLE_USER")).isSameAs(authority);
+		assertThat(interner.intern(new SimpleGrantedAuthority("ROLE_USER"))).isSameAs(authority);
+		assertThat(interner.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void internWhenEmptyThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new GrantedAuthorityInterner(10).intern(""));
+	}
+
+	@Test
+	public void internWhenMaxSizeReachedThenNewInstance() {
+		GrantedAuthorityInterner interner = new GrantedAuthorityInterner(1);
+		SimpleGrantedAuthority user = interner.intern("ROLE_USER");
+		SimpleGrantedAuthority admin = interner.intern("ROLE_ADMIN");
+		assertThat(admin).isEqualTo(new SimpleGrantedAuthority("ROLE_ADMIN"));
+		assertThat(interner.intern("ROLE_ADMIN")).isNotSameAs(admin);
+		assertThat(interner.intern("ROLE_USER")).isSameAs(user);
+		assertThat(interner.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void internWhenOtherAuthorityTypeThenReturnedAsIs() {
+		GrantedAuthorityInterner interner = new GrantedAuthorityInterner(10);
+		GrantedAuthority authority = () -> "ROLE_USER";
+		assertThat(interner.intern(authority)).isSameAs(authority);
+		assertThat(interner.size()).isZero();
+	}
+
+	@Test
+	public void internAllWhenAuthoritiesThenCanonicalInstancesInOrder() {
+		GrantedAuthorityInterner interner = new GrantedAuthorityInterner(10);
+		SimpleGrantedAuthority admin = interner.intern("ROLE_ADMIN");
+		List<GrantedAuthority> interned = interner
+				.internAll(Arrays.asList(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")));
+		assertThat(interned).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER", "ROLE_ADMIN");
+		assertThat(interned.get(1)).isSameAs(admin);
+		assertThat(interned.get(0)).isSameAs(interner.intern("ROLE_USER"));
+	}
+
+}
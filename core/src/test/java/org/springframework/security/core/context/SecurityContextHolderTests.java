@@ -16,6 +16,9 @@
 
 package org.springframework.security.core.context;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -23,6 +26,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 
 /**
  * Tests {@link SecurityContextHolder}.
@@ -58,4 +62,42 @@ public class SecurityContextHolderTests {
 		assertThatIllegalArgumentException().isThrownBy(() -> SecurityContextHolder.setContext(null));
 	}
 
+	@Test
+	public void setDeferredContextWhenThreadLocalThenInvokedOnGetContext() {
+		SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_THREADLOCAL);
+		SecurityContext sc = new SecurityContextImpl();
+		AtomicInteger invocations = new AtomicInteger();
+		Supplier<SecurityContext> deferredContext = () -> {
+			invocations.incrementAndGet();
+			return sc;
+		};
+		SecurityContextHolder.setDeferredContext(deferredContext);
+		assertThat(SecurityContextHolder.getDeferredContext()).isSameAs(deferredContext);
+		assertThat(invocations).hasValue(0);
+		assertThat(SecurityContextHolder.getContext()).isSameAs(sc);
+		assertThat(invocations).hasValue(1);
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void setDeferredContextWhenInheritableThreadLocalThenInvokedImmediately() {
+		SecurityContext sc = new SecurityContextImpl();
+		AtomicInteger invocations = new AtomicInteger();
+		SecurityContextHolder.setDeferredContext(() -> {
+			invocations.incrementAndGet();
+			return sc;
+		});
+		assertThat(invocations).hasValue(1);
+		assertThat(SecurityContextHolder.getDeferredContext().get()).isSameAs(sc);
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void getContextWhenDeferredContextNullThenIllegalStateException() {
+		SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_THREADLOCAL);
+		SecurityContextHolder.setDeferredContext(() -> null);
+		assertThatIllegalStateException().isThrownBy(SecurityContextHolder::getContext);
+		SecurityContextHolder.clearContext();
+	}
+
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.session;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.security.core.userdetails.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link KeyValueSessionRegistry}.
+ */
+public class KeyValueSessionRegistryTests {
+
+	private final List<Runnable> invalidations = new ArrayList<>();
+
+	private SessionRegistryStore store;
+
+	private KeyValueSessionRegistry node1;
+
+	private KeyValueSessionRegistry node2;
+
+	@Before
+	public void setUp() {
+		this.store = mock(SessionRegistryStore.class,
+				delegatesTo(new InMemorySessionRegistryStore(this.invalidations::add)));
+		this.node1 = new KeyValueSessionRegistry(this.store);
+		this.node2 = new KeyValueSessionRegistry(this.store);
+	}
+
+	@Test
+	public void constructorWhenStoreNullThenThrowsException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new KeyValueSessionRegistry(null));
+	}
+
+	@Test
+	public void registerNewSessionThenVisibleOnOtherNode() {
+		this.node1.registerNewSession("1", "principal");
+		this.node1.registerNewSession("2", "principal");
+		assertThat(this.node2.getSessionInformation("1").getPrincipal()).isEqualTo("principal");
+		assertThat(this.node2.getAllSessions("principal", false)).extracting(SessionInformation::getSessionId)
+				.containsExactlyInAnyOrder("1", "2");
+		assertThat(this.node2.getAllPrincipals()).containsExactly("principal");
+	}
+
+	@Test
+	public void registerNewSessionWhenUserDetailsThenIdentifiedByUsername() {
+		this.node1.registerNewSession("1", new User("user", "password", new ArrayList<>()));
+		assertThat(this.node2.getAllSessions(new User("user", "other", new ArrayList<>()), false)).hasSize(1);
+	}
+
+	@Test
+	public void getSessionInformationWhenCachedThenStoreNotQueried() {
+		this.node1.registerNewSession("1", "principal");
+		this.node2.getSessionInformation("1");
+		// the first lookup is made by node1 when registering the session
+		verify(this.store, times(2)).getAll(any());
+	}
+
+	@Test
+	public void getSessionInformationWhenTimeToLiveZeroThenStoreQueried() {
+		this.node2.setCacheTimeToLive(Duration.ZERO);
+		this.node1.registerNewSession("1", "principal");
+		this.node2.getSessionInformation("1");
+		this.node2.getSessionInformation("1");
+		verify(this.store, times(3)).getAll(any());
+	}
+
+	@Test
+	public void getSessionInformationWhenCacheFullThenStoreQueried() {
+		this.node2.setMaximumCacheSize(1);
+		this.node1.registerNewSession("1", "principal");
+		this.node1.registerNewSession("2", "principal");
+		this.node2.getSessionInformation("1");
+		this.node2.getSessionInformation("2");
+		this.node2.getSessionInformation("2");
+		this.node2.getSessionInformation("1");
+		// the first two lookups are made by node1 when registering the sessions
+		verify(this.store, times(5)).getAll(any());
+	}
+
+	@Test
+	public void setMaximumCacheSizeWhenNotPositiveThenThrowsException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.node1.setMaximumCacheSize(0));
+	}
+
+	@Test
+	public void expireNowWhenOtherNodeThenExpiredAfterInvalidation() {
+		this.node1.registerNewSession("1", "principal");
+		assertThat(this.node1.getSessionInformation("1").isExpired()).isFalse();
+		this.node2.getAllSessions("principal", false).get(0).expireNow();
+		assertThat(this.node1.getSessionInformation("1").isExpired()).isFalse();
+		runInvalidations();
+		assertThat(this.node1.getSessionInformation("1").isExpired()).isTrue();
+		assertThat(this.node2.getSessionInformation("1").isExpired()).isTrue();
+		assertThat(this.node1.getAllSessions("principal", false)).isEmpty();
+	}
+
+	@Test
+	public void removeSessionInformationThenRemovedFromAllNodes() {
+		this.node1.registerNewSession("1", "principal");
+		this.node2.getSessionInformation("1");
+		this.node1.removeSessionInformation("1");
+		runInvalidations();
+		assertThat(this.node1.getSessionInformation("1")).isNull();
+		assertThat(this.node2.getSessionInformation("1")).isNull();
+		assertThat(this.node2.getAllSessions("principal", true)).isEmpty();
+		assertThat(this.node2.getAllPrincipals()).isEmpty();
+	}
+
+	@Test
+	public void refreshLastRequestThenWrittenInBatches() {
+		this.node1.setCacheTimeToLive(Duration.ZERO);
+		this.node1.setFlushInterval(Duration.ofHours(1));
+		this.node1.setBatchSize(2);
+		this.node1.registerNewSession("1", "principal");
+		this.node1.registerNewSession("2", "principal");
+		this.node1.refreshLastRequest("1");
+		this.node1.refreshLastRequest("1");
+		verify(this.store, times(2)).putAll(any());
+		this.node1.refreshLastRequest("2");
+		verify(this.store, times(3)).putAll(any());
+		this.node1.refreshLastRequest("1");
+		verify(this.store, times(3)).putAll(any());
+		this.node1.destroy();
+		verify(this.store, times(4)).putAll(any());
+	}
+
+	@Test
+	public void refreshLastRequestWhenFlushedThenVisibleOnOtherNode() throws Exception {
+		this.node2.setCacheTimeToLive(Duration.ZERO);
+		this.node1.registerNewSession("1", "principal");
+		long registered = this.node2.getSessionInformation("1").getLastRequestMillis();
+		Thread.sleep(10);
+		this.node1.refreshLastRequest("1");
+		this.node1.flush();
+		assertThat(this.node2.getSessionInformation("1").getLastRequestMillis()).isGreaterThan(registered);
+	}
+
+	@Test
+	public void refreshLastRequestWhenTaskSchedulerThenFlushedAtFlushInterval() {
+		TaskScheduler taskScheduler = mock(TaskScheduler.class);
+		ScheduledFuture<?> scheduledFlush = mock(ScheduledFuture.class);
+		given(taskScheduler.scheduleAtFixedRate(any(Runnable.class), any(Duration.class)))
+				.willAnswer((invocation) -> scheduledFlush);
+		this.node1.setFlushInterval(Duration.ofHours(1));
+		this.node1.setTaskScheduler(taskScheduler);
+		ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+		verify(taskScheduler).scheduleAtFixedRate(flush.capture(), eq(Duration.ofHours(1)));
+		this.node1.registerNewSession("1", "principal");
+		this.node1.refreshLastRequest("1");
+		verify(this.store, times(1)).putAll(any());
+		flush.getValue().run();
+		verify(this.store, times(2)).putAll(any());
+		this.node1.destroy();
+		verify(scheduledFlush).cancel(false);
+	}
+
+	@Test
+	public void getSessionInformationWhenUnknownThenNotCached() {
+		assertThat(this.node1.getSessionInformation("1")).isNull();
+		this.node2.registerNewSession("1", "principal");
+		assertThat(this.node1.getSessionInformation("1").getPrincipal()).isEqualTo("principal");
+	}
+
+	@Test
+	public void sessionIdChangedEventThenSessionMoved() {
+		this.node1.registerNewSession("old", "principal");
+		this.node1.onApplicationEvent(new SessionIdChangedEvent("") {
+			@Override
+			public String getOldSessionId() {
+				return "old";
+			}
+
+			@Override
+			public String getNewSessionId() {
+				return "new";
+			}
+		});
+		runInvalidations();
+		assertThat(this.node2.getSessionInformation("old")).isNull();
+		assertThat(this.node2.getSessionInformation("new").getPrincipal()).isEqualTo("principal");
+	}
+
+	@Test
+	public void setBatchSizeWhenNotPositiveThenThrowsException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.node1.setBatchSize(0));
+	}
+
+	private void runInvalidations() {
+		List<Runnable> invalidations = new ArrayList<>(this.invalidations);
+		this.invalidations.clear();
+		invalidations.forEach(Runnable::run);
+	}
+
+}
@@ -16,6 +16,11 @@
 
 package org.springframework.security.core.session;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Base64;
 import java.util.Date;
 
 import org.junit.Test;
@@ -43,4 +48,69 @@ public class SessionInformationTests {
 		assertThat(info.getLastRequest().after(currentDate)).isTrue();
 	}
 
+	@Test
+	public void getLastRequestWhenNotRefreshedThenSameInstance() {
+		SessionInformation info = new SessionInformation("principal", "1234567890", new Date(1000));
+		Date lastRequest = info.getLastRequest();
+		assertThat(info.getLastRequest()).isSameAs(lastRequest);
+		info.refreshLastRequest();
+		assertThat(info.getLastRequest()).isNotSameAs(lastRequest);
+		assertThat(info.getLastRequest().getTime()).isEqualTo(info.getLastRequestMillis());
+	}
+
+	@Test
+	public void getLastRequestMillisWhenGetLastRequestOverriddenThenUsesOverride() {
+		SessionInformation info = new SessionInformation("principal", "1234567890", new Date(1000)) {
+			@Override
+			public Date getLastRequest() {
+				return new Date(3000);
+			}
+		};
+		assertThat(info.getLastRequestMillis()).isEqualTo(3000);
+	}
+
+	@Test
+	public void getLastRequestMillisThenSameAsLastRequest() {
+		Date lastRequest = new Date(1000);
+		SessionInformation info = new SessionInformation("principal", "1234567890", lastRequest);
+		assertThat(info.getLastRequestMillis()).isEqualTo(1000);
+		lastRequest.setTime(2000);
+		assertThat(info.getLastRequest()).isEqualTo(new Date(1000));
+	}
+
+	@Test
+	public void deserializeWhenSerializedWithDateLastRequestThenLastRequestRestored() throws Exception {
+		// SessionInformation("principal", "1234567890", new Date(1000)) serialized by 5.5
+		String serialized = "rO0ABXNyADxvcmcuc3ByaW5nZnJhbWV3b3JrLnNlY3VyaXR5LmNvcmUuc2Vzc2lvbi5TZXNzaW9uSW5m"
+			+ "b3JtYXRpb24AAAAAAAACJgIABFoAB2V4cGlyZWRMAAtsYXN0UmVxdWVzdHQAEExqYXZhL3V0aWwvRGF0"
+			+ "ZTtMAAlwcmluY2lwYWx0ABJMamF2YS9sYW5nL09iamVjdDtMAAlzZXNzaW9uSWR0ABJMamF2YS9sYW5n"
+			+ "L1N0cmluZzt4cABzcgAOamF2YS51dGlsLkRhdGVoaoEBS1l0GQMAAHhwdwgAAAAAAAAD6Hh0AAlwcmlu"
+			+ "Y2lwYWx0AAoxMjM0NTY3ODkw";
+		SessionInformation info = deserialize(Base64.getDecoder().decode(serialized));
+		assertThat(info.getPrincipal()).isEqualTo("principal");
+		assertThat(info.getSessionId()).isEqualTo("1234567890");
+		assertThat(info.getLastRequestMillis()).isEqualTo(1000);
+		assertThat(info.getLastRequest()).isEqualTo(new Date(1000));
+		assertThat(info.isExpired()).isFalse();
+	}
+
+	@Test
+	public void serializeWhenLastRequestRefreshedThenRefreshedLastRequestRestored() throws Exception {
+		SessionInformation info = new SessionInformation("principal", "1234567890", new Date(1000));
+		info.refreshLastRequest(2000);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(info);
+		}
+		SessionInformation deserialized = deserialize(bytes.toByteArray());
+		assertThat(deserialized.getLastRequestMillis()).isEqualTo(2000);
+		assertThat(deserialized.getLastRequest()).isEqualTo(new Date(2000));
+	}
+
+	private static SessionInformation deserialize(byte[] bytes) throws Exception {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return (SessionInformation) in.readObject();
+		}
+	}
+
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.security.core.context.SecurityContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link ShardedSessionRegistry}.
+ */
+public class ShardedSessionRegistryTests {
+
+	private ShardedSessionRegistry sessionRegistry;
+
+	@Before
+	public void setUp() {
+		this.sessionRegistry = new ShardedSessionRegistry(4);
+	}
+
+	@Test
+	public void constructorWhenShardsNotPositiveThenThrowsException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new ShardedSessionRegistry(0));
+	}
+
+	@Test
+	public void registerNewSessionThenSessionInformationAvailable() {
+		this.sessionRegistry.registerNewSession("1234567890", "principal");
+		SessionInformation info = this.sessionRegistry.getSessionInformation("1234567890");
+		assertThat(info.getPrincipal()).isEqualTo("principal");
+		assertThat(info.getSessionId()).isEqualTo("1234567890");
+		assertThat(info.getLastRequest()).isNotNull();
+		assertThat(this.sessionRegistry.getAllSessions("principal", false)).containsExactly(info);
+		assertThat(this.sessionRegistry.getAllPrincipals()).containsExactly("principal");
+	}
+
+	@Test
+	public void registerNewSessionWhenSameSessionIdThenReplaced() {
+		this.sessionRegistry.registerNewSession("1234567890", "principal_1");
+		this.sessionRegistry.registerNewSession("1234567890", "principal_2");
+		assertThat(this.sessionRegistry.getSessionInformation("1234567890").getPrincipal()).isEqualTo("principal_2");
+		assertThat(this.sessionRegistry.getAllSessions("principal_1", true)).isEmpty();
+		assertThat(this.sessionRegistry.getAllPrincipals()).containsExactly("principal_2");
+	}
+
+	@Test
+	public void registerNewSessionWhenEqualPrincipalsThenFirstPrincipalShared() {
+		String principal = new String("principal");
+		this.sessionRegistry.registerNewSession("1", principal);
+		this.sessionRegistry.registerNewSession("2", new String("principal"));
+		assertThat(this.sessionRegistry.getSessionInformation("2").getPrincipal()).isSameAs(principal);
+	}
+
+	@Test
+	public void removeSessionInformationWhenManySessionsThenRemainingSessionsAvailable() {
+		for (int i = 0; i < 100; i++) {
+			this.sessionRegistry.registerNewSession("session" + i, "principal");
+		}
+		for (int i = 0; i < 100; i += 2) {
+			this.sessionRegistry.removeSessionInformation("session" + i);
+		}
+		List<SessionInformation> sessions = this.sessionRegistry.getAllSessions("principal", true);
+		assertThat(sessions).hasSize(50);
+		assertThat(sessions).allMatch((info) -> Integer.parseInt(info.getSessionId().substring(7)) % 2 == 1);
+		for (int i = 1; i < 100; i += 2) {
+			this.sessionRegistry.removeSessionInformation("session" + i);
+		}
+		assertThat(this.sessionRegistry.getAllSessions("principal", true)).isEmpty();
+		assertThat(this.sessionRegistry.getAllPrincipals()).isEmpty();
+	}
+
+	@Test
+	public void getAllSessionsWhenExpiredThenOnlyIncludedIfRequested() {
+		this.sessionRegistry.registerNewSession("1", "principal");
+		this.sessionRegistry.registerNewSession("2", "principal");
+		this.sessionRegistry.getSessionInformation("2").expireNow();
+		assertThat(this.sessionRegistry.getAllSessions("principal", false)).extracting(SessionInformation::getSessionId)
+				.containsExactly("1");
+		assertThat(this.sessionRegistry.getAllSessions("principal", true)).hasSize(2);
+		assertThat(this.sessionRegistry.getSessionInformation("2").isExpired()).isTrue();
+	}
+
+	@Test
+	public void refreshLastRequestWhenWithinGranularityThenNotUpdated() {
+		Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+		this.sessionRegistry.setClock(Clock.fixed(now, ZoneOffset.UTC));
+		this.sessionRegistry.registerNewSession("1", "principal");
+		this.sessionRegistry.setClock(Clock.fixed(now.plusMillis(999), ZoneOffset.UTC));
+		this.sessionRegistry.refreshLastRequest("1");
+		assertThat(this.sessionRegistry.getSessionInformation("1").getLastRequest().toInstant()).isEqualTo(now);
+		this.sessionRegistry.setClock(Clock.fixed(now.plusSeconds(1), ZoneOffset.UTC));
+		this.sessionRegistry.refreshLastRequest("1");
+		assertThat(this.sessionRegistry.getSessionInformation("1").getLastRequest().toInstant())
+				.isEqualTo(now.plusSeconds(1));
+	}
+
+	@Test
+	public void refreshLastRequestWhenGranularityZeroThenUpdated() {
+		Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+		this.sessionRegistry.setLastRequestGranularity(Duration.ZERO);
+		this.sessionRegistry.setClock(Clock.fixed(now, ZoneOffset.UTC));
+		this.sessionRegistry.registerNewSession("1", "principal");
+		this.sessionRegistry.setClock(Clock.fixed(now.plusMillis(1), ZoneOffset.UTC));
+		this.sessionRegistry.refreshLastRequest("1");
+		assertThat(this.sessionRegistry.getSessionInformation("1").getLastRequest().toInstant())
+				.isEqualTo(now.plusMillis(1));
+	}
+
+	@Test
+	public void setLastRequestGranularityWhenNegativeThenThrowsException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> this.sessionRegistry.setLastRequestGranularity(Duration.ofSeconds(-1)));
+	}
+
+	@Test
+	public void sessionDestroyedEventRemovesSessionFromRegistry() {
+		this.sessionRegistry.registerNewSession("zzzz", "principal");
+		this.sessionRegistry.onApplicationEvent(new SessionDestroyedEvent("") {
+			@Override
+			public String getId() {
+				return "zzzz";
+			}
+
+			@Override
+			public List<SecurityContext> getSecurityContexts() {
+				return null;
+			}
+		});
+		assertThat(this.sessionRegistry.getSessionInformation("zzzz")).isNull();
+		assertThat(this.sessionRegistry.getAllPrincipals()).isEmpty();
+	}
+
+	@Test
+	public void sessionIdChangedEventRemovesOldSessionAndAddsANewSession() {
+		this.sessionRegistry.registerNewSession("zzzz", "principal");
+		this.sessionRegistry.onApplicationEvent(new SessionIdChangedEvent("") {
+			@Override
+			public String getOldSessionId() {
+				return "zzzz";
+			}
+
+			@Override
+			public String getNewSessionId() {
+				return "123";
+			}
+		});
+		assertThat(this.sessionRegistry.getSessionInformation("zzzz")).isNull();
+		assertThat(this.sessionRegistry.getSessionInformation("123").getPrincipal()).isEqualTo("principal");
+		assertThat(this.sessionRegistry.getAllSessions("principal", false)).hasSize(1);
+	}
+
+	@Test
+	public void registerNewSessionWhenConcurrentThenConsistent() throws Exception {
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			int thread = t;
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < 2000; i++) {
+					String sessionId = "session" + (i % 100);
+					this.sessionRegistry.registerNewSession(sessionId, "principal" + (thread % 2));
+					if (i % 3 == 0) {
+						this.sessionRegistry.removeSessionInformation(sessionId);
+					}
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+		int sessions = 0;
+		for (Object principal : this.sessionRegistry.getAllPrincipals()) {
+			for (SessionInformation info : this.sessionRegistry.getAllSessions(principal, true)) {
+				assertThat(this.sessionRegistry.getSessionInformation(info.getSessionId())).isSameAs(info);
+				sessions++;
+			}
+		}
+		int registered = 0;
+		for (int i = 0; i < 100; i++) {
+			if (this.sessionRegistry.getSessionInformation("session" + i) != null) {
+				registered++;
+			}
+		}
+		assertThat(sessions).isEqualTo(registered);
+	}
+
+}
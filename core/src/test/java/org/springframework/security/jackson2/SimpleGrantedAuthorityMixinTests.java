@@ -57,6 +57,12 @@ public class SimpleGrantedAuthorityMixinTests extends AbstractMixinTests {
 		assertThat(authority.getAuthority()).isNotNull().isEqualTo("ROLE_USER");
 	}
 
+	@Test
+	public void deserializeGrantedAuthorityWhenReadTwiceThenSameInstance() throws IOException {
+		SimpleGrantedAuthority authority = this.mapper.readValue(AUTHORITY_JSON, SimpleGrantedAuthority.class);
+		assertThat(this.mapper.readValue(AUTHORITY_JSON, SimpleGrantedAuthority.class)).isSameAs(authority);
+	}
+
 	@Test
 	public void deserializeGrantedAuthorityWithoutRoleTest() throws IOException {
 		String json = "{\"@class\": \"org.springframework.security.core.authority.SimpleGrantedAuthority\"}";
@@ -34,6 +34,7 @@ import org.springframework.ldap.core.ContextSource;
 import org.springframework.ldap.core.DirContextOperations;
 import org.springframework.ldap.core.LdapTemplate;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.GrantedAuthorityInterner;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.ldap.SpringSecurityLdapTemplate;
 import org.springframework.util.Assert;
@@ -173,7 +174,7 @@ public class DefaultLdapAuthoritiesPopulator implements LdapAuthoritiesPopulator
 			if (this.convertToUpperCase) {
 				role = role.toUpperCase();
 			}
-			return new SimpleGrantedAuthority(this.rolePrefix + role);
+			return GrantedAuthorityInterner.getSharedInstance().intern(this.rolePrefix + role);
 		};
 	}
 
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.client.codec;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.security.codec.CompactCodecModule;
+import org.springframework.security.codec.CompactInput;
+import org.springframework.security.codec.CompactOutput;
+import org.springframework.security.codec.CompactTypeCodec;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.oauth2.core.oidc.user.OidcUserAuthority;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * The {@link CompactCodecModule} for spring-security-oauth2-client, which writes
+ * {@link OAuth2AuthenticationToken}, {@link DefaultOAuth2User}, {@link DefaultOidcUser},
+ * {@link OidcIdToken}, {@link OidcUserInfo}, {@link OAuth2UserAuthority} and
+ * {@link OidcUserAuthority}.
+ *
+ * @since 5.6
+ * @see org.springframework.security.codec.CompactSecuritySerializer#getModules(ClassLoader)
+ */
+public final class OAuth2ClientCompactCodecModule implements CompactCodecModule {
+
+	// DefaultOAuth2User does not expose the key of its name attribute
+	private static final Field nameAttributeKey = getNameAttributeKeyField();
+
+	@Override
+	public List<CompactTypeCodec<?>> getCodecs() {
+		return Arrays.asList(
+				CompactTypeCodec.of(64, OAuth2AuthenticationToken.class,
+						OAuth2ClientCompactCodecModule::writeOAuth2AuthenticationToken,
+						OAuth2ClientCompactCodecModule::readOAuth2AuthenticationToken),
+				CompactTypeCodec.of(65, DefaultOAuth2User.class, (user, output) -> {
+					output.writeAuthorities(user.getAuthorities());
+					output.writeMap(user.getAttributes());
+					output.writeString(getNameAttributeKey(user));
+				}, (input) -> new DefaultOAuth2User(input.readAuthorities(), input.readMap(), input.readString())),
+				CompactTypeCodec.of(66, DefaultOidcUser.class, (user, output) -> {
+					output.writeAuthorities(user.getAuthorities());
+					output.writeValue(user.getIdToken());
+					output.writeValue(user.getUserInfo());
+					output.writeString(getNameAttributeKey(user));
+				}, (input) -> new DefaultOidcUser(input.readAuthorities(), input.readValue(OidcIdToken.class),
+						input.readValue(OidcUserInfo.class), input.readString())),
+				CompactTypeCodec.of(67, OidcIdToken.class, (token, output) -> {
+					output.writeString(token.getTokenValue());
+					output.writeInstant(token.getIssuedAt());
+					output.writeInstant(token.getExpiresAt());
+					output.writeMap(token.getClaims());
+				}, (input) -> new OidcIdToken(input.readString(), input.readInstant(), input.readInstant(),
+						input.readMap())),
+				CompactTypeCodec.of(68, OidcUserInfo.class, (userInfo, output) -> output.writeMap(userInfo.getClaims()),
+						(input) -> new OidcUserInfo(input.readMap())),
+				CompactTypeCodec.of(69, OAuth2UserAuthority.class, (authority, output) -> {
+					output.writeString(authority.getAuthority());
+					output.writeMap(authority.getAttributes());
+				}, (input) -> new OAuth2UserAuthority(input.readString(), input.readMap())),
+				CompactTypeCodec.of(70, OidcUserAuthority.class, (authority, output) -> {
+					output.writeString(authority.getAuthority());
+					output.writeValue(authority.getIdToken());
+					output.writeValue(authority.getUserInfo());
+				}, (input) -> new OidcUserAuthority(input.readString(), input.readValue(OidcIdToken.class),
+						input.readValue(OidcUserInfo.class))));
+	}
+
+	private static void writeOAuth2AuthenticationToken(OAuth2AuthenticationToken token, CompactOutput output) {
+		output.writeValue(token.getPrincipal());
+		output.writeAuthorities(token.getAuthorities());
+		output.writeString(token.getAuthorizedClientRegistrationId());
+		output.writeValue(token.getDetails());
+	}
+
+	private static OAuth2AuthenticationToken readOAuth2AuthenticationToken(CompactInput input) {
+		OAuth2User principal = input.readValue(OAuth2User.class);
+		List<GrantedAuthority> authorities = input.readAuthorities();
+		OAuth2AuthenticationToken token = new OAuth2AuthenticationToken(principal, authorities, input.readString());
+		token.setDetails(input.readValue());
+		return token;
+	}
+
+	private static String getNameAttributeKey(DefaultOAuth2User user) {
+		return (String) ReflectionUtils.getField(nameAttributeKey, user);
+	}
+
+	private static Field getNameAttributeKeyField() {
+		Field field = ReflectionUtils.findField(DefaultOAuth2User.class, "nameAttributeKey", String.class);
+		if (field == null) {
+			throw new IllegalStateException("Cannot find the nameAttributeKey field of DefaultOAuth2User");
+		}
+		ReflectionUtils.makeAccessible(field);
+		return field;
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.client.codec;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import org.springframework.security.codec.CompactSecuritySerializer;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.oauth2.core.oidc.user.TestOidcUsers;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.TestOAuth2Users;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OAuth2ClientCompactCodecModule}.
+ */
+public class OAuth2ClientCompactCodecModuleTests {
+
+	private final CompactSecuritySerializer serializer = new CompactSecuritySerializer();
+
+	@Test
+	public void serializeWhenOAuth2UserThenRoundTrips() throws IOException {
+		DefaultOAuth2User user = TestOAuth2Users.create();
+		OAuth2AuthenticationToken token = new OAuth2AuthenticationToken(user, user.getAuthorities(), "github");
+		OAuth2AuthenticationToken result = roundTrip(token);
+		assertThat(result).isEqualTo(token);
+		assertThat(result.getName()).isEqualTo("user");
+		assertThat(result.getAuthorizedClientRegistrationId()).isEqualTo("github");
+	}
+
+	@Test
+	public void serializeWhenOidcUserThenRoundTrips() throws IOException {
+		DefaultOidcUser user = TestOidcUsers.create();
+		OAuth2AuthenticationToken token = new OAuth2AuthenticationToken(user, user.getAuthorities(), "google");
+		SecurityContext context = roundTrip(new SecurityContextImpl(token));
+		assertThat(context).isEqualTo(new SecurityContextImpl(token));
+		DefaultOidcUser principal = (DefaultOidcUser) context.getAuthentication().getPrincipal();
+		assertThat(principal.getIdToken().getClaims()).isEqualTo(user.getIdToken().getClaims());
+		assertThat(principal.getIdToken().getExpiresAt()).isEqualTo(user.getIdToken().getExpiresAt());
+		assertThat(principal.getUserInfo().getClaims()).isEqualTo(user.getUserInfo().getClaims());
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T roundTrip(T value) throws IOException {
+		return (T) this.serializer.deserializeFromByteArray(this.serializer.serializeToByteArray(value));
+	}
+
+}
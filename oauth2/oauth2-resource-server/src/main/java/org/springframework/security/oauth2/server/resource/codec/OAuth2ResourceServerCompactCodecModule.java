@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.server.resource.codec;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.security.codec.CompactCodecModule;
+import org.springframework.security.codec.CompactInput;
+import org.springframework.security.codec.CompactOutput;
+import org.springframework.security.codec.CompactTypeCodec;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthentication;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
+
+/**
+ * The {@link CompactCodecModule} for spring-security-oauth2-resource-server, which writes
+ * {@link JwtAuthenticationToken}, {@link Jwt}, {@link BearerTokenAuthentication},
+ * {@link OAuth2AccessToken}, {@link OAuth2IntrospectionAuthenticatedPrincipal} and
+ * {@link DefaultOAuth2AuthenticatedPrincipal}.
+ *
+ * @since 5.6
+ * @see org.springframework.security.codec.CompactSecuritySerializer#getModules(ClassLoader)
+ */
+public final class OAuth2ResourceServerCompactCodecModule implements CompactCodecModule {
+
+	@Override
+	public List<CompactTypeCodec<?>> getCodecs() {
+		return Arrays.asList(
+				CompactTypeCodec.of(96, JwtAuthenticationToken.class,
+						OAuth2ResourceServerCompactCodecModule::writeJwtAuthenticationToken,
+						OAuth2ResourceServerCompactCodecModule::readJwtAuthenticationToken),
+				CompactTypeCodec.of(97, Jwt.class, (jwt, output) -> {
+					output.writeString(jwt.getTokenValue());
+					output.writeInstant(jwt.getIssuedAt());
+					output.writeInstant(jwt.getExpiresAt());
+					output.writeMap(jwt.getHeaders());
+					output.writeMap(jwt.getClaims());
+				}, (input) -> new Jwt(input.readString(), input.readInstant(), input.readInstant(), input.readMap(),
+						input.readMap())),
+				CompactTypeCodec.of(98, BearerTokenAuthentication.class,
+						OAuth2ResourceServerCompactCodecModule::writeBearerTokenAuthentication,
+						OAuth2ResourceServerCompactCodecModule::readBearerTokenAuthentication),
+				CompactTypeCodec.of(99, OAuth2AccessToken.class,
+						OAuth2ResourceServerCompactCodecModule::writeOAuth2AccessToken,
+						OAuth2ResourceServerCompactCodecModule::readOAuth2AccessToken),
+				CompactTypeCodec.of(100, OAuth2IntrospectionAuthenticatedPrincipal.class, (principal, output) -> {
+					output.writeString(principal.getName());
+					output.writeMap(principal.getAttributes());
+					output.writeAuthorities(principal.getAuthorities());
+				}, (input) -> new OAuth2IntrospectionAuthenticatedPrincipal(input.readString(), input.readMap(),
+						input.readAuthorities())),
+				CompactTypeCodec.of(101, DefaultOAuth2AuthenticatedPrincipal.class, (principal, output) -> {
+					output.writeString(principal.getName());
+					output.writeMap(principal.getAttributes());
+					output.writeAuthorities(principal.getAuthorities());
+				}, (input) -> new DefaultOAuth2AuthenticatedPrincipal(input.readString(), input.readMap(),
+						input.readAuthorities())));
+	}
+
+	private static void writeJwtAuthenticationToken(JwtAuthenticationToken token, CompactOutput output) {
+		output.writeValue(token.getToken());
+		output.writeAuthorities(token.getAuthorities());
+		output.writeString(token.getName());
+		output.writeValue(token.getDetails());
+	}
+
+	private static JwtAuthenticationToken readJwtAuthenticationToken(CompactInput input) {
+		Jwt jwt = input.readValue(Jwt.class);
+		List<GrantedAuthority> authorities = input.readAuthorities();
+		JwtAuthenticationToken token = new JwtAuthenticationToken(jwt, authorities, input.readString());
+		token.setDetails(input.readValue());
+		return token;
+	}
+
+	private static void writeBearerTokenAuthentication(BearerTokenAuthentication token, CompactOutput output) {
+		output.writeValue(token.getPrincipal());
+		output.writeValue(token.getToken());
+		output.writeAuthorities(token.getAuthorities());
+		output.writeValue(token.getDetails());
+	}
+
+	private static BearerTokenAuthentication readBearerTokenAuthentication(CompactInput input) {
+		OAuth2AuthenticatedPrincipal principal = input.readValue(OAuth2AuthenticatedPrincipal.class);
+		OAuth2AccessToken accessToken = input.readValue(OAuth2AccessToken.class);
+		BearerTokenAuthentication token = new BearerTokenAuthentication(principal, accessToken,
+				input.readAuthorities());
+		token.setDetails(input.readValue());
+		return token;
+	}
+
+	private static void writeOAuth2AccessToken(OAuth2AccessToken token, CompactOutput output) {
+		output.writeString(token.getTokenType().getValue());
+		output.writeString(token.getTokenValue());
+		output.writeInstant(token.getIssuedAt());
+		output.writeInstant(token.getExpiresAt());
+		output.writeValue(token.getScopes());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static OAuth2AccessToken readOAuth2AccessToken(CompactInput input) {
+		String tokenType = input.readString();
+		// Bearer is the only token type that can be created
+		if (!OAuth2AccessToken.TokenType.BEARER.getValue().equalsIgnoreCase(tokenType)) {
+			throw new IllegalArgumentException("Unknown token type " + tokenType);
+		}
+		String tokenValue = input.readString();
+		Instant issuedAt = input.readInstant();
+		Instant expiresAt = input.readInstant();
+		Set<String> scopes = input.readValue(Set.class);
+		return new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, tokenValue, issuedAt, expiresAt, scopes);
+	}
+
+}
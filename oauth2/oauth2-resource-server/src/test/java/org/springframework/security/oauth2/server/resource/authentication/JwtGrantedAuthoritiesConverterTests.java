@@ -57,6 +57,14 @@ public class JwtGrantedAuthoritiesConverterTests {
 				new SimpleGrantedAuthority("SCOPE_message:write"));
 	}
 
+	@Test
+	public void convertWhenConvertedTwiceThenAuthoritiesAreSameInstances() {
+		Jwt jwt = TestJwts.jwt().claim("scope", "message:read").build();
+		JwtGrantedAuthoritiesConverter jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+		GrantedAuthority authority = jwtGrantedAuthoritiesConverter.convert(jwt).iterator().next();
+		assertThat(jwtGrantedAuthoritiesConverter.convert(jwt)).singleElement().isSameAs(authority);
+	}
+
 	@Test
 	public void convertWithCustomAuthorityPrefixWhenTokenHasScopeAttributeThenTranslatedToAuthorities() {
 		// @formatter:off
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.server.resource.codec;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import org.springframework.security.codec.CompactSecuritySerializer;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.TestJwts;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthentication;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.TestBearerTokenAuthentications;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OAuth2ResourceServerCompactCodecModule}.
+ */
+public class OAuth2ResourceServerCompactCodecModuleTests {
+
+	private final CompactSecuritySerializer serializer = new CompactSecuritySerializer();
+
+	@Test
+	public void serializeWhenJwtAuthenticationTokenThenRoundTrips() throws IOException {
+		Jwt jwt = TestJwts.jwt().build();
+		JwtAuthenticationToken token = new JwtAuthenticationToken(jwt,
+				AuthorityUtils.createAuthorityList("SCOPE_read"), "name");
+		JwtAuthenticationToken result = roundTrip(token);
+		assertThat(result).isEqualTo(token);
+		assertThat(result.getName()).isEqualTo("name");
+		assertThat(result.getToken().getHeaders()).isEqualTo(jwt.getHeaders());
+		assertThat(result.getToken().getClaims()).isEqualTo(jwt.getClaims());
+		assertThat(result.getToken().getIssuedAt()).isEqualTo(jwt.getIssuedAt());
+	}
+
+	@Test
+	public void serializeWhenBearerTokenAuthenticationThenRoundTrips() throws IOException {
+		BearerTokenAuthentication token = TestBearerTokenAuthentications.bearer();
+		BearerTokenAuthentication result = roundTrip(token);
+		assertThat(result.getName()).isEqualTo("user");
+		assertThat(result.getAuthorities()).isEqualTo(token.getAuthorities());
+		assertThat(result.getToken().getTokenValue()).isEqualTo("token");
+		assertThat(result.getToken().getScopes()).containsExactly("USER");
+		assertThat(result.getTokenAttributes()).isEqualTo(token.getTokenAttributes());
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T roundTrip(T value) throws IOException {
+		return (T) this.serializer.deserializeFromByteArray(this.serializer.serializeToByteArray(value));
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.saml2.provider.service.codec;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.security.codec.CompactCodecModule;
+import org.springframework.security.codec.CompactInput;
+import org.springframework.security.codec.CompactOutput;
+import org.springframework.security.codec.CompactTypeCodec;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.saml2.provider.service.authentication.DefaultSaml2AuthenticatedPrincipal;
+import org.springframework.security.saml2.provider.service.authentication.Saml2Authentication;
+
+/**
+ * The {@link CompactCodecModule} for spring-security-saml2-service-provider, which
+ * writes {@link Saml2Authentication} and {@link DefaultSaml2AuthenticatedPrincipal}.
+ *
+ * @since 5.6
+ * @see org.springframework.security.codec.CompactSecuritySerializer#getModules(ClassLoader)
+ */
+public final class Saml2CompactCodecModule implements CompactCodecModule {
+
+	@Override
+	public List<CompactTypeCodec<?>> getCodecs() {
+		return Arrays.asList(
+				CompactTypeCodec.of(128, Saml2Authentication.class, Saml2CompactCodecModule::writeSaml2Authentication,
+						Saml2CompactCodecModule::readSaml2Authentication),
+				CompactTypeCodec.of(129, DefaultSaml2AuthenticatedPrincipal.class, (principal, output) -> {
+					output.writeString(principal.getName());
+					output.writeMap(principal.getAttributes());
+				}, (input) -> new DefaultSaml2AuthenticatedPrincipal(input.readString(), input.readMap())));
+	}
+
+	private static void writeSaml2Authentication(Saml2Authentication authentication, CompactOutput output) {
+		output.writeValue(authentication.getPrincipal());
+		output.writeString(authentication.getSaml2Response());
+		output.writeAuthorities(authentication.getAuthorities());
+		output.writeValue(authentication.getDetails());
+	}
+
+	private static Saml2Authentication readSaml2Authentication(CompactInput input) {
+		AuthenticatedPrincipal principal = input.readValue(AuthenticatedPrincipal.class);
+		String saml2Response = input.readString();
+		List<GrantedAuthority> authorities = input.readAuthorities();
+		Saml2Authentication authentication = new Saml2Authentication(principal, saml2Response, authorities);
+		authentication.setDetails(input.readValue());
+		return authentication;
+	}
+
+}
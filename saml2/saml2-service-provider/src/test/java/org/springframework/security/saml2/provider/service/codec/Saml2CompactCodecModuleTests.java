@@ -0,0 +1,59 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.saml2.provider.service.codec;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.security.codec.CompactSecuritySerializer;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.saml2.provider.service.authentication.DefaultSaml2AuthenticatedPrincipal;
+import org.springframework.security.saml2.provider.service.authentication.Saml2Authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link Saml2CompactCodecModule}.
+ */
+public class Saml2CompactCodecModuleTests {
+
+	private final CompactSecuritySerializer serializer = new CompactSecuritySerializer();
+
+	@Test
+	public void serializeWhenSaml2AuthenticationThenRoundTrips() throws IOException {
+		Map<String, List<Object>> attributes = Collections.singletonMap("email",
+				Arrays.asList("user@example.org", "user@example.com"));
+		DefaultSaml2AuthenticatedPrincipal principal = new DefaultSaml2AuthenticatedPrincipal("user", attributes);
+		Saml2Authentication authentication = new Saml2Authentication(principal, "<Response/>",
+				AuthorityUtils.createAuthorityList("ROLE_USER"));
+		Saml2Authentication result = (Saml2Authentication) this.serializer
+				.deserializeFromByteArray(this.serializer.serializeToByteArray(authentication));
+		assertThat(result.getName()).isEqualTo("user");
+		assertThat(result.getSaml2Response()).isEqualTo("<Response/>");
+		assertThat(result.getAuthorities()).isEqualTo(authentication.getAuthorities());
+		assertThat(result.isAuthenticated()).isTrue();
+		DefaultSaml2AuthenticatedPrincipal resultPrincipal = (DefaultSaml2AuthenticatedPrincipal) result
+				.getPrincipal();
+		assertThat(resultPrincipal.getAttributes()).isEqualTo(attributes);
+	}
+
+}
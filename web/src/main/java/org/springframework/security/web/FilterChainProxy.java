@@ -17,6 +17,7 @@
 package org.springframework.security.web;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -42,6 +43,7 @@ import org.springframework.security.web.firewall.RequestRejectedHandler;
 import org.springframework.security.web.firewall.StrictHttpFirewall;
 import org.springframework.security.web.util.UrlUtils;
 import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcherIndex;
 import org.springframework.util.Assert;
 import org.springframework.web.filter.DelegatingFilterProxy;
 import org.springframework.web.filter.GenericFilterBean;
@@ -154,6 +156,8 @@ public class FilterChainProxy extends GenericFilterBean {
 
 	private RequestRejectedHandler requestRejectedHandler = new DefaultRequestRejectedHandler();
 
+	private RequestMatcherIndex filterChainIndex;
+
 	public FilterChainProxy() {
 	}
 
@@ -217,6 +221,18 @@ public class FilterChainProxy extends GenericFilterBean {
 	 * @return an ordered array of Filters defining the filter chain
 	 */
 	private List<Filter> getFilters(HttpServletRequest request) {
+		if (this.filterChainIndex != null) {
+			int index = this.filterChainIndex.indexOfFirstMatch(request);
+			if (index == -1) {
+				return null;
+			}
+			SecurityFilterChain chain = this.filterChains.get(index);
+			if (logger.isTraceEnabled()) {
+				logger.trace(LogMessage.format("Matched request against %s (%d/%d)", chain, index + 1,
+						this.filterChains.size()));
+			}
+			return chain.getFilters();
+		}
 		int count = 0;
 		for (SecurityFilterChain chain : this.filterChains) {
 			if (logger.isTraceEnabled()) {
@@ -267,6 +283,33 @@ public class FilterChainProxy extends GenericFilterBean {
 		this.firewall = firewall;
 	}
 
+	/**
+	 * Sets whether the {@link SecurityFilterChain}s should be looked up through an index
+	 * rather than by calling {@link SecurityFilterChain#matches(HttpServletRequest)} on
+	 * each of them in turn. This is worthwhile when there are many chains.
+	 *
+	 * <p>
+	 * The request matchers of {@link DefaultSecurityFilterChain}s are indexed by their
+	 * literal path prefix and HTTP method, see {@link RequestMatcherIndex}. Chains that
+	 * cannot be indexed are still evaluated in order, so the first matching chain is the
+	 * same as with the default, linear, lookup. The default is {@code false}.
+	 * @param indexedFilterChainDispatch whether to look up chains through an index
+	 * @since 5.6
+	 */
+	public void setIndexedFilterChainDispatch(boolean indexedFilterChainDispatch) {
+		if (!indexedFilterChainDispatch) {
+			this.filterChainIndex = null;
+			return;
+		}
+		Assert.notNull(this.filterChains, "filterChains cannot be null");
+		List<RequestMatcher> requestMatchers = new ArrayList<>(this.filterChains.size());
+		for (SecurityFilterChain chain : this.filterChains) {
+			requestMatchers.add((chain instanceof DefaultSecurityFilterChain)
+					? ((DefaultSecurityFilterChain) chain).getRequestMatcher() : chain::matches);
+		}
+		this.filterChainIndex = new RequestMatcherIndex(requestMatchers);
+	}
+
 	/**
 	 * Sets the {@link RequestRejectedHandler} to be used for requests rejected by the
 	 * firewall.
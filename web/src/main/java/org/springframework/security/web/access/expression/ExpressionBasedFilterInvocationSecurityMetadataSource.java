@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,7 +31,9 @@ import org.springframework.core.log.LogMessage;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.ParseException;
 import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.expression.AbstractSecurityExpressionHandler;
 import org.springframework.security.access.expression.SecurityExpressionHandler;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.web.FilterInvocation;
 import org.springframework.security.web.access.intercept.DefaultFilterInvocationSecurityMetadataSource;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
@@ -40,6 +42,11 @@ import org.springframework.util.Assert;
 
 /**
  * Expression-based {@code FilterInvocationSecurityMetadataSource}.
+ * <p>
+ * If the handler is an {@link AbstractSecurityExpressionHandler}, each expression is
+ * also turned into an {@link AuthorizationManager} when
+ * {@link AbstractSecurityExpressionHandler#createAuthorizationManager(String)} can do so,
+ * which {@link WebExpressionVoter} then uses instead of evaluating the expression.
  *
  * @author Luke Taylor
  * @author Eddú Meléndez
@@ -53,19 +60,22 @@ public final class ExpressionBasedFilterInvocationSecurityMetadataSource
 	public ExpressionBasedFilterInvocationSecurityMetadataSource(
 			LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> requestMap,
 			SecurityExpressionHandler<FilterInvocation> expressionHandler) {
-		super(processMap(requestMap, expressionHandler.getExpressionParser()));
+		super(processMap(requestMap, expressionHandler));
 		Assert.notNull(expressionHandler, "A non-null SecurityExpressionHandler is required");
 	}
 
 	private static LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> processMap(
-			LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> requestMap, ExpressionParser parser) {
+			LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> requestMap,
+			SecurityExpressionHandler<FilterInvocation> expressionHandler) {
+		ExpressionParser parser = expressionHandler.getExpressionParser();
 		Assert.notNull(parser, "SecurityExpressionHandler returned a null parser object");
 		LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> processed = new LinkedHashMap<>(requestMap);
-		requestMap.forEach((request, value) -> process(parser, request, value, processed::put));
+		requestMap.forEach((request, value) -> process(expressionHandler, parser, request, value, processed::put));
 		return processed;
 	}
 
-	private static void process(ExpressionParser parser, RequestMatcher request, Collection<ConfigAttribute> value,
+	private static void process(SecurityExpressionHandler<FilterInvocation> expressionHandler,
+			ExpressionParser parser, RequestMatcher request, Collection<ConfigAttribute> value,
 			BiConsumer<RequestMatcher, Collection<ConfigAttribute>> consumer) {
 		String expression = getExpression(request, value);
 		if (logger.isDebugEnabled()) {
@@ -74,7 +84,8 @@ public final class ExpressionBasedFilterInvocationSecurityMetadataSource
 		AbstractVariableEvaluationContextPostProcessor postProcessor = createPostProcessor(request);
 		ArrayList<ConfigAttribute> processed = new ArrayList<>(1);
 		try {
-			processed.add(new WebExpressionConfigAttribute(parser.parseExpression(expression), postProcessor));
+			processed.add(new WebExpressionConfigAttribute(parser.parseExpression(expression), postProcessor,
+					createAuthorizationManager(expressionHandler, expression), expressionHandler));
 		}
 		catch (ParseException ex) {
 			throw new IllegalArgumentException("Failed to parse expression '" + expression + "'");
@@ -82,6 +93,15 @@ public final class ExpressionBasedFilterInvocationSecurityMetadataSource
 		consumer.accept(request, processed);
 	}
 
+	private static AuthorizationManager<FilterInvocation> createAuthorizationManager(
+			SecurityExpressionHandler<FilterInvocation> expressionHandler, String expression) {
+		if (!(expressionHandler instanceof AbstractSecurityExpressionHandler)) {
+			return null;
+		}
+		return ((AbstractSecurityExpressionHandler<FilterInvocation>) expressionHandler)
+				.createAuthorizationManager(expression);
+	}
+
 	private static String getExpression(RequestMatcher request, Collection<ConfigAttribute> value) {
 		Assert.isTrue(value.size() == 1, () -> "Expected a single expression attribute for " + request);
 		return value.toArray(new ConfigAttribute[1])[0].getAttribute();
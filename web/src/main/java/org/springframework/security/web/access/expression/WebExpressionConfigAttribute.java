@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.security.web.access.expression;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.expression.SecurityExpressionHandler;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.web.FilterInvocation;
 
 /**
@@ -33,16 +35,41 @@ class WebExpressionConfigAttribute implements ConfigAttribute, EvaluationContext
 
 	private final EvaluationContextPostProcessor<FilterInvocation> postProcessor;
 
+	private final AuthorizationManager<FilterInvocation> authorizationManager;
+
+	private final SecurityExpressionHandler<FilterInvocation> authorizationManagerHandler;
+
 	WebExpressionConfigAttribute(Expression authorizeExpression,
 			EvaluationContextPostProcessor<FilterInvocation> postProcessor) {
+		this(authorizeExpression, postProcessor, null, null);
+	}
+
+	WebExpressionConfigAttribute(Expression authorizeExpression,
+			EvaluationContextPostProcessor<FilterInvocation> postProcessor,
+			AuthorizationManager<FilterInvocation> authorizationManager,
+			SecurityExpressionHandler<FilterInvocation> authorizationManagerHandler) {
 		this.authorizeExpression = authorizeExpression;
 		this.postProcessor = postProcessor;
+		this.authorizationManager = authorizationManager;
+		this.authorizationManagerHandler = authorizationManagerHandler;
 	}
 
 	Expression getAuthorizeExpression() {
 		return this.authorizeExpression;
 	}
 
+	/**
+	 * The {@link AuthorizationManager} that decides like the authorize expression, if it
+	 * was created by the given handler.
+	 * @param handler the handler that would evaluate the expression
+	 * @return the {@link AuthorizationManager}, or {@code null} if the expression must be
+	 * evaluated
+	 */
+	AuthorizationManager<FilterInvocation> getAuthorizationManager(
+			SecurityExpressionHandler<FilterInvocation> handler) {
+		return (handler == this.authorizationManagerHandler) ? this.authorizationManager : null;
+	}
+
 	@Override
 	public EvaluationContext postProcess(EvaluationContext context, FilterInvocation fi) {
 		return (this.postProcessor != null) ? this.postProcessor.postProcess(context, fi) : context;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import org.springframework.security.access.AccessDecisionVoter;
 import org.springframework.security.access.ConfigAttribute;
 import org.springframework.security.access.expression.ExpressionUtils;
 import org.springframework.security.access.expression.SecurityExpressionHandler;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.FilterInvocation;
 import org.springframework.util.Assert;
@@ -54,6 +55,12 @@ public class WebExpressionVoter implements AccessDecisionVoter<FilterInvocation>
 			// 弃权投票
 			return ACCESS_ABSTAIN;
 		}
+		AuthorizationManager<FilterInvocation> authorizationManager = webExpressionConfigAttribute
+				.getAuthorizationManager(this.expressionHandler);
+		if (authorizationManager != null) {
+			boolean granted = authorizationManager.check(() -> authentication, filterInvocation).isGranted();
+			return granted ? ACCESS_GRANTED : ACCESS_DENIED;
+		}
 		// 2. 创建表达式上下文对象
 		EvaluationContext ctx = webExpressionConfigAttribute.postProcess(this.expressionHandler.createEvaluationContext(authentication, filterInvocation), filterInvocation);
 		// 3. 计算表达式,比较用户权限 和 受保护对象需要的权限
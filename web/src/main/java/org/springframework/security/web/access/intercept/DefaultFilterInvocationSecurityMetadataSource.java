@@ -16,9 +16,11 @@
 
 package org.springframework.security.web.access.intercept;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -31,6 +33,7 @@ import org.springframework.core.log.LogMessage;
 import org.springframework.security.access.ConfigAttribute;
 import org.springframework.security.web.FilterInvocation;
 import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcherIndex;
 
 /**
  * Default implementation of <tt>FilterInvocationDefinitionSource</tt>.
@@ -62,6 +65,12 @@ public class DefaultFilterInvocationSecurityMetadataSource implements FilterInvo
 	 */
 	private final Map<RequestMatcher, Collection<ConfigAttribute>> requestMap;
 
+	private final List<RequestMatcher> requestMatchers;
+
+	private final List<Collection<ConfigAttribute>> attributes;
+
+	private final RequestMatcherIndex requestMatcherIndex;
+
 	/**
 	 * Sets the internal request map from the supplied map. The key elements should be of
 	 * type {@link RequestMatcher}, which. The path stored in the key will depend on the
@@ -69,7 +78,11 @@ public class DefaultFilterInvocationSecurityMetadataSource implements FilterInvo
 	 * @param requestMap order-preserving map of request definitions to attribute lists
 	 */
 	public DefaultFilterInvocationSecurityMetadataSource(LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> requestMap) {
-		this.requestMap = requestMap;
+		// copied, so that getAllConfigAttributes() sees the same mappings as getAttributes()
+		this.requestMap = new LinkedHashMap<>(requestMap);
+		this.requestMatchers = new ArrayList<>(this.requestMap.keySet());
+		this.attributes = new ArrayList<>(this.requestMap.values());
+		this.requestMatcherIndex = new RequestMatcherIndex(this.requestMatchers);
 	}
 
 	@Override
@@ -82,19 +95,19 @@ public class DefaultFilterInvocationSecurityMetadataSource implements FilterInvo
 	@Override
 	public Collection<ConfigAttribute> getAttributes(Object object) {
 		final HttpServletRequest request = ((FilterInvocation) object).getRequest();
-		int count = 0;
-		for (Map.Entry<RequestMatcher, Collection<ConfigAttribute>> entry : this.requestMap.entrySet()) {
-			if (entry.getKey().matches(request)) {
-				return entry.getValue();
-			}
-			else {
-				if (this.logger.isTraceEnabled()) {
-					this.logger.trace(LogMessage.format("Did not match request to %s - %s (%d/%d)", entry.getKey(),
-							entry.getValue(), ++count, this.requestMap.size()));
-				}
+		int index = this.requestMatcherIndex.indexOfFirstMatch(request);
+		if (index == -1) {
+			if (this.logger.isTraceEnabled()) {
+				this.logger.trace(LogMessage.format("Did not match request to any of %d request matchers",
+						this.attributes.size()));
 			}
+			return null;
+		}
+		if (this.logger.isTraceEnabled()) {
+			this.logger.trace(LogMessage.format("Matched request to %s - %s (%d/%d)", this.requestMatchers.get(index),
+					this.attributes.get(index), index + 1, this.attributes.size()));
 		}
-		return null;
+		return this.attributes.get(index);
 	}
 
 	@Override
@@ -16,7 +16,9 @@
 
 package org.springframework.security.web.access.intercept;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -31,6 +33,7 @@ import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.security.web.util.matcher.RequestMatcher.MatchResult;
+import org.springframework.security.web.util.matcher.RequestMatcherIndex;
 import org.springframework.util.Assert;
 
 /**
@@ -44,12 +47,18 @@ public final class RequestMatcherDelegatingAuthorizationManager implements Autho
 
 	private final Log logger = LogFactory.getLog(getClass());
 
-	private final Map<RequestMatcher, AuthorizationManager<RequestAuthorizationContext>> mappings;
+	private final List<RequestMatcher> matchers;
+
+	private final List<AuthorizationManager<RequestAuthorizationContext>> managers;
+
+	private final RequestMatcherIndex index;
 
 	private RequestMatcherDelegatingAuthorizationManager(
 			Map<RequestMatcher, AuthorizationManager<RequestAuthorizationContext>> mappings) {
 		Assert.notEmpty(mappings, "mappings cannot be empty");
-		this.mappings = mappings;
+		this.matchers = new ArrayList<>(mappings.keySet());
+		this.managers = new ArrayList<>(mappings.values());
+		this.index = new RequestMatcherIndex(this.matchers);
 	}
 
 	/**
@@ -66,22 +75,17 @@ public final class RequestMatcherDelegatingAuthorizationManager implements Autho
 		if (this.logger.isTraceEnabled()) {
 			this.logger.trace(LogMessage.format("Authorizing %s", request));
 		}
-		for (Map.Entry<RequestMatcher, AuthorizationManager<RequestAuthorizationContext>> mapping : this.mappings
-				.entrySet()) {
-
-			RequestMatcher matcher = mapping.getKey();
-			MatchResult matchResult = matcher.matcher(request);
-			if (matchResult.isMatch()) {
-				AuthorizationManager<RequestAuthorizationContext> manager = mapping.getValue();
-				if (this.logger.isTraceEnabled()) {
-					this.logger.trace(LogMessage.format("Checking authorization on %s using %s", request, manager));
-				}
-				return manager.check(authentication,
-						new RequestAuthorizationContext(request, matchResult.getVariables()));
-			}
+		RequestMatcherIndex.Match match = this.index.firstMatch(request);
+		if (match == null) {
+			this.logger.trace("Abstaining since did not find matching RequestMatcher");
+			return null;
+		}
+		MatchResult matchResult = match.getMatchResult();
+		AuthorizationManager<RequestAuthorizationContext> manager = this.managers.get(match.getIndex());
+		if (this.logger.isTraceEnabled()) {
+			this.logger.trace(LogMessage.format("Checking authorization on %s using %s", request, manager));
 		}
-		this.logger.trace("Abstaining since did not find matching RequestMatcher");
-		return null;
+		return manager.check(authentication, new RequestAuthorizationContext(request, matchResult.getVariables()));
 	}
 
 	/**
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.web.codec;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.security.codec.CompactCodecModule;
+import org.springframework.security.codec.CompactInput;
+import org.springframework.security.codec.CompactOutput;
+import org.springframework.security.codec.CompactTypeCodec;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * The {@link CompactCodecModule} for spring-security-web, which writes
+ * {@link WebAuthenticationDetails} and {@link PreAuthenticatedAuthenticationToken}.
+ *
+ * @since 5.6
+ * @see org.springframework.security.codec.CompactSecuritySerializer#getModules(ClassLoader)
+ */
+public final class WebCompactCodecModule implements CompactCodecModule {
+
+	@Override
+	public List<CompactTypeCodec<?>> getCodecs() {
+		Constructor<WebAuthenticationDetails> detailsConstructor = getDetailsConstructor();
+		return Arrays.asList(CompactTypeCodec.of(32, WebAuthenticationDetails.class, (details, output) -> {
+			output.writeString(details.getRemoteAddress());
+			output.writeString(details.getSessionId());
+		}, (input) -> BeanUtils.instantiateClass(detailsConstructor, input.readString(), input.readString())),
+				CompactTypeCodec.of(33, PreAuthenticatedAuthenticationToken.class,
+						WebCompactCodecModule::writePreAuthenticatedAuthenticationToken,
+						WebCompactCodecModule::readPreAuthenticatedAuthenticationToken));
+	}
+
+	private static void writePreAuthenticatedAuthenticationToken(PreAuthenticatedAuthenticationToken token,
+			CompactOutput output) {
+		output.writeValue(token.getPrincipal());
+		output.writeValue(token.getCredentials());
+		output.writeAuthorities(token.getAuthorities());
+		output.writeValue(token.getDetails());
+		output.writeBoolean(token.isAuthenticated());
+	}
+
+	private static PreAuthenticatedAuthenticationToken readPreAuthenticatedAuthenticationToken(CompactInput input) {
+		Object principal = input.readValue();
+		Object credentials = input.readValue();
+		List<GrantedAuthority> authorities = input.readAuthorities();
+		Object details = input.readValue();
+		PreAuthenticatedAuthenticationToken token = new PreAuthenticatedAuthenticationToken(principal, credentials,
+				authorities);
+		token.setAuthenticated(input.readBoolean());
+		token.setDetails(details);
+		return token;
+	}
+
+	private static Constructor<WebAuthenticationDetails> getDetailsConstructor() {
+		try {
+			return ReflectionUtils.accessibleConstructor(WebAuthenticationDetails.class, String.class, String.class);
+		}
+		catch (NoSuchMethodException ex) {
+			throw new IllegalStateException("Cannot find the constructor of WebAuthenticationDetails", ex);
+		}
+	}
+
+}
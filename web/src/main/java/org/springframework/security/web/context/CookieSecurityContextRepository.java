@@ -0,0 +1,527 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.context;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.log.LogMessage;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.Transient;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.util.Assert;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * A {@link SecurityContextRepository} that stores the {@link Authentication} in an
+ * encrypted cookie instead of the {@code HttpSession}, so that the nodes serving an
+ * application need neither a session nor a shared session store.
+ * <p>
+ * Only the name and the authorities of the {@link Authentication} are stored, along with
+ * the time the cookie was issued. An authority whose
+ * {@link GrantedAuthority#getAuthority()} is {@code null} cannot be stored and is left
+ * out. The {@link SecurityContext} that is loaded from the
+ * cookie holds an authenticated {@link UsernamePasswordAuthenticationToken} whose
+ * principal is that name. The cookie is encrypted with a {@link BytesEncryptor} that
+ * must also authenticate the content, such as the one returned by
+ * {@link org.springframework.security.crypto.encrypt.Encryptors#stronger(CharSequence, CharSequence)},
+ * which uses AES in GCM mode. An encryptor that does not, such as AES in CBC mode, would
+ * let the cookie be modified without knowing the key, and is rejected by checking that it
+ * fails to decrypt a modified value.
+ * <p>
+ * Each cookie is tagged with the id of the key it was encrypted with, which is also part
+ * of the encrypted content so that it cannot be exchanged. To rotate keys,
+ * create the repository with the new key and pass the previous keys to
+ * {@link #setDecryptionKeys(Map)}. Cookies that were encrypted with a previous key are
+ * still accepted and are issued again with the new key.
+ * <p>
+ * A cookie is only accepted for its {@link #setMaxAge(Duration) maximum age}, and is
+ * issued again once it is older than half of it. A cookie that would be larger than
+ * the {@link #setMaxCookieSize(int) size budget} is not issued, and a cookie that was
+ * sent with the request is then removed.
+ *
+ * @since 5.6
+ * @see HttpSessionSecurityContextRepository
+ */
+public final class CookieSecurityContextRepository implements SecurityContextRepository {
+
+	/**
+	 * The default name of the cookie that holds the security context.
+	 */
+	public static final String DEFAULT_COOKIE_NAME = "SPRING_SECURITY_CONTEXT";
+
+	private static final byte FORMAT_VERSION = 1;
+
+	private static final String KEY_ID_SEPARATOR = ".";
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final String keyId;
+
+	private final BytesEncryptor encryptor;
+
+	private Map<String, BytesEncryptor> decryptionKeys = new HashMap<>();
+
+	private String cookieName = DEFAULT_COOKIE_NAME;
+
+	private String cookieDomain;
+
+	private Boolean useSecureCookie;
+
+	private Duration maxAge = Duration.ofMinutes(30);
+
+	private int maxCookieSize = 4096;
+
+	private Clock clock = Clock.systemUTC();
+
+	private AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+	/**
+	 * Creates a new instance
+	 * @param keyId the id of the key, which is stored in the cookie and may only contain
+	 * letters, digits, {@code '-'} and {@code '_'}
+	 * @param encryptor the {@link BytesEncryptor} used to encrypt and decrypt the cookie,
+	 * which must authenticate the content
+	 */
+	public CookieSecurityContextRepository(String keyId, BytesEncryptor encryptor) {
+		Assert.isTrue(isValidKeyId(keyId), "keyId must only contain letters, digits, '-' and '_'");
+		Assert.notNull(encryptor, "encryptor cannot be null");
+		Assert.isTrue(isAuthenticating(encryptor), "encryptor must authenticate the content, such as AES in GCM mode");
+		this.keyId = keyId;
+		this.encryptor = encryptor;
+	}
+
+	@Override
+	public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+		HttpServletRequest request = requestResponseHolder.getRequest();
+		HttpServletResponse response = requestResponseHolder.getResponse();
+		Cookie cookie = WebUtils.getCookie(request, this.cookieName);
+		DecodedCookie decoded = (cookie != null) ? decode(cookie.getValue()) : null;
+		SecurityContext context = SecurityContextHolder.createEmptyContext();
+		if (decoded != null) {
+			context.setAuthentication(decoded.authentication);
+			if (this.logger.isDebugEnabled()) {
+				this.logger.debug(LogMessage.format("Retrieved %s from cookie", context));
+			}
+		}
+		SaveToCookieResponseWrapper wrappedResponse = new SaveToCookieResponseWrapper(response, request,
+				cookie != null, decoded, context);
+		requestResponseHolder.setResponse(wrappedResponse);
+		requestResponseHolder.setRequest(new SaveToCookieRequestWrapper(request, wrappedResponse));
+		return context;
+	}
+
+	@Override
+	public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+		SaveToCookieResponseWrapper responseWrapper = WebUtils.getNativeResponse(response,
+				SaveToCookieResponseWrapper.class);
+		Assert.state(responseWrapper != null, () -> "Cannot invoke saveContext on response " + response
+				+ ". You must use the HttpRequestResponseHolder.response after invoking loadContext");
+		responseWrapper.saveContext(context);
+	}
+
+	@Override
+	public boolean containsContext(HttpServletRequest request) {
+		Cookie cookie = WebUtils.getCookie(request, this.cookieName);
+		return cookie != null && decode(cookie.getValue()) != null;
+	}
+
+	private DecodedCookie decode(String value) {
+		int separator = (value != null) ? value.indexOf(KEY_ID_SEPARATOR) : -1;
+		if (separator < 0) {
+			this.logger.debug("Ignored security context cookie without key id");
+			return null;
+		}
+		String keyId = value.substring(0, separator);
+		boolean currentKey = this.keyId.equals(keyId);
+		BytesEncryptor encryptor = currentKey ? this.encryptor : this.decryptionKeys.get(keyId);
+		if (encryptor == null) {
+			this.logger.debug(LogMessage.format("Ignored security context cookie encrypted with unknown key %s",
+					keyId));
+			return null;
+		}
+		try {
+			byte[] bytes = encryptor.decrypt(Base64.getUrlDecoder().decode(value.substring(separator + 1)));
+			DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+			if (input.readByte() != FORMAT_VERSION) {
+				this.logger.debug("Ignored security context cookie with unsupported format");
+				return null;
+			}
+			if (!keyId.equals(input.readUTF())) {
+				this.logger.debug("Ignored security context cookie whose key id was changed");
+				return null;
+			}
+			long issuedAt = input.readLong();
+			if (issuedAt + this.maxAge.toMillis() < this.clock.millis()) {
+				this.logger.debug("Ignored expired security context cookie");
+				return null;
+			}
+			String name = input.readUTF();
+			int size = input.readUnsignedShort();
+			List<GrantedAuthority> authorities = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				authorities.add(new SimpleGrantedAuthority(input.readUTF()));
+			}
+			if (input.available() > 0) {
+				this.logger.debug("Ignored security context cookie with unsupported format");
+				return null;
+			}
+			Authentication authentication = new UsernamePasswordAuthenticationToken(name, null, authorities);
+			return new DecodedCookie(authentication, issuedAt, currentKey);
+		}
+		catch (IOException | IllegalArgumentException | IllegalStateException ex) {
+			this.logger.debug("Ignored security context cookie that could not be decrypted", ex);
+			return null;
+		}
+	}
+
+	private String encode(Authentication authentication, long issuedAt) {
+		List<String> authorities = getStoredAuthorities(authentication);
+		int skipped = authentication.getAuthorities().size() - authorities.size();
+		if (skipped > 0) {
+			this.logger.debug(LogMessage.format("Not storing %d authorities without a String representation", skipped));
+		}
+		Assert.isTrue(authorities.size() <= 0xFFFF, "Cannot store more than 65535 authorities");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try (DataOutputStream output = new DataOutputStream(bytes)) {
+			output.writeByte(FORMAT_VERSION);
+			output.writeUTF(this.keyId);
+			output.writeLong(issuedAt);
+			output.writeUTF(authentication.getName());
+			output.writeShort(authorities.size());
+			for (String authority : authorities) {
+				output.writeUTF(authority);
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+		return this.keyId + KEY_ID_SEPARATOR
+				+ Base64.getUrlEncoder().withoutPadding().encodeToString(this.encryptor.encrypt(bytes.toByteArray()));
+	}
+
+	private List<String> getStoredAuthorities(Authentication authentication) {
+		List<String> authorities = new ArrayList<>(authentication.getAuthorities().size());
+		for (GrantedAuthority authority : authentication.getAuthorities()) {
+			// a complex authority cannot be represented as a String
+			if (authority.getAuthority() != null) {
+				authorities.add(authority.getAuthority());
+			}
+		}
+		return authorities;
+	}
+
+	private void setCookie(String value, int maxAge, HttpServletRequest request, HttpServletResponse response) {
+		Cookie cookie = new Cookie(this.cookieName, value);
+		cookie.setMaxAge(maxAge);
+		cookie.setPath(getCookiePath(request));
+		if (this.cookieDomain != null) {
+			cookie.setDomain(this.cookieDomain);
+		}
+		cookie.setSecure((this.useSecureCookie != null) ? this.useSecureCookie : request.isSecure());
+		cookie.setHttpOnly(true);
+		response.addCookie(cookie);
+	}
+
+	private String getCookiePath(HttpServletRequest request) {
+		String contextPath = request.getContextPath();
+		return (contextPath.length() > 0) ? contextPath : "/";
+	}
+
+	private boolean isTransientAuthentication(Authentication authentication) {
+		return AnnotationUtils.getAnnotation(authentication.getClass(), Transient.class) != null;
+	}
+
+	private static boolean isValidKeyId(String keyId) {
+		if (keyId == null || keyId.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < keyId.length(); i++) {
+			char c = keyId.charAt(i);
+			if (!(Character.isLetterOrDigit(c) && c < 128) && c != '-' && c != '_') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// an encryptor that authenticates the content fails to decrypt a modified value,
+	// while one that does not, such as AES in CBC mode, returns a modified plaintext
+	private static boolean isAuthenticating(BytesEncryptor encryptor) {
+		byte[] encrypted = encryptor.encrypt(new byte[32]);
+		if (encrypted == null || encrypted.length == 0) {
+			return false;
+		}
+		encrypted[0] ^= 1;
+		try {
+			encryptor.decrypt(encrypted);
+			return false;
+		}
+		catch (RuntimeException ex) {
+			return true;
+		}
+	}
+
+	/**
+	 * Sets the keys that cookies may have been encrypted with before the key this
+	 * repository was created with, which are only used to decrypt cookies.
+	 * @param decryptionKeys the {@link BytesEncryptor}s by key id, which must authenticate
+	 * the content
+	 */
+	public void setDecryptionKeys(Map<String, BytesEncryptor> decryptionKeys) {
+		Assert.notNull(decryptionKeys, "decryptionKeys cannot be null");
+		decryptionKeys.forEach((keyId, encryptor) -> Assert.isTrue(encryptor != null && isAuthenticating(encryptor),
+				() -> "encryptor for key " + keyId + " must authenticate the content, such as AES in GCM mode"));
+		this.decryptionKeys = new HashMap<>(decryptionKeys);
+	}
+
+	/**
+	 * Sets the name of the cookie. The default is {@link #DEFAULT_COOKIE_NAME}.
+	 * @param cookieName the name of the cookie
+	 */
+	public void setCookieName(String cookieName) {
+		Assert.hasLength(cookieName, "cookieName cannot be empty");
+		this.cookieName = cookieName;
+	}
+
+	/**
+	 * Sets the domain of the cookie. By default, no domain is set.
+	 * @param cookieDomain the domain of the cookie
+	 */
+	public void setCookieDomain(String cookieDomain) {
+		Assert.hasLength(cookieDomain, "cookieDomain cannot be empty");
+		this.cookieDomain = cookieDomain;
+	}
+
+	/**
+	 * Sets whether the cookie is flagged as secure. By default, it is flagged as secure
+	 * when the request is secure.
+	 * @param useSecureCookie whether the cookie is flagged as secure
+	 */
+	public void setUseSecureCookie(boolean useSecureCookie) {
+		this.useSecureCookie = useSecureCookie;
+	}
+
+	/**
+	 * Sets how long a cookie is accepted after it was issued. The default is 30 minutes.
+	 * @param maxAge the maximum age of the cookie
+	 */
+	public void setMaxAge(Duration maxAge) {
+		Assert.notNull(maxAge, "maxAge cannot be null");
+		Assert.isTrue(!maxAge.isNegative() && !maxAge.isZero(), "maxAge must be positive");
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * Sets the maximum size of the cookie, counting its name and its value. The default
+	 * is 4096, which browsers are required to support.
+	 * @param maxCookieSize the maximum size of the cookie
+	 */
+	public void setMaxCookieSize(int maxCookieSize) {
+		Assert.isTrue(maxCookieSize > 0, "maxCookieSize must be greater than 0");
+		this.maxCookieSize = maxCookieSize;
+	}
+
+	/**
+	 * Sets the {@link Clock} used to determine the age of the cookie
+	 * @param clock the {@link Clock} to use
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	/**
+	 * Sets the {@link AuthenticationTrustResolver} to be used. The default is
+	 * {@link AuthenticationTrustResolverImpl}.
+	 * @param trustResolver the {@link AuthenticationTrustResolver} to use
+	 */
+	public void setTrustResolver(AuthenticationTrustResolver trustResolver) {
+		Assert.notNull(trustResolver, "trustResolver cannot be null");
+		this.trustResolver = trustResolver;
+	}
+
+	private static final class DecodedCookie {
+
+		private final Authentication authentication;
+
+		private final long issuedAt;
+
+		private final boolean currentKey;
+
+		private DecodedCookie(Authentication authentication, long issuedAt, boolean currentKey) {
+			this.authentication = authentication;
+			this.issuedAt = issuedAt;
+			this.currentKey = currentKey;
+		}
+
+	}
+
+	private static final class SaveToCookieRequestWrapper extends HttpServletRequestWrapper {
+
+		private final SaveContextOnUpdateOrErrorResponseWrapper response;
+
+		SaveToCookieRequestWrapper(HttpServletRequest request, SaveContextOnUpdateOrErrorResponseWrapper response) {
+			super(request);
+			this.response = response;
+		}
+
+		@Override
+		public AsyncContext startAsync() {
+			this.response.disableSaveOnResponseCommitted();
+			return super.startAsync();
+		}
+
+		@Override
+		public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+			this.response.disableSaveOnResponseCommitted();
+			return super.startAsync(servletRequest, servletResponse);
+		}
+
+	}
+
+	/**
+	 * Adds the cookie to the response once the context is saved, or once the response
+	 * is about to be committed since cookies cannot be added afterwards.
+	 */
+	final class SaveToCookieResponseWrapper extends SaveContextOnUpdateOrErrorResponseWrapper {
+
+		private final HttpServletRequest request;
+
+		private boolean cookiePresent;
+
+		private SecurityContext savedContext;
+
+		private Authentication savedAuthentication;
+
+		private boolean refresh;
+
+		SaveToCookieResponseWrapper(HttpServletResponse response, HttpServletRequest request, boolean cookiePresent,
+				DecodedCookie decoded, SecurityContext context) {
+			super(response, false);
+			this.request = request;
+			this.cookiePresent = cookiePresent;
+			this.savedContext = context;
+			this.savedAuthentication = context.getAuthentication();
+			this.refresh = decoded != null && (!decoded.currentKey || isHalfExpired(decoded.issuedAt));
+		}
+
+		@Override
+		protected void saveContext(SecurityContext context) {
+			Authentication authentication = context.getAuthentication();
+			AuthenticationTrustResolver trustResolver = CookieSecurityContextRepository.this.trustResolver;
+			if (authentication == null || trustResolver.isAnonymous(authentication)) {
+				if (this.cookiePresent && isWritable()) {
+					setCookie(null, 0, this.request, this);
+					saved(context, false);
+				}
+				return;
+			}
+			if (isTransientAuthentication(authentication) || (!this.refresh && !contextChanged(context))
+					|| !isWritable()) {
+				return;
+			}
+			long now = CookieSecurityContextRepository.this.clock.millis();
+			String value = encode(authentication, now);
+			if (CookieSecurityContextRepository.this.cookieName.length() + value.length() + 1
+					> CookieSecurityContextRepository.this.maxCookieSize) {
+				CookieSecurityContextRepository.this.logger.warn(LogMessage.format(
+						"Did not store SecurityContext since the cookie would be %s characters long, more than %s",
+						CookieSecurityContextRepository.this.cookieName.length() + value.length() + 1,
+						CookieSecurityContextRepository.this.maxCookieSize));
+				if (this.cookiePresent) {
+					setCookie(null, 0, this.request, this);
+				}
+				saved(context, false);
+				return;
+			}
+			setCookie(value, (int) CookieSecurityContextRepository.this.maxAge.getSeconds(), this.request, this);
+			saved(context, true);
+			if (CookieSecurityContextRepository.this.logger.isDebugEnabled()) {
+				CookieSecurityContextRepository.this.logger.debug(LogMessage.format("Stored %s to cookie", context));
+			}
+		}
+
+		private void saved(SecurityContext context, boolean cookiePresent) {
+			this.cookiePresent = cookiePresent;
+			this.savedContext = context;
+			this.savedAuthentication = context.getAuthentication();
+			this.refresh = false;
+		}
+
+		private boolean isWritable() {
+			if (isCommitted()) {
+				CookieSecurityContextRepository.this.logger
+						.debug("Did not store SecurityContext since the response is already committed");
+				return false;
+			}
+			return true;
+		}
+
+		private boolean isHalfExpired(long issuedAt) {
+			long halfMaxAge = CookieSecurityContextRepository.this.maxAge.toMillis() / 2;
+			return issuedAt + halfMaxAge < CookieSecurityContextRepository.this.clock.millis();
+		}
+
+		// only the name and the authorities are stored, so other changes need no new cookie
+		private boolean contextChanged(SecurityContext context) {
+			Authentication authentication = context.getAuthentication();
+			if (context == this.savedContext && authentication == this.savedAuthentication) {
+				return false;
+			}
+			if (this.savedAuthentication == null) {
+				return true;
+			}
+			if (!authentication.getName().equals(this.savedAuthentication.getName())) {
+				return true;
+			}
+			List<String> authorities = getStoredAuthorities(authentication);
+			return !authorities.equals(getStoredAuthorities(this.savedAuthentication));
+		}
+
+	}
+
+}
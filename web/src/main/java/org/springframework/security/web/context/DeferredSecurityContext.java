@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.context;
+
+import java.util.function.Supplier;
+
+import org.springframework.security.core.context.SecurityContext;
+
+/**
+ * A {@link Supplier} of the {@link SecurityContext} of a request that only loads it once
+ * it is first requested, and then returns the same instance.
+ *
+ * @since 5.6
+ * @see SecurityContextRepository#loadDeferredContext(HttpRequestResponseHolder)
+ */
+public interface DeferredSecurityContext extends Supplier<SecurityContext> {
+
+	/**
+	 * Indicates whether the {@link SecurityContext} has been loaded, which is the case
+	 * once {@link #get()} has been invoked.
+	 * @return true if the {@link SecurityContext} has been loaded
+	 */
+	boolean isLoaded();
+
+}
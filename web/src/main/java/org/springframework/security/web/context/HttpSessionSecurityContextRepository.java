@@ -16,6 +16,9 @@
 
 package org.springframework.security.web.context;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
 import javax.servlet.AsyncContext;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
@@ -31,6 +34,7 @@ import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.log.LogMessage;
 import org.springframework.security.authentication.AuthenticationTrustResolver;
 import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.codec.CompactSecuritySerializer;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.Transient;
 import org.springframework.security.core.context.SecurityContext;
@@ -77,6 +81,13 @@ import org.springframework.web.util.WebUtils;
  * need to conserve server memory and ensure all classes using the
  * {@code SecurityContextHolder} are designed to have no persistence of the
  * {@code SecurityContext} between web requests.
+ * <p>
+ * A {@code SecurityContext} that is not the instance which was loaded, but is
+ * {@link Object#equals(Object) equal} to it and holds an equal {@code Authentication},
+ * is considered unchanged, so that re-authenticating on each request with the same
+ * credentials does not write to a session that may be kept in a remote store. The number
+ * of writes that were performed and skipped is available from {@link #getSaveCount()}
+ * and {@link #getSkippedSaveCount()}.
  *
  * @author Luke Taylor
  * @since 3.0
@@ -104,6 +115,12 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
 
     private AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
 
+    private CompactSecuritySerializer securityContextSerializer;
+
+    private final LongAdder saveCount = new LongAdder();
+
+    private final LongAdder skippedSaveCount = new LongAdder();
+
     /**
      * Gets the security context for the current request (if available) and returns it.
      * <p>
@@ -131,6 +148,25 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
         return context;
     }
 
+    /**
+     * Returns a {@link DeferredSecurityContext} that only reads the {@code HttpSession}
+     * once the {@code SecurityContext} is first requested. Whether a session existed at
+     * the start of the request is determined at that point. If the
+     * {@code SecurityContext} is never loaded and is still the one held by the
+     * {@link SecurityContextHolder} when the response is committed, it is not saved.
+     * @since 5.6
+     */
+    @Override
+    public DeferredSecurityContext loadDeferredContext(HttpRequestResponseHolder requestResponseHolder) {
+        HttpServletRequest request = requestResponseHolder.getRequest();
+        HttpServletResponse response = requestResponseHolder.getResponse();
+        DeferredSessionSecurityContext context = new DeferredSessionSecurityContext(request);
+        SaveToSessionResponseWrapper wrappedResponse = new SaveToSessionResponseWrapper(response, request, context);
+        requestResponseHolder.setResponse(wrappedResponse);
+        requestResponseHolder.setRequest(new SaveToSessionRequestWrapper(request, wrappedResponse));
+        return context;
+    }
+
     @Override
     public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
         // 1. 将 response 封装成 SaveContextOnUpdateOrErrorResponseWrapper
@@ -159,6 +195,16 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
         }
         // Session exists, so try to obtain a context from it.
         Object contextFromSession = httpSession.getAttribute(this.springSecurityContextKey);
+        if (contextFromSession instanceof byte[] && this.securityContextSerializer != null) {
+            try {
+                contextFromSession = this.securityContextSerializer
+                        .deserializeFromByteArray((byte[]) contextFromSession);
+            } catch (IOException ex) {
+                this.logger.warn(LogMessage.format("Failed to deserialize SecurityContext from HttpSession %s",
+                        httpSession.getId()), ex);
+                return null;
+            }
+        }
         if (contextFromSession == null) {
             if (this.logger.isTraceEnabled()) {
                 this.logger.trace(LogMessage.format("Did not find SecurityContext in HttpSession %s "
@@ -236,6 +282,43 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
         this.springSecurityContextKey = springSecurityContextKey;
     }
 
+    /**
+     * Returns the number of times the {@code SecurityContext} was stored in, or removed
+     * from, the {@code HttpSession}.
+     *
+     * @return the number of writes to the {@code HttpSession}
+     * @since 5.6
+     */
+    public long getSaveCount() {
+        return this.saveCount.sum();
+    }
+
+    /**
+     * Returns the number of times the {@code SecurityContext} was not stored in an
+     * existing {@code HttpSession}, because it had not changed or was never loaded.
+     *
+     * @return the number of skipped writes to the {@code HttpSession}
+     * @since 5.6
+     */
+    public long getSkippedSaveCount() {
+        return this.skippedSaveCount.sum();
+    }
+
+    /**
+     * Sets the {@link CompactSecuritySerializer} used to store the security context in
+     * the {@code HttpSession} as a byte array, which is smaller and faster to replicate
+     * than the serialized {@code SecurityContext}. By default, the
+     * {@code SecurityContext} itself is stored. Code that reads the session attribute
+     * directly will find the byte array instead.
+     *
+     * @param securityContextSerializer the {@link CompactSecuritySerializer} to use, or
+     *                                  {@code null} to store the {@code SecurityContext}
+     * @since 5.6
+     */
+    public void setSecurityContextSerializer(CompactSecuritySerializer securityContextSerializer) {
+        this.securityContextSerializer = securityContextSerializer;
+    }
+
     private boolean isTransientAuthentication(Authentication authentication) {
         return AnnotationUtils.getAnnotation(authentication.getClass(), Transient.class) != null;
     }
@@ -252,6 +335,59 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
         this.trustResolver = trustResolver;
     }
 
+    /**
+     * The {@code SecurityContext} at the start of the request, along with whether an
+     * {@code HttpSession} existed at that point, which may be loaded lazily.
+     */
+    private final class DeferredSessionSecurityContext implements DeferredSecurityContext {
+
+        private final HttpServletRequest request;
+
+        private SecurityContext context;
+
+        private Authentication authentication;
+
+        private boolean httpSessionExisted;
+
+        DeferredSessionSecurityContext(HttpServletRequest request) {
+            this.request = request;
+        }
+
+        DeferredSessionSecurityContext(HttpServletRequest request, boolean httpSessionExisted,
+                                       SecurityContext context) {
+            this.request = request;
+            loaded(httpSessionExisted, context);
+        }
+
+        @Override
+        public SecurityContext get() {
+            if (this.context == null) {
+                HttpSession httpSession = this.request.getSession(false);
+                SecurityContext context = readSecurityContextFromSession(httpSession);
+                if (context == null) {
+                    context = generateNewContext();
+                    if (HttpSessionSecurityContextRepository.this.logger.isTraceEnabled()) {
+                        HttpSessionSecurityContextRepository.this.logger.trace(LogMessage.format("Created %s", context));
+                    }
+                }
+                loaded(httpSession != null, context);
+            }
+            return this.context;
+        }
+
+        @Override
+        public boolean isLoaded() {
+            return this.context != null;
+        }
+
+        private void loaded(boolean httpSessionExisted, SecurityContext context) {
+            this.httpSessionExisted = httpSessionExisted;
+            this.authentication = context.getAuthentication();
+            this.context = context;
+        }
+
+    }
+
     private static class SaveToSessionRequestWrapper extends HttpServletRequestWrapper {
 
         private final SaveContextOnUpdateOrErrorResponseWrapper response;
@@ -290,13 +426,13 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
 
         private final HttpServletRequest request;
 
-        private final boolean httpSessionExistedAtStartOfRequest;
+        private final DeferredSessionSecurityContext contextBeforeExecution;
 
-        private final SecurityContext contextBeforeExecution;
+        private boolean isSaveContextInvoked;
 
-        private final Authentication authBeforeExecution;
+        private SecurityContext savedContext;
 
-        private boolean isSaveContextInvoked;
+        private Authentication savedAuthentication;
 
         /**
          * Takes the parameters required to call <code>saveContext()</code> successfully
@@ -312,11 +448,34 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
          */
         SaveToSessionResponseWrapper(HttpServletResponse response, HttpServletRequest request,
                                      boolean httpSessionExistedAtStartOfRequest, SecurityContext context) {
+            this(response, request, new DeferredSessionSecurityContext(request, httpSessionExistedAtStartOfRequest,
+                    context));
+        }
+
+        /**
+         * @param context the context before the filter chain executed, which is loaded
+         *                when it is first needed to decide whether to store a context.
+         */
+        private SaveToSessionResponseWrapper(HttpServletResponse response, HttpServletRequest request,
+                                             DeferredSessionSecurityContext context) {
             super(response, HttpSessionSecurityContextRepository.this.disableUrlRewriting);
             this.request = request;
-            this.httpSessionExistedAtStartOfRequest = httpSessionExistedAtStartOfRequest;
             this.contextBeforeExecution = context;
-            this.authBeforeExecution = context.getAuthentication();
+        }
+
+        /**
+         * Does not save the context if it was never loaded and is still the one held by
+         * the {@link SecurityContextHolder}, since it cannot have changed.
+         */
+        @Override
+        protected void onResponseCommitted() {
+            if (!this.contextBeforeExecution.isLoaded()
+                    && SecurityContextHolder.getDeferredContext() == this.contextBeforeExecution) {
+                this.logger.trace("Did not store SecurityContext since it was not loaded");
+                HttpSessionSecurityContextRepository.this.skippedSaveCount.increment();
+                return;
+            }
+            super.onResponseCommitted();
         }
 
         /**
@@ -335,15 +494,17 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
             final Authentication authentication = context.getAuthentication();
             HttpSession httpSession = this.request.getSession(false);
             String springSecurityContextKey = HttpSessionSecurityContextRepository.this.springSecurityContextKey;
+            // loads the context from before the request, if it was deferred and not loaded yet
+            this.contextBeforeExecution.get();
             // See SEC-776
             // 1. 如果 authentication 对象为 null 或它是一个匿名对象，则不需要保存
             if (authentication == null
                     || HttpSessionSecurityContextRepository.this.trustResolver.isAnonymous(authentication)) {
-                if (httpSession != null && this.authBeforeExecution != null) {
+                if (httpSession != null && this.contextBeforeExecution.authentication != null) {
                     // SEC-1587 A non-anonymous context may still be in the session
                     // SEC-1735 remove if the contextBeforeExecution was not anonymous
                     httpSession.removeAttribute(springSecurityContextKey);
-                    this.isSaveContextInvoked = true;
+                    saved(null);
                 }
                 if (this.logger.isDebugEnabled()) {
                     if (authentication == null) {
@@ -361,19 +522,45 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
                 // We may have a new session, so check also whether the context attribute
                 // is set SEC-1561
                 if (contextChanged(context) || httpSession.getAttribute(springSecurityContextKey) == null) {
-                    httpSession.setAttribute(springSecurityContextKey, context);
-                    this.isSaveContextInvoked = true;
+                    httpSession.setAttribute(springSecurityContextKey, toSessionAttribute(context));
+                    saved(context);
                     if (this.logger.isDebugEnabled()) {
                         this.logger.debug(LogMessage.format("Stored %s to HttpSession [%s]", context, httpSession));
                     }
                 }
+                else {
+                    HttpSessionSecurityContextRepository.this.skippedSaveCount.increment();
+                    if (this.logger.isTraceEnabled()) {
+                        this.logger.trace(LogMessage.format("Did not store unchanged %s", context));
+                    }
+                }
             }
         }
 
+        private Object toSessionAttribute(SecurityContext context) {
+            CompactSecuritySerializer serializer = HttpSessionSecurityContextRepository.this.securityContextSerializer;
+            return (serializer != null) ? serializer.serializeToByteArray(context) : context;
+        }
+
+        private void saved(SecurityContext context) {
+            this.isSaveContextInvoked = true;
+            this.savedContext = context;
+            this.savedAuthentication = (context != null) ? context.getAuthentication() : null;
+            HttpSessionSecurityContextRepository.this.saveCount.increment();
+        }
+
         // 判断 SecurityContext 是否发生变化，程序运行过程中，可能修改 SecurityContext 的 Authentication 对象
         private boolean contextChanged(SecurityContext context) {
-            return this.isSaveContextInvoked || context != this.contextBeforeExecution
-                    || context.getAuthentication() != this.authBeforeExecution;
+            SecurityContext previousContext = this.isSaveContextInvoked ? this.savedContext
+                    : this.contextBeforeExecution.context;
+            Authentication previousAuthentication = this.isSaveContextInvoked ? this.savedAuthentication
+                    : this.contextBeforeExecution.authentication;
+            Authentication authentication = context.getAuthentication();
+            if (context == previousContext && authentication == previousAuthentication) {
+                return false;
+            }
+            // a different but equal instance, such as one that was re-authenticated
+            return !context.equals(previousContext) || !authentication.equals(previousAuthentication);
         }
 
         // 创建一个 HttpSession 对象
@@ -381,7 +568,7 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
             if (isTransientAuthentication(authentication)) {
                 return null;
             }
-            if (this.httpSessionExistedAtStartOfRequest) {
+            if (this.contextBeforeExecution.httpSessionExisted) {
                 this.logger.debug("HttpSession is now null, but was not null at start of request; "
                         + "session was invalidated, so do not create a new session");
                 return null;
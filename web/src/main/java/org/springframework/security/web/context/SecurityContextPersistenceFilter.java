@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.security.web.context;
 
 import java.io.IOException;
+import java.util.function.Supplier;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -54,6 +55,10 @@ import org.springframework.web.filter.GenericFilterBean;
  * The <tt>forceEagerSessionCreation</tt> property can be used to ensure that a session is
  * always available before the filter chain executes (the default is <code>false</code>,
  * as this is resource intensive and not recommended).
+ * <p>
+ * The <tt>deferContextLoading</tt> property can be used to only load the
+ * <code>SecurityContext</code> from the repository once it is first requested from the
+ * <code>SecurityContextHolder</code>, and to skip saving it when it was never loaded.
  *
  * 该过滤器存储 SecurityContext
  * SecurityContextPersistenceFilter 是第二道防线，位于 WebAsyncManagerIntegrationFilter 之后
@@ -70,6 +75,8 @@ public class SecurityContextPersistenceFilter extends GenericFilterBean {
 	// 表示是否要在过滤器链执行之前确保会话有效（比较耗费资源的操作，默认为 false）
 	private boolean forceEagerSessionCreation = false;
 
+	private boolean deferContextLoading = false;
+
 	public SecurityContextPersistenceFilter() {
 		this(new HttpSessionSecurityContextRepository());
 	}
@@ -99,6 +106,10 @@ public class SecurityContextPersistenceFilter extends GenericFilterBean {
 			}
 		}
 		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		if (this.deferContextLoading) {
+			doFilterDeferred(holder, chain);
+			return;
+		}
 		// 1. 从 HttpSession 中获取 SecurityContext
 		SecurityContext contextBeforeChainExecution = this.repo.loadContext(holder);
 		try {
@@ -125,8 +136,49 @@ public class SecurityContextPersistenceFilter extends GenericFilterBean {
 		}
 	}
 
+	private void doFilterDeferred(HttpRequestResponseHolder holder, FilterChain chain)
+			throws IOException, ServletException {
+		DeferredSecurityContext contextBeforeChainExecution = this.repo.loadDeferredContext(holder);
+		try {
+			SecurityContextHolder.setDeferredContext(contextBeforeChainExecution);
+			this.logger.debug("Set SecurityContextHolder to deferred SecurityContext");
+			chain.doFilter(holder.getRequest(), holder.getResponse());
+		}
+		finally {
+			Supplier<SecurityContext> contextAfterChainExecution = SecurityContextHolder.getDeferredContext();
+			SecurityContextHolder.clearContext();
+			// a context that was never loaded nor replaced cannot have changed
+			if (contextAfterChainExecution != contextBeforeChainExecution
+					|| contextBeforeChainExecution.isLoaded()) {
+				this.repo.saveContext(contextAfterChainExecution.get(), holder.getRequest(), holder.getResponse());
+			}
+			else {
+				this.logger.debug("Did not save SecurityContext since it was not loaded");
+			}
+			holder.getRequest().removeAttribute(FILTER_APPLIED);
+			this.logger.debug("Cleared SecurityContextHolder to complete request");
+		}
+	}
+
 	public void setForceEagerSessionCreation(boolean forceEagerSessionCreation) {
 		this.forceEagerSessionCreation = forceEagerSessionCreation;
 	}
 
+	/**
+	 * Sets whether the <code>SecurityContext</code> is only loaded from the
+	 * {@link SecurityContextRepository} once it is first requested from the
+	 * {@link SecurityContextHolder}. This avoids reading the session, or any other
+	 * storage, for requests that do not need the <code>SecurityContext</code>, such as
+	 * requests for static resources. The default is <code>false</code>.
+	 * <p>
+	 * Only a {@link org.springframework.security.core.context.SecurityContextHolderStrategy}
+	 * that supports deferred contexts, such as the default thread local strategy, defers
+	 * loading. Others load the context right away.
+	 * @param deferContextLoading whether to defer loading the <code>SecurityContext</code>
+	 * @since 5.6
+	 */
+	public void setDeferContextLoading(boolean deferContextLoading) {
+		this.deferContextLoading = deferContextLoading;
+	}
+
 }
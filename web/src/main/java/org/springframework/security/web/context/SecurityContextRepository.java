@@ -58,6 +58,34 @@ public interface SecurityContextRepository {
 	 */
 	SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder);
 
+	/**
+	 * Obtains the security context for the supplied request like
+	 * {@link #loadContext(HttpRequestResponseHolder)}, but defers loading it until the
+	 * returned {@link DeferredSecurityContext} is first invoked. The default
+	 * implementation loads the context immediately.
+	 * @param requestResponseHolder holder for the current request and response for which
+	 * the context should be loaded.
+	 * @return a {@link DeferredSecurityContext} that returns the security context which
+	 * should be used for the current request, never null.
+	 * @since 5.6
+	 */
+	default DeferredSecurityContext loadDeferredContext(HttpRequestResponseHolder requestResponseHolder) {
+		SecurityContext context = loadContext(requestResponseHolder);
+		return new DeferredSecurityContext() {
+
+			@Override
+			public SecurityContext get() {
+				return context;
+			}
+
+			@Override
+			public boolean isLoaded() {
+				return true;
+			}
+
+		};
+	}
+
 	/**
 	 * 请求完成时存储 SecurityContext 到 HttpSession
 	 *
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.firewall;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds any of a set of blocklisted strings within a value in a single pass and without
+ * allocating, using an Aho-Corasick automaton. Transitions for ASCII characters are
+ * precomputed, other characters are looked up in a sorted table per state and follow the
+ * failure links.
+ *
+ * @since 5.6
+ */
+final class BlocklistMatcher {
+
+	private static final int ASCII = 128;
+
+	private static final char[] NO_CHARS = {};
+
+	private static final int[] NO_STATES = {};
+
+	private final int[][] asciiTransitions;
+
+	private final char[][] nonAsciiChars;
+
+	private final int[][] nonAsciiTransitions;
+
+	private final int[] failures;
+
+	private final String[] outputs;
+
+	BlocklistMatcher(Collection<String> blocklist) {
+		// the trie is only boxed while the automaton is built
+		List<Map<Character, Integer>> trie = new ArrayList<>();
+		List<String> outputs = new ArrayList<>();
+		newState(trie, outputs);
+		for (String value : blocklist) {
+			int state = 0;
+			for (int i = 0; i < value.length(); i++) {
+				Integer next = trie.get(state).get(value.charAt(i));
+				if (next == null) {
+					next = newState(trie, outputs);
+					trie.get(state).put(value.charAt(i), next);
+				}
+				state = next;
+			}
+			outputs.set(state, value);
+		}
+		int states = trie.size();
+		this.failures = new int[states];
+		this.asciiTransitions = new int[states][ASCII];
+		this.nonAsciiChars = new char[states][];
+		this.nonAsciiTransitions = new int[states][];
+		fillTransitions(trie, 0);
+		Queue<Integer> queue = new ArrayDeque<>(trie.get(0).values());
+		while (!queue.isEmpty()) {
+			int state = queue.remove();
+			// breadth first, so the failure state already has its transitions
+			fillTransitions(trie, state);
+			for (Map.Entry<Character, Integer> transition : trie.get(state).entrySet()) {
+				int next = transition.getValue();
+				int failure = transition(this.failures[state], transition.getKey());
+				this.failures[next] = failure;
+				if (outputs.get(next) == null) {
+					outputs.set(next, outputs.get(failure));
+				}
+				queue.add(next);
+			}
+		}
+		this.outputs = outputs.toArray(new String[0]);
+	}
+
+	/**
+	 * Finds the blocklisted string that ends first within the value.
+	 * @param value the value to search, can be null
+	 * @return the blocklisted string, or null if the value contains none of them
+	 */
+	String findFirstIn(String value) {
+		if (value == null) {
+			return null;
+		}
+		if (this.outputs[0] != null) {
+			return this.outputs[0];
+		}
+		int state = 0;
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			state = (c < ASCII) ? this.asciiTransitions[state][c] : transition(state, c);
+			if (this.outputs[state] != null) {
+				return this.outputs[state];
+			}
+		}
+		return null;
+	}
+
+	private static int newState(List<Map<Character, Integer>> trie, List<String> outputs) {
+		trie.add(new HashMap<>());
+		outputs.add(null);
+		return trie.size() - 1;
+	}
+
+	private void fillTransitions(List<Map<Character, Integer>> trie, int state) {
+		Map<Character, Integer> transitions = trie.get(state);
+		for (char c = 0; c < ASCII; c++) {
+			Integer next = transitions.get(c);
+			if (next != null) {
+				this.asciiTransitions[state][c] = next;
+			}
+			else if (state != 0) {
+				this.asciiTransitions[state][c] = this.asciiTransitions[this.failures[state]][c];
+			}
+		}
+		List<Character> nonAscii = new ArrayList<>();
+		for (Character c : transitions.keySet()) {
+			if (c >= ASCII) {
+				nonAscii.add(c);
+			}
+		}
+		if (nonAscii.isEmpty()) {
+			this.nonAsciiChars[state] = NO_CHARS;
+			this.nonAsciiTransitions[state] = NO_STATES;
+			return;
+		}
+		Collections.sort(nonAscii);
+		char[] chars = new char[nonAscii.size()];
+		int[] next = new int[nonAscii.size()];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = nonAscii.get(i);
+			next[i] = transitions.get(chars[i]);
+		}
+		this.nonAsciiChars[state] = chars;
+		this.nonAsciiTransitions[state] = next;
+	}
+
+	/**
+	 * Follows the failure links from the state until one has a transition for the
+	 * character.
+	 */
+	private int transition(int state, char c) {
+		if (c < ASCII) {
+			return this.asciiTransitions[state][c];
+		}
+		while (true) {
+			int index = Arrays.binarySearch(this.nonAsciiChars[state], c);
+			if (index >= 0) {
+				return this.nonAsciiTransitions[state][index];
+			}
+			if (state == 0) {
+				return 0;
+			}
+			state = this.failures[state];
+		}
+	}
+
+}
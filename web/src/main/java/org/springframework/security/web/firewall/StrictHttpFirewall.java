@@ -16,11 +16,13 @@
 
 package org.springframework.security.web.firewall;
 
+import java.util.AbstractSet;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -72,6 +74,11 @@ import org.springframework.util.Assert;
  * <li>Reject parameter values that are not allowed. See
  * {@link #setAllowedParameterValues(Predicate)}</li>
  * </ul>
+ * <p>
+ * All the blocklisted strings are searched for in a single pass over each part of the
+ * URL. Checking that the URL is normalized and that it only contains printable ASCII
+ * characters still takes separate passes.
+ * </p>
  *
  * @author Rob Winch
  * @author Eddú Meléndez
@@ -107,9 +114,9 @@ public class StrictHttpFirewall implements HttpFirewall {
 
 	private static final List<String> FORBIDDEN_NULL = Collections.unmodifiableList(Arrays.asList("\0", "%00"));
 
-	private Set<String> encodedUrlBlocklist = new HashSet<>();
+	private UrlBlocklist encodedUrlBlocklist = new UrlBlocklist();
 
-	private Set<String> decodedUrlBlocklist = new HashSet<>();
+	private UrlBlocklist decodedUrlBlocklist = new UrlBlocklist();
 
 	private Set<String> allowedHttpMethods = createDefaultAllowedHttpMethods();
 
@@ -451,19 +458,20 @@ public class StrictHttpFirewall implements HttpFirewall {
 	}
 
 	private void rejectedBlocklistedUrls(HttpServletRequest request) {
-		for (String forbidden : this.encodedUrlBlocklist) {
-			if (encodedUrlContains(request, forbidden)) {
-				throw new RequestRejectedException(
-						"The request was rejected because the URL contained a potentially malicious String \""
-								+ forbidden + "\"");
-			}
+		String forbidden = this.encodedUrlBlocklist.findFirstIn(request.getContextPath());
+		if (forbidden == null) {
+			forbidden = this.encodedUrlBlocklist.findFirstIn(request.getRequestURI());
 		}
-		for (String forbidden : this.decodedUrlBlocklist) {
-			if (decodedUrlContains(request, forbidden)) {
-				throw new RequestRejectedException(
-						"The request was rejected because the URL contained a potentially malicious String \""
-								+ forbidden + "\"");
-			}
+		if (forbidden == null) {
+			forbidden = this.decodedUrlBlocklist.findFirstIn(request.getServletPath());
+		}
+		if (forbidden == null) {
+			forbidden = this.decodedUrlBlocklist.findFirstIn(request.getPathInfo());
+		}
+		if (forbidden != null) {
+			throw new RequestRejectedException(
+					"The request was rejected because the URL contained a potentially malicious String \""
+							+ forbidden + "\"");
 		}
 	}
 
@@ -508,23 +516,6 @@ public class StrictHttpFirewall implements HttpFirewall {
 		return true;
 	}
 
-	private static boolean encodedUrlContains(HttpServletRequest request, String value) {
-		if (valueContains(request.getContextPath(), value)) {
-			return true;
-		}
-		return valueContains(request.getRequestURI(), value);
-	}
-
-	private static boolean decodedUrlContains(HttpServletRequest request, String value) {
-		if (valueContains(request.getServletPath(), value)) {
-			return true;
-		}
-		if (valueContains(request.getPathInfo(), value)) {
-			return true;
-		}
-		return false;
-	}
-
 	private static boolean containsOnlyPrintableAsciiCharacters(String uri) {
 		int length = uri.length();
 		for (int i = 0; i < length; i++) {
@@ -536,10 +527,6 @@ public class StrictHttpFirewall implements HttpFirewall {
 		return true;
 	}
 
-	private static boolean valueContains(String value, String contains) {
-		return value != null && value.contains(contains);
-	}
-
 	/**
 	 * Checks whether a path is normalized (doesn't contain path traversal sequences like
 	 * "./", "/../" or "/.")
@@ -773,4 +760,90 @@ public class StrictHttpFirewall implements HttpFirewall {
 
 	};
 
+	/**
+	 * A blocklist that compiles its values into a {@link BlocklistMatcher}, so that each
+	 * part of the URL is searched for all of them in a single pass. The
+	 * {@link BlocklistMatcher} is compiled again the first time it is used after the
+	 * blocklist has been modified, either through the setters of
+	 * {@link StrictHttpFirewall} or through {@link #getEncodedUrlBlocklist()} and
+	 * {@link #getDecodedUrlBlocklist()}. Checking that the URL is normalized and that it
+	 * only contains printable ASCII characters is not part of this pass, and still scans
+	 * the URL separately.
+	 */
+	private static final class UrlBlocklist extends AbstractSet<String> {
+
+		private final Set<String> values = new HashSet<>();
+
+		private volatile BlocklistMatcher matcher;
+
+		String findFirstIn(String value) {
+			BlocklistMatcher matcher = this.matcher;
+			if (matcher == null) {
+				matcher = new BlocklistMatcher(this.values);
+				this.matcher = matcher;
+			}
+			return matcher.findFirstIn(value);
+		}
+
+		@Override
+		public boolean add(String value) {
+			Assert.notNull(value, "value cannot be null");
+			return modified(this.values.add(value));
+		}
+
+		@Override
+		public boolean remove(Object value) {
+			return modified(this.values.remove(value));
+		}
+
+		@Override
+		public void clear() {
+			boolean modified = !this.values.isEmpty();
+			this.values.clear();
+			modified(modified);
+		}
+
+		@Override
+		public boolean contains(Object value) {
+			return this.values.contains(value);
+		}
+
+		@Override
+		public int size() {
+			return this.values.size();
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			Iterator<String> iterator = this.values.iterator();
+			return new Iterator<String>() {
+
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public String next() {
+					return iterator.next();
+				}
+
+				@Override
+				public void remove() {
+					iterator.remove();
+					modified(true);
+				}
+
+			};
+		}
+
+		private boolean modified(boolean modified) {
+			if (modified) {
+				this.matcher = null;
+			}
+			return modified;
+		}
+
+	}
+
 }
@@ -19,6 +19,7 @@ package org.springframework.security.web.header.writers;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.security.web.header.Header;
 import org.springframework.security.web.header.HeaderWriter;
 import org.springframework.util.Assert;
 
@@ -124,6 +125,12 @@ public final class ContentSecurityPolicyHeaderWriter implements HeaderWriter {
 		}
 	}
 
+	Header getHeader() {
+		String headerName = (!this.reportOnly) ? CONTENT_SECURITY_POLICY_HEADER
+				: CONTENT_SECURITY_POLICY_REPORT_ONLY_HEADER;
+		return new Header(headerName, this.policyDirectives);
+	}
+
 	/**
 	 * Sets the security policy directive(s) to be used in the response header.
 	 * @param policyDirectives the security policy directive(s)
@@ -57,6 +57,14 @@ public final class DelegatingRequestMatcherHeaderWriter implements HeaderWriter
 		}
 	}
 
+	RequestMatcher getRequestMatcher() {
+		return this.requestMatcher;
+	}
+
+	HeaderWriter getDelegateHeaderWriter() {
+		return this.delegateHeaderWriter;
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getName() + " [requestMatcher=" + this.requestMatcher + ", delegateHeaderWriter="
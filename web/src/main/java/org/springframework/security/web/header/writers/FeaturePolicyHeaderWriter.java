@@ -19,6 +19,7 @@ package org.springframework.security.web.header.writers;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.security.web.header.Header;
 import org.springframework.security.web.header.HeaderWriter;
 import org.springframework.util.Assert;
 
@@ -59,6 +60,10 @@ public final class FeaturePolicyHeaderWriter implements HeaderWriter {
 		}
 	}
 
+	Header getHeader() {
+		return new Header(FEATURE_POLICY_HEADER, this.policyDirectives);
+	}
+
 	/**
 	 * Set the security policy directive(s) to be used in the response header.
 	 * @param policyDirectives the security policy directive(s)
@@ -23,6 +23,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.core.log.LogMessage;
+import org.springframework.security.web.header.Header;
 import org.springframework.security.web.header.HeaderWriter;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.util.Assert;
@@ -161,6 +162,14 @@ public final class HstsHeaderWriter implements HeaderWriter {
 		}
 	}
 
+	Header getHeader() {
+		return new Header(HSTS_HEADER_NAME, this.hstsHeaderValue);
+	}
+
+	RequestMatcher getRequestMatcher() {
+		return this.requestMatcher;
+	}
+
 	/**
 	 * Sets the {@link RequestMatcher} used to determine if the
 	 * "Strict-Transport-Security" should be added. If true the header is added, else the
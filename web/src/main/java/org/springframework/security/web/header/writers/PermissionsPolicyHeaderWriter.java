@@ -19,6 +19,7 @@ package org.springframework.security.web.header.writers;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.security.web.header.Header;
 import org.springframework.security.web.header.HeaderWriter;
 import org.springframework.util.Assert;
 
@@ -74,6 +75,10 @@ public final class PermissionsPolicyHeaderWriter implements HeaderWriter {
 		}
 	}
 
+	Header getHeader() {
+		return (this.policy != null) ? new Header(PERMISSIONS_POLICY_HEADER, this.policy) : null;
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getName() + " [policy=" + this.policy + "]";
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.header.writers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.web.header.Header;
+import org.springframework.security.web.header.HeaderWriter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link HeaderWriter} that delegates to several other {@link HeaderWriter}s, like
+ * {@link CompositeHeaderWriter}, but computes the headers that do not depend on the
+ * request once, when it is created.
+ *
+ * <p>
+ * The headers of consecutive {@link StaticHeadersWriter},
+ * {@link XContentTypeOptionsHeaderWriter}, {@link XXssProtectionHeaderWriter},
+ * {@link ContentSecurityPolicyHeaderWriter}, {@link ReferrerPolicyHeaderWriter},
+ * {@link FeaturePolicyHeaderWriter} and {@link PermissionsPolicyHeaderWriter} instances
+ * are collected into a single batch of name/value pairs, each of which is written unless
+ * the response already contains it. {@link HstsHeaderWriter}s and
+ * {@link DelegatingRequestMatcherHeaderWriter}s that delegate to one of the above are
+ * precomputed too, and their {@link RequestMatcher} is only evaluated if the response
+ * does not already contain all of their headers. Any other {@link HeaderWriter} is
+ * invoked as is, in its original position, so the response is the same as if each
+ * {@link HeaderWriter} were invoked in turn.
+ *
+ * <p>
+ * Since the headers are computed when this instance is created, the
+ * {@link HeaderWriter}s must not be reconfigured afterwards.
+ *
+ * @since 5.6
+ */
+public final class PrecompiledHeadersWriter implements HeaderWriter {
+
+	private final HeaderWriter[] headerWriters;
+
+	/**
+	 * Creates a new instance.
+	 * @param headerWriters the {@link HeaderWriter} instances to write out headers to the
+	 * {@link HttpServletResponse}.
+	 */
+	public PrecompiledHeadersWriter(List<HeaderWriter> headerWriters) {
+		Assert.notEmpty(headerWriters, "headerWriters cannot be empty");
+		Assert.noNullElements(headerWriters, "headerWriters cannot contain null values");
+		this.headerWriters = precompile(headerWriters);
+	}
+
+	@Override
+	public void writeHeaders(HttpServletRequest request, HttpServletResponse response) {
+		for (HeaderWriter headerWriter : this.headerWriters) {
+			headerWriter.writeHeaders(request, response);
+		}
+	}
+
+	private static HeaderWriter[] precompile(List<HeaderWriter> headerWriters) {
+		List<HeaderWriter> precompiled = new ArrayList<>();
+		List<Header> batch = new ArrayList<>();
+		for (HeaderWriter headerWriter : headerWriters) {
+			List<Header> headers = getHeaders(headerWriter);
+			if (headers != null) {
+				batch.addAll(headers);
+				continue;
+			}
+			if (!batch.isEmpty()) {
+				precompiled.add(new Headers(batch));
+				batch.clear();
+			}
+			precompiled.add(precompileConditional(headerWriter));
+		}
+		if (!batch.isEmpty()) {
+			precompiled.add(new Headers(batch));
+		}
+		return precompiled.toArray(new HeaderWriter[0]);
+	}
+
+	private static HeaderWriter precompileConditional(HeaderWriter headerWriter) {
+		if (headerWriter instanceof HstsHeaderWriter) {
+			HstsHeaderWriter hsts = (HstsHeaderWriter) headerWriter;
+			return new RequestMatcherHeaders(hsts.getRequestMatcher(),
+					new Headers(Collections.singletonList(hsts.getHeader())));
+		}
+		if (headerWriter instanceof DelegatingRequestMatcherHeaderWriter) {
+			DelegatingRequestMatcherHeaderWriter delegating = (DelegatingRequestMatcherHeaderWriter) headerWriter;
+			List<Header> headers = getHeaders(delegating.getDelegateHeaderWriter());
+			if (headers != null) {
+				return new RequestMatcherHeaders(delegating.getRequestMatcher(), new Headers(headers));
+			}
+		}
+		return headerWriter;
+	}
+
+	/**
+	 * Returns the headers that a {@link HeaderWriter} writes regardless of the request,
+	 * or {@code null} if they cannot be determined up front.
+	 */
+	private static List<Header> getHeaders(HeaderWriter headerWriter) {
+		Header header = null;
+		if (headerWriter.getClass() == StaticHeadersWriter.class
+				|| headerWriter instanceof XContentTypeOptionsHeaderWriter) {
+			return ((StaticHeadersWriter) headerWriter).getHeaders();
+		}
+		if (headerWriter instanceof XXssProtectionHeaderWriter) {
+			header = ((XXssProtectionHeaderWriter) headerWriter).getHeader();
+		}
+		else if (headerWriter instanceof ContentSecurityPolicyHeaderWriter) {
+			header = ((ContentSecurityPolicyHeaderWriter) headerWriter).getHeader();
+		}
+		else if (headerWriter.getClass() == ReferrerPolicyHeaderWriter.class) {
+			header = ((ReferrerPolicyHeaderWriter) headerWriter).getHeader();
+		}
+		else if (headerWriter instanceof FeaturePolicyHeaderWriter) {
+			header = ((FeaturePolicyHeaderWriter) headerWriter).getHeader();
+		}
+		else if (headerWriter instanceof PermissionsPolicyHeaderWriter) {
+			header = ((PermissionsPolicyHeaderWriter) headerWriter).getHeader();
+		}
+		return (header != null) ? Collections.singletonList(header) : null;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getName() + " [headerWriters=" + Arrays.toString(this.headerWriters) + "]";
+	}
+
+	/**
+	 * Writes each header unless the response already contains a header with its name. A
+	 * header that follows another with the same name is never written, so it is dropped.
+	 */
+	private static final class Headers implements HeaderWriter {
+
+		private final String[] names;
+
+		private final String[][] values;
+
+		private Headers(List<Header> headers) {
+			Map<String, List<String>> unique = new LinkedHashMap<>();
+			for (Header header : headers) {
+				unique.putIfAbsent(header.getName(), header.getValues());
+			}
+			this.names = unique.keySet().toArray(new String[0]);
+			this.values = new String[this.names.length][];
+			for (int i = 0; i < this.names.length; i++) {
+				this.values[i] = unique.get(this.names[i]).toArray(new String[0]);
+			}
+		}
+
+		@Override
+		public void writeHeaders(HttpServletRequest request, HttpServletResponse response) {
+			for (int i = 0; i < this.names.length; i++) {
+				String name = this.names[i];
+				if (!response.containsHeader(name)) {
+					for (String value : this.values[i]) {
+						response.addHeader(name, value);
+					}
+				}
+			}
+		}
+
+		private boolean isWritten(HttpServletResponse response) {
+			for (String name : this.names) {
+				if (!response.containsHeader(name)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder("Headers [");
+			for (int i = 0; i < this.names.length; i++) {
+				sb.append((i > 0) ? ", " : "").append(this.names[i]).append('=')
+						.append(Arrays.toString(this.values[i]));
+			}
+			return sb.append("]").toString();
+		}
+
+	}
+
+	/**
+	 * Writes {@link Headers} if the {@link RequestMatcher} matches, evaluating it only
+	 * when at least one of the headers is missing from the response.
+	 */
+	private static final class RequestMatcherHeaders implements HeaderWriter {
+
+		private final RequestMatcher requestMatcher;
+
+		private final Headers headers;
+
+		private RequestMatcherHeaders(RequestMatcher requestMatcher, Headers headers) {
+			this.requestMatcher = requestMatcher;
+			this.headers = headers;
+		}
+
+		@Override
+		public void writeHeaders(HttpServletRequest request, HttpServletResponse response) {
+			if (!this.headers.isWritten(response) && this.requestMatcher.matches(request)) {
+				this.headers.writeHeaders(request, response);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "RequestMatcherHeaders [requestMatcher=" + this.requestMatcher + ", headers=" + this.headers + "]";
+		}
+
+	}
+
+}
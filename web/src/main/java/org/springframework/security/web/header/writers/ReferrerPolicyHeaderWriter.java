@@ -23,6 +23,7 @@ import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.security.web.header.Header;
 import org.springframework.security.web.header.HeaderWriter;
 import org.springframework.util.Assert;
 
@@ -98,6 +99,10 @@ public class ReferrerPolicyHeaderWriter implements HeaderWriter {
 		}
 	}
 
+	Header getHeader() {
+		return new Header(REFERRER_POLICY_HEADER, this.policy.getPolicy());
+	}
+
 	public enum ReferrerPolicy {
 
 		NO_REFERRER("no-referrer"),
@@ -19,6 +19,7 @@ package org.springframework.security.web.header.writers;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.security.web.header.Header;
 import org.springframework.security.web.header.HeaderWriter;
 
 /**
@@ -56,6 +57,10 @@ public final class XXssProtectionHeaderWriter implements HeaderWriter {
 		}
 	}
 
+	Header getHeader() {
+		return new Header(XSS_PROTECTION_HEADER, this.headerValue);
+	}
+
 	/**
 	 * If true, will contain a value of 1. For example:
 	 *
@@ -17,6 +17,7 @@
 package org.springframework.security.web.session;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 
 import javax.servlet.FilterChain;
@@ -77,6 +78,8 @@ public class ConcurrentSessionFilter extends GenericFilterBean {
 
 	private SessionInformationExpiredStrategy sessionInformationExpiredStrategy;
 
+	private long lastRequestGranularity;
+
 	public ConcurrentSessionFilter(SessionRegistry sessionRegistry) {
 		Assert.notNull(sessionRegistry, "SessionRegistry required");
 		this.sessionRegistry = sessionRegistry;
@@ -141,12 +144,19 @@ public class ConcurrentSessionFilter extends GenericFilterBean {
 					return;
 				}
 				// Non-expired - update last request date/time
-				this.sessionRegistry.refreshLastRequest(info.getSessionId());
+				if (isLastRequestStale(info)) {
+					this.sessionRegistry.refreshLastRequest(info.getSessionId());
+				}
 			}
 		}
 		chain.doFilter(request, response);
 	}
 
+	private boolean isLastRequestStale(SessionInformation info) {
+		return this.lastRequestGranularity == 0
+				|| System.currentTimeMillis() - info.getLastRequestMillis() >= this.lastRequestGranularity;
+	}
+
 	/**
 	 * Determine the URL for expiration
 	 * @param request the HttpServletRequest
@@ -180,6 +190,23 @@ public class ConcurrentSessionFilter extends GenericFilterBean {
 		this.handlers = new CompositeLogoutHandler(handlers);
 	}
 
+	/**
+	 * Sets how old the last request time of a session must be before this filter calls
+	 * {@link SessionRegistry#refreshLastRequest(String)}. The default is
+	 * {@link Duration#ZERO}, which refreshes it on every request. A larger value avoids
+	 * an update on most requests, at the cost of the last request time, which is used to
+	 * choose the least recently used session when the maximum number of sessions is
+	 * exceeded, being up to that long behind. Whether a session has expired is still
+	 * checked on every request.
+	 * @param lastRequestGranularity the granularity
+	 * @since 5.6
+	 */
+	public void setLastRequestGranularity(Duration lastRequestGranularity) {
+		Assert.notNull(lastRequestGranularity, "lastRequestGranularity cannot be null");
+		Assert.isTrue(!lastRequestGranularity.isNegative(), "lastRequestGranularity cannot be negative");
+		this.lastRequestGranularity = lastRequestGranularity.toMillis();
+	}
+
 	/**
 	 * Sets the {@link RedirectStrategy} used with
 	 * {@link #ConcurrentSessionFilter(SessionRegistry, String)}
@@ -148,8 +148,10 @@ public final class AntPathRequestMatcher implements RequestMatcher, RequestVaria
 		if (this.pattern.equals(MATCH_ALL)) {
 			return true;
 		}
-		String url = getRequestPath(request);
-		return this.matcher.matches(url);
+		if (this.urlPathHelper != null) {
+			return this.matcher.matches(this.urlPathHelper.getPathWithinApplication(request));
+		}
+		return this.matcher.matches(CachedRequestPath.get(request));
 	}
 
 	@Override
@@ -174,18 +176,51 @@ public final class AntPathRequestMatcher implements RequestMatcher, RequestVaria
 		if (this.urlPathHelper != null) {
 			return this.urlPathHelper.getPathWithinApplication(request);
 		}
-		String url = request.getServletPath();
-		String pathInfo = request.getPathInfo();
-		if (pathInfo != null) {
-			url = StringUtils.hasLength(url) ? url + pathInfo : pathInfo;
+		return CachedRequestPath.get(request).getPath();
+	}
+
+	/**
+	 * Matches the path of a request, ignoring the HTTP method. Used by
+	 * {@link RequestMatcherIndex}, which has already checked the HTTP method, for
+	 * {@link #isIndexable() indexable} instances.
+	 * @param path the path of the request
+	 * @return true if the path matches the pattern
+	 */
+	boolean matchesPath(CachedRequestPath path) {
+		if (this.pattern.equals(MATCH_ALL)) {
+			return true;
+		}
+		return this.matcher.matches(path);
+	}
+
+	/**
+	 * Returns the {@link MatchResult} of a path that {@link #matchesPath(CachedRequestPath)}
+	 * has matched.
+	 */
+	MatchResult matchResult(CachedRequestPath path) {
+		if (this.matcher == null) {
+			return MatchResult.match();
 		}
-		return url;
+		return MatchResult.match(this.matcher.extractUriTemplateVariables(path.getPath()));
 	}
 
 	public String getPattern() {
 		return this.pattern;
 	}
 
+	HttpMethod getHttpMethod() {
+		return this.httpMethod;
+	}
+
+	/**
+	 * Whether this matcher compares the pattern against the {@code servletPath} +
+	 * {@code pathInfo} in a case sensitive manner, which is what allows
+	 * {@link RequestMatcherIndex} to index it by its literal path segments.
+	 */
+	boolean isIndexable() {
+		return this.caseSensitive && this.urlPathHelper == null;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (!(obj instanceof AntPathRequestMatcher)) {
@@ -219,6 +254,8 @@ public final class AntPathRequestMatcher implements RequestMatcher, RequestVaria
 
 		boolean matches(String path);
 
+		boolean matches(CachedRequestPath path);
+
 		Map<String, String> extractUriTemplateVariables(String path);
 
 	}
@@ -229,9 +266,12 @@ public final class AntPathRequestMatcher implements RequestMatcher, RequestVaria
 
 		private final String pattern;
 
+		private final TokenizedAntPathMatcher tokenizedMatcher;
+
 		private SpringAntMatcher(String pattern, boolean caseSensitive) {
 			this.pattern = pattern;
 			this.antMatcher = createMatcher(caseSensitive);
+			this.tokenizedMatcher = caseSensitive ? TokenizedAntPathMatcher.compile(pattern) : null;
 		}
 
 		@Override
@@ -239,6 +279,14 @@ public final class AntPathRequestMatcher implements RequestMatcher, RequestVaria
 			return this.antMatcher.match(this.pattern, path);
 		}
 
+		@Override
+		public boolean matches(CachedRequestPath path) {
+			if (this.tokenizedMatcher == null) {
+				return matches(path.getPath());
+			}
+			return this.tokenizedMatcher.matches(path.getPath(), path.getSegments());
+		}
+
 		@Override
 		public Map<String, String> extractUriTemplateVariables(String path) {
 			return this.antMatcher.extractUriTemplateVariables(this.pattern, path);
@@ -279,6 +327,11 @@ public final class AntPathRequestMatcher implements RequestMatcher, RequestVaria
 			return path.startsWith(this.subpath) && (path.length() == this.length || path.charAt(this.length) == '/');
 		}
 
+		@Override
+		public boolean matches(CachedRequestPath path) {
+			return matches(path.getPath());
+		}
+
 		@Override
 		public Map<String, String> extractUriTemplateVariables(String path) {
 			return Collections.emptyMap();
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.util.matcher;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * The path of a request ({@code servletPath + pathInfo}) that the
+ * {@link RequestMatcher}s in this package match against, along with its segments and
+ * the URL including the query string. It is cached as a request attribute so that the
+ * many {@link RequestMatcher}s that are evaluated during a request resolve and tokenize
+ * the path only once.
+ *
+ * <p>
+ * The cached instance is only reused while the servlet path and path info of the request
+ * are unchanged, so a forward or a wrapper that changes them will see a new path.
+ *
+ * @since 5.6
+ */
+final class CachedRequestPath {
+
+	static final String ATTRIBUTE_NAME = CachedRequestPath.class.getName();
+
+	private final String servletPath;
+
+	private final String pathInfo;
+
+	private final String path;
+
+	private String[] segments;
+
+	private String queryString;
+
+	private String url;
+
+	private CachedRequestPath(String servletPath, String pathInfo) {
+		this.servletPath = servletPath;
+		this.pathInfo = pathInfo;
+		String path = servletPath;
+		if (pathInfo != null) {
+			path = StringUtils.hasLength(path) ? path + pathInfo : pathInfo;
+		}
+		this.path = path;
+	}
+
+	/**
+	 * Returns the {@link CachedRequestPath} of the request, creating and caching it if
+	 * the request does not have one or the path of the request has changed.
+	 * @param request the request
+	 * @return the {@link CachedRequestPath}
+	 */
+	static CachedRequestPath get(HttpServletRequest request) {
+		String servletPath = request.getServletPath();
+		String pathInfo = request.getPathInfo();
+		Object attribute = request.getAttribute(ATTRIBUTE_NAME);
+		if (attribute instanceof CachedRequestPath) {
+			CachedRequestPath cached = (CachedRequestPath) attribute;
+			if (ObjectUtils.nullSafeEquals(cached.servletPath, servletPath)
+					&& ObjectUtils.nullSafeEquals(cached.pathInfo, pathInfo)) {
+				return cached;
+			}
+		}
+		CachedRequestPath path = new CachedRequestPath(servletPath, pathInfo);
+		request.setAttribute(ATTRIBUTE_NAME, path);
+		return path;
+	}
+
+	/**
+	 * The servlet path followed by the path info
+	 * @return the path, which is {@code null} only if the request has neither
+	 */
+	String getPath() {
+		return this.path;
+	}
+
+	/**
+	 * The segments of {@link #getPath()} as tokenized by
+	 * {@link TokenizedAntPathMatcher#tokenize(String)}
+	 * @return the segments of the path
+	 */
+	String[] getSegments() {
+		if (this.segments == null) {
+			this.segments = TokenizedAntPathMatcher.tokenize(this.path);
+		}
+		return this.segments;
+	}
+
+	/**
+	 * The path followed by a question mark and the query string, if there is one
+	 * @param request the request, used to read the current query string
+	 * @return the URL
+	 */
+	String getUrl(HttpServletRequest request) {
+		String queryString = request.getQueryString();
+		if (this.url != null && ObjectUtils.nullSafeEquals(this.queryString, queryString)) {
+			return this.url;
+		}
+		String url = this.servletPath;
+		if (this.pathInfo != null || queryString != null) {
+			StringBuilder sb = new StringBuilder(url);
+			if (this.pathInfo != null) {
+				sb.append(this.pathInfo);
+			}
+			if (queryString != null) {
+				sb.append('?').append(queryString);
+			}
+			url = sb.toString();
+		}
+		this.queryString = queryString;
+		this.url = url;
+		return url;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,6 +34,8 @@ public final class OrRequestMatcher implements RequestMatcher {
 
 	private final List<RequestMatcher> requestMatchers;
 
+	private final RequestMatcherIndex index;
+
 	/**
 	 * Creates a new instance
 	 * @param requestMatchers the {@link RequestMatcher} instances to try
@@ -42,6 +44,8 @@ public final class OrRequestMatcher implements RequestMatcher {
 		Assert.notEmpty(requestMatchers, "requestMatchers must contain a value");
 		Assert.isTrue(!requestMatchers.contains(null), "requestMatchers cannot contain null values");
 		this.requestMatchers = requestMatchers;
+		this.index = RequestMatcherIndex.isWorthIndexing(requestMatchers) ? new RequestMatcherIndex(requestMatchers)
+				: null;
 	}
 
 	/**
@@ -54,6 +58,9 @@ public final class OrRequestMatcher implements RequestMatcher {
 
 	@Override
 	public boolean matches(HttpServletRequest request) {
+		if (this.index != null) {
+			return this.index.indexOfFirstMatch(request) != -1;
+		}
 		for (RequestMatcher matcher : this.requestMatchers) {
 			if (matcher.matches(request)) {
 				return true;
@@ -62,6 +69,10 @@ public final class OrRequestMatcher implements RequestMatcher {
 		return false;
 	}
 
+	List<RequestMatcher> getRequestMatchers() {
+		return this.requestMatchers;
+	}
+
 	@Override
 	public String toString() {
 		return "Or " + this.requestMatchers;
@@ -81,23 +81,20 @@ public final class RegexRequestMatcher implements RequestMatcher {
 	 */
 	@Override
 	public boolean matches(HttpServletRequest request) {
-		if (this.httpMethod != null && request.getMethod() != null
-				&& this.httpMethod != HttpMethod.resolve(request.getMethod())) {
-			return false;
-		}
-		String url = request.getServletPath();
-		String pathInfo = request.getPathInfo();
-		String query = request.getQueryString();
-		if (pathInfo != null || query != null) {
-			StringBuilder sb = new StringBuilder(url);
-			if (pathInfo != null) {
-				sb.append(pathInfo);
-			}
-			if (query != null) {
-				sb.append('?').append(query);
-			}
-			url = sb.toString();
-		}
+		return matchesMethod(request) && matchesUrl(CachedRequestPath.get(request).getUrl(request));
+	}
+
+	boolean matchesMethod(HttpServletRequest request) {
+		return this.httpMethod == null || request.getMethod() == null
+				|| this.httpMethod == HttpMethod.resolve(request.getMethod());
+	}
+
+	/**
+	 * Matches the URL of a request, ignoring the HTTP method.
+	 * @param url the URL to match, see {@link CachedRequestPath#getUrl}
+	 * @return true if the pattern matches the URL
+	 */
+	boolean matchesUrl(String url) {
 		logger.debug(LogMessage.format("Checking match of request : '%s'; against '%s'", url, this.pattern));
 		return this.pattern.matcher(url).matches();
 	}
@@ -0,0 +1,439 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.util.matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.RequestMatcher.MatchResult;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Finds the {@link RequestMatcher}s of an ordered list that match a request without
+ * invoking every {@link RequestMatcher}.
+ *
+ * <p>
+ * Case sensitive {@link AntPathRequestMatcher}s (and {@link OrRequestMatcher}s composed
+ * only of them) are indexed in a tree keyed on the path segments that precede the first
+ * {@code **} of their pattern, together with their HTTP method. Literal segments are
+ * keyed by their value, while segments containing wildcards or path variables, such as
+ * {@code *}, {@code *.css} or {@code {id}}, share a single wildcard child that matches
+ * any path segment. {@link AnyRequestMatcher} is indexed at the root of the tree. A
+ * lookup therefore costs in proportion to the length of the path rather than the number
+ * of {@link RequestMatcher}s. For a given request only the {@link RequestMatcher}s found
+ * along the request path, plus the ones that cannot be indexed (for example
+ * {@link RegexRequestMatcher} or custom implementations), are evaluated. They are
+ * evaluated in their original order, so the result is always the same as evaluating
+ * each {@link RequestMatcher} in turn.
+ *
+ * <p>
+ * The request path is resolved and split into its segments at most once per request,
+ * see {@link CachedRequestPath}. Indexed patterns without path variables are matched
+ * against those segments directly rather than tokenizing the path again for each
+ * pattern, and the URL that {@link RegexRequestMatcher}s match against is likewise only
+ * built once.
+ *
+ * @since 5.6
+ */
+public final class RequestMatcherIndex {
+
+	// below this many indexable RequestMatchers, evaluating each of them is cheaper
+	private static final int MIN_INDEXABLE = 4;
+
+	private final List<? extends RequestMatcher> requestMatchers;
+
+	private final Node root = new Node();
+
+	private final int[] unindexed;
+
+	/**
+	 * Creates a new instance
+	 * @param requestMatchers the {@link RequestMatcher}s to index, in the order they
+	 * should be evaluated
+	 */
+	public RequestMatcherIndex(List<? extends RequestMatcher> requestMatchers) {
+		Assert.notNull(requestMatchers, "requestMatchers cannot be null");
+		Assert.isTrue(!requestMatchers.contains(null), "requestMatchers cannot contain null values");
+		this.requestMatchers = requestMatchers;
+		List<Integer> unindexed = new ArrayList<>();
+		for (int i = 0; i < requestMatchers.size(); i++) {
+			if (!index(i, requestMatchers.get(i))) {
+				unindexed.add(i);
+			}
+		}
+		this.unindexed = unindexed.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Returns the position of the first {@link RequestMatcher} that matches the request.
+	 * @param request the request to match
+	 * @return the position of the first matching {@link RequestMatcher}, or {@code -1}
+	 * if none of them match
+	 */
+	public int indexOfFirstMatch(HttpServletRequest request) {
+		return new Lookup(request, false).next();
+	}
+
+	/**
+	 * Returns the first {@link RequestMatcher} that matches the request, together with
+	 * the {@link MatchResult} that {@link RequestMatcher#matcher(HttpServletRequest)}
+	 * would return for it, so that the {@link RequestMatcher} need not be invoked again to
+	 * obtain its variables.
+	 * @param request the request to match
+	 * @return the {@link Match}, or {@code null} if none of them match
+	 */
+	public Match firstMatch(HttpServletRequest request) {
+		Lookup lookup = new Lookup(request, true);
+		int index = lookup.next();
+		return (index != -1) ? new Match(index, lookup.matchResult) : null;
+	}
+
+	/**
+	 * Returns the positions of all the {@link RequestMatcher}s that match the request.
+	 * @param request the request to match
+	 * @return the positions of the matching {@link RequestMatcher}s in ascending order,
+	 * or an empty array if none of them match
+	 */
+	public int[] indexesOfAllMatches(HttpServletRequest request) {
+		Lookup lookup = new Lookup(request, false);
+		int[] matches = new int[this.requestMatchers.size()];
+		int count = 0;
+		for (int match = lookup.next(); match != -1; match = lookup.next()) {
+			matches[count++] = match;
+		}
+		return Arrays.copyOf(matches, count);
+	}
+
+	/**
+	 * Whether enough of the {@link RequestMatcher}s can be indexed for a lookup to cost
+	 * less than evaluating each of them in turn.
+	 */
+	static boolean isWorthIndexing(List<? extends RequestMatcher> requestMatchers) {
+		int indexable = 0;
+		for (RequestMatcher requestMatcher : requestMatchers) {
+			if (isIndexable(requestMatcher) && ++indexable >= MIN_INDEXABLE) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isIndexable(RequestMatcher requestMatcher) {
+		if (requestMatcher instanceof AnyRequestMatcher) {
+			return true;
+		}
+		if (requestMatcher instanceof AntPathRequestMatcher) {
+			return ((AntPathRequestMatcher) requestMatcher).isIndexable();
+		}
+		if (requestMatcher instanceof OrRequestMatcher) {
+			for (RequestMatcher matcher : ((OrRequestMatcher) requestMatcher).getRequestMatchers()) {
+				if (!(matcher instanceof AnyRequestMatcher) && !(matcher instanceof AntPathRequestMatcher
+						&& ((AntPathRequestMatcher) matcher).isIndexable())) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private boolean index(int position, RequestMatcher requestMatcher) {
+		if (!isIndexable(requestMatcher)) {
+			return false;
+		}
+		if (requestMatcher instanceof AnyRequestMatcher) {
+			this.root.add(position, null, requestMatcher);
+		}
+		else if (requestMatcher instanceof AntPathRequestMatcher) {
+			AntPathRequestMatcher antPathRequestMatcher = (AntPathRequestMatcher) requestMatcher;
+			node(antPathRequestMatcher.getPattern()).add(position, antPathRequestMatcher.getHttpMethod(),
+					antPathRequestMatcher);
+		}
+		else {
+			for (RequestMatcher matcher : ((OrRequestMatcher) requestMatcher).getRequestMatchers()) {
+				index(position, matcher);
+			}
+		}
+		return true;
+	}
+
+	private Node node(String pattern) {
+		Node node = this.root;
+		String[] segments = TokenizedAntPathMatcher.tokenize(pattern);
+		for (int i = 0; i < segments.length; i++) {
+			String segment = segments[i];
+			if (segment.equals("**")) {
+				break;
+			}
+			if (isLiteral(segment)) {
+				node = node.children.computeIfAbsent(segment, (key) -> new Node());
+			}
+			else {
+				// a trailing * also matches a path that ends with its parent and a slash
+				if (i == segments.length - 1 && segment.equals("*")) {
+					break;
+				}
+				if (node.wildcard == null) {
+					node.wildcard = new Node();
+				}
+				node = node.wildcard;
+			}
+		}
+		return node;
+	}
+
+	private static boolean isLiteral(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if (c == '*' || c == '?' || c == '{' || c == '}') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "RequestMatcherIndex " + this.requestMatchers;
+	}
+
+	/**
+	 * A single lookup of a request, which walks the candidate {@link RequestMatcher}s in
+	 * ascending order.
+	 */
+	private final class Lookup {
+
+		private final HttpServletRequest request;
+
+		private final HttpMethod httpMethod;
+
+		private final boolean anyMethod;
+
+		private final boolean withMatchResult;
+
+		private MatchResult matchResult;
+
+		private CachedRequestPath path;
+
+		private Node[] candidates;
+
+		private int[] positions;
+
+		private int unindexedPosition;
+
+		private int last = -1;
+
+		private Lookup(HttpServletRequest request, boolean withMatchResult) {
+			this.request = request;
+			this.withMatchResult = withMatchResult;
+			String method = request.getMethod();
+			this.anyMethod = !StringUtils.hasText(method);
+			this.httpMethod = this.anyMethod ? null : HttpMethod.resolve(method);
+		}
+
+		private int next() {
+			if (this.candidates == null) {
+				this.candidates = candidates();
+				this.positions = new int[this.candidates.length];
+			}
+			while (true) {
+				int next = Integer.MAX_VALUE;
+				int nextNode = -1;
+				for (int n = 0; n < this.candidates.length; n++) {
+					Node node = this.candidates[n];
+					int position = this.positions[n];
+					while (position < node.entries.length && (node.entries[position] <= this.last
+							|| !node.allows(position, this.httpMethod, this.anyMethod))) {
+						position++;
+					}
+					this.positions[n] = position;
+					if (position < node.entries.length && node.entries[position] < next) {
+						next = node.entries[position];
+						nextNode = n;
+					}
+				}
+				int[] unindexed = RequestMatcherIndex.this.unindexed;
+				while (this.unindexedPosition < unindexed.length && unindexed[this.unindexedPosition] <= this.last) {
+					this.unindexedPosition++;
+				}
+				boolean matches;
+				if (this.unindexedPosition < unindexed.length && unindexed[this.unindexedPosition] < next) {
+					next = unindexed[this.unindexedPosition++];
+					matches = matches(RequestMatcherIndex.this.requestMatchers.get(next));
+				}
+				else if (nextNode != -1) {
+					Node node = this.candidates[nextNode];
+					matches = matchesPath(node.requestMatchers[this.positions[nextNode]++]);
+					if (matches && this.withMatchResult) {
+						this.matchResult = matchResult(RequestMatcherIndex.this.requestMatchers.get(next));
+					}
+				}
+				else {
+					return -1;
+				}
+				if (matches) {
+					this.last = next;
+					return next;
+				}
+			}
+		}
+
+		private Node[] candidates() {
+			Node root = RequestMatcherIndex.this.root;
+			if (root.isLeaf()) {
+				return new Node[] { root };
+			}
+			String[] pathSegments = getPath().getSegments();
+			List<Node> candidates = new ArrayList<>(pathSegments.length + 1);
+			candidates.add(root);
+			int from = 0;
+			int to = 1;
+			for (int i = 0; i < pathSegments.length && from < to; i++) {
+				for (int n = from; n < to; n++) {
+					Node node = candidates.get(n);
+					Node child = node.children.get(pathSegments[i]);
+					if (child != null) {
+						candidates.add(child);
+					}
+					if (node.wildcard != null) {
+						candidates.add(node.wildcard);
+					}
+				}
+				from = to;
+				to = candidates.size();
+			}
+			return candidates.toArray(new Node[0]);
+		}
+
+		private boolean matchesPath(RequestMatcher requestMatcher) {
+			if (requestMatcher instanceof AntPathRequestMatcher) {
+				return ((AntPathRequestMatcher) requestMatcher).matchesPath(getPath());
+			}
+			return true;
+		}
+
+		// an indexed RequestMatcher whose path has matched, which only has variables if it
+		// is an AntPathRequestMatcher, the others being AnyRequestMatcher or OrRequestMatcher
+		private MatchResult matchResult(RequestMatcher requestMatcher) {
+			if (requestMatcher instanceof AntPathRequestMatcher) {
+				return ((AntPathRequestMatcher) requestMatcher).matchResult(getPath());
+			}
+			return MatchResult.match();
+		}
+
+		private boolean matches(RequestMatcher requestMatcher) {
+			if (requestMatcher instanceof RegexRequestMatcher) {
+				RegexRequestMatcher regexRequestMatcher = (RegexRequestMatcher) requestMatcher;
+				boolean matches = regexRequestMatcher.matchesMethod(this.request)
+						&& regexRequestMatcher.matchesUrl(getPath().getUrl(this.request));
+				if (matches && this.withMatchResult) {
+					this.matchResult = MatchResult.match();
+				}
+				return matches;
+			}
+			if (this.withMatchResult) {
+				MatchResult matchResult = requestMatcher.matcher(this.request);
+				this.matchResult = matchResult;
+				return matchResult.isMatch();
+			}
+			return requestMatcher.matches(this.request);
+		}
+
+		private CachedRequestPath getPath() {
+			if (this.path == null) {
+				this.path = CachedRequestPath.get(this.request);
+			}
+			return this.path;
+		}
+
+	}
+
+	/**
+	 * The first {@link RequestMatcher} that matches a request.
+	 *
+	 * @see #firstMatch(HttpServletRequest)
+	 */
+	public static final class Match {
+
+		private final int index;
+
+		private final MatchResult matchResult;
+
+		private Match(int index, MatchResult matchResult) {
+			this.index = index;
+			this.matchResult = matchResult;
+		}
+
+		/**
+		 * Returns the position of the {@link RequestMatcher} that matched.
+		 * @return the position
+		 */
+		public int getIndex() {
+			return this.index;
+		}
+
+		/**
+		 * Returns the {@link MatchResult} of the {@link RequestMatcher} that matched.
+		 * @return the {@link MatchResult}
+		 */
+		public MatchResult getMatchResult() {
+			return this.matchResult;
+		}
+
+	}
+
+	private static final class Node {
+
+		private final Map<String, Node> children = new HashMap<>();
+
+		private Node wildcard;
+
+		private int[] entries = {};
+
+		private HttpMethod[] httpMethods = {};
+
+		private RequestMatcher[] requestMatchers = {};
+
+		private void add(int position, HttpMethod httpMethod, RequestMatcher requestMatcher) {
+			int length = this.entries.length;
+			this.entries = Arrays.copyOf(this.entries, length + 1);
+			this.httpMethods = Arrays.copyOf(this.httpMethods, length + 1);
+			this.requestMatchers = Arrays.copyOf(this.requestMatchers, length + 1);
+			this.entries[length] = position;
+			this.httpMethods[length] = httpMethod;
+			this.requestMatchers[length] = requestMatcher;
+		}
+
+		private boolean isLeaf() {
+			return this.children.isEmpty() && this.wildcard == null;
+		}
+
+		private boolean allows(int entry, HttpMethod httpMethod, boolean anyMethod) {
+			HttpMethod required = this.httpMethods[entry];
+			return anyMethod || required == null || required == httpMethod;
+		}
+
+	}
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.util.matcher;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+/**
+ * A case sensitive ant style pattern without path variables that is matched against a
+ * path which has already been split into its segments. This allows a path to be
+ * tokenized once and matched against many patterns. The result is the same as
+ * {@link AntPathMatcher#match(String, String)} with {@code trimTokens} disabled.
+ *
+ * @since 5.6
+ */
+final class TokenizedAntPathMatcher {
+
+	private static final String SEPARATOR = "/";
+
+	private static final String MATCH_ALL_SEGMENTS = "**";
+
+	private final String pattern;
+
+	private final String[] patternSegments;
+
+	private final boolean[] literals;
+
+	private TokenizedAntPathMatcher(String pattern) {
+		this.pattern = pattern;
+		this.patternSegments = tokenize(pattern);
+		this.literals = new boolean[this.patternSegments.length];
+		for (int i = 0; i < this.patternSegments.length; i++) {
+			String segment = this.patternSegments[i];
+			this.literals[i] = segment.indexOf('*') == -1 && segment.indexOf('?') == -1;
+		}
+	}
+
+	/**
+	 * Creates a {@link TokenizedAntPathMatcher} for the supplied pattern
+	 * @param pattern the pattern to compile
+	 * @return the {@link TokenizedAntPathMatcher} or {@code null} if the pattern contains
+	 * path variables
+	 */
+	static TokenizedAntPathMatcher compile(String pattern) {
+		if (pattern.indexOf('{') != -1 || pattern.indexOf('}') != -1) {
+			return null;
+		}
+		return new TokenizedAntPathMatcher(pattern);
+	}
+
+	/**
+	 * Splits a path into its segments in the same way as {@link AntPathMatcher}
+	 * @param path the path to split
+	 * @return the segments of the path
+	 */
+	static String[] tokenize(String path) {
+		return StringUtils.tokenizeToStringArray(path, SEPARATOR, false, true);
+	}
+
+	boolean matches(String path, String[] pathSegments) {
+		if (path == null || path.startsWith(SEPARATOR) != this.pattern.startsWith(SEPARATOR)) {
+			return false;
+		}
+		String[] pattDirs = this.patternSegments;
+		int pattIdxStart = 0;
+		int pattIdxEnd = pattDirs.length - 1;
+		int pathIdxStart = 0;
+		int pathIdxEnd = pathSegments.length - 1;
+		// Match all segments up to the first **
+		while (pattIdxStart <= pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+			if (MATCH_ALL_SEGMENTS.equals(pattDirs[pattIdxStart])) {
+				break;
+			}
+			if (!matchesSegment(pattIdxStart, pathSegments[pathIdxStart])) {
+				return false;
+			}
+			pattIdxStart++;
+			pathIdxStart++;
+		}
+		if (pathIdxStart > pathIdxEnd) {
+			// Path is exhausted, only match if the rest of the pattern is * or **'s
+			if (pattIdxStart > pattIdxEnd) {
+				return this.pattern.endsWith(SEPARATOR) == path.endsWith(SEPARATOR);
+			}
+			if (pattIdxStart == pattIdxEnd && pattDirs[pattIdxStart].equals("*") && path.endsWith(SEPARATOR)) {
+				return true;
+			}
+			return onlyMatchAllSegments(pattIdxStart, pattIdxEnd);
+		}
+		if (pattIdxStart > pattIdxEnd) {
+			// Path is not exhausted, but the pattern is
+			return false;
+		}
+		// Match all segments after the last **
+		while (pattIdxStart <= pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+			if (MATCH_ALL_SEGMENTS.equals(pattDirs[pattIdxEnd])) {
+				break;
+			}
+			if (!matchesSegment(pattIdxEnd, pathSegments[pathIdxEnd])) {
+				return false;
+			}
+			pattIdxEnd--;
+			pathIdxEnd--;
+		}
+		if (pathIdxStart > pathIdxEnd) {
+			return onlyMatchAllSegments(pattIdxStart, pattIdxEnd);
+		}
+		// Match the segments between each pair of **
+		while (pattIdxStart != pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+			int patIdxTmp = -1;
+			for (int i = pattIdxStart + 1; i <= pattIdxEnd; i++) {
+				if (MATCH_ALL_SEGMENTS.equals(pattDirs[i])) {
+					patIdxTmp = i;
+					break;
+				}
+			}
+			if (patIdxTmp == pattIdxStart + 1) {
+				pattIdxStart++;
+				continue;
+			}
+			int patLength = patIdxTmp - pattIdxStart - 1;
+			int strLength = pathIdxEnd - pathIdxStart + 1;
+			int foundIdx = -1;
+			for (int i = 0; i <= strLength - patLength && foundIdx == -1; i++) {
+				if (matchesSegments(pattIdxStart + 1, patLength, pathSegments, pathIdxStart + i)) {
+					foundIdx = pathIdxStart + i;
+				}
+			}
+			if (foundIdx == -1) {
+				return false;
+			}
+			pattIdxStart = patIdxTmp;
+			pathIdxStart = foundIdx + patLength;
+		}
+		return onlyMatchAllSegments(pattIdxStart, pattIdxEnd);
+	}
+
+	private boolean matchesSegments(int patternStart, int length, String[] pathSegments, int pathStart) {
+		for (int j = 0; j < length; j++) {
+			if (!matchesSegment(patternStart + j, pathSegments[pathStart + j])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean onlyMatchAllSegments(int start, int end) {
+		for (int i = start; i <= end; i++) {
+			if (!MATCH_ALL_SEGMENTS.equals(this.patternSegments[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean matchesSegment(int index, String pathSegment) {
+		String segment = this.patternSegments[index];
+		return this.literals[index] ? segment.equals(pathSegment) : matchesWildcards(segment, pathSegment);
+	}
+
+	/**
+	 * Matches a segment containing {@code *} and {@code ?} wildcards. Just like the
+	 * regular expression that {@link AntPathMatcher} compiles for it, neither wildcard
+	 * matches a line terminator.
+	 */
+	private static boolean matchesWildcards(String segment, String value) {
+		int s = 0;
+		int v = 0;
+		int star = -1;
+		int starValue = -1;
+		while (v < value.length()) {
+			if (s < segment.length()) {
+				char c = segment.charAt(s);
+				if (c == '*') {
+					star = s++;
+					starValue = v;
+					continue;
+				}
+				if (c == '?' && !isLineTerminator(value.charAt(v))) {
+					s++;
+					v += Character.charCount(value.codePointAt(v));
+					continue;
+				}
+				if (c != '?' && c == value.charAt(v)) {
+					s++;
+					v++;
+					continue;
+				}
+			}
+			if (star == -1 || isLineTerminator(value.charAt(starValue))) {
+				return false;
+			}
+			starValue += Character.charCount(value.codePointAt(starValue));
+			s = star + 1;
+			v = starValue;
+		}
+		while (s < segment.length() && segment.charAt(s) == '*') {
+			s++;
+		}
+		return s == segment.length();
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	@Override
+	public String toString() {
+		return this.pattern;
+	}
+
+}
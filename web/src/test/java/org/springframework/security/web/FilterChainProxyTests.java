@@ -40,6 +40,8 @@ import org.springframework.security.web.firewall.FirewalledRequest;
 import org.springframework.security.web.firewall.HttpFirewall;
 import org.springframework.security.web.firewall.RequestRejectedException;
 import org.springframework.security.web.firewall.RequestRejectedHandler;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -252,4 +254,30 @@ public class FilterChainProxyTests {
 		verify(rjh).handle(eq(this.request), eq(this.response), eq((requestRejectedException)));
 	}
 
+	@Test
+	public void doFilterWhenIndexedFilterChainDispatchThenFirstMatchingChainInvoked() throws Exception {
+		Filter apiFilter = mock(Filter.class);
+		Filter defaultFilter = mock(Filter.class);
+		this.fcp = new FilterChainProxy(Arrays.asList(
+				new DefaultSecurityFilterChain(new AntPathRequestMatcher("/api/**"), apiFilter),
+				new DefaultSecurityFilterChain(this.matcher, this.filter),
+				new DefaultSecurityFilterChain(AnyRequestMatcher.INSTANCE, defaultFilter)));
+		this.fcp.setIndexedFilterChainDispatch(true);
+		given(this.matcher.matches(any())).willReturn(false);
+		this.request.setServletPath("/api/messages");
+		this.fcp.doFilter(this.request, this.response, this.chain);
+		verify(apiFilter).doFilter(any(), any(), any());
+		verifyZeroInteractions(this.matcher, this.filter, defaultFilter);
+		this.request.setServletPath("/other");
+		this.fcp.doFilter(this.request, this.response, this.chain);
+		verify(this.matcher).matches(any());
+		verify(defaultFilter).doFilter(any(), any(), any());
+	}
+
+	@Test
+	public void setIndexedFilterChainDispatchWhenNoFilterChainsThenException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new FilterChainProxy().setIndexedFilterChainDispatch(true));
+	}
+
 }
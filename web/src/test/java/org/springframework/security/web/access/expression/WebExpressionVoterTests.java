@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,9 @@
 package org.springframework.security.web.access.expression;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletRequest;
@@ -27,12 +30,16 @@ import org.junit.Test;
 
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.ConfigAttribute;
 import org.springframework.security.access.SecurityConfig;
 import org.springframework.security.access.expression.SecurityExpressionHandler;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.FilterInvocation;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -87,6 +94,32 @@ public class WebExpressionVoterTests {
 		assertThat(voter.vote(this.user, fi, attributes)).isEqualTo(AccessDecisionVoter.ACCESS_DENIED);
 	}
 
+	@Test
+	public void voteWhenSimpleExpressionThenNotEvaluated() {
+		AtomicInteger contexts = new AtomicInteger();
+		DefaultWebSecurityExpressionHandler handler = new DefaultWebSecurityExpressionHandler() {
+			@Override
+			protected StandardEvaluationContext createEvaluationContextInternal(Authentication authentication,
+					FilterInvocation invocation) {
+				contexts.incrementAndGet();
+				return super.createEvaluationContextInternal(authentication, invocation);
+			}
+		};
+		LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> requestMap = new LinkedHashMap<>();
+		requestMap.put(AnyRequestMatcher.INSTANCE, SecurityConfig.createList("hasAuthority('X')"));
+		FilterInvocation fi = new FilterInvocation("/path", "GET");
+		Collection<ConfigAttribute> attributes = new ExpressionBasedFilterInvocationSecurityMetadataSource(requestMap,
+				handler).getAttributes(fi);
+		WebExpressionVoter voter = new WebExpressionVoter();
+		voter.setExpressionHandler(handler);
+		assertThat(voter.vote(this.user, fi, attributes)).isEqualTo(AccessDecisionVoter.ACCESS_GRANTED);
+		assertThat(voter.vote(new TestingAuthenticationToken("other", "pass", "Y"), fi, attributes))
+				.isEqualTo(AccessDecisionVoter.ACCESS_DENIED);
+		assertThat(contexts).hasValue(0);
+		voter.setExpressionHandler(new DefaultWebSecurityExpressionHandler());
+		assertThat(voter.vote(this.user, fi, attributes)).isEqualTo(AccessDecisionVoter.ACCESS_GRANTED);
+	}
+
 	// SEC-2507
 	@Test
 	public void supportFilterInvocationSubClass() {
@@ -52,6 +52,16 @@ public class DefaultFilterInvocationSecurityMetadataSourceTests {
 		this.fids = new DefaultFilterInvocationSecurityMetadataSource(requestMap);
 	}
 
+	@Test
+	public void getAllConfigAttributesWhenRequestMapModifiedThenSameMappingsAsGetAttributes() {
+		LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> requestMap = new LinkedHashMap<>();
+		requestMap.put(new AntPathRequestMatcher("/secure/**"), this.def);
+		this.fids = new DefaultFilterInvocationSecurityMetadataSource(requestMap);
+		requestMap.put(new AntPathRequestMatcher("/other/**"), SecurityConfig.createList("ROLE_TWO"));
+		assertThat(this.fids.getAttributes(createFilterInvocation("/other/file.html", null, null, null))).isNull();
+		assertThat(this.fids.getAllConfigAttributes()).containsExactlyElementsOf(this.def);
+	}
+
 	@Test
 	public void lookupNotRequiringExactMatchSucceedsIfNotMatching() {
 		createFids("/secure/super/**", null);
@@ -25,6 +25,7 @@ import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.servlet.util.matcher.MvcRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
@@ -83,4 +84,30 @@ public class RequestMatcherDelegatingAuthorizationManagerTests {
 		assertThat(abstain).isNull();
 	}
 
+	@Test
+	public void checkWhenManyPathPatternsThenDelegatesFirstMatchingManagerWithVariables() {
+		RequestMatcherDelegatingAuthorizationManager.Builder builder = RequestMatcherDelegatingAuthorizationManager
+				.builder();
+		for (int i = 0; i < 600; i++) {
+			String tenant = "tenant" + i;
+			builder.add(new AntPathRequestMatcher("/api/{tenant}/" + tenant + "/**"), (a, context) -> {
+				assertThat(context.getVariables()).containsEntry("tenant", "v1");
+				return new AuthorizationDecision(tenant.equals("tenant599"));
+			});
+		}
+		builder.add(new AntPathRequestMatcher("/api/{version}/tenant599/**"), (a, o) -> new AuthorizationDecision(false));
+		RequestMatcherDelegatingAuthorizationManager manager = builder.build();
+		Supplier<Authentication> authentication = () -> new TestingAuthenticationToken("user", "password", "ROLE_USER");
+		AuthorizationDecision decision = manager.check(authentication, request("/api/v1/tenant599/orders"));
+		assertThat(decision).isNotNull();
+		assertThat(decision.isGranted()).isTrue();
+		assertThat(manager.check(authentication, request("/api/v1/tenant600"))).isNull();
+	}
+
+	private static MockHttpServletRequest request(String servletPath) {
+		MockHttpServletRequest request = new MockHttpServletRequest(null, servletPath);
+		request.setServletPath(servletPath);
+		return request;
+	}
+
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.codec;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.codec.CompactSecuritySerializer;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link WebCompactCodecModule}.
+ */
+public class WebCompactCodecModuleTests {
+
+	private final CompactSecuritySerializer serializer = new CompactSecuritySerializer();
+
+	@Test
+	public void serializeWhenPreAuthenticatedAuthenticationTokenThenRoundTrips() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setRemoteAddr("10.0.0.1");
+		request.getSession();
+		PreAuthenticatedAuthenticationToken token = new PreAuthenticatedAuthenticationToken("user", "credentials",
+				AuthorityUtils.createAuthorityList("ROLE_USER"));
+		token.setDetails(new WebAuthenticationDetails(request));
+		PreAuthenticatedAuthenticationToken result = (PreAuthenticatedAuthenticationToken) this.serializer
+				.deserializeFromByteArray(this.serializer.serializeToByteArray(token));
+		assertThat(result).isEqualTo(token);
+		assertThat(result.isAuthenticated()).isTrue();
+		WebAuthenticationDetails details = (WebAuthenticationDetails) result.getDetails();
+		assertThat(details.getRemoteAddress()).isEqualTo("10.0.0.1");
+		assertThat(details.getSessionId()).isEqualTo(request.getSession().getId());
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.security.web.concurrent;
 
+import java.time.Duration;
 import java.util.Date;
 import java.util.List;
 
@@ -47,6 +48,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
@@ -156,6 +158,60 @@ public class ConcurrentSessionFilterTests {
 		assertThat(registry.getSessionInformation(session.getId()).getLastRequest().after(lastRequest)).isTrue();
 	}
 
+	@Test
+	public void doFilterWhenLastRequestWithinGranularityThenNotRefreshed() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setSession(new MockHttpSession());
+		SessionRegistry registry = mock(SessionRegistry.class);
+		SessionInformation information = new SessionInformation("user", "sessionId", new Date());
+		given(registry.getSessionInformation(anyString())).willReturn(information);
+		ConcurrentSessionFilter filter = new ConcurrentSessionFilter(registry);
+		filter.setLastRequestGranularity(Duration.ofMinutes(1));
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		assertThat(chain.getRequest()).isNotNull();
+		verify(registry, never()).refreshLastRequest(anyString());
+	}
+
+	@Test
+	public void doFilterWhenLastRequestOlderThanGranularityThenRefreshed() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setSession(new MockHttpSession());
+		SessionRegistry registry = mock(SessionRegistry.class);
+		SessionInformation information = new SessionInformation("user", "sessionId",
+				new Date(System.currentTimeMillis() - 120000));
+		given(registry.getSessionInformation(anyString())).willReturn(information);
+		ConcurrentSessionFilter filter = new ConcurrentSessionFilter(registry);
+		filter.setLastRequestGranularity(Duration.ofMinutes(1));
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		verify(registry).refreshLastRequest("sessionId");
+	}
+
+	@Test
+	public void doFilterWhenExpiredAndWithinGranularityThenExpiredSessionDetected() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setSession(new MockHttpSession());
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		SessionRegistry registry = mock(SessionRegistry.class);
+		SessionInformation information = new SessionInformation("user", "sessionId", new Date());
+		information.expireNow();
+		given(registry.getSessionInformation(anyString())).willReturn(information);
+		SessionInformationExpiredStrategy expiredSessionStrategy = mock(SessionInformationExpiredStrategy.class);
+		ConcurrentSessionFilter filter = new ConcurrentSessionFilter(registry, expiredSessionStrategy);
+		filter.setLastRequestGranularity(Duration.ofMinutes(1));
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, response, chain);
+		assertThat(chain.getRequest()).isNull();
+		verify(expiredSessionStrategy).onExpiredSessionDetected(any());
+	}
+
+	@Test
+	public void setLastRequestGranularityWhenNegativeThenThrowsException() {
+		ConcurrentSessionFilter filter = new ConcurrentSessionFilter(new SessionRegistryImpl());
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> filter.setLastRequestGranularity(Duration.ofSeconds(-1)));
+	}
+
 	@Test
 	public void doFilterWhenNoSessionThenChainIsContinued() throws Exception {
 		MockHttpServletRequest request = new MockHttpServletRequest();
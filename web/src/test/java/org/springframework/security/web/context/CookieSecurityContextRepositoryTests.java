@@ -0,0 +1,270 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import javax.servlet.http.Cookie;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.security.crypto.encrypt.Encryptors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link CookieSecurityContextRepository}.
+ */
+public class CookieSecurityContextRepositoryTests {
+
+	private static final String SALT = "5c0744940b5c369b";
+
+	private final BytesEncryptor encryptor = Encryptors.stronger("password", SALT);
+
+	private final CookieSecurityContextRepository repository = new CookieSecurityContextRepository("k1",
+			this.encryptor);
+
+	private final TestingAuthenticationToken authentication = new TestingAuthenticationToken("user", "password",
+			"ROLE_USER", "ROLE_ADMIN");
+
+	@After
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void constructorWhenInvalidKeyIdThenThrowsException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new CookieSecurityContextRepository("k.1", this.encryptor));
+		assertThatIllegalArgumentException().isThrownBy(() -> new CookieSecurityContextRepository("", this.encryptor));
+	}
+
+	@Test
+	public void constructorWhenEncryptorNotAuthenticatingThenThrowsException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new CookieSecurityContextRepository("k1", Encryptors.standard("password", SALT)));
+	}
+
+	@Test
+	public void setDecryptionKeysWhenEncryptorNotAuthenticatingThenThrowsException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.repository
+				.setDecryptionKeys(Collections.singletonMap("k0", Encryptors.standard("password", SALT))));
+	}
+
+	@Test
+	public void loadContextWhenSavedThenNameAndAuthoritiesRestored() {
+		Cookie cookie = save(this.repository, new SecurityContextImpl(this.authentication));
+		assertThat(cookie.getValue()).startsWith("k1.");
+		assertThat(cookie.isHttpOnly()).isTrue();
+		assertThat(cookie.getMaxAge()).isEqualTo(1800);
+		assertThat(cookie.getPath()).isEqualTo("/");
+		SecurityContext context = load(this.repository, cookie);
+		assertThat(context.getAuthentication().isAuthenticated()).isTrue();
+		assertThat(context.getAuthentication().getName()).isEqualTo("user");
+		assertThat(AuthorityUtils.authorityListToSet(context.getAuthentication().getAuthorities()))
+				.containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+		assertThat(this.repository.containsContext(request(cookie))).isTrue();
+	}
+
+	@Test
+	public void loadContextWhenComplexAuthorityThenLeftOut() {
+		List<GrantedAuthority> authorities = new ArrayList<>(AuthorityUtils.createAuthorityList("ROLE_USER"));
+		authorities.add(() -> null);
+		TestingAuthenticationToken authentication = new TestingAuthenticationToken("user", "password", authorities);
+		Cookie cookie = save(this.repository, new SecurityContextImpl(authentication));
+		SecurityContext context = load(this.repository, cookie);
+		assertThat(AuthorityUtils.authorityListToSet(context.getAuthentication().getAuthorities()))
+				.containsExactly("ROLE_USER");
+	}
+
+	@Test
+	public void loadContextWhenNoCookieThenEmptyContext() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, new MockHttpServletResponse());
+		assertThat(this.repository.loadContext(holder).getAuthentication()).isNull();
+		assertThat(this.repository.containsContext(request)).isFalse();
+	}
+
+	@Test
+	public void saveContextWhenUnchangedThenCookieNotIssued() {
+		Cookie cookie = save(this.repository, new SecurityContextImpl(this.authentication));
+		MockHttpServletRequest request = request(cookie);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		SecurityContext context = this.repository.loadContext(holder);
+		this.repository.saveContext(context, holder.getRequest(), holder.getResponse());
+		// re-authenticated with the same name and authorities
+		this.repository.saveContext(new SecurityContextImpl(this.authentication), holder.getRequest(),
+				holder.getResponse());
+		assertThat(response.getCookies()).isEmpty();
+	}
+
+	@Test
+	public void saveContextWhenAnonymousThenCookieRemoved() {
+		Cookie cookie = save(this.repository, new SecurityContextImpl(this.authentication));
+		AnonymousAuthenticationToken anonymous = new AnonymousAuthenticationToken("key", "anonymous",
+				AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+		Cookie removed = save(this.repository, request(cookie), new SecurityContextImpl(anonymous));
+		assertThat(removed.getMaxAge()).isZero();
+		assertThat(removed.getValue()).isNull();
+	}
+
+	@Test
+	public void loadContextWhenPreviousKeyThenLoadedAndIssuedWithCurrentKey() {
+		Cookie cookie = save(this.repository, new SecurityContextImpl(this.authentication));
+		CookieSecurityContextRepository rotated = new CookieSecurityContextRepository("k2",
+				Encryptors.stronger("other", SALT));
+		assertThat(load(rotated, cookie).getAuthentication()).isNull();
+		rotated.setDecryptionKeys(Collections.singletonMap("k1", this.encryptor));
+		MockHttpServletRequest request = request(cookie);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		SecurityContext context = rotated.loadContext(holder);
+		assertThat(context.getAuthentication().getName()).isEqualTo("user");
+		rotated.saveContext(context, holder.getRequest(), holder.getResponse());
+		assertThat(response.getCookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME).getValue())
+				.startsWith("k2.");
+	}
+
+	@Test
+	public void loadContextWhenTamperedThenEmptyContext() {
+		Cookie cookie = save(this.repository, new SecurityContextImpl(this.authentication));
+		char[] value = cookie.getValue().toCharArray();
+		value[10] = (value[10] != 'A') ? 'A' : 'B';
+		assertThat(load(this.repository, new Cookie(cookie.getName(), new String(value))).getAuthentication())
+				.isNull();
+	}
+
+	@Test
+	public void loadContextWhenKeyIdChangedThenEmptyContext() {
+		this.repository.setDecryptionKeys(Collections.singletonMap("k0", this.encryptor));
+		Cookie cookie = save(this.repository, new SecurityContextImpl(this.authentication));
+		String value = "k0" + cookie.getValue().substring(2);
+		assertThat(load(this.repository, new Cookie(cookie.getName(), value)).getAuthentication()).isNull();
+	}
+
+	@Test
+	public void loadContextWhenTrailingBytesThenEmptyContext() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream output = new DataOutputStream(bytes)) {
+			output.writeByte(1);
+			output.writeUTF("k1");
+			output.writeLong(System.currentTimeMillis());
+			output.writeUTF("user");
+			output.writeShort(1);
+			output.writeUTF("ROLE_USER");
+			output.writeUTF("ROLE_ADMIN");
+		}
+		String value = "k1." + Base64.getUrlEncoder().encodeToString(this.encryptor.encrypt(bytes.toByteArray()));
+		Cookie cookie = new Cookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME, value);
+		assertThat(load(this.repository, cookie).getAuthentication()).isNull();
+	}
+
+	@Test
+	public void loadContextWhenExpiredThenEmptyContext() {
+		Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+		this.repository.setClock(Clock.fixed(now, ZoneOffset.UTC));
+		Cookie cookie = save(this.repository, new SecurityContextImpl(this.authentication));
+		this.repository.setClock(Clock.fixed(now.plus(Duration.ofMinutes(31)), ZoneOffset.UTC));
+		assertThat(load(this.repository, cookie).getAuthentication()).isNull();
+	}
+
+	@Test
+	public void saveContextWhenOlderThanHalfMaxAgeThenCookieIssuedAgain() {
+		Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+		this.repository.setClock(Clock.fixed(now, ZoneOffset.UTC));
+		Cookie cookie = save(this.repository, new SecurityContextImpl(this.authentication));
+		this.repository.setClock(Clock.fixed(now.plus(Duration.ofMinutes(16)), ZoneOffset.UTC));
+		MockHttpServletRequest request = request(cookie);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		SecurityContext context = this.repository.loadContext(holder);
+		this.repository.saveContext(context, holder.getRequest(), holder.getResponse());
+		assertThat(response.getCookies()).hasSize(1);
+	}
+
+	@Test
+	public void saveContextWhenLargerThanMaxCookieSizeThenCookieRemoved() {
+		Cookie cookie = save(this.repository, new SecurityContextImpl(this.authentication));
+		this.repository.setMaxCookieSize(100);
+		TestingAuthenticationToken larger = new TestingAuthenticationToken("user", "password", "ROLE_USER",
+				"ROLE_ADMIN", "ROLE_OPERATOR", "ROLE_AUDITOR");
+		Cookie removed = save(this.repository, request(cookie), new SecurityContextImpl(larger));
+		assertThat(removed.getMaxAge()).isZero();
+	}
+
+	@Test
+	public void saveContextWhenResponseCommittedThenCookieIssuedBeforeCommit() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		SecurityContext context = this.repository.loadContext(holder);
+		context.setAuthentication(this.authentication);
+		SecurityContextHolder.setContext(context);
+		holder.getResponse().flushBuffer();
+		this.repository.saveContext(context, holder.getRequest(), holder.getResponse());
+		assertThat(response.getCookies()).hasSize(1);
+	}
+
+	private Cookie save(CookieSecurityContextRepository repository, SecurityContext context) {
+		return save(repository, new MockHttpServletRequest(), context);
+	}
+
+	private Cookie save(CookieSecurityContextRepository repository, MockHttpServletRequest request,
+			SecurityContext context) {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		repository.loadContext(holder);
+		repository.saveContext(context, holder.getRequest(), holder.getResponse());
+		return response.getCookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME);
+	}
+
+	private SecurityContext load(CookieSecurityContextRepository repository, Cookie cookie) {
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request(cookie),
+				new MockHttpServletResponse());
+		return repository.loadContext(holder);
+	}
+
+	private MockHttpServletRequest request(Cookie cookie) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setCookies(cookie);
+		return request;
+	}
+
+}
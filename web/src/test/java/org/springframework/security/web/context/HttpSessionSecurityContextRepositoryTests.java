@@ -44,6 +44,7 @@ import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationTrustResolver;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.codec.CompactSecuritySerializer;
 import org.springframework.security.core.Transient;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContext;
@@ -55,6 +56,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
@@ -117,6 +119,37 @@ public class HttpSessionSecurityContextRepositoryTests {
 		assertThat(request.getSession(false)).isNull();
 	}
 
+	@Test
+	public void loadDeferredContextWhenNotLoadedThenSessionNotReadOnCommit() throws Exception {
+		HttpSessionSecurityContextRepository repo = new HttpSessionSecurityContextRepository();
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		DeferredSecurityContext context = repo.loadDeferredContext(holder);
+		SecurityContextHolder.setDeferredContext(context);
+		holder.getResponse().sendError(HttpServletResponse.SC_BAD_REQUEST);
+		assertThat(context.isLoaded()).isFalse();
+		verify(request, never()).getSession(anyBoolean());
+		verify(request, never()).getSession();
+	}
+
+	@Test
+	public void loadDeferredContextWhenLoadedAndChangedThenSavedOnCommit() throws Exception {
+		HttpSessionSecurityContextRepository repo = new HttpSessionSecurityContextRepository();
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		DeferredSecurityContext context = repo.loadDeferredContext(holder);
+		SecurityContextHolder.setDeferredContext(context);
+		assertThat(request.getSession(false)).isNull();
+		SecurityContextHolder.getContext().setAuthentication(this.testToken);
+		assertThat(context.isLoaded()).isTrue();
+		holder.getResponse().sendError(HttpServletResponse.SC_BAD_REQUEST);
+		HttpSession session = request.getSession(false);
+		assertThat(session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY))
+				.isSameAs(context.get());
+	}
+
 	@Test
 	public void sessionIsntCreatedIfAllowSessionCreationIsFalse() {
 		HttpSessionSecurityContextRepository repo = new HttpSessionSecurityContextRepository();
@@ -171,6 +204,44 @@ public class HttpSessionSecurityContextRepositoryTests {
 		verify(session).setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, ctx);
 	}
 
+	@Test
+	public void saveContextWhenEqualContextThenSetAttributeSkipped() {
+		HttpSessionSecurityContextRepository repo = new HttpSessionSecurityContextRepository();
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		SecurityContext ctx = new SecurityContextImpl(this.testToken);
+		HttpSession session = mock(HttpSession.class);
+		given(session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY)).willReturn(ctx);
+		request.setSession(session);
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, new MockHttpServletResponse());
+		assertThat(repo.loadContext(holder)).isSameAs(ctx);
+		// Re-authenticated with the same credentials
+		SecurityContext reauthenticated = new SecurityContextImpl(
+				new TestingAuthenticationToken("someone", "passwd", "ROLE_A"));
+		repo.saveContext(reauthenticated, holder.getRequest(), holder.getResponse());
+		verify(session, never()).setAttribute(any(), any());
+		assertThat(repo.getSaveCount()).isZero();
+		assertThat(repo.getSkippedSaveCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void saveContextWhenSavedTwiceAndUnchangedThenSetAttributeOnce() throws Exception {
+		HttpSessionSecurityContextRepository repo = new HttpSessionSecurityContextRepository();
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		HttpSession session = mock(HttpSession.class);
+		request.setSession(session);
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, new MockHttpServletResponse());
+		SecurityContext context = repo.loadContext(holder);
+		context.setAuthentication(this.testToken);
+		SecurityContextHolder.setContext(context);
+		holder.getResponse().flushBuffer();
+		given(session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY))
+				.willReturn(context);
+		repo.saveContext(context, holder.getRequest(), holder.getResponse());
+		verify(session).setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+		assertThat(repo.getSaveCount()).isEqualTo(1);
+		assertThat(repo.getSkippedSaveCount()).isEqualTo(1);
+	}
+
 	@Test
 	public void saveContextWhenSaveNewContextThenOriginalContextThenOriginalContextSaved() throws Exception {
 		HttpSessionSecurityContextRepository repository = new HttpSessionSecurityContextRepository();
@@ -644,6 +715,46 @@ public class HttpSessionSecurityContextRepositoryTests {
 		assertThat(session).isNull();
 	}
 
+	@Test
+	public void saveContextWhenSecurityContextSerializerThenStoredAsBytes() {
+		HttpSessionSecurityContextRepository repo = new HttpSessionSecurityContextRepository();
+		repo.setSecurityContextSerializer(new CompactSecuritySerializer());
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, new MockHttpServletResponse());
+		SecurityContext context = repo.loadContext(holder);
+		context.setAuthentication(this.testToken);
+		repo.saveContext(context, holder.getRequest(), holder.getResponse());
+		Object attribute = request.getSession().getAttribute(
+				HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+		assertThat(attribute).isInstanceOf(byte[].class);
+		MockHttpServletRequest nextRequest = new MockHttpServletRequest();
+		nextRequest.setSession(request.getSession());
+		holder = new HttpRequestResponseHolder(nextRequest, new MockHttpServletResponse());
+		assertThat(repo.loadContext(holder).getAuthentication()).isEqualTo(this.testToken);
+	}
+
+	@Test
+	public void loadContextWhenSecurityContextSerializerAndMalformedBytesThenEmptyContext() {
+		HttpSessionSecurityContextRepository repo = new HttpSessionSecurityContextRepository();
+		repo.setSecurityContextSerializer(new CompactSecuritySerializer());
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.getSession().setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+				new byte[] { 1, 1 });
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, new MockHttpServletResponse());
+		assertThat(repo.loadContext(holder).getAuthentication()).isNull();
+	}
+
+	@Test
+	public void loadContextWhenSecurityContextSerializerAndContextInSessionThenLoaded() {
+		HttpSessionSecurityContextRepository repo = new HttpSessionSecurityContextRepository();
+		repo.setSecurityContextSerializer(new CompactSecuritySerializer());
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		SecurityContext context = new SecurityContextImpl(this.testToken);
+		request.getSession().setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, new MockHttpServletResponse());
+		assertThat(repo.loadContext(holder)).isEqualTo(context);
+	}
+
 	private SecurityContext createSecurityContext(UserDetails userDetails) {
 		UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(userDetails,
 				userDetails.getPassword(), userDetails.getAuthorities());
@@ -27,6 +27,7 @@ import org.junit.Test;
 
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -38,6 +39,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
 public class SecurityContextPersistenceFilterTests {
@@ -129,4 +132,53 @@ public class SecurityContextPersistenceFilterTests {
 		assertThat(request.getSession(false)).isNull();
 	}
 
+	@Test
+	public void doFilterWhenDeferContextLoadingAndContextNotUsedThenSessionNotRead() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest();
+		final MockHttpServletResponse response = new MockHttpServletResponse();
+		MockHttpSession session = spy(new MockHttpSession());
+		request.setSession(session);
+		SecurityContextPersistenceFilter filter = new SecurityContextPersistenceFilter();
+		filter.setDeferContextLoading(true);
+		filter.doFilter(request, response, (request1, response1) -> response1.flushBuffer());
+		verify(session, never()).getAttribute(any());
+		verify(session, never()).setAttribute(any(), any());
+		assertThat(request.getAttribute(SecurityContextPersistenceFilter.FILTER_APPLIED)).isNull();
+	}
+
+	@Test
+	public void doFilterWhenDeferContextLoadingAndContextUsedThenLoadedAndUpdatedContextIsStored() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest();
+		final MockHttpServletResponse response = new MockHttpServletResponse();
+		final SecurityContext scBefore = new SecurityContextImpl(
+				new TestingAuthenticationToken("someoneelse", "passwd", "ROLE_B"));
+		request.getSession().setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, scBefore);
+		SecurityContextPersistenceFilter filter = new SecurityContextPersistenceFilter();
+		filter.setDeferContextLoading(true);
+		final FilterChain chain = (request1, response1) -> {
+			assertThat(SecurityContextHolder.getContext()).isSameAs(scBefore);
+			SecurityContextHolder.getContext().setAuthentication(this.testToken);
+		};
+		filter.doFilter(request, response, chain);
+		SecurityContext stored = (SecurityContext) request.getSession()
+				.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+		assertThat(stored.getAuthentication()).isSameAs(this.testToken);
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+	}
+
+	@Test
+	public void doFilterWhenDeferContextLoadingAndContextReplacedThenUpdatedContextIsStored() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest();
+		final MockHttpServletResponse response = new MockHttpServletResponse();
+		final SecurityContext scExpectedAfter = new SecurityContextImpl(this.testToken);
+		final SecurityContextRepository repo = mock(SecurityContextRepository.class);
+		given(repo.loadDeferredContext(any(HttpRequestResponseHolder.class))).willCallRealMethod();
+		given(repo.loadContext(any(HttpRequestResponseHolder.class))).willReturn(new SecurityContextImpl());
+		SecurityContextPersistenceFilter filter = new SecurityContextPersistenceFilter(repo);
+		filter.setDeferContextLoading(true);
+		final FilterChain chain = (request1, response1) -> SecurityContextHolder.setContext(scExpectedAfter);
+		filter.doFilter(request, response, chain);
+		verify(repo).saveContext(scExpectedAfter, request, response);
+	}
+
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.firewall;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BlocklistMatcher}.
+ */
+public class BlocklistMatcherTests {
+
+	@Test
+	public void findFirstInWhenNullThenNull() {
+		BlocklistMatcher matcher = new BlocklistMatcher(Arrays.asList(";", "%2f"));
+		assertThat(matcher.findFirstIn(null)).isNull();
+	}
+
+	@Test
+	public void findFirstInWhenEmptyBlocklistThenNull() {
+		BlocklistMatcher matcher = new BlocklistMatcher(Collections.emptyList());
+		assertThat(matcher.findFirstIn("/path;jsessionid")).isNull();
+	}
+
+	@Test
+	public void findFirstInWhenNoMatchThenNull() {
+		BlocklistMatcher matcher = new BlocklistMatcher(Arrays.asList(";", "%2f", "//"));
+		assertThat(matcher.findFirstIn("/context/path/to/resource")).isNull();
+	}
+
+	@Test
+	public void findFirstInWhenMatchThenReturnsBlocklistedValue() {
+		BlocklistMatcher matcher = new BlocklistMatcher(Arrays.asList(";", "%2f", "//"));
+		assertThat(matcher.findFirstIn("/context/a%2fb")).isEqualTo("%2f");
+		assertThat(matcher.findFirstIn("/context//b")).isEqualTo("//");
+		assertThat(matcher.findFirstIn("/context;b")).isEqualTo(";");
+	}
+
+	@Test
+	public void findFirstInWhenOverlappingThenReturnsEarliestMatch() {
+		BlocklistMatcher matcher = new BlocklistMatcher(Arrays.asList("%2f%2f", "2f%", "abcd", "bc"));
+		assertThat(matcher.findFirstIn("/x%2f%2f")).isEqualTo("2f%");
+		assertThat(matcher.findFirstIn("/abcd")).isEqualTo("bc");
+	}
+
+	@Test
+	public void findFirstInWhenMatchFollowsPartialMatchThenFound() {
+		BlocklistMatcher matcher = new BlocklistMatcher(Arrays.asList("%25%2e", "%2e"));
+		assertThat(matcher.findFirstIn("/%25%25%2e")).isNotNull();
+		assertThat(matcher.findFirstIn("/%2%2e")).isEqualTo("%2e");
+	}
+
+	@Test
+	public void findFirstInWhenNonAsciiThenMatches() {
+		BlocklistMatcher matcher = new BlocklistMatcher(Arrays.asList(" ", "ä/"));
+		assertThat(matcher.findFirstIn("/a b")).isEqualTo(" ");
+		assertThat(matcher.findFirstIn("/ää/")).isEqualTo("ä/");
+		assertThat(matcher.findFirstIn("/äö")).isNull();
+	}
+
+	@Test
+	public void findFirstInWhenNonAsciiPartialMatchThenFollowsFailureLinks() {
+		BlocklistMatcher matcher = new BlocklistMatcher(Arrays.asList("aäö", "äü", "\u4e2d\u6587"));
+		assertThat(matcher.findFirstIn("/aäü")).isEqualTo("äü");
+		assertThat(matcher.findFirstIn("/aäö")).isEqualTo("aäö");
+		assertThat(matcher.findFirstIn("/\u4e2d\u4e2d\u6587")).isEqualTo("\u4e2d\u6587");
+		assertThat(matcher.findFirstIn("/\u6587\u4e2d")).isNull();
+	}
+
+	@Test
+	public void findFirstInWhenEmptyStringBlocklistedThenAlwaysMatches() {
+		BlocklistMatcher matcher = new BlocklistMatcher(Arrays.asList("", "%2f"));
+		assertThat(matcher.findFirstIn("/path")).isEmpty();
+	}
+
+	@Test
+	public void findFirstInWhenCaseDiffersThenNoMatch() {
+		BlocklistMatcher matcher = new BlocklistMatcher(Collections.singletonList("%2f"));
+		assertThat(matcher.findFirstIn("/a%2Fb")).isNull();
+	}
+
+}
@@ -550,6 +550,19 @@ public class StrictHttpFirewallTests {
 		this.firewall.getFirewalledRequest(request);
 	}
 
+	@Test
+	public void getFirewalledRequestWhenDecodedUrlBlocklistModifiedAfterUseThenUsesModifiedBlocklist() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "");
+		request.setPathInfo("/a/b//c");
+		assertThatExceptionOfType(RequestRejectedException.class)
+				.isThrownBy(() -> this.firewall.getFirewalledRequest(request));
+		this.firewall.getDecodedUrlBlocklist().remove("//");
+		this.firewall.getFirewalledRequest(request);
+		this.firewall.getDecodedUrlBlocklist().add("/b/");
+		assertThatExceptionOfType(RequestRejectedException.class)
+				.isThrownBy(() -> this.firewall.getFirewalledRequest(request));
+	}
+
 	@Test
 	public void getFirewalledRequestWhenTrustedDomainThenNoException() {
 		this.request.addHeader("Host", "example.org");
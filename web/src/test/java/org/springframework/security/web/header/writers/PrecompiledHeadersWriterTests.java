@@ -0,0 +1,152 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.header.writers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.header.Header;
+import org.springframework.security.web.header.HeaderWriter;
+import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter.ReferrerPolicy;
+import org.springframework.security.web.header.writers.frameoptions.XFrameOptionsHeaderWriter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Tests for {@link PrecompiledHeadersWriter}.
+ */
+public class PrecompiledHeadersWriterTests {
+
+	private MockHttpServletRequest request;
+
+	private MockHttpServletResponse response;
+
+	@Before
+	public void setup() {
+		this.request = new MockHttpServletRequest();
+		this.request.setSecure(true);
+		this.response = new MockHttpServletResponse();
+	}
+
+	@Test
+	public void constructorWhenEmptyThenThrowsException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new PrecompiledHeadersWriter(Collections.emptyList()));
+	}
+
+	@Test
+	public void constructorWhenNullElementThenThrowsException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new PrecompiledHeadersWriter(Arrays.asList(new XContentTypeOptionsHeaderWriter(), null)));
+	}
+
+	@Test
+	public void writeHeadersThenSameAsEachHeaderWriter() {
+		List<HeaderWriter> writers = Arrays.asList(new XContentTypeOptionsHeaderWriter(),
+				new XXssProtectionHeaderWriter(), new CacheControlHeadersWriter(), new HstsHeaderWriter(),
+				new XFrameOptionsHeaderWriter(), new ContentSecurityPolicyHeaderWriter("default-src 'self'"),
+				new ReferrerPolicyHeaderWriter(ReferrerPolicy.SAME_ORIGIN), new FeaturePolicyHeaderWriter("geo 'none'"),
+				new PermissionsPolicyHeaderWriter("geolocation=()"), new StaticHeadersWriter("X-Custom", "a", "b"));
+		MockHttpServletResponse expected = new MockHttpServletResponse();
+		for (HeaderWriter writer : writers) {
+			writer.writeHeaders(this.request, expected);
+		}
+		new PrecompiledHeadersWriter(writers).writeHeaders(this.request, this.response);
+		assertThat(this.response.getHeaderNames()).containsExactlyElementsOf(expected.getHeaderNames());
+		for (String name : expected.getHeaderNames()) {
+			assertThat(this.response.getHeaders(name)).isEqualTo(expected.getHeaders(name));
+		}
+	}
+
+	@Test
+	public void writeHeadersWhenSameNameThenFirstWins() {
+		List<HeaderWriter> writers = Arrays.asList(new StaticHeadersWriter("X-Custom", "first"),
+				new StaticHeadersWriter("X-Custom", "second"));
+		new PrecompiledHeadersWriter(writers).writeHeaders(this.request, this.response);
+		assertThat(this.response.getHeaders("X-Custom")).containsExactly("first");
+	}
+
+	@Test
+	public void writeHeadersWhenHeaderPresentThenNotOverridden() {
+		this.response.setHeader("X-Content-Type-Options", "custom");
+		List<HeaderWriter> writers = Collections.singletonList(new XContentTypeOptionsHeaderWriter());
+		new PrecompiledHeadersWriter(writers).writeHeaders(this.request, this.response);
+		assertThat(this.response.getHeaders("X-Content-Type-Options")).containsExactly("custom");
+	}
+
+	@Test
+	public void writeHeadersWhenHstsHeaderPresentThenRequestMatcherNotInvoked() {
+		RequestMatcher requestMatcher = mock(RequestMatcher.class);
+		HstsHeaderWriter hsts = new HstsHeaderWriter();
+		hsts.setRequestMatcher(requestMatcher);
+		this.response.setHeader("Strict-Transport-Security", "max-age=1");
+		new PrecompiledHeadersWriter(Collections.singletonList(hsts)).writeHeaders(this.request, this.response);
+		verifyNoInteractions(requestMatcher);
+		assertThat(this.response.getHeaders("Strict-Transport-Security")).containsExactly("max-age=1");
+	}
+
+	@Test
+	public void writeHeadersWhenHstsRequestMatcherDoesNotMatchThenNoHeader() {
+		this.request.setSecure(false);
+		new PrecompiledHeadersWriter(Collections.singletonList(new HstsHeaderWriter())).writeHeaders(this.request,
+				this.response);
+		assertThat(this.response.getHeaderNames()).isEmpty();
+	}
+
+	@Test
+	public void writeHeadersWhenDelegatingRequestMatcherThenHeadersWrittenOnlyWhenMatches() {
+		RequestMatcher requestMatcher = mock(RequestMatcher.class);
+		given(requestMatcher.matches(any())).willReturn(false, true);
+		List<HeaderWriter> writers = Collections.singletonList(new DelegatingRequestMatcherHeaderWriter(
+				requestMatcher, new StaticHeadersWriter("X-Custom", "value")));
+		PrecompiledHeadersWriter writer = new PrecompiledHeadersWriter(writers);
+		writer.writeHeaders(this.request, this.response);
+		assertThat(this.response.getHeaderNames()).isEmpty();
+		writer.writeHeaders(this.request, this.response);
+		assertThat(this.response.getHeaders("X-Custom")).containsExactly("value");
+	}
+
+	@Test
+	public void writeHeadersWhenOtherHeaderWriterThenInvokedInOrder() {
+		HeaderWriter first = mock(HeaderWriter.class);
+		HeaderWriter second = mock(HeaderWriter.class);
+		List<HeaderWriter> writers = new ArrayList<>();
+		writers.add(first);
+		writers.add(new StaticHeadersWriter(Collections.singletonList(new Header("X-Custom", "value"))));
+		writers.add(second);
+		new PrecompiledHeadersWriter(writers).writeHeaders(this.request, this.response);
+		InOrder inOrder = inOrder(first, second);
+		inOrder.verify(first).writeHeaders(this.request, this.response);
+		inOrder.verify(second).writeHeaders(this.request, this.response);
+		assertThat(this.response.getHeaders("X-Custom")).containsExactly("value");
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.util.matcher;
+
+import org.junit.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CachedRequestPath}.
+ */
+public class CachedRequestPathTests {
+
+	@Test
+	public void getWhenCalledTwiceThenSameInstance() {
+		MockHttpServletRequest request = request("/api", "/messages");
+		CachedRequestPath path = CachedRequestPath.get(request);
+		assertThat(path.getPath()).isEqualTo("/api/messages");
+		assertThat(path.getSegments()).containsExactly("api", "messages");
+		assertThat(CachedRequestPath.get(request)).isSameAs(path);
+		assertThat(request.getAttribute(CachedRequestPath.ATTRIBUTE_NAME)).isSameAs(path);
+	}
+
+	@Test
+	public void getWhenServletPathChangedThenNewInstance() {
+		MockHttpServletRequest request = request("/api", null);
+		CachedRequestPath path = CachedRequestPath.get(request);
+		request.setServletPath("/error");
+		CachedRequestPath forwarded = CachedRequestPath.get(request);
+		assertThat(forwarded).isNotSameAs(path);
+		assertThat(forwarded.getPath()).isEqualTo("/error");
+	}
+
+	@Test
+	public void getWhenPathInfoChangedThenNewInstance() {
+		MockHttpServletRequest request = request("/api", "/a");
+		CachedRequestPath path = CachedRequestPath.get(request);
+		request.setPathInfo("/b");
+		assertThat(CachedRequestPath.get(request)).isNotSameAs(path);
+		assertThat(CachedRequestPath.get(request).getPath()).isEqualTo("/api/b");
+	}
+
+	@Test
+	public void getWhenOnlyPathInfoThenPathInfo() {
+		assertThat(CachedRequestPath.get(request("", "/a")).getPath()).isEqualTo("/a");
+	}
+
+	@Test
+	public void getUrlWhenQueryStringChangedThenUsesQueryString() {
+		MockHttpServletRequest request = request("/api", "/messages");
+		CachedRequestPath path = CachedRequestPath.get(request);
+		assertThat(path.getUrl(request)).isEqualTo("/api/messages");
+		request.setQueryString("page=1");
+		assertThat(path.getUrl(request)).isEqualTo("/api/messages?page=1");
+	}
+
+	@Test
+	public void matchesWhenDifferentMatchersThenPathShared() {
+		MockHttpServletRequest request = request("/api", "/messages");
+		assertThat(new AntPathRequestMatcher("/api/**").matches(request)).isTrue();
+		CachedRequestPath path = (CachedRequestPath) request.getAttribute(CachedRequestPath.ATTRIBUTE_NAME);
+		assertThat(new AntPathRequestMatcher("/**/messages").matches(request)).isTrue();
+		assertThat(new RegexRequestMatcher("/api/.*", null).matches(request)).isTrue();
+		assertThat(request.getAttribute(CachedRequestPath.ATTRIBUTE_NAME)).isSameAs(path);
+	}
+
+	private static MockHttpServletRequest request(String servletPath, String pathInfo) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", servletPath);
+		request.setServletPath(servletPath);
+		request.setPathInfo(pathInfo);
+		return request;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,8 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import org.springframework.mock.web.MockHttpServletRequest;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.assertj.core.api.Assertions.assertThatNullPointerException;
@@ -118,4 +120,21 @@ public class OrRequestMatcherTests {
 		assertThat(this.matcher.matches(this.request)).isTrue();
 	}
 
+	@Test
+	public void matchesWhenManyAntPathMatchersThenSameAsEachMatcher() {
+		this.matcher = new OrRequestMatcher(new AntPathRequestMatcher("/a/**"), new AntPathRequestMatcher("/b/**"),
+				new AntPathRequestMatcher("/c/*"), new AntPathRequestMatcher("/d/{id}"), this.delegate);
+		assertThat(this.matcher.matches(request("/c/1"))).isTrue();
+		assertThat(this.matcher.matches(request("/d/1"))).isTrue();
+		MockHttpServletRequest other = request("/e/1");
+		given(this.delegate.matches(other)).willReturn(false);
+		assertThat(this.matcher.matches(other)).isFalse();
+	}
+
+	private static MockHttpServletRequest request(String servletPath) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", servletPath);
+		request.setServletPath(servletPath);
+		return request;
+	}
+
 }
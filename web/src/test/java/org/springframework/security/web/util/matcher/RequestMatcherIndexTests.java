@@ -0,0 +1,289 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.util.matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher.MatchResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Tests for {@link RequestMatcherIndex}.
+ */
+public class RequestMatcherIndexTests {
+
+	@Test
+	public void constructorWhenNullThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new RequestMatcherIndex(null));
+	}
+
+	@Test
+	public void constructorWhenContainsNullThenException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new RequestMatcherIndex(Arrays.asList(AnyRequestMatcher.INSTANCE, null)));
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenNoMatchersThenNotFound() {
+		RequestMatcherIndex index = new RequestMatcherIndex(Collections.emptyList());
+		assertThat(index.indexOfFirstMatch(request("GET", "/api"))).isEqualTo(-1);
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenPrefixesThenFirstMatch() {
+		RequestMatcherIndex index = new RequestMatcherIndex(Arrays.asList(new AntPathRequestMatcher("/api/v1/**"),
+				new AntPathRequestMatcher("/api/**"), new AntPathRequestMatcher("/api/v1/users"),
+				AnyRequestMatcher.INSTANCE));
+		assertThat(index.indexOfFirstMatch(request("GET", "/api/v1/users"))).isEqualTo(0);
+		assertThat(index.indexOfFirstMatch(request("GET", "/api/v2/users"))).isEqualTo(1);
+		assertThat(index.indexOfFirstMatch(request("GET", "/api"))).isEqualTo(1);
+		assertThat(index.indexOfFirstMatch(request("GET", "/apis"))).isEqualTo(3);
+		assertThat(index.indexOfFirstMatch(request("GET", "/"))).isEqualTo(3);
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenNoCatchAllThenNotFound() {
+		RequestMatcherIndex index = new RequestMatcherIndex(
+				Arrays.asList(new AntPathRequestMatcher("/a/**"), new AntPathRequestMatcher("/b/**")));
+		assertThat(index.indexOfFirstMatch(request("GET", "/c"))).isEqualTo(-1);
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenWildcardsThenIndexedByLiteralPrefix() {
+		RequestMatcherIndex index = new RequestMatcherIndex(Arrays.asList(
+				new AntPathRequestMatcher("/tenants/*/orders/**"), new AntPathRequestMatcher("/tenants/{id}"),
+				new AntPathRequestMatcher("/**/*.css"), new AntPathRequestMatcher("/files/file?.txt")));
+		assertThat(index.indexOfFirstMatch(request("GET", "/tenants/acme/orders/1"))).isEqualTo(0);
+		assertThat(index.indexOfFirstMatch(request("GET", "/tenants/acme"))).isEqualTo(1);
+		assertThat(index.indexOfFirstMatch(request("GET", "/tenants/acme/site.css"))).isEqualTo(2);
+		assertThat(index.indexOfFirstMatch(request("GET", "/files/file1.txt"))).isEqualTo(3);
+		assertThat(index.indexOfFirstMatch(request("GET", "/files/file12.txt"))).isEqualTo(-1);
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenHttpMethodThenOnlyMatchingMethod() {
+		RequestMatcherIndex index = new RequestMatcherIndex(Arrays.asList(
+				new AntPathRequestMatcher("/api/**", "POST"), new AntPathRequestMatcher("/api/**", "GET")));
+		assertThat(index.indexOfFirstMatch(request("POST", "/api/messages"))).isEqualTo(0);
+		assertThat(index.indexOfFirstMatch(request("GET", "/api/messages"))).isEqualTo(1);
+		assertThat(index.indexOfFirstMatch(request("DELETE", "/api/messages"))).isEqualTo(-1);
+		assertThat(index.indexOfFirstMatch(request("", "/api/messages"))).isEqualTo(0);
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenUnindexedMatchersThenOrderPreserved() {
+		RequestMatcherIndex index = new RequestMatcherIndex(
+				Arrays.asList(new AntPathRequestMatcher("/admin/**"), new RegexRequestMatcher("/api/.*", null),
+						new AntPathRequestMatcher("/api/**"), new AntPathRequestMatcher("/API/other", null, false)));
+		assertThat(index.indexOfFirstMatch(request("GET", "/api/messages"))).isEqualTo(1);
+		assertThat(index.indexOfFirstMatch(request("GET", "/api/other"))).isEqualTo(1);
+		assertThat(index.indexOfFirstMatch(request("GET", "/admin/other"))).isEqualTo(0);
+		assertThat(index.indexOfFirstMatch(request("GET", "/Api/Other"))).isEqualTo(3);
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenOrRequestMatcherThenIndexedByEachMatcher() {
+		RequestMatcherIndex index = new RequestMatcherIndex(Arrays.asList(
+				new OrRequestMatcher(new AntPathRequestMatcher("/a/**"), new AntPathRequestMatcher("/b/**", "GET")),
+				new AntPathRequestMatcher("/b/**")));
+		assertThat(index.indexOfFirstMatch(request("GET", "/a/1"))).isEqualTo(0);
+		assertThat(index.indexOfFirstMatch(request("GET", "/b/1"))).isEqualTo(0);
+		assertThat(index.indexOfFirstMatch(request("POST", "/b/1"))).isEqualTo(1);
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenPathDoesNotMatchPrefixThenMatcherNotInvoked() {
+		List<RequestMatcher> requestMatchers = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			requestMatchers.add(new AntPathRequestMatcher("/tenant" + i + "/**"));
+		}
+		RequestMatcher last = mock(RequestMatcher.class);
+		requestMatchers.add(last);
+		RequestMatcherIndex index = new RequestMatcherIndex(requestMatchers);
+		MockHttpServletRequest request = spy(request("GET", "/tenant42/orders"));
+		assertThat(index.indexOfFirstMatch(request)).isEqualTo(42);
+		verify(request, times(1)).getServletPath();
+		verifyNoInteractions(last);
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenCustomMatcherThenInvoked() {
+		RequestMatcher custom = mock(RequestMatcher.class);
+		given(custom.matches(any())).willReturn(true);
+		RequestMatcherIndex index = new RequestMatcherIndex(
+				Arrays.asList(new AntPathRequestMatcher("/api/**"), custom, AnyRequestMatcher.INSTANCE));
+		assertThat(index.indexOfFirstMatch(request("GET", "/other"))).isEqualTo(1);
+	}
+
+	@Test
+	public void isWorthIndexingWhenFewIndexableMatchersThenFalse() {
+		RequestMatcher custom = mock(RequestMatcher.class);
+		assertThat(RequestMatcherIndex.isWorthIndexing(Arrays.asList(new AntPathRequestMatcher("/a/**"),
+				new AntPathRequestMatcher("/b/**"), AnyRequestMatcher.INSTANCE, custom, custom))).isFalse();
+		assertThat(RequestMatcherIndex.isWorthIndexing(Arrays.asList(new AntPathRequestMatcher("/a/**"),
+				new AntPathRequestMatcher("/b/**"), new AntPathRequestMatcher("/c/**"), custom,
+				AnyRequestMatcher.INSTANCE))).isTrue();
+	}
+
+	@Test
+	public void firstMatchWhenNoMatchThenNull() {
+		RequestMatcherIndex index = new RequestMatcherIndex(Arrays.asList(new AntPathRequestMatcher("/api/**")));
+		assertThat(index.firstMatch(request("GET", "/other"))).isNull();
+	}
+
+	@Test
+	public void firstMatchWhenAntPathThenVariablesExtracted() {
+		RequestMatcherIndex index = new RequestMatcherIndex(Arrays.asList(new AntPathRequestMatcher("/api/**"),
+				new AntPathRequestMatcher("/users/{id}"), AnyRequestMatcher.INSTANCE));
+		RequestMatcherIndex.Match match = index.firstMatch(request("GET", "/users/42"));
+		assertThat(match.getIndex()).isEqualTo(1);
+		assertThat(match.getMatchResult().getVariables()).containsOnly(entry("id", "42"));
+		match = index.firstMatch(request("GET", "/other"));
+		assertThat(match.getIndex()).isEqualTo(2);
+		assertThat(match.getMatchResult().getVariables()).isEmpty();
+	}
+
+	@Test
+	public void firstMatchWhenCustomMatcherThenMatcherInvokedOnce() {
+		RequestMatcher custom = mock(RequestMatcher.class);
+		given(custom.matcher(any())).willReturn(MatchResult.match(Collections.singletonMap("id", "42")));
+		RequestMatcherIndex index = new RequestMatcherIndex(
+				Arrays.asList(new AntPathRequestMatcher("/api/**"), custom, AnyRequestMatcher.INSTANCE));
+		RequestMatcherIndex.Match match = index.firstMatch(request("GET", "/other"));
+		assertThat(match.getIndex()).isEqualTo(1);
+		assertThat(match.getMatchResult().getVariables()).containsOnly(entry("id", "42"));
+		verify(custom, times(1)).matcher(any());
+		verify(custom, times(0)).matches(any());
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenPathInfoThenServletPathAndPathInfo() {
+		RequestMatcherIndex index = new RequestMatcherIndex(Arrays.asList(new AntPathRequestMatcher("/spring/api/**"),
+				new AntPathRequestMatcher("/spring/**")));
+		MockHttpServletRequest request = request("GET", "/spring");
+		request.setPathInfo("/api/messages");
+		assertThat(index.indexOfFirstMatch(request)).isEqualTo(0);
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenManyPatternsThenPathResolvedOnce() {
+		RequestMatcherIndex index = new RequestMatcherIndex(Arrays.asList(new AntPathRequestMatcher("/**/*.css"),
+				new AntPathRequestMatcher("/**/*.js"), new AntPathRequestMatcher("/*/orders/*"),
+				new AntPathRequestMatcher("/**/orders/**")));
+		MockHttpServletRequest request = spy(request("GET", "/tenant/orders/1/items"));
+		assertThat(index.indexOfFirstMatch(request)).isEqualTo(3);
+		verify(request, times(1)).getServletPath();
+		verify(request, times(1)).getPathInfo();
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenRegexRequestMatchersThenPathResolvedOnce() {
+		RequestMatcherIndex index = new RequestMatcherIndex(Arrays.asList(
+				new RegexRequestMatcher("/api/.*\\?page=2", null), new RegexRequestMatcher("/api/.*", "POST"),
+				new RegexRequestMatcher("/api/.*\\?page=1", null)));
+		MockHttpServletRequest request = spy(request("GET", "/api/messages"));
+		request.setQueryString("page=1");
+		assertThat(index.indexOfFirstMatch(request)).isEqualTo(2);
+		verify(request, times(1)).getServletPath();
+	}
+
+	@Test
+	public void indexesOfAllMatchesWhenNoMatchThenEmpty() {
+		RequestMatcherIndex index = new RequestMatcherIndex(Arrays.asList(new AntPathRequestMatcher("/a/**")));
+		assertThat(index.indexesOfAllMatches(request("GET", "/b"))).isEmpty();
+	}
+
+	@Test
+	public void indexesOfAllMatchesThenAllMatchesInOrder() {
+		RequestMatcher custom = mock(RequestMatcher.class);
+		given(custom.matches(any())).willReturn(true);
+		RequestMatcherIndex index = new RequestMatcherIndex(Arrays.asList(new AntPathRequestMatcher("/api/v1/**"),
+				new OrRequestMatcher(new AntPathRequestMatcher("/api/**"), new AntPathRequestMatcher("/api/v1/*")),
+				new AntPathRequestMatcher("/api/v2/**"), custom, new RegexRequestMatcher("/api/.*", "POST"),
+				new AntPathRequestMatcher("/api/v1/**", "GET"), AnyRequestMatcher.INSTANCE));
+		assertThat(index.indexesOfAllMatches(request("GET", "/api/v1/users"))).containsExactly(0, 1, 3, 5, 6);
+		assertThat(index.indexesOfAllMatches(request("POST", "/api/v2/users"))).containsExactly(1, 2, 3, 4, 6);
+	}
+
+	@Test
+	public void indexOfFirstMatchWhenWildcardAndCaptureSegmentsThenFound() {
+		List<RequestMatcher> requestMatchers = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			requestMatchers.add(new AntPathRequestMatcher("/api/{tenant}/resource" + i + "/**"));
+		}
+		requestMatchers.add(new AntPathRequestMatcher("/api/*/users/{id}", "GET"));
+		requestMatchers.add(new AntPathRequestMatcher("/api/*.json"));
+		requestMatchers.add(new AntPathRequestMatcher("/api/*"));
+		RequestMatcherIndex index = new RequestMatcherIndex(requestMatchers);
+		assertThat(index.indexOfFirstMatch(request("GET", "/api/acme/resource42/1"))).isEqualTo(42);
+		assertThat(index.indexOfFirstMatch(request("GET", "/api/acme/resource4"))).isEqualTo(4);
+		assertThat(index.indexOfFirstMatch(request("GET", "/api/acme/users/1"))).isEqualTo(100);
+		assertThat(index.indexOfFirstMatch(request("POST", "/api/acme/users/1"))).isEqualTo(-1);
+		assertThat(index.indexOfFirstMatch(request("GET", "/api/data.json"))).isEqualTo(101);
+		assertThat(index.indexOfFirstMatch(request("GET", "/api/data"))).isEqualTo(102);
+		assertThat(index.indexOfFirstMatch(request("GET", "/api/"))).isEqualTo(102);
+		assertThat(index.indexOfFirstMatch(request("GET", "/api"))).isEqualTo(-1);
+	}
+
+	@Test
+	public void indexOfFirstMatchThenSameAsEvaluatingInOrder() {
+		String[] patterns = { "/a/*", "/a/b", "/a/**/b", "/**/b", "/a/{x}/c", "/*/b/*", "/a/*b*", "/**/*.css",
+				"/a/b/**", "/a/b/", "/*", "/a/**/**/c", "/a/?", "/**" };
+		String[] paths = { "/", "/a", "/a/", "/a/b", "/a/b/", "/a//b", "/a/x/b", "/a/x/c", "/a/b/c", "/x/b/y",
+				"/a/xby", "/site.css", "/a/b/site.css", "/a/x/y/c", "/b" };
+		for (int start = 0; start < patterns.length; start++) {
+			List<RequestMatcher> requestMatchers = new ArrayList<>();
+			for (int i = start; i < patterns.length; i++) {
+				requestMatchers.add(new AntPathRequestMatcher(patterns[i]));
+			}
+			RequestMatcherIndex index = new RequestMatcherIndex(requestMatchers);
+			for (String path : paths) {
+				int expected = -1;
+				for (int i = 0; i < requestMatchers.size() && expected == -1; i++) {
+					if (requestMatchers.get(i).matches(request("GET", path))) {
+						expected = i;
+					}
+				}
+				assertThat(index.indexOfFirstMatch(request("GET", path))).describedAs("%s %s", requestMatchers, path)
+						.isEqualTo(expected);
+			}
+		}
+	}
+
+	private static MockHttpServletRequest request(String method, String servletPath) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, servletPath);
+		request.setServletPath(servletPath);
+		return request;
+	}
+
+}
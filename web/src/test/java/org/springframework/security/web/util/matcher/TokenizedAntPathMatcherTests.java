@@ -0,0 +1,71 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.util.matcher;
+
+import org.junit.Test;
+
+import org.springframework.util.AntPathMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TokenizedAntPathMatcher}.
+ */
+public class TokenizedAntPathMatcherTests {
+
+	private static final String[] PATTERNS = { "/", "/a", "/a/", "a", "/a/b", "/a/*", "/a/*/", "/a/**", "/a/**/b",
+			"/a/**/b/**/c", "/**/b", "/**/*.css", "/*", "/*/", "/**", "**/b", "/a?", "/a/b?c", "/a/*b*", "/*/b/*",
+			"/a/**/**", "/a/**/b/c/**", "/a/**/*/c", "/a//b", "/a/**/b/", "/a*" };
+
+	private static final String[] PATHS = { "", "/", "//", "a", "/a", "/a/", "//a", "/a//", "/ab", "/a/b", "/a/b/",
+			"/a//b", "/a/bc", "/a/b/c", "/a/x/b", "/a/x/y/b", "/a/b/x/c", "/a/x/b/y/c", "/a/x/b/y/c/", "/x/b",
+			"/x/y/b", "/x/site.css", "/site.css", "/a/bxc", "/a/bc/c", "/a/b/c/d", "/a/xbx", "/a/\nb", "/a\n",
+			"/a/b c", "/abc/d" };
+
+	private final AntPathMatcher antPathMatcher = createAntPathMatcher();
+
+	@Test
+	public void compileWhenPathVariableThenNull() {
+		assertThat(TokenizedAntPathMatcher.compile("/a/{id}")).isNull();
+		assertThat(TokenizedAntPathMatcher.compile("/a/{id:[0-9]+}/**")).isNull();
+	}
+
+	@Test
+	public void matchesThenSameAsAntPathMatcher() {
+		for (String pattern : PATTERNS) {
+			TokenizedAntPathMatcher matcher = TokenizedAntPathMatcher.compile(pattern);
+			for (String path : PATHS) {
+				boolean expected = this.antPathMatcher.match(pattern, path);
+				assertThat(matcher.matches(path, TokenizedAntPathMatcher.tokenize(path)))
+						.describedAs("pattern '%s' path '%s'", pattern, path).isEqualTo(expected);
+			}
+		}
+	}
+
+	@Test
+	public void matchesWhenNullPathThenFalse() {
+		TokenizedAntPathMatcher matcher = TokenizedAntPathMatcher.compile("/**");
+		assertThat(matcher.matches(null, TokenizedAntPathMatcher.tokenize(null))).isFalse();
+	}
+
+	private static AntPathMatcher createAntPathMatcher() {
+		AntPathMatcher matcher = new AntPathMatcher();
+		matcher.setTrimTokens(false);
+		return matcher;
+	}
+
+}